@@ -0,0 +1,37 @@
+package com.fooddelivery.gateway.aggregation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+// 聚合请求中单个分支的结果：成功时带响应体，404 视为资源不存在而非失败
+final class BranchResult {
+    
+    private final JsonNode body;
+    private final boolean notFound;
+    private final String error;
+    
+    private BranchResult(JsonNode body, boolean notFound, String error) {
+        this.body = body;
+        this.notFound = notFound;
+        this.error = error;
+    }
+    
+    static BranchResult of(JsonNode body) {
+        return new BranchResult(body, false, null);
+    }
+    
+    static BranchResult notFound() {
+        return new BranchResult(null, true, null);
+    }
+    
+    static BranchResult failed(String error) {
+        return new BranchResult(null, false, error);
+    }
+    
+    JsonNode getBody() { return body; }
+    
+    boolean isNotFound() { return notFound; }
+    
+    boolean isFailed() { return error != null; }
+    
+    String getError() { return error; }
+}
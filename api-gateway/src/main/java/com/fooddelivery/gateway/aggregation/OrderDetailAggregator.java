@@ -0,0 +1,238 @@
+package com.fooddelivery.gateway.aggregation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fooddelivery.gateway.config.ResilienceProperties;
+import com.fooddelivery.gateway.filter.BulkheadGatewayFilterFactory;
+import com.fooddelivery.gateway.filter.RateLimitGatewayFilterFactory;
+import com.fooddelivery.gateway.filter.UpstreamRoutingFilter;
+import com.fooddelivery.gateway.loadbalancer.InstanceStatsRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+// 订单详情页聚合：并行请求订单、支付和通知三个下游，每个分支独立超时；
+// 整个请求按订单路由限流，分支调用复用对应路由的熔断器（含超时）、并发配额和下游连接池，
+// 支付或通知失败时返回部分结果
+@Service
+public class OrderDetailAggregator {
+    
+    // 透传给下游的客户端请求头
+    private static final List<String> FORWARDED_HEADERS = List.of(
+            HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT_LANGUAGE, "X-Client-Id", "X-Request-Id");
+    
+    // Spring Boot 提供的 WebClient.Builder（已应用编解码和指标等定制），每个下游在其副本上加负载均衡过滤器
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+    
+    @Autowired
+    private LoadBalancedExchangeFilterFunction loadBalancerFilter;
+    
+    @Autowired
+    private InstanceStatsRegistry statsRegistry;
+    
+    @Autowired
+    private UpstreamRoutingFilter upstreamRoutingFilter;
+    
+    @Autowired
+    private ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    
+    @Autowired
+    private BulkheadGatewayFilterFactory bulkhead;
+    
+    @Autowired
+    private RateLimitGatewayFilterFactory rateLimit;
+    
+    @Autowired
+    private RateLimitGatewayFilterFactory.Config orderRateLimit;
+    
+    @Autowired
+    private ResilienceProperties resilience;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${gateway.aggregation.order-timeout:2s}")
+    private Duration orderTimeout;
+    
+    @Value("${gateway.aggregation.payment-timeout:1500ms}")
+    private Duration paymentTimeout;
+    
+    @Value("${gateway.aggregation.notification-timeout:1s}")
+    private Duration notificationTimeout;
+    
+    @Value("${gateway.aggregation.notification-page-size:20}")
+    private int notificationPageSize;
+    
+    private RateLimitGatewayFilterFactory.Limiter orderLimiter;
+    
+    private Downstream order;
+    private Downstream accounting;
+    private Downstream notification;
+    
+    @PostConstruct
+    public void init() {
+        this.orderLimiter = rateLimit.limiter(orderRateLimit);
+        this.order = downstream("order-service");
+        this.accounting = downstream("accounting-service");
+        this.notification = downstream("notification-service");
+    }
+    
+    public Mono<ResponseEntity<Map<String, Object>>> getOrderDetail(String orderId, ServerWebExchange exchange) {
+        HttpHeaders clientHeaders = exchange.getRequest().getHeaders();
+        return orderLimiter.acquire(exchange).flatMap(result -> {
+            if (!result.isAllowed()) {
+                return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(result.getRetryAfterSeconds()))
+                        .header("X-RateLimit-Limit", Integer.toString(result.getLimit()))
+                        .header("X-RateLimit-Scope", result.getScope())
+                        .<Map<String, Object>>build());
+            }
+            
+            Mono<BranchResult> orderBranch = fetch("order", order, orderTimeout, clientHeaders,
+                    "http://order-service/api/orders/{orderId}", orderId);
+            Mono<BranchResult> payment = fetch("payment", accounting, paymentTimeout, clientHeaders,
+                    "http://accounting-service/api/accounting/payments/order/{orderId}", orderId);
+            Mono<BranchResult> notifications = fetch("notifications", notification, notificationTimeout, clientHeaders,
+                    "http://notification-service/api/notifications/order/{orderId}?size=" + notificationPageSize, orderId);
+            
+            return Mono.zip(orderBranch, payment, notifications)
+                    .map(results -> merge(results.getT1(), results.getT2(), results.getT3()));
+        });
+    }
+    
+    // 熔断器与同名路由共用，ResilienceConfig 为其配置的超时同样作用于聚合分支；
+    // 配置了独立连接池的服务复用网关转发该服务时的连接池
+    private Downstream downstream(String routeId) {
+        ResilienceProperties.RouteResilience route = resilience.forRoute(routeId);
+        WebClient.Builder builder = webClientBuilder.clone()
+                .filter(loadBalancerFilter)
+                .filter(statsRegistry.inFlightFilter(routeId));
+        HttpClient client = upstreamRoutingFilter.getServiceClient(routeId);
+        if (client != null) {
+            builder.clientConnector(new ReactorClientHttpConnector(client.option(
+                    ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) route.getConnectTimeout().toMillis())));
+        }
+        return new Downstream(routeId, builder.build(), circuitBreakerFactory.create(routeId),
+                route.getMaxConcurrentCalls());
+    }
+    
+    private ResponseEntity<Map<String, Object>> merge(BranchResult order, BranchResult payment, BranchResult notifications) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        
+        if (order.isNotFound()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (order.isFailed()) {
+            // 订单是页面主体，订单分支失败时整体降级
+            errors.put("order", order.getError());
+            body.put("errors", errors);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+        }
+        
+        body.put("order", order.getBody());
+        body.put("payment", payment.getBody());
+        
+        // 通知服务返回分页结果，页面只需要当前页内容
+        JsonNode page = notifications.getBody();
+        body.put("notifications", page != null && page.has("content") ? page.get("content") : page);
+        
+        if (payment.isFailed()) {
+            errors.put("payment", payment.getError());
+        }
+        if (notifications.isFailed()) {
+            errors.put("notifications", notifications.getError());
+        }
+        body.put("partial", !errors.isEmpty());
+        if (!errors.isEmpty()) {
+            body.put("errors", errors);
+        }
+        return ResponseEntity.ok(body);
+    }
+    
+    private Mono<BranchResult> fetch(String branch, Downstream downstream, Duration timeout,
+                                     HttpHeaders clientHeaders, String uri, String orderId) {
+        Mono<BranchResult> call = downstream.webClient.get()
+                .uri(uri, orderId)
+                .headers(headers -> FORWARDED_HEADERS.forEach(name -> {
+                    List<String> values = clientHeaders.get(name);
+                    if (values != null) {
+                        headers.put(name, values);
+                    }
+                }))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(BranchResult::of)
+                // 404 是正常的业务结果（如订单尚未支付），不计入熔断失败
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(BranchResult.notFound()))
+                .timeout(timeout);
+        
+        // 与网关路由共用并发配额，配额已满时该分支直接降级，不再排队等待下游
+        Mono<BranchResult> isolated = Mono.defer(() -> {
+            if (!bulkhead.tryEnter(downstream.routeId, downstream.maxConcurrentCalls)) {
+                return Mono.just(BranchResult.failed("bulkhead_full"));
+            }
+            return downstream.breaker.run(call, this::toFailure)
+                    .doFinally(signal -> bulkhead.exit(downstream.routeId));
+        });
+        
+        return isolated
+                .onErrorResume(this::toFailure)
+                .defaultIfEmpty(BranchResult.of(null))
+                .doOnNext(result -> meterRegistry.counter("gateway.aggregation.branch",
+                        "branch", branch, "outcome", outcome(result)).increment());
+    }
+    
+    private Mono<BranchResult> toFailure(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return Mono.just(BranchResult.failed("timeout"));
+        }
+        if (error instanceof CallNotPermittedException) {
+            return Mono.just(BranchResult.failed("circuit_open"));
+        }
+        return Mono.just(BranchResult.failed("upstream_error"));
+    }
+    
+    private static String outcome(BranchResult result) {
+        if (result.isFailed()) {
+            return result.getError();
+        }
+        return result.isNotFound() ? "not_found" : "success";
+    }
+    
+    private static final class Downstream {
+        final String routeId;
+        final WebClient webClient;
+        final ReactiveCircuitBreaker breaker;
+        final int maxConcurrentCalls;
+        
+        Downstream(String routeId, WebClient webClient, ReactiveCircuitBreaker breaker, int maxConcurrentCalls) {
+            this.routeId = routeId;
+            this.webClient = webClient;
+            this.breaker = breaker;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+    }
+}
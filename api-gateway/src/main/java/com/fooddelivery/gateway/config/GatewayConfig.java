@@ -1,40 +1,132 @@
 package com.fooddelivery.gateway.config;
 
+import com.fooddelivery.gateway.filter.BulkheadGatewayFilterFactory;
+import com.fooddelivery.gateway.filter.RateLimitGatewayFilterFactory;
+import com.fooddelivery.gateway.filter.ResponseCacheGatewayFilterFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
 
 @Configuration
 public class GatewayConfig {
 
+    // 下游返回这些状态码时计入熔断失败并走降级响应
+    private static final Set<String> BREAKER_STATUS_CODES = Set.of("BAD_GATEWAY", "SERVICE_UNAVAILABLE", "GATEWAY_TIMEOUT");
+
+    @Value("${gateway.cache.restaurant-ttl:30s}")
+    private Duration restaurantCacheTtl;
+
+    @Value("${gateway.cache.menu-ttl:5m}")
+    private Duration menuCacheTtl;
+
+    @Value("${gateway.rate-limit.orders.client-rate:10}")
+    private double orderClientRate;
+
+    @Value("${gateway.rate-limit.orders.client-burst:20}")
+    private int orderClientBurst;
+
+    @Value("${gateway.rate-limit.orders.route-rate:500}")
+    private double orderRouteRate;
+
+    @Value("${gateway.rate-limit.orders.route-burst:1000}")
+    private int orderRouteBurst;
+
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder,
+                                           ResponseCacheGatewayFilterFactory responseCache,
+                                           RateLimitGatewayFilterFactory rateLimit,
+                                           BulkheadGatewayFilterFactory bulkhead,
+                                           ResilienceProperties resilience) {
         return builder.routes()
                 // 订单服务路由
                 .route("order-service", r -> r.path("/api/orders/**")
+                        .filters(f -> resilient(f.filter(rateLimit.apply(orderRateLimit())),
+                                "order-service", bulkhead, resilience))
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "order-service"))
                         .uri("lb://order-service"))
                 
+                // 餐厅菜单路由（变化很少，缓存时间更长）
+                .route("restaurant-menu", r -> r.path("/api/restaurants/*/menu/**", "/api/restaurants/*/menu")
+                        .filters(f -> resilient(f.filter(responseCache.apply(c -> c.setRouteId("restaurant-menu").setTtl(menuCacheTtl))),
+                                "restaurant-menu", bulkhead, resilience))
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "restaurant-menu"))
+                        .uri("lb://restaurant-service"))
+                
                 // 餐厅服务路由
                 .route("restaurant-service", r -> r.path("/api/restaurants/**")
+                        .filters(f -> resilient(f.filter(responseCache.apply(c -> c.setRouteId("restaurant-service").setTtl(restaurantCacheTtl))),
+                                "restaurant-service", bulkhead, resilience))
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "restaurant-service"))
                         .uri("lb://restaurant-service"))
                 
                 // 厨房服务路由
                 .route("kitchen-service", r -> r.path("/api/kitchen/**")
+                        .filters(f -> resilient(f, "kitchen-service", bulkhead, resilience))
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "kitchen-service"))
                         .uri("lb://kitchen-service"))
                 
-                // 配送服务路由
-                .route("delivery-service", r -> r.path("/api/delivery/**")
+                // 配送服务路由；/api/journal 仅供内部运维使用，不经网关暴露
+                .route("delivery-service", r -> r.path("/api/deliveries", "/api/deliveries/**", "/api/eta", "/api/eta/**")
+                        .filters(f -> resilient(f, "delivery-service", bulkhead, resilience))
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "delivery-service"))
                         .uri("lb://delivery-service"))
                 
+                // 司机位置上报和查询；删除司机属于管理操作，不对外开放。与配送服务路由共用熔断器和并发配额
+                .route("delivery-drivers", r -> r.path("/api/drivers/**")
+                        .and().method(HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT)
+                        .filters(f -> resilient(f, "delivery-service", bulkhead, resilience))
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "delivery-service"))
+                        .uri("lb://delivery-service"))
+                
+                // 配送实时跟踪（WebSocket 长连接），不加熔断和并发隔离；订阅需要运单的跟踪凭证
+                .route("delivery-tracking", r -> r.path("/ws/tracking")
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "delivery-service"))
+                        .uri("lb:ws://delivery-service"))
+                
                 // 会计服务路由
                 .route("accounting-service", r -> r.path("/api/accounting/**")
+                        .filters(f -> resilient(f, "accounting-service", bulkhead, resilience))
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "accounting-service"))
                         .uri("lb://accounting-service"))
                 
                 // 通知服务路由
                 .route("notification-service", r -> r.path("/api/notifications/**")
+                        .filters(f -> resilient(f, "notification-service", bulkhead, resilience))
+                        .metadata(CONNECT_TIMEOUT_ATTR, connectTimeout(resilience, "notification-service"))
                         .uri("lb://notification-service"))
                 
                 .build();
     }
-}
\ No newline at end of file
+
+    // 订单路由和订单详情聚合接口共用这组限流配置（及其令牌桶）
+    @Bean
+    public RateLimitGatewayFilterFactory.Config orderRateLimit() {
+        return new RateLimitGatewayFilterFactory.Config()
+                .setRouteId("order-service")
+                .setClientRate(orderClientRate).setClientBurst(orderClientBurst)
+                .setRouteRate(orderRouteRate).setRouteBurst(orderRouteBurst);
+    }
+
+    // 每条路由统一加上并发隔离和熔断器，熔断器的超时和阈值见 ResilienceConfig
+    private GatewayFilterSpec resilient(GatewayFilterSpec f, String routeId,
+                                        BulkheadGatewayFilterFactory bulkhead, ResilienceProperties resilience) {
+        int maxConcurrent = resilience.forRoute(routeId).getMaxConcurrentCalls();
+        return f.filter(bulkhead.apply(c -> c.setRouteId(routeId).setMaxConcurrentCalls(maxConcurrent)))
+                .circuitBreaker(c -> c.setName(routeId)
+                        .setFallbackUri("forward:/fallback/" + routeId)
+                        .setStatusCodes(BREAKER_STATUS_CODES));
+    }
+
+    private long connectTimeout(ResilienceProperties resilience, String routeId) {
+        return resilience.forRoute(routeId).getConnectTimeout().toMillis();
+    }
+}
@@ -0,0 +1,11 @@
+package com.fooddelivery.gateway.config;
+
+import com.fooddelivery.gateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// 所有 lb:// 服务默认使用延迟感知负载均衡替代轮询
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,84 @@
+package com.fooddelivery.gateway.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// 为每条下游路由配置独立的熔断器和超时，熔断器名称与路由ID一致
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+    
+    public static final List<String> ROUTE_IDS = List.of(
+            "order-service", "restaurant-menu", "restaurant-service", "kitchen-service",
+            "delivery-service", "accounting-service", "notification-service");
+    
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> routeCircuitBreakers(
+            ResilienceProperties properties, MeterRegistry meterRegistry) {
+        return factory -> {
+            for (String routeId : ROUTE_IDS) {
+                ResilienceProperties.RouteResilience route = properties.forRoute(routeId);
+                
+                factory.configure(builder -> builder
+                        .circuitBreakerConfig(CircuitBreakerConfig.custom()
+                                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                                .slidingWindowSize(route.getSlidingWindowSize())
+                                .minimumNumberOfCalls(route.getMinimumNumberOfCalls())
+                                .failureRateThreshold(route.getFailureRateThreshold())
+                                .slowCallDurationThreshold(route.getSlowCallDuration())
+                                .slowCallRateThreshold(route.getSlowCallRateThreshold())
+                                .waitDurationInOpenState(route.getWaitDurationInOpenState())
+                                .permittedNumberOfCallsInHalfOpenState(route.getPermittedCallsInHalfOpenState())
+                                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                                .build())
+                        .timeLimiterConfig(TimeLimiterConfig.custom()
+                                .timeoutDuration(route.getResponseTimeout())
+                                .cancelRunningFuture(true)
+                                .build()), routeId);
+                
+                factory.addCircuitBreakerCustomizer(circuitBreaker -> bindMetrics(circuitBreaker, meterRegistry), routeId);
+            }
+        };
+    }
+    
+    private void bindMetrics(CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        String routeId = circuitBreaker.getName();
+        
+        // 0=CLOSED 1=OPEN 2=HALF_OPEN，其余状态按强制打开处理
+        Gauge.builder("gateway.circuitbreaker.state", circuitBreaker, cb -> stateValue(cb.getState()))
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.circuitbreaker.failure.rate", circuitBreaker, cb -> cb.getMetrics().getFailureRate())
+                .tag("route", routeId)
+                .register(meterRegistry);
+        
+        Counter rejected = Counter.builder("gateway.circuitbreaker.rejected")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        circuitBreaker.getEventPublisher().onCallNotPermitted(event -> rejected.increment());
+    }
+    
+    private static double stateValue(CircuitBreaker.State state) {
+        switch (state) {
+            case CLOSED:
+                return 0;
+            case OPEN:
+                return 1;
+            case HALF_OPEN:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.fooddelivery.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// 下游路由的超时、熔断和隔离配置，routes 中未列出的路由使用 defaults；
+// routes 中的条目不继承 defaults，未填写的字段取本类中的默认值
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class ResilienceProperties {
+    
+    private RouteResilience defaults = new RouteResilience();
+    
+    private Map<String, RouteResilience> routes = new HashMap<>();
+    
+    public RouteResilience forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+    
+    public RouteResilience getDefaults() { return defaults; }
+    public void setDefaults(RouteResilience defaults) { this.defaults = defaults; }
+    
+    public Map<String, RouteResilience> getRoutes() { return routes; }
+    public void setRoutes(Map<String, RouteResilience> routes) { this.routes = routes; }
+    
+    public static class RouteResilience {
+        
+        // 建立连接和等待完整响应的超时时间
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        
+        // 滑动窗口内失败率或慢调用率超过阈值时熔断
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private float failureRateThreshold = 50;
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+        private float slowCallRateThreshold = 80;
+        
+        // 熔断后等待一段时间进入半开状态，放行少量探测请求决定是否恢复
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 5;
+        
+        // 单条路由同时转发的最大请求数
+        private int maxConcurrentCalls = 200;
+        
+        // 熔断或超时时返回给调用方的降级响应
+        private HttpStatus fallbackStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        private String fallbackMessage = "服务暂时不可用，请稍后重试";
+        
+        public Duration getConnectTimeout() { return connectTimeout; }
+        public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+        
+        public Duration getResponseTimeout() { return responseTimeout; }
+        public void setResponseTimeout(Duration responseTimeout) { this.responseTimeout = responseTimeout; }
+        
+        public int getSlidingWindowSize() { return slidingWindowSize; }
+        public void setSlidingWindowSize(int slidingWindowSize) { this.slidingWindowSize = slidingWindowSize; }
+        
+        public int getMinimumNumberOfCalls() { return minimumNumberOfCalls; }
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) { this.minimumNumberOfCalls = minimumNumberOfCalls; }
+        
+        public float getFailureRateThreshold() { return failureRateThreshold; }
+        public void setFailureRateThreshold(float failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+        
+        public Duration getSlowCallDuration() { return slowCallDuration; }
+        public void setSlowCallDuration(Duration slowCallDuration) { this.slowCallDuration = slowCallDuration; }
+        
+        public float getSlowCallRateThreshold() { return slowCallRateThreshold; }
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) { this.slowCallRateThreshold = slowCallRateThreshold; }
+        
+        public Duration getWaitDurationInOpenState() { return waitDurationInOpenState; }
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) { this.waitDurationInOpenState = waitDurationInOpenState; }
+        
+        public int getPermittedCallsInHalfOpenState() { return permittedCallsInHalfOpenState; }
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) { this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState; }
+        
+        public int getMaxConcurrentCalls() { return maxConcurrentCalls; }
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) { this.maxConcurrentCalls = maxConcurrentCalls; }
+        
+        public HttpStatus getFallbackStatus() { return fallbackStatus; }
+        public void setFallbackStatus(HttpStatus fallbackStatus) { this.fallbackStatus = fallbackStatus; }
+        
+        public String getFallbackMessage() { return fallbackMessage; }
+        public void setFallbackMessage(String fallbackMessage) { this.fallbackMessage = fallbackMessage; }
+    }
+}
@@ -0,0 +1,27 @@
+package com.fooddelivery.gateway.config;
+
+import com.fooddelivery.gateway.filter.UpstreamRoutingFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+// UpstreamRoutingFilter 排在默认的 NettyRoutingFilter 之前，只转发配置了独立连接池的服务；
+// 默认过滤器不能关闭，写回响应体的 NettyWriteResponseFilter 与它共用同一个开关
+@Configuration
+@EnableConfigurationProperties(UpstreamPoolProperties.class)
+public class UpstreamPoolConfig {
+    
+    @Bean
+    public UpstreamRoutingFilter upstreamRoutingFilter(HttpClient httpClient,
+                                                       ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                       HttpClientProperties properties,
+                                                       UpstreamPoolProperties upstreamPools) {
+        return new UpstreamRoutingFilter(httpClient, headersFilters, properties, upstreamPools);
+    }
+}
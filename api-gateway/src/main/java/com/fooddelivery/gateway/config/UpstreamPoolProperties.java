@@ -0,0 +1,55 @@
+package com.fooddelivery.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// 按下游服务（lb:// 后的服务名）配置独立的 Reactor Netty 连接池，
+// services 中未列出的服务共用网关默认连接池（spring.cloud.gateway.httpclient.pool）
+@ConfigurationProperties(prefix = "gateway.upstream")
+public class UpstreamPoolProperties {
+    
+    private Map<String, Pool> services = new HashMap<>();
+    
+    public Map<String, Pool> getServices() { return services; }
+    public void setServices(Map<String, Pool> services) { this.services = services; }
+    
+    public static class Pool {
+        
+        // 单个下游实例的最大连接数，以及等待获取连接的队列长度和超时
+        private int maxConnections = 200;
+        private int pendingAcquireMaxCount = 400;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        
+        // 空闲和存活时间上限，超过后在后台回收，避免复用被下游或负载均衡器关闭的连接
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(10);
+        
+        // 以 h2c（HTTP/2 明文，prior knowledge）连接下游，多个请求复用同一连接
+        private boolean h2c;
+        
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+        
+        public int getPendingAcquireMaxCount() { return pendingAcquireMaxCount; }
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) { this.pendingAcquireMaxCount = pendingAcquireMaxCount; }
+        
+        public Duration getPendingAcquireTimeout() { return pendingAcquireTimeout; }
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) { this.pendingAcquireTimeout = pendingAcquireTimeout; }
+        
+        public Duration getMaxIdleTime() { return maxIdleTime; }
+        public void setMaxIdleTime(Duration maxIdleTime) { this.maxIdleTime = maxIdleTime; }
+        
+        public Duration getMaxLifeTime() { return maxLifeTime; }
+        public void setMaxLifeTime(Duration maxLifeTime) { this.maxLifeTime = maxLifeTime; }
+        
+        public Duration getEvictionInterval() { return evictionInterval; }
+        public void setEvictionInterval(Duration evictionInterval) { this.evictionInterval = evictionInterval; }
+        
+        public boolean isH2c() { return h2c; }
+        public void setH2c(boolean h2c) { this.h2c = h2c; }
+    }
+}
@@ -0,0 +1,57 @@
+package com.fooddelivery.gateway.controller;
+
+import com.fooddelivery.gateway.config.ResilienceProperties;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+// 熔断器降级端点：下游超时或熔断打开时由 CircuitBreaker 过滤器转发到这里
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+    
+    @Autowired
+    private ResilienceProperties resilienceProperties;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @RequestMapping("/{routeId}")
+    public ResponseEntity<Map<String, Object>> fallback(@PathVariable String routeId, ServerWebExchange exchange) {
+        ResilienceProperties.RouteResilience route = resilienceProperties.forRoute(routeId);
+        Throwable cause = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        
+        String reason;
+        HttpStatus status;
+        if (cause instanceof TimeoutException) {
+            reason = "timeout";
+            status = HttpStatus.GATEWAY_TIMEOUT;
+        } else if (cause instanceof CallNotPermittedException) {
+            reason = "circuit_open";
+            status = route.getFallbackStatus();
+        } else {
+            reason = "upstream_error";
+            status = route.getFallbackStatus();
+        }
+        
+        meterRegistry.counter("gateway.fallback", "route", routeId, "reason", reason).increment();
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("route", routeId);
+        body.put("reason", reason);
+        body.put("message", route.getFallbackMessage());
+        return ResponseEntity.status(status).body(body);
+    }
+}
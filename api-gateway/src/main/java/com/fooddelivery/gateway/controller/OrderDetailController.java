@@ -0,0 +1,28 @@
+package com.fooddelivery.gateway.controller;
+
+import com.fooddelivery.gateway.aggregation.OrderDetailAggregator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// 订单详情聚合接口：一次请求返回订单、支付和通知记录
+@RestController
+@RequestMapping("/api/order-details")
+public class OrderDetailController {
+    
+    @Autowired
+    private OrderDetailAggregator orderDetailAggregator;
+    
+    @GetMapping("/{orderId}")
+    public Mono<ResponseEntity<Map<String, Object>>> getOrderDetail(@PathVariable String orderId,
+                                                                    ServerWebExchange exchange) {
+        return orderDetailAggregator.getOrderDetail(orderId, exchange);
+    }
+}
@@ -0,0 +1,97 @@
+package com.fooddelivery.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 路由级并发隔离：限制单条路由同时转发的请求数，慢服务占满配额后立即返回 503，
+// 不再占用网关连接，其他路由不受影响
+@Component
+public class BulkheadGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<BulkheadGatewayFilterFactory.Config> {
+    
+    // 在限流之后、熔断之前执行
+    private static final int ORDER = -50;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // 按路由ID共享进行中请求计数，网关路由和聚合接口对同一下游的调用共用一份配额
+    private final ConcurrentMap<String, RouteBulkhead> bulkheads = new ConcurrentHashMap<>();
+    
+    public BulkheadGatewayFilterFactory() {
+        super(Config.class);
+    }
+    
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        int maxConcurrent = config.getMaxConcurrentCalls();
+        
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!tryEnter(routeId, maxConcurrent)) {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                return response.setComplete();
+            }
+            return chain.filter(exchange).doFinally(signal -> exit(routeId));
+        }, ORDER);
+    }
+    
+    // 占用一个并发名额，配额已满时返回 false；成功后必须调用 exit 归还
+    public boolean tryEnter(String routeId, int maxConcurrent) {
+        RouteBulkhead bulkhead = bulkhead(routeId);
+        if (bulkhead.inFlight.incrementAndGet() > maxConcurrent) {
+            bulkhead.inFlight.decrementAndGet();
+            bulkhead.rejected.increment();
+            return false;
+        }
+        return true;
+    }
+    
+    public void exit(String routeId) {
+        bulkhead(routeId).inFlight.decrementAndGet();
+    }
+    
+    private RouteBulkhead bulkhead(String routeId) {
+        return bulkheads.computeIfAbsent(routeId, id -> new RouteBulkhead(id, meterRegistry));
+    }
+    
+    private static class RouteBulkhead {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final Counter rejected;
+        
+        RouteBulkhead(String routeId, MeterRegistry meterRegistry) {
+            Gauge.builder("gateway.bulkhead.in.flight", inFlight, AtomicInteger::get)
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("gateway.bulkhead.rejected")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+    }
+    
+    public static class Config {
+        private String routeId;
+        private int maxConcurrentCalls = 200;
+        
+        public String getRouteId() { return routeId; }
+        public Config setRouteId(String routeId) { this.routeId = routeId; return this; }
+        
+        public int getMaxConcurrentCalls() { return maxConcurrentCalls; }
+        public Config setMaxConcurrentCalls(int maxConcurrentCalls) { this.maxConcurrentCalls = maxConcurrentCalls; return this; }
+    }
+}
@@ -0,0 +1,37 @@
+package com.fooddelivery.gateway.filter;
+
+import org.springframework.http.MediaType;
+
+// 缓存的上游响应，body 为完整的未压缩响应体
+class CachedResponse {
+    
+    private final byte[] body;
+    private final MediaType contentType;
+    private final String etag;         // 返回给客户端的 ETag
+    private final String upstreamEtag; // 上游提供的 ETag，用于向上游重新验证
+    private volatile long expiresAtNanos;
+    
+    CachedResponse(byte[] body, MediaType contentType, String etag, String upstreamEtag, long expiresAtNanos) {
+        this.body = body;
+        this.contentType = contentType;
+        this.etag = etag;
+        this.upstreamEtag = upstreamEtag;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+    
+    byte[] getBody() { return body; }
+    
+    MediaType getContentType() { return contentType; }
+    
+    String getEtag() { return etag; }
+    
+    String getUpstreamEtag() { return upstreamEtag; }
+    
+    boolean isFresh(long nowNanos) {
+        return nowNanos - expiresAtNanos < 0;
+    }
+    
+    void refresh(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+}
@@ -0,0 +1,218 @@
+package com.fooddelivery.gateway.filter;
+
+import com.fooddelivery.gateway.ratelimit.RateLimit;
+import com.fooddelivery.gateway.ratelimit.RateLimitBackend;
+import com.fooddelivery.gateway.ratelimit.RateLimitDecision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+// 按客户端和按路由两级令牌桶限流，超限时返回 429 和 Retry-After；
+// 桶状态存放在 RateLimitBackend 中，单节点用内存实现，多节点切换为 Redis
+@Component
+public class RateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RateLimitGatewayFilterFactory.Config> {
+    
+    // 在响应缓存之前执行，被拒绝的请求不占用缓存和上游资源
+    private static final int ORDER = -100;
+    
+    private static final String UNKNOWN_CLIENT = "unknown";
+    
+    @Value("${gateway.rate-limit.client-header:X-Client-Id}")
+    private String clientHeader;
+    
+    // 调用方标识头可由客户端任意伪造，只有网关前面的可信代理会覆盖该头时才能开启
+    @Value("${gateway.rate-limit.trust-client-header:false}")
+    private boolean trustClientHeader;
+    
+    @Autowired
+    private RateLimitBackend backend;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    public RateLimitGatewayFilterFactory() {
+        super(Config.class);
+    }
+    
+    @Override
+    public GatewayFilter apply(Config config) {
+        Limiter limiter = limiter(config);
+        return new OrderedGatewayFilter((exchange, chain) ->
+                limiter.acquire(exchange)
+                        .flatMap(result -> result.isAllowed()
+                                ? chain.filter(exchange)
+                                : reject(exchange, result)), ORDER);
+    }
+    
+    // 网关路由之外的入口（如订单详情聚合）使用相同 routeId 的配置即与路由共用令牌桶
+    public Limiter limiter(Config config) {
+        return new Limiter(config);
+    }
+    
+    // 已认证请求按身份限流；匿名请求按来源地址限流，调用方标识头仅在配置为可信时使用
+    public Mono<String> resolveClient(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .filter(name -> !name.isEmpty())
+                .map(name -> "user:" + name)
+                .switchIfEmpty(Mono.fromSupplier(() -> anonymousClient(exchange.getRequest())));
+    }
+    
+    private String anonymousClient(ServerHttpRequest request) {
+        if (trustClientHeader) {
+            String client = request.getHeaders().getFirst(clientHeader);
+            if (client != null && !client.isEmpty()) {
+                return "id:" + client;
+            }
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null) {
+            return UNKNOWN_CLIENT;
+        }
+        return "ip:" + (remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString());
+    }
+    
+    private Mono<Void> reject(ServerWebExchange exchange, Result result) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(result.getRetryAfterSeconds()));
+        headers.set("X-RateLimit-Limit", Integer.toString(result.getLimit()));
+        headers.set("X-RateLimit-Scope", result.getScope());
+        return response.setComplete();
+    }
+    
+    private Counter counter(Config config, String result) {
+        return Counter.builder("gateway.ratelimit.requests")
+                .tag("route", config.getRouteId())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    // 按客户端和按路由两级检查，先检查客户端，避免单个客户端的突发耗尽整条路由的配额
+    public class Limiter {
+        
+        private final RateLimit clientLimit;
+        private final RateLimit routeLimit;
+        private final String clientPrefix;
+        private final String routeKey;
+        
+        // 计数器在创建限流器时注册，请求路径上不再查找 Meter
+        private final Counter allowed;
+        private final Counter clientRejected;
+        private final Counter routeRejected;
+        
+        private Limiter(Config config) {
+            this.clientLimit = new RateLimit(config.getClientRate(), config.getClientBurst());
+            this.routeLimit = config.getRouteRate() > 0
+                    ? new RateLimit(config.getRouteRate(), config.getRouteBurst())
+                    : null;
+            this.clientPrefix = "client:" + config.getRouteId() + ":";
+            this.routeKey = "route:" + config.getRouteId();
+            this.allowed = counter(config, "allowed");
+            this.clientRejected = counter(config, "client_rejected");
+            this.routeRejected = counter(config, "route_rejected");
+        }
+        
+        public Mono<Result> acquire(ServerWebExchange exchange) {
+            return resolveClient(exchange)
+                    .flatMap(client -> backend.tryAcquire(clientPrefix + client, clientLimit))
+                    .flatMap(clientDecision -> {
+                        if (!clientDecision.isAllowed()) {
+                            clientRejected.increment();
+                            return Mono.just(Result.rejected(clientDecision, clientLimit, "client"));
+                        }
+                        if (routeLimit == null) {
+                            allowed.increment();
+                            return Mono.just(Result.ALLOWED);
+                        }
+                        return backend.tryAcquire(routeKey, routeLimit)
+                                .map(routeDecision -> {
+                                    if (!routeDecision.isAllowed()) {
+                                        routeRejected.increment();
+                                        return Result.rejected(routeDecision, routeLimit, "route");
+                                    }
+                                    allowed.increment();
+                                    return Result.ALLOWED;
+                                });
+                    });
+        }
+    }
+    
+    // 限流结果；被拒绝时带上超限的一级（client / route）和建议的重试等待时间
+    public static final class Result {
+        
+        private static final Result ALLOWED = new Result(true, 0L, 0, null);
+        
+        private final boolean allowed;
+        private final long retryAfterSeconds;
+        private final int limit;
+        private final String scope;
+        
+        private Result(boolean allowed, long retryAfterSeconds, int limit, String scope) {
+            this.allowed = allowed;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.limit = limit;
+            this.scope = scope;
+        }
+        
+        private static Result rejected(RateLimitDecision decision, RateLimit limit, String scope) {
+            long retryAfterSeconds = Math.max(1L,
+                    (decision.getRetryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            return new Result(false, retryAfterSeconds, limit.getBurst(), scope);
+        }
+        
+        public boolean isAllowed() { return allowed; }
+        
+        public long getRetryAfterSeconds() { return retryAfterSeconds; }
+        
+        public int getLimit() { return limit; }
+        
+        public String getScope() { return scope; }
+    }
+    
+    public static class Config {
+        
+        private String routeId = "default";
+        
+        // 单个客户端的速率（每秒请求数）和突发容量
+        private double clientRate = 20;
+        private int clientBurst = 40;
+        
+        // 整条路由的速率和突发容量，速率为 0 表示不限制
+        private double routeRate;
+        private int routeBurst;
+        
+        public String getRouteId() { return routeId; }
+        public Config setRouteId(String routeId) { this.routeId = routeId; return this; }
+        
+        public double getClientRate() { return clientRate; }
+        public Config setClientRate(double clientRate) { this.clientRate = clientRate; return this; }
+        
+        public int getClientBurst() { return clientBurst; }
+        public Config setClientBurst(int clientBurst) { this.clientBurst = clientBurst; return this; }
+        
+        public double getRouteRate() { return routeRate; }
+        public Config setRouteRate(double routeRate) { this.routeRate = routeRate; return this; }
+        
+        public int getRouteBurst() { return routeBurst; }
+        public Config setRouteBurst(int routeBurst) { this.routeBurst = routeBurst; return this; }
+    }
+}
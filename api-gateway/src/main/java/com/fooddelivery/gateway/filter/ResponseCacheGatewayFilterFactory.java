@@ -0,0 +1,373 @@
+package com.fooddelivery.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 读多写少路由的响应缓存：按路由配置 TTL，支持 ETag/If-None-Match，
+// 过期后带上游 ETag 重新验证，并把同一个键的并发未命中合并为一次上游请求
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+    
+    // 必须在 NettyWriteResponseFilter 之前执行，才能拦截写出的响应体
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    
+    private static final String CACHE_HEADER = "X-Cache";
+    
+    private static final char LANGUAGE_SEPARATOR = '#';
+    
+    @Value("${gateway.cache.max-bytes:67108864}")
+    private long maxBytes;
+    
+    @Value("${gateway.cache.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+    
+    @Value("${gateway.cache.coalesce-timeout:5s}")
+    private Duration coalesceTimeout;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<String, CachedResponse> cache;
+    
+    private final ConcurrentMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    
+    public ResponseCacheGatewayFilterFactory() {
+        super(Config.class);
+    }
+    
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse value) -> key.length() + value.getBody().length)
+                .build();
+        
+        Gauge.builder("gateway.cache.entries", cache, c -> c.estimatedSize()).register(meterRegistry);
+    }
+    
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config), ORDER);
+    }
+    
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        
+        HttpMethod method = request.getMethod();
+        if (method == HttpMethod.POST || method == HttpMethod.PUT
+                || method == HttpMethod.PATCH || method == HttpMethod.DELETE) {
+            // 写请求成功后清除该资源下的缓存，避免在 TTL 内返回旧数据
+            return chain.filter(exchange).doOnSuccess(v -> invalidate(exchange));
+        }
+        if (method != HttpMethod.GET) {
+            // HEAD、OPTIONS 等不修改资源，也不读写缓存
+            return chain.filter(exchange);
+        }
+        if (request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            // 带凭证的响应可能因调用方而异，不能和匿名请求共用缓存
+            record(config, "bypass");
+            return chain.filter(exchange);
+        }
+        
+        String key = cacheKey(request);
+        CachedResponse cached = cache.getIfPresent(key);
+        
+        if (cached != null && cached.isFresh(System.nanoTime())) {
+            record(config, "hit");
+            return writeCached(exchange, cached, "HIT");
+        }
+        
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> existing = inFlight.putIfAbsent(key, sink);
+        if (existing != null) {
+            // 已有相同请求在访问上游，等待其结果，失败或不可缓存时自行请求上游
+            record(config, "coalesced");
+            return existing.asMono()
+                    .timeout(coalesceTimeout)
+                    .map(Optional::of)
+                    .onErrorResume(e -> Mono.just(Optional.empty()))
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(entry -> entry.isPresent()
+                            ? writeCached(exchange, entry.get(), "HIT")
+                            : chain.filter(exchange));
+        }
+        
+        record(config, cached != null && cached.getUpstreamEtag() != null ? "revalidate" : "miss");
+        return fetch(exchange, chain, config, key, cached, sink)
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    sink.tryEmitEmpty();
+                });
+    }
+    
+    // 缓存键不含路由ID，写请求可以跨路由（如菜单路由）失效同一资源；
+    // 响应按语言本地化，Accept-Language 附在 '#' 之后（原始路径和查询串中不会出现 '#'）
+    private static String cacheKey(ServerHttpRequest request) {
+        String key = request.getURI().getRawPath()
+                + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "");
+        String language = request.getHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE);
+        return language != null ? key + LANGUAGE_SEPARATOR + language : key;
+    }
+    
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                             String key, CachedResponse stale, Sinks.One<CachedResponse> sink) {
+        String clientEtag = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        boolean revalidating = stale != null && stale.getUpstreamEtag() != null;
+        
+        // 客户端的条件请求不转发给上游，网关需要拿到完整响应体才能缓存
+        ServerHttpRequest upstreamRequest = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    if (revalidating) {
+                        headers.setIfNoneMatch(stale.getUpstreamEtag());
+                    }
+                })
+                .build();
+        
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (revalidating && getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    // 上游确认内容未变化：延长缓存有效期并返回缓存内容
+                    stale.refresh(System.nanoTime() + config.getTtl().toNanos());
+                    sink.tryEmitValue(stale);
+                    return Flux.from(body).doOnNext(DataBufferUtils::release)
+                            .then(Mono.defer(() -> writeCachedTo(getDelegate(), clientEtag, stale, "REVALIDATED")));
+                }
+                if (getStatusCode() != HttpStatus.OK || isUncacheable(getHeaders())) {
+                    return super.writeWith(body);
+                }
+                
+                long contentLength = getHeaders().getContentLength();
+                if (contentLength > maxBodyBytes) {
+                    return super.writeWith(body);
+                }
+                
+                // 边读边计数：未超过上限前暂存响应体，超过后把已暂存的部分和剩余内容直接写给客户端，
+                // 不为过大的响应缓冲完整响应体
+                BodyAccumulator accumulator = new BodyAccumulator(maxBodyBytes);
+                Flux<DataBuffer> streamed = Flux.from(body).concatMapIterable(accumulator::add);
+                Flux<DataBuffer> completed = Flux.defer(() -> {
+                    if (accumulator.isOverflowed()) {
+                        return Flux.empty();
+                    }
+                    byte[] bytes = accumulator.drain();
+                    String upstreamEtag = getHeaders().getETag();
+                    String etag = upstreamEtag != null ? upstreamEtag : computeEtag(bytes);
+                    CachedResponse entry = new CachedResponse(bytes, getHeaders().getContentType(), etag,
+                            upstreamEtag, System.nanoTime() + config.getTtl().toNanos());
+                    cache.put(key, entry);
+                    sink.tryEmitValue(entry);
+                    
+                    getHeaders().setETag(etag);
+                    getHeaders().set(CACHE_HEADER, "MISS");
+                    if (etagMatches(clientEtag, etag)) {
+                        setStatusCode(HttpStatus.NOT_MODIFIED);
+                        getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                        return Flux.empty();
+                    }
+                    getHeaders().setContentLength(bytes.length);
+                    return Flux.just(bufferFactory().wrap(bytes));
+                });
+                
+                return getDelegate().writeWith(streamed.concatWith(completed)
+                        .doFinally(signal -> accumulator.release()));
+            }
+        };
+        
+        return chain.filter(exchange.mutate().request(upstreamRequest).response(decorated).build());
+    }
+    
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse entry, String result) {
+        return writeCachedTo(exchange.getResponse(),
+                exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH), entry, result);
+    }
+    
+    private Mono<Void> writeCachedTo(ServerHttpResponse response, String clientEtag,
+                                     CachedResponse entry, String result) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(entry.getEtag());
+        headers.set(CACHE_HEADER, result);
+        
+        if (etagMatches(clientEtag, entry.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        
+        response.setStatusCode(HttpStatus.OK);
+        if (entry.getContentType() != null) {
+            headers.setContentType(entry.getContentType());
+        }
+        headers.setContentLength(entry.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.getBody())));
+    }
+    
+    private void invalidate(ServerWebExchange exchange) {
+        HttpStatus status = exchange.getResponse().getStatusCode();
+        if (status == null || !status.is2xxSuccessful()) {
+            return;
+        }
+        
+        // 失效集合路径（如 /api/restaurants）以及被修改的资源（如 /api/restaurants/{id}）及其子资源
+        String path = exchange.getRequest().getURI().getRawPath();
+        String collection = pathPrefix(path, 2);
+        String resource = pathPrefix(path, 3);
+        cache.asMap().keySet().removeIf(key ->
+                isSameOrChild(key, collection, false) || isSameOrChild(key, resource, true));
+    }
+    
+    private static boolean isSameOrChild(String key, String prefix, boolean includeChildren) {
+        if (!key.startsWith(prefix)) {
+            return false;
+        }
+        if (key.length() == prefix.length()) {
+            return true;
+        }
+        char next = key.charAt(prefix.length());
+        return next == '?' || next == LANGUAGE_SEPARATOR || (includeChildren && next == '/');
+    }
+    
+    // 返回路径的前 segments 段，例如 pathPrefix("/api/restaurants/42/menu", 3) = "/api/restaurants/42"
+    private static String pathPrefix(String path, int segments) {
+        int index = 0;
+        for (int i = 0; i < segments; i++) {
+            int next = path.indexOf('/', index + 1);
+            if (next < 0) {
+                return path;
+            }
+            index = next;
+        }
+        return path.substring(0, index);
+    }
+    
+    private boolean isUncacheable(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+    
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || ("W/" + value).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String computeEtag(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+    
+    private void record(Config config, String result) {
+        meterRegistry.counter("gateway.cache.requests", "route", config.getRouteId(), "result", result).increment();
+    }
+    
+    // 暂存上游响应体直到超过上限；只在响应体的订阅线程上按顺序调用，不需要同步
+    private static class BodyAccumulator {
+        
+        private final int limit;
+        private final List<DataBuffer> held = new ArrayList<>();
+        private int size;
+        private boolean overflowed;
+        
+        BodyAccumulator(int limit) {
+            this.limit = limit;
+        }
+        
+        // 返回需要立即写给客户端的缓冲区，仍在暂存时返回空列表
+        List<DataBuffer> add(DataBuffer buffer) {
+            if (overflowed) {
+                return Collections.singletonList(buffer);
+            }
+            held.add(buffer);
+            size += buffer.readableByteCount();
+            if (size <= limit) {
+                return Collections.emptyList();
+            }
+            overflowed = true;
+            List<DataBuffer> pending = new ArrayList<>(held);
+            held.clear();
+            return pending;
+        }
+        
+        boolean isOverflowed() {
+            return overflowed;
+        }
+        
+        byte[] drain() {
+            byte[] bytes = new byte[size];
+            int offset = 0;
+            for (DataBuffer buffer : held) {
+                int length = buffer.readableByteCount();
+                buffer.read(bytes, offset, length);
+                offset += length;
+                DataBufferUtils.release(buffer);
+            }
+            held.clear();
+            return bytes;
+        }
+        
+        // 出错或客户端取消时释放仍在暂存的缓冲区
+        void release() {
+            held.forEach(DataBufferUtils::release);
+            held.clear();
+        }
+    }
+    
+    public static class Config {
+        private String routeId;
+        private Duration ttl = Duration.ofSeconds(60);
+        
+        public String getRouteId() { return routeId; }
+        public Config setRouteId(String routeId) { this.routeId = routeId; return this; }
+        
+        public Duration getTtl() { return ttl; }
+        public Config setTtl(Duration ttl) { this.ttl = ttl; return this; }
+    }
+}
@@ -0,0 +1,110 @@
+package com.fooddelivery.gateway.filter;
+
+import com.fooddelivery.gateway.config.UpstreamPoolProperties;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// 为配置了连接池的下游服务使用独立的 HttpClient，一个慢服务占满连接池不会让其他服务排队等待连接；
+// 连接池指标以 reactor.netty.connection.provider.* 暴露。排在默认的 NettyRoutingFilter 之前，
+// 转发后标记为已路由，默认过滤器随之跳过；其他服务原样交给默认过滤器
+public class UpstreamRoutingFilter extends NettyRoutingFilter implements DisposableBean {
+    
+    private final Map<String, HttpClient> serviceClients = new ConcurrentHashMap<>();
+    
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+    
+    // 按路由缓存已应用连接超时的客户端，避免每个请求重新配置
+    private final ConcurrentMap<String, HttpClient> routeClients = new ConcurrentHashMap<>();
+    
+    public UpstreamRoutingFilter(HttpClient httpClient,
+                                 ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                 HttpClientProperties properties,
+                                 UpstreamPoolProperties upstreamPools) {
+        super(httpClient, headersFiltersProvider, properties);
+        upstreamPools.getServices().forEach((service, pool) -> {
+            ConnectionProvider provider = ConnectionProvider.builder("upstream-" + service)
+                    .maxConnections(pool.getMaxConnections())
+                    .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                    .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                    .maxIdleTime(pool.getMaxIdleTime())
+                    .maxLifeTime(pool.getMaxLifeTime())
+                    .evictInBackground(pool.getEvictionInterval())
+                    .metrics(true)
+                    .build();
+            providers.put(service, provider);
+            serviceClients.put(service, newClient(provider, pool, properties));
+        });
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || !serviceClients.containsKey(route.getUri().getHost())) {
+            return chain.filter(exchange);
+        }
+        return super.filter(exchange, chain);
+    }
+    
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+    
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        HttpClient client = serviceClients.get(route.getUri().getHost());
+        if (client == null) {
+            return super.getHttpClient(route, exchange);
+        }
+        return routeClients.computeIfAbsent(route.getId(), id -> {
+            Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+            return connectTimeout != null
+                    ? client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()))
+                    : client;
+        });
+    }
+    
+    // 返回服务的独立连接池客户端，未配置连接池时返回 null
+    public HttpClient getServiceClient(String service) {
+        return serviceClients.get(service);
+    }
+    
+    @Override
+    public void destroy() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+    
+    private static HttpClient newClient(ConnectionProvider provider, UpstreamPoolProperties.Pool pool,
+                                        HttpClientProperties properties) {
+        HttpClient client = HttpClient.create(provider)
+                .compress(properties.isCompression())
+                .wiretap(properties.isWiretap())
+                .metrics(true, uri -> "/");
+        if (properties.getConnectTimeout() != null) {
+            client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.getConnectTimeout());
+        }
+        if (pool.isH2c()) {
+            client = client.protocol(HttpProtocol.H2C);
+        }
+        return client;
+    }
+}
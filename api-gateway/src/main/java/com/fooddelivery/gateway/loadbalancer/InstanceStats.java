@@ -0,0 +1,95 @@
+package com.fooddelivery.gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 单个下游实例的负载统计：Peak EWMA 响应时间、进行中请求数和连续失败次数。
+// 更新只用 CAS 和 volatile 写，时间戳与均值之间的竞争只会造成很小的估计误差
+final class InstanceStats {
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong ewmaBits;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger ejections = new AtomicInteger();
+    
+    private volatile long lastUpdateNanos;
+    private volatile long ejectedUntilNanos;
+    
+    InstanceStats(double initialLatencyNanos, long now) {
+        this.ewmaBits = new AtomicLong(Double.doubleToLongBits(initialLatencyNanos));
+        this.lastUpdateNanos = now;
+    }
+    
+    void start() {
+        inFlight.incrementAndGet();
+    }
+    
+    // 与 start 成对调用，请求被取消时同样要调用
+    void finish() {
+        inFlight.decrementAndGet();
+    }
+    
+    void complete(long latencyNanos, boolean failed, long now, LoadBalancingPolicy policy) {
+        updateEwma(latencyNanos, now, policy.getDecayNanos());
+        
+        if (!failed) {
+            consecutiveFailures.set(0);
+            if (ejections.get() > 0 && ejectedUntilNanos - now < 0) {
+                ejections.decrementAndGet();
+            }
+            return;
+        }
+        
+        if (consecutiveFailures.incrementAndGet() >= policy.getFailureThreshold()) {
+            consecutiveFailures.set(0);
+            // 每次被剔除的时间随剔除次数线性增长，并设上限
+            long ejectFor = Math.min(policy.getBaseEjectionNanos() * ejections.incrementAndGet(),
+                    policy.getMaxEjectionNanos());
+            ejectedUntilNanos = now + ejectFor;
+        }
+    }
+    
+    // 负载代价 = 响应时间估计 × (进行中请求数 + 1)；长时间没有样本的实例逐渐回落到初始估计，
+    // 其他实例有请求堆积、代价超过初始估计时重新分到探测流量，避免一次慢响应后再也分不到流量
+    double cost(long now, LoadBalancingPolicy policy) {
+        double ewma = Double.longBitsToDouble(ewmaBits.get());
+        long idle = now - lastUpdateNanos;
+        if (idle > 0) {
+            double weight = Math.exp(-(double) idle / policy.getDecayNanos());
+            ewma = policy.getInitialLatencyNanos() + (ewma - policy.getInitialLatencyNanos()) * weight;
+        }
+        return ewma * (inFlight.get() + 1);
+    }
+    
+    boolean isEjected(long now) {
+        return ejectedUntilNanos - now > 0;
+    }
+    
+    boolean isIdleSince(long cutoff) {
+        return inFlight.get() == 0 && lastUpdateNanos - cutoff < 0;
+    }
+    
+    int getInFlight() {
+        return inFlight.get();
+    }
+    
+    double getEwmaNanos() {
+        return Double.longBitsToDouble(ewmaBits.get());
+    }
+    
+    // Peak EWMA：比当前估计更慢的样本直接采用，更快的样本按时间衰减逐步拉低估计
+    private void updateEwma(long sample, long now, long decayNanos) {
+        long elapsed = Math.max(0L, now - lastUpdateNanos);
+        lastUpdateNanos = now;
+        double weight = Math.exp(-(double) elapsed / decayNanos);
+        
+        while (true) {
+            long bits = ewmaBits.get();
+            double current = Double.longBitsToDouble(bits);
+            double next = sample > current ? sample : current * weight + sample * (1 - weight);
+            if (ewmaBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+}
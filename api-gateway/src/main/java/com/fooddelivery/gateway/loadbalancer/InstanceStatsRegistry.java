@@ -0,0 +1,114 @@
+package com.fooddelivery.gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+// 通过 LoadBalancerLifecycle 回调收集每个实例的响应时间和失败情况，
+// 网关路由和聚合接口 WebClient（负载均衡过滤器）的请求都会经过这里。
+// 请求被超时或客户端断开取消时生命周期不会回调 onComplete，进行中请求数因此不在这里计数，
+// 而是由 InFlightRequestFilter 和 inFlightFilter 在请求结束（含取消）时归还
+@Component
+public class InstanceStatsRegistry
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+    
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.MINUTES.toNanos(10);
+    
+    @Autowired
+    private LoadBalancingPolicy policy;
+    
+    private final ConcurrentMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+    
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+    
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            request.getContext().setRequestStartTime(System.nanoTime());
+        }
+    }
+    
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        
+        long now = System.nanoTime();
+        long startTime = completionContext.getLoadBalancerRequest().getContext().getRequestStartTime();
+        get(lbResponse.getServer()).complete(now - startTime, isFailure(completionContext), now, policy);
+    }
+    
+    // 请求订阅时计入实例的进行中请求数，完成、出错或取消时归还
+    public <T> Mono<T> trackInFlight(ServiceInstance instance, Mono<T> call) {
+        return trackInFlight(instance.getServiceId(), instance.getHost(), instance.getPort(), call);
+    }
+    
+    // 聚合接口的 WebClient 用：排在负载均衡过滤器之后，请求地址已替换为选中实例的地址
+    public ExchangeFilterFunction inFlightFilter(String serviceId) {
+        return (request, next) -> {
+            URI url = request.url();
+            int port = url.getPort() != -1 ? url.getPort() : ("https".equals(url.getScheme()) ? 443 : 80);
+            return trackInFlight(serviceId, url.getHost(), port, next.exchange(request));
+        };
+    }
+    
+    InstanceStats get(ServiceInstance instance) {
+        return get(instance.getServiceId(), instance.getHost(), instance.getPort());
+    }
+    
+    private InstanceStats get(String serviceId, String host, int port) {
+        return stats.computeIfAbsent(serviceId + "/" + host + ":" + port,
+                k -> new InstanceStats(policy.getInitialLatencyNanos(), System.nanoTime()));
+    }
+    
+    private <T> Mono<T> trackInFlight(String serviceId, String host, int port, Mono<T> call) {
+        return Mono.defer(() -> {
+            InstanceStats instanceStats = get(serviceId, host, port);
+            instanceStats.start();
+            return call.doFinally(signal -> instanceStats.finish());
+        });
+    }
+    
+    // 清理下线实例的统计数据
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - IDLE_EVICTION_NANOS;
+        stats.values().removeIf(s -> s.isIdleSince(cutoff));
+    }
+    
+    private static boolean isFailure(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context) {
+        if (context.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        ResponseData response = context.getClientResponse();
+        HttpStatus status = response != null ? response.getHttpStatus() : null;
+        return status != null && status.is5xxServerError();
+    }
+}
@@ -0,0 +1,83 @@
+package com.fooddelivery.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 延迟感知负载均衡：随机取两个实例（power of two choices），选择负载代价较低的一个，
+// 连续失败的实例被暂时剔除；被剔除实例过多时忽略剔除，避免剩余实例被压垮
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceStatsRegistry statsRegistry;
+    private final LoadBalancingPolicy policy;
+    
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    InstanceStatsRegistry statsRegistry,
+                                    LoadBalancingPolicy policy) {
+        this.supplierProvider = supplierProvider;
+        this.statsRegistry = statsRegistry;
+        this.policy = policy;
+    }
+    
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+    
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        
+        long now = System.nanoTime();
+        List<ServiceInstance> candidates = healthy(instances, now);
+        
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = candidates.size();
+        if (size == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        double costA = statsRegistry.get(a).cost(now, policy);
+        double costB = statsRegistry.get(b).cost(now, policy);
+        return new DefaultResponse(costA <= costB ? a : b);
+    }
+    
+    private List<ServiceInstance> healthy(List<ServiceInstance> instances, long now) {
+        List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!statsRegistry.get(instance).isEjected(now)) {
+                healthy.add(instance);
+            }
+        }
+        int ejected = instances.size() - healthy.size();
+        if (ejected == 0 || healthy.isEmpty()
+                || ejected * 100 > instances.size() * policy.getMaxEjectionPercent()) {
+            return instances;
+        }
+        return healthy;
+    }
+}
@@ -0,0 +1,55 @@
+package com.fooddelivery.gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+
+// 延迟感知负载均衡的参数
+@Component
+public class LoadBalancingPolicy {
+    
+    @Value("${gateway.loadbalancer.decay-time:10s}")
+    private Duration decayTime;
+    
+    @Value("${gateway.loadbalancer.initial-latency:50ms}")
+    private Duration initialLatency;
+    
+    @Value("${gateway.loadbalancer.failure-threshold:5}")
+    private int failureThreshold;
+    
+    @Value("${gateway.loadbalancer.base-ejection-time:30s}")
+    private Duration baseEjectionTime;
+    
+    @Value("${gateway.loadbalancer.max-ejection-time:5m}")
+    private Duration maxEjectionTime;
+    
+    @Value("${gateway.loadbalancer.max-ejection-percent:50}")
+    private int maxEjectionPercent;
+    
+    private long decayNanos;
+    private double initialLatencyNanos;
+    private long baseEjectionNanos;
+    private long maxEjectionNanos;
+    
+    @PostConstruct
+    public void init() {
+        this.decayNanos = Math.max(1L, decayTime.toNanos());
+        this.initialLatencyNanos = initialLatency.toNanos();
+        this.baseEjectionNanos = baseEjectionTime.toNanos();
+        this.maxEjectionNanos = maxEjectionTime.toNanos();
+    }
+    
+    long getDecayNanos() { return decayNanos; }
+    
+    double getInitialLatencyNanos() { return initialLatencyNanos; }
+    
+    int getFailureThreshold() { return failureThreshold; }
+    
+    long getBaseEjectionNanos() { return baseEjectionNanos; }
+    
+    long getMaxEjectionNanos() { return maxEjectionNanos; }
+    
+    int getMaxEjectionPercent() { return maxEjectionPercent; }
+}
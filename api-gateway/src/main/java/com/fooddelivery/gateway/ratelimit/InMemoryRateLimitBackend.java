@@ -0,0 +1,68 @@
+package com.fooddelivery.gateway.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 单节点内存实现：键按哈希分散到多个分段，每个桶只是一个保存理论到达时间的 AtomicLong，
+// 判定过程只有一次 CAS，在 Netty 事件循环线程上直接完成，不切换线程
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+    
+    private static final int STRIPES = 64;
+    
+    private static final Mono<RateLimitDecision> ALLOWED = Mono.just(RateLimitDecision.allowed());
+    
+    @SuppressWarnings("unchecked")
+    private final ConcurrentMap<String, AtomicLong>[] stripes = new ConcurrentMap[STRIPES];
+    
+    private int nextStripeToClean;
+    
+    public InMemoryRateLimitBackend() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+    
+    @Override
+    public Mono<RateLimitDecision> tryAcquire(String key, RateLimit limit) {
+        RateLimitDecision decision = acquire(key, limit, System.nanoTime());
+        return decision.isAllowed() ? ALLOWED : Mono.just(decision);
+    }
+    
+    RateLimitDecision acquire(String key, RateLimit limit, long now) {
+        AtomicLong tat = stripe(key).computeIfAbsent(key, k -> new AtomicLong(now));
+        
+        while (true) {
+            long current = tat.get();
+            long base = current - now > 0 ? current : now;
+            long allowAt = base - limit.getToleranceNanos();
+            if (allowAt - now > 0) {
+                return RateLimitDecision.denied(allowAt - now);
+            }
+            if (tat.compareAndSet(current, base + limit.getIntervalNanos())) {
+                return RateLimitDecision.allowed();
+            }
+        }
+    }
+    
+    // 理论到达时间已经过去的桶等价于满桶，可以删除；每次只清理一个分段以控制停顿
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.cleanup-interval-ms:1000}")
+    public void cleanup() {
+        long now = System.nanoTime();
+        ConcurrentMap<String, AtomicLong> stripe = stripes[nextStripeToClean];
+        nextStripeToClean = (nextStripeToClean + 1) % STRIPES;
+        stripe.values().removeIf(tat -> tat.get() - now < 0);
+    }
+    
+    private ConcurrentMap<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
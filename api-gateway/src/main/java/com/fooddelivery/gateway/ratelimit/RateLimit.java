@@ -0,0 +1,30 @@
+package com.fooddelivery.gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+// 令牌桶参数：每秒速率和突发容量，按 GCRA 表示为发放间隔和突发容忍时间
+public final class RateLimit {
+    
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    
+    public RateLimit(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(burst, 1);
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (this.burst - 1);
+    }
+    
+    public double getPermitsPerSecond() { return permitsPerSecond; }
+    
+    public int getBurst() { return burst; }
+    
+    public long getIntervalNanos() { return intervalNanos; }
+    
+    public long getToleranceNanos() { return toleranceNanos; }
+}
@@ -0,0 +1,9 @@
+package com.fooddelivery.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+// 令牌桶状态的存储后端：单节点使用内存实现，多节点部署时切换为共享实现
+public interface RateLimitBackend {
+    
+    Mono<RateLimitDecision> tryAcquire(String key, RateLimit limit);
+}
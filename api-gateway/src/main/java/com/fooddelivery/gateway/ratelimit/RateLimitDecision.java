@@ -0,0 +1,26 @@
+package com.fooddelivery.gateway.ratelimit;
+
+public final class RateLimitDecision {
+    
+    private static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0L);
+    
+    private final boolean allowed;
+    private final long retryAfterNanos;
+    
+    private RateLimitDecision(boolean allowed, long retryAfterNanos) {
+        this.allowed = allowed;
+        this.retryAfterNanos = retryAfterNanos;
+    }
+    
+    public static RateLimitDecision allowed() {
+        return ALLOWED;
+    }
+    
+    public static RateLimitDecision denied(long retryAfterNanos) {
+        return new RateLimitDecision(false, retryAfterNanos);
+    }
+    
+    public boolean isAllowed() { return allowed; }
+    
+    public long getRetryAfterNanos() { return retryAfterNanos; }
+}
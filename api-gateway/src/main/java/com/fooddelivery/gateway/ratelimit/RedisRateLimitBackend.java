@@ -0,0 +1,56 @@
+package com.fooddelivery.gateway.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 多节点共享实现：GCRA 判定在 Redis Lua 脚本中原子执行，时间取 Redis 服务器时钟，
+// Redis 不可用时放行请求，避免限流组件本身成为故障点
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.backend", havingValue = "redis")
+public class RedisRateLimitBackend implements RateLimitBackend {
+    
+    private static final String GCRA_SCRIPT =
+        "local t = redis.call('TIME') " +
+        "local now = tonumber(t[1]) * 1000000 + tonumber(t[2]) " +
+        "local interval = tonumber(ARGV[1]) " +
+        "local tolerance = tonumber(ARGV[2]) " +
+        "local tat = tonumber(redis.call('GET', KEYS[1]) or now) " +
+        "if tat < now then tat = now end " +
+        "local allow_at = tat - tolerance " +
+        "if allow_at > now then return allow_at - now end " +
+        "local new_tat = tat + interval " +
+        "redis.call('SET', KEYS[1], new_tat, 'PX', math.ceil((new_tat - now) / 1000) + 1) " +
+        "return 0";
+    
+    private static final RedisScript<Long> SCRIPT = RedisScript.of(GCRA_SCRIPT, Long.class);
+    
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+    
+    @Value("${gateway.rate-limit.redis.key-prefix:ratelimit:}")
+    private String keyPrefix;
+    
+    @Override
+    public Mono<RateLimitDecision> tryAcquire(String key, RateLimit limit) {
+        List<String> args = List.of(
+            Long.toString(TimeUnit.NANOSECONDS.toMicros(limit.getIntervalNanos())),
+            Long.toString(TimeUnit.NANOSECONDS.toMicros(limit.getToleranceNanos())));
+        
+        return redisTemplate.execute(SCRIPT, Collections.singletonList(keyPrefix + key), args)
+                .next()
+                .map(waitMicros -> waitMicros <= 0
+                        ? RateLimitDecision.allowed()
+                        : RateLimitDecision.denied(TimeUnit.MICROSECONDS.toNanos(waitMicros)))
+                .onErrorReturn(RateLimitDecision.allowed())
+                .defaultIfEmpty(RateLimitDecision.allowed());
+    }
+}
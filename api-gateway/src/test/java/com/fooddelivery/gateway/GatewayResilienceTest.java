@@ -0,0 +1,185 @@
+package com.fooddelivery.gateway;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 网关整体跑在随机端口上，下游服务由桩服务代替并注入延迟和错误，验证每条路由的超时、熔断（含半开恢复）、
+// 并发隔离和降级响应。三个场景分别使用不同路由，熔断器和并发配额互不影响。
+// 转发出错时请求可能在收到响应头后一直等不到响应体，每个请求和每个用例都有超时，挂起的用例直接失败
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "eureka.client.enabled=false",
+    "gateway.resilience.routes.kitchen-service.response-timeout=500ms",
+    "gateway.resilience.routes.kitchen-service.minimum-number-of-calls=100",
+    "gateway.resilience.routes.accounting-service.sliding-window-size=10",
+    "gateway.resilience.routes.accounting-service.minimum-number-of-calls=5",
+    "gateway.resilience.routes.accounting-service.wait-duration-in-open-state=1s",
+    "gateway.resilience.routes.accounting-service.permitted-calls-in-half-open-state=2",
+    "gateway.resilience.routes.notification-service.max-concurrent-calls=3",
+    "gateway.resilience.routes.notification-service.response-timeout=5s"
+})
+@Timeout(60)
+class GatewayResilienceTest {
+    
+    private static final StubDownstream downstream = startDownstream();
+    
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    
+    @LocalServerPort
+    private int port;
+    
+    @DynamicPropertySource
+    static void downstreamInstances(DynamicPropertyRegistry registry) {
+        for (String service : List.of("order-service", "kitchen-service", "accounting-service", "notification-service")) {
+            registry.add("spring.cloud.discovery.client.simple.instances." + service + "[0].uri", downstream::uri);
+        }
+    }
+    
+    @AfterAll
+    static void stopDownstream() {
+        downstream.close();
+    }
+    
+    @BeforeEach
+    void resetDownstream() {
+        downstream.reset();
+    }
+    
+    @Test
+    void forwardsToHealthyDownstream() throws Exception {
+        downstream.respond("/api/kitchen/orders", 200, 0);
+        
+        HttpResponse<String> response = get("/api/kitchen/orders/1");
+        
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("/api/kitchen/orders/1"), response.body());
+    }
+    
+    // order-service 配置了独立连接池，由 UpstreamRoutingFilter 转发，响应体仍要完整写回
+    @Test
+    void forwardsThroughDedicatedUpstreamPool() throws Exception {
+        downstream.respond("/api/orders", 200, 0);
+        
+        HttpResponse<String> response = get("/api/orders/42");
+        
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("/api/orders/42"), response.body());
+        assertEquals(1, downstream.hits("/api/orders"));
+    }
+    
+    @Test
+    void slowDownstreamFallsBackWithGatewayTimeout() throws Exception {
+        downstream.respond("/api/kitchen/restaurants", 200, 2000);
+        
+        long start = System.nanoTime();
+        HttpResponse<String> response = get("/api/kitchen/restaurants/r1/queue");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        
+        assertEquals(504, response.statusCode());
+        assertTrue(response.body().contains("\"reason\":\"timeout\""), response.body());
+        assertTrue(elapsedMs < 1500, "fallback took " + elapsedMs + " ms");
+    }
+    
+    @Test
+    void failingDownstreamOpensBreakerAndRecoversThroughHalfOpen() throws Exception {
+        downstream.respond("/api/accounting", 503, 0);
+        for (int i = 0; i < 5; i++) {
+            HttpResponse<String> response = get("/api/accounting/payments/" + i);
+            assertEquals(503, response.statusCode());
+            assertTrue(response.body().contains("\"reason\":\"upstream_error\""), response.body());
+        }
+        
+        // 失败率达到阈值后熔断打开，请求不再到达下游
+        HttpResponse<String> rejected = get("/api/accounting/payments/6");
+        assertEquals(503, rejected.statusCode());
+        assertTrue(rejected.body().contains("\"reason\":\"circuit_open\""), rejected.body());
+        assertTrue(rejected.body().contains("支付服务繁忙"), rejected.body());
+        assertEquals(5, downstream.hits("/api/accounting"));
+        
+        // 下游恢复，等待期过后自动进入半开，探测请求成功后熔断关闭
+        downstream.respond("/api/accounting", 200, 0);
+        Thread.sleep(1500);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, get("/api/accounting/payments/probe-" + i).statusCode());
+        }
+        assertEquals(8, downstream.hits("/api/accounting"));
+    }
+    
+    @Test
+    void bulkheadRejectsExcessConcurrentCallsWithoutBlockingOtherRoutes() throws Exception {
+        downstream.respond("/api/notifications", 200, 1000);
+        downstream.respond("/api/kitchen/orders", 200, 0);
+        
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(client.sendAsync(request("/api/notifications/" + i), HttpResponse.BodyHandlers.ofString()));
+        }
+        
+        // 通知服务的配额占满时，其他路由照常转发
+        Thread.sleep(200);
+        long start = System.nanoTime();
+        assertEquals(200, get("/api/kitchen/orders/1").statusCode());
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 500);
+        
+        int ok = 0;
+        int rejected = 0;
+        for (CompletableFuture<HttpResponse<String>> call : calls) {
+            HttpResponse<String> response = call.get(10, TimeUnit.SECONDS);
+            if (response.statusCode() == 200) {
+                ok++;
+            } else {
+                assertEquals(503, response.statusCode());
+                assertEquals("1", response.headers().firstValue("Retry-After").orElse(null));
+                rejected++;
+            }
+        }
+        assertEquals(3, ok);
+        assertEquals(5, rejected);
+        assertEquals(3, downstream.hits("/api/notifications"));
+    }
+    
+    // HttpRequest 的超时只覆盖到收到响应头，读取响应体的等待另外限时
+    private HttpResponse<String> get(String path)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return client.sendAsync(request(path), HttpResponse.BodyHandlers.ofString()).get(10, TimeUnit.SECONDS);
+    }
+    
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+    }
+    
+    private static StubDownstream startDownstream() {
+        try {
+            return StubDownstream.start();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.fooddelivery.gateway;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 厨房服务注册三个桩实例，其中一个响应慢一个数量级；经网关转发的请求应大部分落在快实例上
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "eureka.client.enabled=false",
+    "gateway.resilience.routes.kitchen-service.minimum-number-of-calls=1000"
+})
+class LatencyAwareRoutingTest {
+    
+    private static final int REQUESTS = 600;
+    private static final int CLIENTS = 6;
+    
+    private static final StubDownstream fast1 = startInstance(10);
+    private static final StubDownstream fast2 = startInstance(10);
+    private static final StubDownstream slow = startInstance(200);
+    
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    
+    @LocalServerPort
+    private int port;
+    
+    @DynamicPropertySource
+    static void kitchenInstances(DynamicPropertyRegistry registry) {
+        List<StubDownstream> instances = List.of(fast1, fast2, slow);
+        for (int i = 0; i < instances.size(); i++) {
+            registry.add("spring.cloud.discovery.client.simple.instances.kitchen-service[" + i + "].uri",
+                    instances.get(i)::uri);
+        }
+    }
+    
+    @AfterAll
+    static void stopInstances() {
+        fast1.close();
+        fast2.close();
+        slow.close();
+    }
+    
+    @Test
+    void routesMostTrafficAwayFromSlowInstance() throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.execute(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < REQUESTS) {
+                    if (get("/api/kitchen/orders/" + index) != 200) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(2, TimeUnit.MINUTES));
+        
+        int slowHits = slow.hits("/api/kitchen");
+        int total = fast1.hits("/api/kitchen") + fast2.hits("/api/kitchen") + slowHits;
+        assertEquals(0, failures.get());
+        assertEquals(REQUESTS, total);
+        // 轮询时慢实例分到三分之一
+        assertTrue(slowHits < REQUESTS / 10, "slow instance served " + slowHits + " of " + total);
+        assertTrue(fast1.hits("/api/kitchen") > 0 && fast2.hits("/api/kitchen") > 0);
+    }
+    
+    private int get(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+    
+    private static StubDownstream startInstance(long delayMs) {
+        try {
+            return StubDownstream.start(32).respond("/api/kitchen", 200, delayMs);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
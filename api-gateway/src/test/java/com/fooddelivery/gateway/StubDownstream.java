@@ -0,0 +1,123 @@
+package com.fooddelivery.gateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 网关测试用的下游桩服务：按路径前缀设置响应状态码和注入的延迟，并统计每个前缀实际收到的请求数
+class StubDownstream implements AutoCloseable {
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Behavior> behaviors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    
+    private StubDownstream(int threads) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+    
+    static StubDownstream start() throws IOException {
+        return start(256);
+    }
+    
+    // 线程数即桩服务能同时处理的请求数，负载测试中需要大于网关的连接数
+    static StubDownstream start(int threads) throws IOException {
+        StubDownstream stub = new StubDownstream(threads);
+        stub.server.start();
+        return stub;
+    }
+    
+    String uri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    StubDownstream respond(String pathPrefix, int status, long delayMs) {
+        behaviors.put(pathPrefix, new Behavior(status, delayMs));
+        return this;
+    }
+    
+    int hits(String pathPrefix) {
+        AtomicInteger count = hits.get(pathPrefix);
+        return count != null ? count.get() : 0;
+    }
+    
+    void reset() {
+        behaviors.clear();
+        hits.clear();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        
+        String path = exchange.getRequestURI().getPath();
+        String prefix = null;
+        for (String candidate : behaviors.keySet()) {
+            if (path.startsWith(candidate) && (prefix == null || candidate.length() > prefix.length())) {
+                prefix = candidate;
+            }
+        }
+        if (prefix == null) {
+            send(exchange, 404, "{\"error\":\"no stub for " + path + "\"}");
+            return;
+        }
+        
+        hits.computeIfAbsent(prefix, p -> new AtomicInteger()).incrementAndGet();
+        Behavior behavior = behaviors.get(prefix);
+        if (behavior.delayMs > 0) {
+            try {
+                Thread.sleep(behavior.delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.close();
+                return;
+            }
+        }
+        send(exchange, behavior.status, "{\"path\":\"" + path + "\",\"stub\":\"" + uri() + "\"}");
+    }
+    
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // 网关超时后会先断开连接，写响应失败是预期情况
+            exchange.close();
+        }
+    }
+    
+    private static class Behavior {
+        final int status;
+        final long delayMs;
+        
+        Behavior(int status, long delayMs) {
+            this.status = status;
+            this.delayMs = delayMs;
+        }
+    }
+}
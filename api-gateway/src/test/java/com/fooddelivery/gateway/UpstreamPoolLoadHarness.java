@@ -0,0 +1,191 @@
+package com.fooddelivery.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 连接池负载测试：慢服务（配送）持续占满连接时，测量快服务（厨房）经网关转发的 p50/p99 延迟，
+// 对比只用共享默认连接池和按服务配置独立连接池两种配置。类名不以 Test 结尾，不随 mvn test 运行：
+//   mvn test -Dtest=UpstreamPoolLoadHarness
+// 结果受本机负载影响，只打印对比数据，断言仅检查快服务请求全部成功
+class UpstreamPoolLoadHarness {
+    
+    private static final int SLOW_CLIENTS = 120;
+    private static final long SLOW_DELAY_MS = 300;
+    
+    private static final int FAST_CLIENTS = 8;
+    private static final long FAST_DELAY_MS = 5;
+    private static final int FAST_WARMUP_REQUESTS = 200;
+    private static final int FAST_REQUESTS = 2000;
+    
+    // 默认连接池按比例缩小，少量并发即可占满
+    private static final int SHARED_MAX_CONNECTIONS = 50;
+    
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newCachedThreadPool())
+            .build();
+    
+    @Test
+    void comparesSharedAndPerServicePools() throws Exception {
+        try (StubDownstream delivery = StubDownstream.start(SLOW_CLIENTS + 16);
+             StubDownstream kitchen = StubDownstream.start(64)) {
+            delivery.respond("/api/deliveries", 200, SLOW_DELAY_MS);
+            kitchen.respond("/api/kitchen", 200, FAST_DELAY_MS);
+            
+            Result shared = run("shared default pool", delivery, kitchen, new HashMap<>());
+            
+            Map<String, Object> tuned = new HashMap<>();
+            tuned.put("gateway.upstream.services.delivery-service.max-connections", 40);
+            tuned.put("gateway.upstream.services.delivery-service.pending-acquire-max-count", 1000);
+            tuned.put("gateway.upstream.services.delivery-service.pending-acquire-timeout", "10s");
+            tuned.put("gateway.upstream.services.kitchen-service.max-connections", 20);
+            Result perService = run("per-service pools", delivery, kitchen, tuned);
+            
+            System.out.printf("%n%-22s %10s %10s %10s %12s %8s%n", "configuration", "p50 ms", "p99 ms", "max ms",
+                    "slow req/s", "errors");
+            shared.print();
+            perService.print();
+            
+            assertEquals(0, shared.fastErrors);
+            assertEquals(0, perService.fastErrors);
+        }
+    }
+    
+    private Result run(String name, StubDownstream delivery, StubDownstream kitchen,
+                       Map<String, Object> overrides) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("eureka.client.enabled", false);
+        properties.put("spring.cloud.discovery.client.simple.instances.delivery-service[0].uri", delivery.uri());
+        properties.put("spring.cloud.discovery.client.simple.instances.kitchen-service[0].uri", kitchen.uri());
+        properties.put("spring.cloud.gateway.httpclient.pool.max-connections", SHARED_MAX_CONNECTIONS);
+        properties.put("spring.cloud.gateway.httpclient.pool.acquire-timeout", 10000);
+        // 熔断器和并发隔离不参与对比：放宽到不会触发
+        for (String route : new String[] {"delivery-service", "kitchen-service"}) {
+            String prefix = "gateway.resilience.routes." + route + ".";
+            properties.put(prefix + "response-timeout", "30s");
+            properties.put(prefix + "slow-call-duration", "30s");
+            properties.put(prefix + "minimum-number-of-calls", 1_000_000);
+            properties.put(prefix + "sliding-window-size", 1_000_000);
+            properties.put(prefix + "max-concurrent-calls", 10_000);
+        }
+        properties.putAll(overrides);
+        
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GatewayApplication.class)
+                .properties(properties)
+                .run()) {
+            int port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+            return measure(name, port);
+        }
+    }
+    
+    private Result measure(String name, int port) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger slowCompleted = new AtomicInteger();
+        ExecutorService slowClients = Executors.newFixedThreadPool(SLOW_CLIENTS);
+        for (int i = 0; i < SLOW_CLIENTS; i++) {
+            int client = i;
+            slowClients.execute(() -> {
+                while (running.get()) {
+                    if (send(port, "/api/deliveries/" + client) == 200) {
+                        slowCompleted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        
+        // 等慢服务把连接占满后再开始测量
+        Thread.sleep(2 * SLOW_DELAY_MS);
+        for (int i = 0; i < FAST_WARMUP_REQUESTS; i++) {
+            send(port, "/api/kitchen/orders/" + i);
+        }
+        
+        long[] latencies = new long[FAST_REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger fastErrors = new AtomicInteger();
+        int slowBefore = slowCompleted.get();
+        long start = System.nanoTime();
+        ExecutorService fastClients = Executors.newFixedThreadPool(FAST_CLIENTS);
+        for (int i = 0; i < FAST_CLIENTS; i++) {
+            fastClients.execute(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < FAST_REQUESTS) {
+                    long requestStart = System.nanoTime();
+                    if (send(port, "/api/kitchen/orders/" + index) != 200) {
+                        fastErrors.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - requestStart;
+                }
+            });
+        }
+        fastClients.shutdown();
+        fastClients.awaitTermination(5, TimeUnit.MINUTES);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        int slowDuring = slowCompleted.get() - slowBefore;
+        
+        running.set(false);
+        slowClients.shutdown();
+        slowClients.awaitTermination(1, TimeUnit.MINUTES);
+        
+        Arrays.sort(latencies);
+        return new Result(name, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies[latencies.length - 1], slowDuring / elapsedSeconds, fastErrors.get());
+    }
+    
+    private int send(int port, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+    
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+    
+    private static class Result {
+        final String name;
+        final long p50;
+        final long p99;
+        final long max;
+        final double slowThroughput;
+        final int fastErrors;
+        
+        Result(String name, long p50, long p99, long max, double slowThroughput, int fastErrors) {
+            this.name = name;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+            this.slowThroughput = slowThroughput;
+            this.fastErrors = fastErrors;
+        }
+        
+        void print() {
+            System.out.printf("%-22s %10.1f %10.1f %10.1f %12.1f %8d%n", name, p50 / 1e6, p99 / 1e6, max / 1e6,
+                    slowThroughput, fastErrors);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.fooddelivery.gateway.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+// 进行中请求数在转发完成、出错和被取消（超时或客户端断开）时都要归还，
+// 否则实例的代价只增不减，再也分不到流量
+class InFlightRequestFilterTest {
+    
+    private final ServiceInstance instance =
+            new DefaultServiceInstance("kitchen-1", "kitchen-service", "10.0.0.1", 8083, false);
+    
+    private InstanceStatsRegistry registry;
+    private InFlightRequestFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        LoadBalancingPolicy policy = new LoadBalancingPolicy();
+        ReflectionTestUtils.setField(policy, "decayTime", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(policy, "initialLatency", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(policy, "failureThreshold", 5);
+        ReflectionTestUtils.setField(policy, "baseEjectionTime", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(policy, "maxEjectionTime", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(policy, "maxEjectionPercent", 50);
+        policy.init();
+        registry = new InstanceStatsRegistry();
+        ReflectionTestUtils.setField(registry, "policy", policy);
+        filter = new InFlightRequestFilter();
+        ReflectionTestUtils.setField(filter, "statsRegistry", registry);
+    }
+    
+    @Test
+    void gatewayRouteReleasesInFlightOnCancel() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/kitchen/tickets"));
+        exchange.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instance));
+        
+        // 下游一直不响应，直到订阅被取消
+        Disposable call = filter.filter(exchange, e -> Mono.never()).subscribe();
+        assertEquals(1, registry.get(instance).getInFlight());
+        call.dispose();
+        assertEquals(0, registry.get(instance).getInFlight());
+    }
+    
+    @Test
+    void gatewayRouteReleasesInFlightOnCompleteAndError() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/kitchen/tickets"));
+        exchange.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instance));
+        
+        filter.filter(exchange, e -> Mono.empty()).block();
+        filter.filter(exchange, e -> Mono.error(new IllegalStateException("boom")))
+                .onErrorResume(e -> Mono.empty()).block();
+        assertEquals(0, registry.get(instance).getInFlight());
+    }
+    
+    @Test
+    void aggregatorClientReleasesInFlightOnTimeout() {
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://10.0.0.1:8083/api/kitchen/tickets"))
+                .build();
+        
+        Mono<ClientResponse> call = registry.inFlightFilter("kitchen-service")
+                .filter(request, r -> Mono.never());
+        call.timeout(Duration.ofMillis(50)).onErrorResume(e -> Mono.empty()).block();
+        assertEquals(0, registry.get(instance).getInFlight());
+    }
+}
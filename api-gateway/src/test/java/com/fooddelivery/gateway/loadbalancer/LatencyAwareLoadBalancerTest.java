@@ -0,0 +1,214 @@
+package com.fooddelivery.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 用桩实例驱动负载均衡器：每次选中实例后按该实例设定的响应时间回报一次完成，
+// 统计各实例分到的请求数
+class LatencyAwareLoadBalancerTest {
+    
+    private static final long FAST_NANOS = Duration.ofMillis(20).toNanos();
+    private static final long SLOW_NANOS = Duration.ofMillis(400).toNanos();
+    
+    @Test
+    void shiftsTrafficAwayFromSlowInstance() {
+        Harness harness = new Harness(policy(Duration.ofSeconds(10), 5, 50), "fast-1", "fast-2", "fast-3", "slow");
+        harness.latency("slow", SLOW_NANOS);
+        
+        Map<String, Integer> counts = harness.run(10_000);
+        
+        // 轮询时每个实例各占 1/4，慢实例只在最初几次选择中被选中。
+        // 顺序请求时快实例之间的代价差别很小，二选一总是偏向同一个实例，所以只要求每个快实例都分到流量
+        assertTrue(count(counts, "slow") < 100, counts.toString());
+        for (String fast : List.of("fast-1", "fast-2", "fast-3")) {
+            assertTrue(count(counts, fast) > 1000, counts.toString());
+        }
+    }
+    
+    @Test
+    void slowInstanceIsProbedAgainUnderLoadAfterDecay() throws InterruptedException {
+        Harness harness = new Harness(policy(Duration.ofMillis(200), 5, 50), "fast-1", "fast-2", "slow");
+        harness.latency("slow", SLOW_NANOS);
+        harness.run(50);
+        harness.complete("slow");
+        // 快实例上各保持两个进行中的请求，代价约为初始估计的三倍
+        harness.hold("fast-1", 2);
+        harness.hold("fast-2", 2);
+        
+        assertEquals(0, count(harness.run(50), "slow"));
+        
+        // 慢实例没有新样本，估计值回落到初始值后低于忙碌的快实例，重新分到探测流量
+        Thread.sleep(2000);
+        Map<String, Integer> counts = harness.run(200);
+        assertTrue(count(counts, "slow") > 0, counts.toString());
+    }
+    
+    @Test
+    void prefersInstanceWithFewerRequestsInFlight() {
+        Harness harness = new Harness(policy(Duration.ofSeconds(10), 5, 50), "busy", "idle");
+        harness.hold("busy", 5);
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals("idle", harness.choose().getInstanceId());
+        }
+    }
+    
+    @Test
+    void ejectsInstanceAfterConsecutiveFailures() {
+        Harness harness = new Harness(policy(Duration.ofSeconds(10), 3, 50), "healthy-1", "healthy-2", "failing");
+        harness.fail("failing", 3);
+        
+        Map<String, Integer> counts = harness.run(1000);
+        
+        assertEquals(0, count(counts, "failing"), counts.toString());
+    }
+    
+    @Test
+    void ignoresEjectionWhenTooManyInstancesAreEjected() {
+        Harness harness = new Harness(policy(Duration.ofSeconds(10), 3, 50), "healthy", "failing-1", "failing-2");
+        harness.fail("failing-1", 3);
+        harness.fail("failing-2", 3);
+        
+        // 三个实例中两个被剔除，超过 max-ejection-percent，剔除被忽略，避免全部流量压到剩下的实例上
+        Map<String, Integer> counts = harness.run(1000);
+        
+        assertTrue(count(counts, "failing-1") + count(counts, "failing-2") > 0, counts.toString());
+    }
+    
+    private static int count(Map<String, Integer> counts, String instanceId) {
+        return counts.getOrDefault(instanceId, 0);
+    }
+    
+    private static LoadBalancingPolicy policy(Duration decayTime, int failureThreshold, int maxEjectionPercent) {
+        LoadBalancingPolicy policy = new LoadBalancingPolicy();
+        ReflectionTestUtils.setField(policy, "decayTime", decayTime);
+        ReflectionTestUtils.setField(policy, "initialLatency", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(policy, "failureThreshold", failureThreshold);
+        ReflectionTestUtils.setField(policy, "baseEjectionTime", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(policy, "maxEjectionTime", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(policy, "maxEjectionPercent", maxEjectionPercent);
+        policy.init();
+        return policy;
+    }
+    
+    private static class Harness {
+        
+        private final LoadBalancingPolicy policy;
+        private final InstanceStatsRegistry registry = new InstanceStatsRegistry();
+        private final List<ServiceInstance> instances = new ArrayList<>();
+        private final Map<String, Long> latencies = new HashMap<>();
+        private final LatencyAwareLoadBalancer loadBalancer;
+        
+        Harness(LoadBalancingPolicy policy, String... instanceIds) {
+            this.policy = policy;
+            ReflectionTestUtils.setField(registry, "policy", policy);
+            for (int i = 0; i < instanceIds.length; i++) {
+                instances.add(new DefaultServiceInstance(instanceIds[i], "kitchen-service", "10.0.0." + (i + 1), 8083, false));
+            }
+            this.loadBalancer = new LatencyAwareLoadBalancer(provider(instances), registry, policy);
+        }
+        
+        void latency(String instanceId, long nanos) {
+            latencies.put(instanceId, nanos);
+        }
+        
+        InstanceStats stats(String instanceId) {
+            for (ServiceInstance instance : instances) {
+                if (instance.getInstanceId().equals(instanceId)) {
+                    return registry.get(instance);
+                }
+            }
+            throw new IllegalArgumentException(instanceId);
+        }
+        
+        // 不经过负载均衡直接向实例回报一次完成，保证它有响应时间样本
+        void complete(String instanceId) {
+            InstanceStats stats = stats(instanceId);
+            stats.start();
+            stats.complete(latencies.getOrDefault(instanceId, FAST_NANOS), false, System.nanoTime(), policy);
+            stats.finish();
+        }
+        
+        // 占用进行中的请求名额，不回报完成
+        void hold(String instanceId, int requests) {
+            InstanceStats stats = stats(instanceId);
+            for (int i = 0; i < requests; i++) {
+                stats.start();
+            }
+        }
+        
+        void fail(String instanceId, int times) {
+            InstanceStats stats = stats(instanceId);
+            for (int i = 0; i < times; i++) {
+                stats.start();
+                stats.complete(FAST_NANOS, true, System.nanoTime(), policy);
+                stats.finish();
+            }
+        }
+        
+        ServiceInstance choose() {
+            return loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+        }
+        
+        // 顺序发出请求，每个请求选中后立即以设定的响应时间完成
+        Map<String, Integer> run(int requests) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = 0; i < requests; i++) {
+                ServiceInstance chosen = choose();
+                counts.merge(chosen.getInstanceId(), 1, Integer::sum);
+                complete(chosen.getInstanceId());
+            }
+            return counts;
+        }
+        
+        private static ObjectProvider<ServiceInstanceListSupplier> provider(List<ServiceInstance> instances) {
+            ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+                @Override
+                public String getServiceId() {
+                    return "kitchen-service";
+                }
+                
+                @Override
+                public Flux<List<ServiceInstance>> get() {
+                    return Flux.just(instances);
+                }
+            };
+            return new ObjectProvider<ServiceInstanceListSupplier>() {
+                @Override
+                public ServiceInstanceListSupplier getObject() {
+                    return supplier;
+                }
+                
+                @Override
+                public ServiceInstanceListSupplier getObject(Object... args) {
+                    return supplier;
+                }
+                
+                @Override
+                public ServiceInstanceListSupplier getIfAvailable() {
+                    return supplier;
+                }
+                
+                @Override
+                public ServiceInstanceListSupplier getIfUnique() {
+                    return supplier;
+                }
+            };
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.fooddelivery.delivery;
 
+import com.fooddelivery.delivery.model.TrackingNumberGenerator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableEurekaClient
+@EnableScheduling
 public class DeliveryServiceApplication {
     public static void main(String[] args) {
+        // 运单号节点号未配置或越界时在启动阶段失败，而不是在第一次创建配送单时
+        TrackingNumberGenerator.getNodeId();
         SpringApplication.run(DeliveryServiceApplication.class, args);
     }
 }
\ No newline at end of file
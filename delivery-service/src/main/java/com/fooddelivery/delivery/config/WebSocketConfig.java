@@ -0,0 +1,41 @@
+package com.fooddelivery.delivery.config;
+
+import com.fooddelivery.delivery.tracking.TrackingWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    
+    @Autowired
+    private TrackingWebSocketHandler trackingWebSocketHandler;
+    
+    // 客户端不发送业务消息，接收缓冲区取小值以降低每个连接的内存占用
+    @Value("${delivery.tracking.receive-buffer-bytes:1024}")
+    private int receiveBufferBytes;
+    
+    // 异步发送超过该时间未完成视为连接不可用并关闭
+    @Value("${delivery.tracking.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+    
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(trackingWebSocketHandler, "/ws/tracking").setAllowedOrigins("*");
+    }
+    
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(receiveBufferBytes);
+        container.setMaxBinaryMessageBufferSize(receiveBufferBytes);
+        container.setAsyncSendTimeout(sendTimeoutMillis);
+        return container;
+    }
+}
@@ -0,0 +1,75 @@
+package com.fooddelivery.delivery.controller;
+
+import com.fooddelivery.delivery.model.Delivery;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import com.fooddelivery.delivery.service.DeliveryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/deliveries")
+@CrossOrigin(origins = "*")
+public class DeliveryController {
+    
+    private static final String TRACKING_TOKEN_HEADER = "X-Tracking-Token";
+    
+    @Autowired
+    private DeliveryService deliveryService;
+    
+    @PostMapping
+    public ResponseEntity<Delivery> createDelivery(@RequestBody Delivery delivery) {
+        try {
+            Delivery created = deliveryService.createDelivery(delivery);
+            // 跟踪凭证只在这里返回一次，由下单方转交给收货人
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(TRACKING_TOKEN_HEADER, created.getTrackingToken())
+                    .body(created);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    @GetMapping("/{deliveryId}")
+    public ResponseEntity<Delivery> getDelivery(@PathVariable Long deliveryId) {
+        Optional<Delivery> delivery = deliveryService.getDeliveryById(deliveryId);
+        return delivery.map(d -> ResponseEntity.ok(d))
+                       .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // 运单号可被猜到，按运单号查询同样需要跟踪凭证，凭证不符与运单不存在一样返回 404
+    @GetMapping("/tracking/{trackingNumber}")
+    public ResponseEntity<Delivery> getDeliveryByTrackingNumber(@PathVariable String trackingNumber,
+                                                                @RequestParam String token) {
+        Optional<Delivery> delivery = deliveryService.getDeliveryByTrackingNumber(trackingNumber, token);
+        return delivery.map(d -> ResponseEntity.ok(d))
+                       .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // 手动触发派单，没有可用司机或配送单已被指派时返回 409
+    @PostMapping("/{deliveryId}/dispatch")
+    public ResponseEntity<Delivery> dispatch(@PathVariable Long deliveryId) {
+        if (!deliveryService.getDeliveryById(deliveryId).isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return deliveryService.dispatch(deliveryId)
+                .map(d -> ResponseEntity.ok(d))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+    
+    @PutMapping("/{deliveryId}/status")
+    public ResponseEntity<Delivery> updateStatus(
+            @PathVariable Long deliveryId,
+            @RequestParam DeliveryStatus status) {
+        try {
+            return ResponseEntity.ok(deliveryService.updateStatus(deliveryId, status));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
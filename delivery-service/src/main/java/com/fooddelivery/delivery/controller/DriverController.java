@@ -0,0 +1,119 @@
+package com.fooddelivery.delivery.controller;
+
+import com.fooddelivery.delivery.dispatch.DriverCandidate;
+import com.fooddelivery.delivery.dispatch.DriverIndex;
+import com.fooddelivery.delivery.dispatch.DriverPosition;
+import com.fooddelivery.delivery.journal.DeliveryEvent;
+import com.fooddelivery.delivery.journal.DeliveryJournal;
+import com.fooddelivery.delivery.location.LocationIngestor;
+import com.fooddelivery.delivery.location.LocationPing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/drivers")
+@CrossOrigin(origins = "*")
+public class DriverController {
+    
+    @Autowired
+    private DriverIndex driverIndex;
+    
+    @Autowired
+    private LocationIngestor locationIngestor;
+    
+    @Autowired
+    private DeliveryJournal deliveryJournal;
+    
+    @Value("${delivery.dispatch.max-distance-meters:5000}")
+    private double defaultMaxDistanceMeters;
+    
+    // 定位异步写入索引，通常在 1ms 内生效
+    @PutMapping("/{driverId}/location")
+    public ResponseEntity<Void> updateLocation(@PathVariable String driverId, @RequestBody LocationPing ping) {
+        ping.setDriverId(driverId);
+        if (!ping.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (locationIngestor.offer(Collections.singletonList(ping)) == 0) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+    
+    // 批量上报定位（司机端网关或聚合上报），无效的定位被忽略，缓冲区满时多出的部分被丢弃
+    @PostMapping("/locations")
+    public ResponseEntity<IngestResult> ingestLocations(@RequestBody List<LocationPing> pings) {
+        int accepted = locationIngestor.offer(pings);
+        IngestResult result = new IngestResult(pings.size(), accepted);
+        if (accepted == 0 && !pings.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(result);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+    
+    // 上线前需先上报一次位置
+    @PutMapping("/{driverId}/online")
+    public ResponseEntity<Void> setOnline(@PathVariable String driverId, @RequestParam boolean online) {
+        if (!driverIndex.setOnline(driverId, online)) {
+            return ResponseEntity.notFound().build();
+        }
+        deliveryJournal.record(DeliveryEvent.driverOnline(driverId, online));
+        return ResponseEntity.ok().build();
+    }
+    
+    @GetMapping("/{driverId}")
+    public ResponseEntity<DriverPosition> getDriver(@PathVariable String driverId) {
+        Optional<DriverPosition> driver = driverIndex.getDriver(driverId);
+        return driver.map(d -> ResponseEntity.ok(d))
+                     .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @DeleteMapping("/{driverId}")
+    public ResponseEntity<Void> removeDriver(@PathVariable String driverId) {
+        if (!driverIndex.remove(driverId)) {
+            return ResponseEntity.notFound().build();
+        }
+        deliveryJournal.record(DeliveryEvent.driverRemoved(driverId));
+        return ResponseEntity.ok().build();
+    }
+    
+    @GetMapping("/nearby")
+    public ResponseEntity<List<DriverCandidate>> findNearby(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Double maxDistanceMeters) {
+        if (!isValid(latitude, longitude) || limit <= 0 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        double maxDistance = maxDistanceMeters != null ? maxDistanceMeters : defaultMaxDistanceMeters;
+        return ResponseEntity.ok(driverIndex.nearestAvailable(latitude, longitude, limit, maxDistance));
+    }
+    
+    private static boolean isValid(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+    
+    // DTO类
+    static class IngestResult {
+        private final int received;
+        private final int accepted;
+        
+        IngestResult(int received, int accepted) {
+            this.received = received;
+            this.accepted = accepted;
+        }
+        
+        public int getReceived() { return received; }
+        public int getAccepted() { return accepted; }
+    }
+}
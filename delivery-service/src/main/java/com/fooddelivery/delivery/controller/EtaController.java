@@ -0,0 +1,100 @@
+package com.fooddelivery.delivery.controller;
+
+import com.fooddelivery.delivery.eta.EtaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/eta")
+@CrossOrigin(origins = "*")
+public class EtaController {
+    
+    private static final int MAX_BATCH_SIZE = 1000;
+    
+    @Autowired
+    private EtaService etaService;
+    
+    // 下单前预估送达时间（分钟）
+    @GetMapping
+    public ResponseEntity<EtaResult> quote(
+            @RequestParam double pickupLatitude,
+            @RequestParam double pickupLongitude,
+            @RequestParam double dropoffLatitude,
+            @RequestParam double dropoffLongitude) {
+        if (!isValid(pickupLatitude, pickupLongitude) || !isValid(dropoffLatitude, dropoffLongitude)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new EtaResult(etaService.quoteMinutes(
+                pickupLatitude, pickupLongitude, dropoffLatitude, dropoffLongitude)));
+    }
+    
+    // 批量预估，结果顺序与请求一致
+    @PostMapping("/batch")
+    public ResponseEntity<List<EtaResult>> quoteBatch(@RequestBody List<EtaRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = requests.size();
+        double[] pickupLatitudes = new double[size];
+        double[] pickupLongitudes = new double[size];
+        double[] dropoffLatitudes = new double[size];
+        double[] dropoffLongitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            EtaRequest request = requests.get(i);
+            if (request == null || !isValid(request.getPickupLatitude(), request.getPickupLongitude())
+                    || !isValid(request.getDropoffLatitude(), request.getDropoffLongitude())) {
+                return ResponseEntity.badRequest().build();
+            }
+            pickupLatitudes[i] = request.getPickupLatitude();
+            pickupLongitudes[i] = request.getPickupLongitude();
+            dropoffLatitudes[i] = request.getDropoffLatitude();
+            dropoffLongitudes[i] = request.getDropoffLongitude();
+        }
+        
+        int[] minutes = etaService.quoteMinutes(pickupLatitudes, pickupLongitudes, dropoffLatitudes, dropoffLongitudes);
+        List<EtaResult> results = new ArrayList<>(size);
+        for (int value : minutes) {
+            results.add(new EtaResult(value));
+        }
+        return ResponseEntity.ok(results);
+    }
+    
+    private static boolean isValid(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+    
+    // DTO类
+    static class EtaRequest {
+        private Double pickupLatitude;
+        private Double pickupLongitude;
+        private Double dropoffLatitude;
+        private Double dropoffLongitude;
+        
+        public Double getPickupLatitude() { return pickupLatitude; }
+        public void setPickupLatitude(Double pickupLatitude) { this.pickupLatitude = pickupLatitude; }
+        
+        public Double getPickupLongitude() { return pickupLongitude; }
+        public void setPickupLongitude(Double pickupLongitude) { this.pickupLongitude = pickupLongitude; }
+        
+        public Double getDropoffLatitude() { return dropoffLatitude; }
+        public void setDropoffLatitude(Double dropoffLatitude) { this.dropoffLatitude = dropoffLatitude; }
+        
+        public Double getDropoffLongitude() { return dropoffLongitude; }
+        public void setDropoffLongitude(Double dropoffLongitude) { this.dropoffLongitude = dropoffLongitude; }
+    }
+    
+    static class EtaResult {
+        private final Integer estimatedMinutes;
+        
+        EtaResult(Integer estimatedMinutes) {
+            this.estimatedMinutes = estimatedMinutes;
+        }
+        
+        public Integer getEstimatedMinutes() { return estimatedMinutes; }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fooddelivery.delivery.controller;
+
+import com.fooddelivery.delivery.journal.DeliveryEvent;
+import com.fooddelivery.delivery.journal.DeliveryJournal;
+import com.fooddelivery.delivery.journal.JournalStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/journal")
+@CrossOrigin(origins = "*")
+public class JournalController {
+    
+    private static final int MAX_LIMIT = 10000;
+    
+    @Autowired
+    private DeliveryJournal deliveryJournal;
+    
+    @GetMapping("/status")
+    public ResponseEntity<JournalStatus> getStatus() {
+        try {
+            return ResponseEntity.ok(deliveryJournal.getStatus());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // 按序号分页读取本节点的事件，下一页从最后一条的 sequence + 1 开始；用于压测回放
+    @GetMapping("/events")
+    public ResponseEntity<List<DeliveryEvent>> getEvents(
+            @RequestParam(defaultValue = "1") long fromSequence,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (fromSequence < 1 || limit <= 0 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(deliveryJournal.read(fromSequence, limit));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fooddelivery.delivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 批量派单求解：以司机到取餐点的行驶时间乘以任务内配送单数为代价，
+// 在每个任务的 k 个最近候选司机上求全局最小代价指派。
+// 每个任务另有一个"本轮不派"的虚拟列，候选不足或司机不够时任务留到下一轮
+public class BatchOptimizer {
+    
+    private static final double UNASSIGNED = 1e7;
+    private static final double FORBIDDEN = 1e9;
+    
+    private final TravelTimeEstimator travelTimeEstimator;
+    private final int candidatesPerJob;
+    
+    public BatchOptimizer(TravelTimeEstimator travelTimeEstimator, int candidatesPerJob) {
+        this.travelTimeEstimator = travelTimeEstimator;
+        this.candidatesPerJob = candidatesPerJob;
+    }
+    
+    public List<JobAssignment> solve(List<DispatchJob> jobs, CandidateSource candidateSource) {
+        List<DispatchJob> rows = new ArrayList<>(jobs.size());
+        List<List<DriverCandidate>> rowCandidates = new ArrayList<>(jobs.size());
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> columnDrivers = new ArrayList<>();
+        
+        for (DispatchJob job : jobs) {
+            List<DriverCandidate> candidates = candidateSource.nearestAvailable(
+                    job.getPickupLatitude(), job.getPickupLongitude(), candidatesPerJob);
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            rows.add(job);
+            rowCandidates.add(candidates);
+            for (DriverCandidate candidate : candidates) {
+                if (!columns.containsKey(candidate.getDriverId())) {
+                    columns.put(candidate.getDriverId(), columnDrivers.size());
+                    columnDrivers.add(candidate.getDriverId());
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // 所有候选司机到取餐点的行驶时间一次批量估算
+        int pairs = 0;
+        for (List<DriverCandidate> candidates : rowCandidates) {
+            pairs += candidates.size();
+        }
+        double[] fromLatitudes = new double[pairs];
+        double[] fromLongitudes = new double[pairs];
+        double[] toLatitudes = new double[pairs];
+        double[] toLongitudes = new double[pairs];
+        int pair = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            DispatchJob job = rows.get(i);
+            for (DriverCandidate candidate : rowCandidates.get(i)) {
+                fromLatitudes[pair] = candidate.getLatitude();
+                fromLongitudes[pair] = candidate.getLongitude();
+                toLatitudes[pair] = job.getPickupLatitude();
+                toLongitudes[pair] = job.getPickupLongitude();
+                pair++;
+            }
+        }
+        double[] travelSeconds = travelTimeEstimator.travelSeconds(
+                fromLatitudes, fromLongitudes, toLatitudes, toLongitudes);
+        
+        int n = rows.size();
+        int m = columnDrivers.size();
+        double[][] cost = new double[n][m + n];
+        pair = 0;
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(cost[i], FORBIDDEN);
+            cost[i][m + i] = UNASSIGNED;
+            
+            DispatchJob job = rows.get(i);
+            for (DriverCandidate candidate : rowCandidates.get(i)) {
+                cost[i][columns.get(candidate.getDriverId())] = travelSeconds[pair++] * job.size();
+            }
+        }
+        
+        int[] match = HungarianAlgorithm.solve(cost);
+        List<JobAssignment> assignments = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int column = match[i];
+            if (column < m && cost[i][column] < UNASSIGNED) {
+                assignments.add(new JobAssignment(rows.get(i), columnDrivers.get(column),
+                        cost[i][column] / rows.get(i).size()));
+            }
+        }
+        return assignments;
+    }
+}
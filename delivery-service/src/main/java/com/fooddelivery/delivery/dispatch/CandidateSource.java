@@ -0,0 +1,9 @@
+package com.fooddelivery.delivery.dispatch;
+
+import java.util.List;
+
+// 批量派单时为每个取餐点提供候选司机，线上为 DriverIndex，模拟器为模拟的司机集合
+@FunctionalInterface
+public interface CandidateSource {
+    List<DriverCandidate> nearestAvailable(double latitude, double longitude, int k);
+}
@@ -0,0 +1,29 @@
+package com.fooddelivery.delivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// 派给同一个司机的一组配送单：同一取餐点，送达顺序即 tasks 的顺序
+public class DispatchJob {
+    private final List<DispatchTask> tasks = new ArrayList<>();
+    
+    DispatchJob(DispatchTask first) {
+        tasks.add(first);
+    }
+    
+    void add(DispatchTask task) {
+        tasks.add(task);
+    }
+    
+    void setOrder(List<DispatchTask> ordered) {
+        tasks.clear();
+        tasks.addAll(ordered);
+    }
+    
+    public List<DispatchTask> getTasks() { return Collections.unmodifiableList(tasks); }
+    public DispatchTask getFirst() { return tasks.get(0); }
+    public double getPickupLatitude() { return tasks.get(0).getPickupLatitude(); }
+    public double getPickupLongitude() { return tasks.get(0).getPickupLongitude(); }
+    public int size() { return tasks.size(); }
+}
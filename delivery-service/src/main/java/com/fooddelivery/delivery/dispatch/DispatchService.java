@@ -0,0 +1,267 @@
+package com.fooddelivery.delivery.dispatch;
+
+import com.fooddelivery.delivery.eta.EtaService;
+import com.fooddelivery.delivery.journal.DeliveryEvent;
+import com.fooddelivery.delivery.journal.DeliveryJournal;
+import com.fooddelivery.delivery.model.Delivery;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import com.fooddelivery.delivery.repository.DeliveryRepository;
+import com.fooddelivery.delivery.tracking.TrackingHub;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// 派单：为 PENDING 配送单在取餐点附近查找空闲司机并指派。greedy 模式下新建即派给最近的司机；
+// batch 模式下按窗口收集待派配送单，先合单再对候选司机求全局最小代价指派，高峰期整体取餐时间更短。
+// 司机在本节点内存中预占，配送单用条件更新防止重复指派；
+// 司机索引只在本节点内存中，同一区域的派单应只在一个节点上开启（delivery.dispatch.enabled）
+@Service
+public class DispatchService {
+    
+    @Autowired
+    private DriverIndex driverIndex;
+    
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+    
+    @Autowired
+    private TravelTimeEstimator travelTimeEstimator;
+    
+    @Autowired
+    private EtaService etaService;
+    
+    @Autowired
+    private TrackingHub trackingHub;
+    
+    @Autowired
+    private DeliveryJournal deliveryJournal;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${delivery.dispatch.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${delivery.dispatch.mode:greedy}")
+    private String mode;
+    
+    @Value("${delivery.dispatch.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${delivery.dispatch.candidates:5}")
+    private int candidates;
+    
+    @Value("${delivery.dispatch.max-distance-meters:5000}")
+    private double maxDistanceMeters;
+    
+    @Value("${delivery.dispatch.stacking.max-size:2}")
+    private int maxStackSize;
+    
+    @Value("${delivery.dispatch.stacking.max-created-spread:5m}")
+    private Duration maxCreatedSpread;
+    
+    @Value("${delivery.dispatch.stacking.max-dropoff-gap:5m}")
+    private Duration maxDropoffGap;
+    
+    private StackPlanner stackPlanner;
+    private BatchOptimizer batchOptimizer;
+    
+    @PostConstruct
+    public void init() {
+        this.stackPlanner = new StackPlanner(travelTimeEstimator, maxStackSize,
+                maxCreatedSpread.toMillis(), maxDropoffGap.getSeconds());
+        this.batchOptimizer = new BatchOptimizer(travelTimeEstimator, candidates);
+    }
+    
+    public boolean isBatchMode() {
+        return "batch".equalsIgnoreCase(mode);
+    }
+    
+    // 重启后把有进行中配送单的司机标记为忙碌，避免被重复派单
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreBusyDrivers() {
+        List<Delivery> active = deliveryRepository.findByStatusIn(
+                EnumSet.of(DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT));
+        active.stream()
+                .map(Delivery::getDriverId)
+                .filter(driverId -> driverId != null)
+                .forEach(driverIndex::restoreBusy);
+    }
+    
+    // greedy 模式下补派新建时没有可用司机的配送单；batch 模式下即批量派单的窗口
+    @Scheduled(fixedDelayString = "${delivery.dispatch.interval-ms:2000}")
+    public void dispatchPending() {
+        if (!enabled) {
+            return;
+        }
+        List<Delivery> pending = deliveryRepository
+                .findByStatusAndPickupLatitudeIsNotNullAndPickupLongitudeIsNotNullOrderByCreatedAtAsc(
+                        DeliveryStatus.PENDING, PageRequest.of(0, batchSize));
+        if (isBatchMode()) {
+            dispatchBatch(pending);
+            return;
+        }
+        for (Delivery delivery : pending) {
+            dispatch(delivery);
+        }
+    }
+    
+    // 过期司机的移除同样记入事件日志，否则重启重放后这些司机又会回到索引中
+    @Scheduled(fixedDelayString = "${delivery.drivers.evict-interval-ms:60000}")
+    public void evictExpiredDrivers() {
+        List<String> evicted = driverIndex.evictExpired();
+        if (evicted.isEmpty()) {
+            return;
+        }
+        List<DeliveryEvent> events = new ArrayList<>(evicted.size());
+        for (String driverId : evicted) {
+            events.add(DeliveryEvent.driverRemoved(driverId));
+        }
+        deliveryJournal.record(events);
+    }
+    
+    private void dispatchBatch(List<Delivery> pending) {
+        Map<Long, Delivery> deliveries = new HashMap<>();
+        List<DispatchTask> tasks = new ArrayList<>(pending.size());
+        for (Delivery delivery : pending) {
+            if (delivery.getPickupLatitude() == null || delivery.getPickupLongitude() == null) {
+                record("no_location", 1);
+                continue;
+            }
+            deliveries.put(delivery.getId(), delivery);
+            tasks.add(DispatchTask.of(delivery));
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        
+        List<DispatchJob> jobs = stackPlanner.plan(tasks);
+        List<JobAssignment> assignments = batchOptimizer.solve(jobs,
+                (latitude, longitude, k) -> driverIndex.nearestAvailable(latitude, longitude, k, maxDistanceMeters));
+        
+        int assignedTotal = 0;
+        for (JobAssignment assignment : assignments) {
+            String driverId = assignment.getDriverId();
+            if (!driverIndex.reserve(driverId)) {
+                continue;
+            }
+            int assigned = 0;
+            for (DispatchTask task : assignment.getJob().getTasks()) {
+                Delivery delivery = deliveries.get(task.getDeliveryId());
+                boolean updated;
+                try {
+                    updated = assign(delivery, driverId);
+                } catch (RuntimeException e) {
+                    // 已经指派出去的配送单仍占用该司机，一单都没指派成功时才释放预占
+                    if (assigned == 0) {
+                        driverIndex.release(driverId);
+                    }
+                    record("error", 1);
+                    throw e;
+                }
+                if (updated) {
+                    assigned++;
+                    publishAssigned(delivery);
+                }
+            }
+            if (assigned == 0) {
+                driverIndex.release(driverId);
+                continue;
+            }
+            record("assigned", assigned);
+            if (assigned > 1) {
+                record("stacked", assigned);
+            }
+            assignedTotal += assigned;
+        }
+        // 没有候选司机、司机被占用或已被其他节点指派的配送单留到下一个窗口
+        if (assignedTotal < tasks.size()) {
+            record("deferred", tasks.size() - assignedTotal);
+        }
+    }
+    
+    public Optional<Delivery> dispatch(Delivery delivery) {
+        if (!enabled || delivery.getStatus() != DeliveryStatus.PENDING) {
+            return Optional.empty();
+        }
+        if (delivery.getPickupLatitude() == null || delivery.getPickupLongitude() == null) {
+            record("no_location", 1);
+            return Optional.empty();
+        }
+        
+        List<DriverCandidate> nearest = driverIndex.nearestAvailable(
+                delivery.getPickupLatitude(), delivery.getPickupLongitude(), candidates, maxDistanceMeters);
+        for (DriverCandidate candidate : nearest) {
+            // 查询与预占之间司机可能已被其他配送单占用，依次尝试下一个
+            if (!driverIndex.reserve(candidate.getDriverId())) {
+                continue;
+            }
+            boolean updated;
+            try {
+                updated = assign(delivery, candidate.getDriverId());
+            } catch (RuntimeException e) {
+                driverIndex.release(candidate.getDriverId());
+                record("error", 1);
+                throw e;
+            }
+            if (!updated) {
+                driverIndex.release(candidate.getDriverId());
+                record("conflict", 1);
+                return Optional.empty();
+            }
+            publishAssigned(delivery);
+            record("assigned", 1);
+            return Optional.of(delivery);
+        }
+        
+        record("no_driver", 1);
+        return Optional.empty();
+    }
+    
+    // 估算送达时间并条件更新配送单；抛出异常时配送单未被指派，由调用方释放司机预占
+    private boolean assign(Delivery delivery, String driverId) {
+        Optional<DriverPosition> position = driverIndex.getDriver(driverId);
+        Integer estimatedMinutes = etaService.estimateMinutes(DeliveryStatus.ASSIGNED,
+                position.map(DriverPosition::getLatitude).orElse(null),
+                position.map(DriverPosition::getLongitude).orElse(null),
+                delivery.getPickupLatitude(), delivery.getPickupLongitude(),
+                delivery.getDropoffLatitude(), delivery.getDropoffLongitude());
+        int updated = estimatedMinutes != null
+                ? deliveryRepository.assignDriverWithEstimate(delivery.getId(), driverId,
+                        DeliveryStatus.PENDING, DeliveryStatus.ASSIGNED, estimatedMinutes)
+                : deliveryRepository.assignDriver(delivery.getId(), driverId,
+                        DeliveryStatus.PENDING, DeliveryStatus.ASSIGNED);
+        if (updated == 0) {
+            return false;
+        }
+        delivery.setDriverId(driverId);
+        delivery.setStatus(DeliveryStatus.ASSIGNED);
+        if (estimatedMinutes != null) {
+            delivery.setEstimatedDeliveryTime(estimatedMinutes);
+        }
+        return true;
+    }
+    
+    private void publishAssigned(Delivery delivery) {
+        deliveryJournal.record(DeliveryEvent.assigned(delivery));
+        trackingHub.onDeliveryChanged(delivery);
+    }
+    
+    private void record(String result, int count) {
+        meterRegistry.counter("delivery.dispatch.attempts", "result", result).increment(count);
+    }
+}
@@ -0,0 +1,49 @@
+package com.fooddelivery.delivery.dispatch;
+
+import com.fooddelivery.delivery.model.Delivery;
+
+import java.time.ZoneId;
+
+// 批量派单的输入：一张待派配送单的取餐点、送达点和进入待派状态的时间。
+// 送达点未知时坐标为 NaN，这样的配送单不参与合单
+public class DispatchTask {
+    private final Long deliveryId;
+    private final String restaurantId;
+    private final double pickupLatitude;
+    private final double pickupLongitude;
+    private final double dropoffLatitude;
+    private final double dropoffLongitude;
+    private final long createdAt;
+    
+    public DispatchTask(Long deliveryId, String restaurantId,
+                        double pickupLatitude, double pickupLongitude,
+                        double dropoffLatitude, double dropoffLongitude, long createdAt) {
+        this.deliveryId = deliveryId;
+        this.restaurantId = restaurantId;
+        this.pickupLatitude = pickupLatitude;
+        this.pickupLongitude = pickupLongitude;
+        this.dropoffLatitude = dropoffLatitude;
+        this.dropoffLongitude = dropoffLongitude;
+        this.createdAt = createdAt;
+    }
+    
+    static DispatchTask of(Delivery delivery) {
+        return new DispatchTask(delivery.getId(), delivery.getRestaurantId(),
+                delivery.getPickupLatitude(), delivery.getPickupLongitude(),
+                delivery.getDropoffLatitude() != null ? delivery.getDropoffLatitude() : Double.NaN,
+                delivery.getDropoffLongitude() != null ? delivery.getDropoffLongitude() : Double.NaN,
+                delivery.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+    
+    public boolean hasDropoff() {
+        return !Double.isNaN(dropoffLatitude) && !Double.isNaN(dropoffLongitude);
+    }
+    
+    public Long getDeliveryId() { return deliveryId; }
+    public String getRestaurantId() { return restaurantId; }
+    public double getPickupLatitude() { return pickupLatitude; }
+    public double getPickupLongitude() { return pickupLongitude; }
+    public double getDropoffLatitude() { return dropoffLatitude; }
+    public double getDropoffLongitude() { return dropoffLongitude; }
+    public long getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,21 @@
+package com.fooddelivery.delivery.dispatch;
+
+// 最近司机查询结果
+public class DriverCandidate {
+    private final String driverId;
+    private final double latitude;
+    private final double longitude;
+    private final double distanceMeters;
+    
+    public DriverCandidate(String driverId, double latitude, double longitude, double distanceMeters) {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceMeters = distanceMeters;
+    }
+    
+    public String getDriverId() { return driverId; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public double getDistanceMeters() { return distanceMeters; }
+}
@@ -0,0 +1,506 @@
+package com.fooddelivery.delivery.dispatch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+// 司机实时位置的内存网格索引：服务区域按固定边长划分网格，每个网格内的司机用
+// 数组下标串成双向链表；司机数据按槽位存放在并行的基本类型数组中，位置更新只改
+// 几个数组元素，不产生对象。最近司机查询从所在网格开始逐圈向外扩展
+@Component
+public class DriverIndex {
+    
+    private static final int NONE = -1;
+    
+    private static final byte ONLINE = 1;
+    private static final byte BUSY = 2;
+    
+    private static final double METERS_PER_DEGREE = 111_320d;
+    
+    // 服务区域边界，区域外的坐标归入边缘网格（距离仍按真实坐标计算）
+    @Value("${delivery.grid.min-latitude:30.60}")
+    private double minLatitude;
+    
+    @Value("${delivery.grid.max-latitude:31.90}")
+    private double maxLatitude;
+    
+    @Value("${delivery.grid.min-longitude:120.80}")
+    private double minLongitude;
+    
+    @Value("${delivery.grid.max-longitude:122.20}")
+    private double maxLongitude;
+    
+    @Value("${delivery.grid.cell-size-meters:500}")
+    private double cellSizeMeters;
+    
+    @Value("${delivery.drivers.initial-capacity:1024}")
+    private int initialCapacity;
+    
+    // 超过该时间没有上报位置的司机不参与派单
+    @Value("${delivery.drivers.stale-after:30s}")
+    private Duration staleAfter;
+    
+    // 超过该时间没有上报位置且没有进行中配送单的司机从索引中移除
+    @Value("${delivery.drivers.expire-after:10m}")
+    private Duration expireAfter;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final StampedLock lock = new StampedLock();
+    
+    private final Map<String, Integer> slotsByDriver = new HashMap<>();
+    
+    // 网格参数，按服务区域中心纬度把经纬度近似换算为平面米坐标
+    private int rows;
+    private int cols;
+    private double metersPerDegreeLatitude;
+    private double metersPerDegreeLongitude;
+    private int[] cellHeads;
+    
+    // 按槽位存放的司机数据
+    private String[] driverIds;
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] updatedAt;
+    private byte[] flags;
+    private int[] cells;
+    private int[] nextInCell;
+    private int[] prevInCell;
+    
+    private int[] freeSlots;
+    private int freeCount;
+    private int highWater;
+    
+    @PostConstruct
+    public void init() {
+        double centerLatitude = (minLatitude + maxLatitude) / 2;
+        this.metersPerDegreeLatitude = METERS_PER_DEGREE;
+        this.metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(centerLatitude));
+        this.rows = Math.max(1, (int) Math.ceil((maxLatitude - minLatitude) * metersPerDegreeLatitude / cellSizeMeters));
+        this.cols = Math.max(1, (int) Math.ceil((maxLongitude - minLongitude) * metersPerDegreeLongitude / cellSizeMeters));
+        this.cellHeads = new int[rows * cols];
+        Arrays.fill(cellHeads, NONE);
+        
+        allocate(Math.max(16, initialCapacity));
+        
+        Gauge.builder("delivery.drivers", this, DriverIndex::getDriverCount)
+                .tag("state", "tracked").register(meterRegistry);
+        Gauge.builder("delivery.drivers", this, DriverIndex::getAvailableCount)
+                .tag("state", "available").register(meterRegistry);
+    }
+    
+    // 更新司机位置，新司机以离线状态加入；时间戳早于已记录位置的上报会被忽略
+    public boolean updateLocation(String driverId, double latitude, double longitude, long timestamp) {
+        long now = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            return applyLocation(driverId, latitude, longitude, timestamp, now);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // 批量更新位置，整批只加一次写锁；返回实际生效的条数
+    public int updateLocations(String[] ids, double[] lats, double[] lons, long[] timestamps, int count) {
+        int applied = 0;
+        long now = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < count; i++) {
+                if (applyLocation(ids[i], lats[i], lons[i], timestamps[i], now)) {
+                    applied++;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return applied;
+    }
+    
+    // 司机上线/下线，未上报过位置的司机返回 false
+    public boolean setOnline(String driverId, boolean online) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(driverId);
+            if (slot == NONE) {
+                return false;
+            }
+            flags[slot] = (byte) (online ? flags[slot] | ONLINE : flags[slot] & ~ONLINE);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // 预占司机：只有在线、空闲且位置未过期的司机才能被预占
+    public boolean reserve(String driverId) {
+        long now = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(driverId);
+            if (slot == NONE || !isAvailable(slot, now - staleAfter.toMillis())) {
+                return false;
+            }
+            flags[slot] |= BUSY;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    public void release(String driverId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(driverId);
+            if (slot != NONE) {
+                flags[slot] &= ~BUSY;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // 重启后恢复有进行中配送单的司机，位置在其下次上报时补上
+    public void restoreBusy(String driverId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(driverId);
+            if (slot == NONE) {
+                newSlot(driverId, BUSY);
+            } else {
+                flags[slot] |= BUSY;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    public boolean remove(String driverId) {
+        long stamp = lock.writeLock();
+        try {
+            Integer slot = slotsByDriver.remove(driverId);
+            if (slot == null) {
+                return false;
+            }
+            freeSlot(slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    public Optional<DriverPosition> getDriver(String driverId) {
+        long stamp = lock.readLock();
+        try {
+            int slot = slotOf(driverId);
+            if (slot == NONE) {
+                return Optional.empty();
+            }
+            return Optional.of(new DriverPosition(driverId,
+                    cells[slot] == NONE ? null : latitudes[slot],
+                    cells[slot] == NONE ? null : longitudes[slot],
+                    updatedAt[slot], (flags[slot] & ONLINE) != 0, (flags[slot] & BUSY) != 0));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    // 查找距离给定坐标最近的 k 个可派单司机，按距离升序返回，超出 maxDistanceMeters 的不返回
+    public List<DriverCandidate> nearestAvailable(double latitude, double longitude, int k, double maxDistanceMeters) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        long staleBefore = System.currentTimeMillis() - staleAfter.toMillis();
+        double maxDistanceSquared = maxDistanceMeters * maxDistanceMeters;
+        
+        // 大小为 k 的最大堆，堆顶为当前第 k 近的司机
+        double[] heapDistances = new double[k];
+        int[] heapSlots = new int[k];
+        int size = 0;
+        List<DriverCandidate> result;
+        
+        long stamp = lock.readLock();
+        try {
+            int cell = cellOf(latitude, longitude);
+            int centerRow = cell / cols;
+            int centerCol = cell % cols;
+            int maxRing = Math.max(Math.max(centerRow, rows - 1 - centerRow), Math.max(centerCol, cols - 1 - centerCol));
+            
+            for (int ring = 0; ring <= maxRing; ring++) {
+                int top = centerRow - ring;
+                int bottom = centerRow + ring;
+                int left = centerCol - ring;
+                int right = centerCol + ring;
+                
+                for (int col = Math.max(0, left); col <= Math.min(cols - 1, right); col++) {
+                    if (top >= 0) {
+                        size = scanCell(top * cols + col, latitude, longitude, staleBefore, maxDistanceSquared,
+                                heapDistances, heapSlots, size);
+                    }
+                    if (ring > 0 && bottom < rows) {
+                        size = scanCell(bottom * cols + col, latitude, longitude, staleBefore, maxDistanceSquared,
+                                heapDistances, heapSlots, size);
+                    }
+                }
+                for (int row = Math.max(0, top + 1); row <= Math.min(rows - 1, bottom - 1); row++) {
+                    if (ring > 0 && left >= 0) {
+                        size = scanCell(row * cols + left, latitude, longitude, staleBefore, maxDistanceSquared,
+                                heapDistances, heapSlots, size);
+                    }
+                    if (ring > 0 && right < cols) {
+                        size = scanCell(row * cols + right, latitude, longitude, staleBefore, maxDistanceSquared,
+                                heapDistances, heapSlots, size);
+                    }
+                }
+                
+                // 第 ring 圈以外的司机距离至少为 ring 个网格边长
+                double bound = ring * cellSizeMeters;
+                if (bound * bound >= maxDistanceSquared || (size == k && heapDistances[0] <= bound * bound)) {
+                    break;
+                }
+            }
+            
+            result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int slot = heapSlots[i];
+                result.add(new DriverCandidate(driverIds[slot], latitudes[slot], longitudes[slot],
+                        Math.sqrt(heapDistances[i])));
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        
+        result.sort((a, b) -> Double.compare(a.getDistanceMeters(), b.getDistanceMeters()));
+        return result;
+    }
+    
+    public int getDriverCount() {
+        long stamp = lock.readLock();
+        try {
+            return slotsByDriver.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    public int getAvailableCount() {
+        long staleBefore = System.currentTimeMillis() - staleAfter.toMillis();
+        long stamp = lock.readLock();
+        try {
+            int count = 0;
+            for (int slot = 0; slot < highWater; slot++) {
+                if (driverIds[slot] != null && isAvailable(slot, staleBefore)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    // 移除长时间未上报且空闲的司机，返回被移除的司机 ID，由调用方写入事件日志
+    public List<String> evictExpired() {
+        long expireBefore = System.currentTimeMillis() - expireAfter.toMillis();
+        List<String> evicted = new ArrayList<>();
+        long stamp = lock.writeLock();
+        try {
+            for (int slot = 0; slot < highWater; slot++) {
+                if (driverIds[slot] != null && (flags[slot] & BUSY) == 0 && updatedAt[slot] < expireBefore) {
+                    evicted.add(driverIds[slot]);
+                    slotsByDriver.remove(driverIds[slot]);
+                    freeSlot(slot);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return evicted;
+    }
+    
+    // 位置时间不晚于当前时间，未来时间会让司机一直显得新鲜、后续定位又都被当成过期
+    private boolean applyLocation(String driverId, double latitude, double longitude, long timestamp, long now) {
+        timestamp = Math.min(timestamp, now);
+        int slot = slotOf(driverId);
+        if (slot == NONE) {
+            slot = newSlot(driverId, (byte) 0);
+        } else if (timestamp < updatedAt[slot]) {
+            return false;
+        }
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        updatedAt[slot] = timestamp;
+        
+        int cell = cellOf(latitude, longitude);
+        if (cell != cells[slot]) {
+            unlink(slot);
+            link(slot, cell);
+        }
+        return true;
+    }
+    
+    private int scanCell(int cell, double latitude, double longitude, long staleBefore, double maxDistanceSquared,
+                         double[] heapDistances, int[] heapSlots, int size) {
+        for (int slot = cellHeads[cell]; slot != NONE; slot = nextInCell[slot]) {
+            if (!isAvailable(slot, staleBefore)) {
+                continue;
+            }
+            double dy = (latitudes[slot] - latitude) * metersPerDegreeLatitude;
+            double dx = (longitudes[slot] - longitude) * metersPerDegreeLongitude;
+            double distance = dx * dx + dy * dy;
+            if (distance > maxDistanceSquared) {
+                continue;
+            }
+            if (size < heapSlots.length) {
+                heapDistances[size] = distance;
+                heapSlots[size] = slot;
+                siftUp(heapDistances, heapSlots, size);
+                size++;
+            } else if (distance < heapDistances[0]) {
+                heapDistances[0] = distance;
+                heapSlots[0] = slot;
+                siftDown(heapDistances, heapSlots, size);
+            }
+        }
+        return size;
+    }
+    
+    private static void siftUp(double[] distances, int[] slots, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (distances[parent] >= distances[index]) {
+                return;
+            }
+            swap(distances, slots, parent, index);
+            index = parent;
+        }
+    }
+    
+    private static void siftDown(double[] distances, int[] slots, int size) {
+        int index = 0;
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && distances[left] > distances[largest]) {
+                largest = left;
+            }
+            if (right < size && distances[right] > distances[largest]) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(distances, slots, largest, index);
+            index = largest;
+        }
+    }
+    
+    private static void swap(double[] distances, int[] slots, int i, int j) {
+        double distance = distances[i];
+        distances[i] = distances[j];
+        distances[j] = distance;
+        int slot = slots[i];
+        slots[i] = slots[j];
+        slots[j] = slot;
+    }
+    
+    private boolean isAvailable(int slot, long staleBefore) {
+        return flags[slot] == ONLINE && cells[slot] != NONE && updatedAt[slot] >= staleBefore;
+    }
+    
+    private int cellOf(double latitude, double longitude) {
+        int row = (int) ((latitude - minLatitude) * metersPerDegreeLatitude / cellSizeMeters);
+        int col = (int) ((longitude - minLongitude) * metersPerDegreeLongitude / cellSizeMeters);
+        row = Math.min(rows - 1, Math.max(0, row));
+        col = Math.min(cols - 1, Math.max(0, col));
+        return row * cols + col;
+    }
+    
+    private int slotOf(String driverId) {
+        Integer slot = slotsByDriver.get(driverId);
+        return slot != null ? slot : NONE;
+    }
+    
+    private int newSlot(String driverId, byte initialFlags) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (highWater == driverIds.length) {
+                allocate(driverIds.length * 2);
+            }
+            slot = highWater++;
+        }
+        driverIds[slot] = driverId;
+        flags[slot] = initialFlags;
+        updatedAt[slot] = Long.MIN_VALUE;
+        cells[slot] = NONE;
+        slotsByDriver.put(driverId, slot);
+        return slot;
+    }
+    
+    private void freeSlot(int slot) {
+        unlink(slot);
+        driverIds[slot] = null;
+        flags[slot] = 0;
+        freeSlots[freeCount++] = slot;
+    }
+    
+    private void link(int slot, int cell) {
+        int head = cellHeads[cell];
+        nextInCell[slot] = head;
+        prevInCell[slot] = NONE;
+        if (head != NONE) {
+            prevInCell[head] = slot;
+        }
+        cellHeads[cell] = slot;
+        cells[slot] = cell;
+    }
+    
+    private void unlink(int slot) {
+        int cell = cells[slot];
+        if (cell == NONE) {
+            return;
+        }
+        int prev = prevInCell[slot];
+        int next = nextInCell[slot];
+        if (prev != NONE) {
+            nextInCell[prev] = next;
+        } else {
+            cellHeads[cell] = next;
+        }
+        if (next != NONE) {
+            prevInCell[next] = prev;
+        }
+        cells[slot] = NONE;
+    }
+    
+    private void allocate(int capacity) {
+        int previous = driverIds == null ? 0 : driverIds.length;
+        driverIds = driverIds == null ? new String[capacity] : Arrays.copyOf(driverIds, capacity);
+        latitudes = latitudes == null ? new double[capacity] : Arrays.copyOf(latitudes, capacity);
+        longitudes = longitudes == null ? new double[capacity] : Arrays.copyOf(longitudes, capacity);
+        updatedAt = updatedAt == null ? new long[capacity] : Arrays.copyOf(updatedAt, capacity);
+        flags = flags == null ? new byte[capacity] : Arrays.copyOf(flags, capacity);
+        cells = cells == null ? new int[capacity] : Arrays.copyOf(cells, capacity);
+        nextInCell = nextInCell == null ? new int[capacity] : Arrays.copyOf(nextInCell, capacity);
+        prevInCell = prevInCell == null ? new int[capacity] : Arrays.copyOf(prevInCell, capacity);
+        freeSlots = freeSlots == null ? new int[capacity] : Arrays.copyOf(freeSlots, capacity);
+        Arrays.fill(cells, previous, capacity, NONE);
+    }
+}
@@ -0,0 +1,28 @@
+package com.fooddelivery.delivery.dispatch;
+
+// 司机在索引中的状态快照，尚未上报位置时坐标为 null
+public class DriverPosition {
+    private final String driverId;
+    private final Double latitude;
+    private final Double longitude;
+    private final long updatedAt;
+    private final boolean online;
+    private final boolean busy;
+    
+    public DriverPosition(String driverId, Double latitude, Double longitude,
+                          long updatedAt, boolean online, boolean busy) {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.updatedAt = updatedAt;
+        this.online = online;
+        this.busy = busy;
+    }
+    
+    public String getDriverId() { return driverId; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public long getUpdatedAt() { return updatedAt; }
+    public boolean isOnline() { return online; }
+    public boolean isBusy() { return busy; }
+}
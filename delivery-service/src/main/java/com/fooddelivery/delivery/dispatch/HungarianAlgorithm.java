@@ -0,0 +1,78 @@
+package com.fooddelivery.delivery.dispatch;
+
+import java.util.Arrays;
+
+// 最小代价指派（Hungarian / Kuhn-Munkres，带势函数的 O(n²m) 实现）。
+// cost 为 n 行 m 列且 n <= m，返回每一行指派到的列
+final class HungarianAlgorithm {
+    
+    private HungarianAlgorithm() {
+    }
+    
+    static int[] solve(double[][] cost) {
+        int n = cost.length;
+        int m = n == 0 ? 0 : cost[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("Rows must not exceed columns: " + n + " > " + m);
+        }
+        
+        // 下标从 1 开始，第 0 列为虚拟列；u/v 为行/列势，p[j] 为第 j 列匹配的行
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+        
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double[] row = cost[i0 - 1];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double reduced = row[j - 1] - u[i0] - v[j];
+                        if (reduced < minv[j]) {
+                            minv[j] = reduced;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            
+            // 沿增广路径翻转匹配
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        
+        int[] assignment = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                assignment[p[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,18 @@
+package com.fooddelivery.delivery.dispatch;
+
+// 批量派单结果：一组配送单指派给一个司机，pickupSeconds 为司机到取餐点的预计时间
+public class JobAssignment {
+    private final DispatchJob job;
+    private final String driverId;
+    private final double pickupSeconds;
+    
+    public JobAssignment(DispatchJob job, String driverId, double pickupSeconds) {
+        this.job = job;
+        this.driverId = driverId;
+        this.pickupSeconds = pickupSeconds;
+    }
+    
+    public DispatchJob getJob() { return job; }
+    public String getDriverId() { return driverId; }
+    public double getPickupSeconds() { return pickupSeconds; }
+}
@@ -0,0 +1,112 @@
+package com.fooddelivery.delivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 合单：同一餐厅、下单时间相近且送达点相互靠近的配送单合成一个派单任务，
+// 由同一个司机一次取餐后按就近顺序依次送达
+public class StackPlanner {
+    
+    private final TravelTimeEstimator travelTimeEstimator;
+    private final int maxStackSize;
+    private final long maxCreatedSpreadMillis;
+    private final double maxDropoffGapSeconds;
+    
+    public StackPlanner(TravelTimeEstimator travelTimeEstimator, int maxStackSize,
+                        long maxCreatedSpreadMillis, double maxDropoffGapSeconds) {
+        this.travelTimeEstimator = travelTimeEstimator;
+        this.maxStackSize = maxStackSize;
+        this.maxCreatedSpreadMillis = maxCreatedSpreadMillis;
+        this.maxDropoffGapSeconds = maxDropoffGapSeconds;
+    }
+    
+    // 返回的任务按最早下单时间排序
+    public List<DispatchJob> plan(List<DispatchTask> tasks) {
+        List<DispatchTask> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparingLong(DispatchTask::getCreatedAt));
+        
+        Map<String, List<DispatchJob>> byRestaurant = new LinkedHashMap<>();
+        List<DispatchJob> jobs = new ArrayList<>();
+        for (DispatchTask task : sorted) {
+            List<DispatchJob> open = byRestaurant.computeIfAbsent(task.getRestaurantId(), k -> new ArrayList<>());
+            DispatchJob target = maxStackSize > 1 ? bestStack(open, task) : null;
+            if (target != null) {
+                target.add(task);
+            } else {
+                DispatchJob job = new DispatchJob(task);
+                open.add(job);
+                jobs.add(job);
+            }
+        }
+        
+        for (DispatchJob job : jobs) {
+            if (job.size() > 1) {
+                job.setOrder(routeOrder(job));
+            }
+        }
+        return jobs;
+    }
+    
+    // 在可合入的任务中选送达点离得最近的一个，没有则返回 null
+    private DispatchJob bestStack(List<DispatchJob> open, DispatchTask task) {
+        if (!task.hasDropoff()) {
+            return null;
+        }
+        DispatchJob best = null;
+        double bestGap = maxDropoffGapSeconds;
+        for (DispatchJob job : open) {
+            if (job.size() >= maxStackSize
+                    || task.getCreatedAt() - job.getFirst().getCreatedAt() > maxCreatedSpreadMillis) {
+                continue;
+            }
+            double gap = minDropoffGap(job, task);
+            if (gap <= bestGap) {
+                best = job;
+                bestGap = gap;
+            }
+        }
+        return best;
+    }
+    
+    private double minDropoffGap(DispatchJob job, DispatchTask task) {
+        double min = Double.POSITIVE_INFINITY;
+        for (DispatchTask stacked : job.getTasks()) {
+            if (!stacked.hasDropoff()) {
+                return Double.POSITIVE_INFINITY;
+            }
+            min = Math.min(min, travelTimeEstimator.travelSeconds(
+                    stacked.getDropoffLatitude(), stacked.getDropoffLongitude(),
+                    task.getDropoffLatitude(), task.getDropoffLongitude()));
+        }
+        return min;
+    }
+    
+    // 从取餐点出发每次前往最近的未送达点
+    private List<DispatchTask> routeOrder(DispatchJob job) {
+        List<DispatchTask> remaining = new ArrayList<>(job.getTasks());
+        List<DispatchTask> ordered = new ArrayList<>(remaining.size());
+        double latitude = job.getPickupLatitude();
+        double longitude = job.getPickupLongitude();
+        while (!remaining.isEmpty()) {
+            int nearest = 0;
+            double nearestSeconds = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < remaining.size(); i++) {
+                DispatchTask task = remaining.get(i);
+                double seconds = travelTimeEstimator.travelSeconds(latitude, longitude,
+                        task.getDropoffLatitude(), task.getDropoffLongitude());
+                if (seconds < nearestSeconds) {
+                    nearest = i;
+                    nearestSeconds = seconds;
+                }
+            }
+            DispatchTask next = remaining.remove(nearest);
+            ordered.add(next);
+            latitude = next.getDropoffLatitude();
+            longitude = next.getDropoffLongitude();
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,31 @@
+package com.fooddelivery.delivery.dispatch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// 按直线距离乘以绕路系数、除以平均车速估算行驶时间
+@Component
+public class StraightLineTravelTimeEstimator implements TravelTimeEstimator {
+    
+    private static final double METERS_PER_DEGREE = 111_320d;
+    
+    @Value("${delivery.travel.average-speed-kmh:18}")
+    private double averageSpeedKmh;
+    
+    @Value("${delivery.travel.detour-factor:1.3}")
+    private double detourFactor;
+    
+    @Override
+    public double travelSeconds(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        return distanceMeters(fromLatitude, fromLongitude, toLatitude, toLongitude) * detourFactor
+                / (averageSpeedKmh / 3.6);
+    }
+    
+    // 城市范围内的等距圆柱投影近似
+    public static double distanceMeters(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double dy = (toLatitude - fromLatitude) * METERS_PER_DEGREE;
+        double dx = (toLongitude - fromLongitude) * METERS_PER_DEGREE
+                * Math.cos(Math.toRadians((fromLatitude + toLatitude) / 2));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,16 @@
+package com.fooddelivery.delivery.dispatch;
+
+// 两点间的行驶时间估算（秒），派单代价矩阵和模拟器都通过它计算
+public interface TravelTimeEstimator {
+    double travelSeconds(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude);
+    
+    // 批量估算：第 i 个结果对应第 i 组起止点
+    default double[] travelSeconds(double[] fromLatitudes, double[] fromLongitudes,
+                                   double[] toLatitudes, double[] toLongitudes) {
+        double[] seconds = new double[fromLatitudes.length];
+        for (int i = 0; i < seconds.length; i++) {
+            seconds[i] = travelSeconds(fromLatitudes[i], fromLongitudes[i], toLatitudes[i], toLongitudes[i]);
+        }
+        return seconds;
+    }
+}
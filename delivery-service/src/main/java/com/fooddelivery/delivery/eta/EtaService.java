@@ -0,0 +1,90 @@
+package com.fooddelivery.delivery.eta;
+
+import com.fooddelivery.delivery.dispatch.TravelTimeEstimator;
+import com.fooddelivery.delivery.model.Delivery;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// 预计配送时间（从现在起还需多少分钟送达）：
+// 未派单时为派单等待加司机到店的固定估计 + 取餐点到送达点 + 交付时间；
+// 已派单时按司机当前位置到取餐点再到送达点；已取餐后按司机当前位置到送达点。
+// 合单中后送的一单没有计入先送一单的路程，误差不超过合单的送达间隔阈值
+@Service
+public class EtaService {
+    
+    @Autowired
+    private TravelTimeEstimator travelTimeEstimator;
+    
+    @Value("${delivery.eta.assign-allowance:5m}")
+    private Duration assignAllowance;
+    
+    @Value("${delivery.eta.handoff:2m}")
+    private Duration handoff;
+    
+    // 下单前的预估，坐标不完整时返回 null
+    public Integer quoteMinutes(Double pickupLatitude, Double pickupLongitude,
+                                Double dropoffLatitude, Double dropoffLongitude) {
+        return estimateMinutes(DeliveryStatus.PENDING, null, null,
+                pickupLatitude, pickupLongitude, dropoffLatitude, dropoffLongitude);
+    }
+    
+    // 批量下单前预估，供订单页一次展示多个餐厅的送达时间
+    public int[] quoteMinutes(double[] pickupLatitudes, double[] pickupLongitudes,
+                              double[] dropoffLatitudes, double[] dropoffLongitudes) {
+        double[] seconds = travelTimeEstimator.travelSeconds(
+                pickupLatitudes, pickupLongitudes, dropoffLatitudes, dropoffLongitudes);
+        int[] minutes = new int[seconds.length];
+        for (int i = 0; i < seconds.length; i++) {
+            minutes[i] = toMinutes(assignAllowance.getSeconds() + seconds[i] + handoff.getSeconds());
+        }
+        return minutes;
+    }
+    
+    public Integer estimateMinutes(Delivery delivery, Double driverLatitude, Double driverLongitude) {
+        return estimateMinutes(delivery.getStatus(), driverLatitude, driverLongitude,
+                delivery.getPickupLatitude(), delivery.getPickupLongitude(),
+                delivery.getDropoffLatitude(), delivery.getDropoffLongitude());
+    }
+    
+    // 终态或缺少所需坐标时返回 null，调用方保留原有的预计时间
+    public Integer estimateMinutes(DeliveryStatus status, Double driverLatitude, Double driverLongitude,
+                                   Double pickupLatitude, Double pickupLongitude,
+                                   Double dropoffLatitude, Double dropoffLongitude) {
+        if (status == null || status.isTerminal() || dropoffLatitude == null || dropoffLongitude == null) {
+            return null;
+        }
+        boolean hasDriver = driverLatitude != null && driverLongitude != null;
+        boolean hasPickup = pickupLatitude != null && pickupLongitude != null;
+        
+        double seconds = handoff.getSeconds();
+        if (status == DeliveryStatus.PICKED_UP || status == DeliveryStatus.IN_TRANSIT) {
+            if (!hasDriver) {
+                return null;
+            }
+            seconds += travelTimeEstimator.travelSeconds(driverLatitude, driverLongitude,
+                    dropoffLatitude, dropoffLongitude);
+            return toMinutes(seconds);
+        }
+        
+        if (!hasPickup) {
+            return null;
+        }
+        if (status == DeliveryStatus.ASSIGNED && hasDriver) {
+            seconds += travelTimeEstimator.travelSeconds(driverLatitude, driverLongitude,
+                    pickupLatitude, pickupLongitude);
+        } else {
+            seconds += assignAllowance.getSeconds();
+        }
+        seconds += travelTimeEstimator.travelSeconds(pickupLatitude, pickupLongitude,
+                dropoffLatitude, dropoffLongitude);
+        return toMinutes(seconds);
+    }
+    
+    private static int toMinutes(double seconds) {
+        return (int) Math.max(1, Math.ceil(seconds / 60));
+    }
+}
@@ -0,0 +1,131 @@
+package com.fooddelivery.delivery.eta;
+
+import com.fooddelivery.delivery.dispatch.StraightLineTravelTimeEstimator;
+import com.fooddelivery.delivery.dispatch.TravelTimeEstimator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+// 基于预计算网格矩阵的行驶时间估算：取起止点所在网格中心间的路网行驶时间，
+// 按起止点直线距离与网格中心直线距离之比缩放，再乘以当前时段的拥堵系数。
+// 同一网格内、网格范围外或不可达时退回直线估算；未配置网格文件时与直线估算一致。
+// 文件更新后（先写临时文件再改名替换）在下一次刷新时重新映射
+@Primary
+@Component
+public class GridTravelTimeEstimator implements TravelTimeEstimator {
+    
+    @Autowired
+    private StraightLineTravelTimeEstimator straightLine;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${delivery.eta.grid-file:}")
+    private String gridFile;
+    
+    @Value("${delivery.eta.time-zone:Asia/Shanghai}")
+    private String timeZone;
+    
+    private volatile TravelTimeGrid grid;
+    
+    // 当前时段的拥堵系数，每次刷新时按当地时间重新计算
+    private volatile double factor = 1;
+    
+    private long loadedModifiedTime;
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("delivery.eta.grid.zones", this, estimator -> {
+            TravelTimeGrid current = estimator.grid;
+            return current != null ? current.getZones() : 0;
+        }).register(meterRegistry);
+        refresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${delivery.eta.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        if (!gridFile.isEmpty()) {
+            reloadIfChanged(Paths.get(gridFile));
+        }
+        TravelTimeGrid current = grid;
+        if (current != null) {
+            ZonedDateTime now = ZonedDateTime.now(ZoneId.of(timeZone));
+            this.factor = current.factorAt(now.getHour(), now.getMinute());
+        }
+    }
+    
+    public boolean isGridLoaded() {
+        return grid != null;
+    }
+    
+    @Override
+    public double travelSeconds(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        return estimate(grid, factor, fromLatitude, fromLongitude, toLatitude, toLongitude);
+    }
+    
+    // 整批使用同一份网格和系数，批内结果可相互比较
+    @Override
+    public double[] travelSeconds(double[] fromLatitudes, double[] fromLongitudes,
+                                  double[] toLatitudes, double[] toLongitudes) {
+        TravelTimeGrid current = grid;
+        double currentFactor = factor;
+        double[] seconds = new double[fromLatitudes.length];
+        for (int i = 0; i < seconds.length; i++) {
+            seconds[i] = estimate(current, currentFactor,
+                    fromLatitudes[i], fromLongitudes[i], toLatitudes[i], toLongitudes[i]);
+        }
+        return seconds;
+    }
+    
+    private double estimate(TravelTimeGrid current, double currentFactor, double fromLatitude, double fromLongitude,
+                            double toLatitude, double toLongitude) {
+        if (current != null) {
+            int fromZone = current.zoneOf(fromLatitude, fromLongitude);
+            int toZone = current.zoneOf(toLatitude, toLongitude);
+            if (fromZone >= 0 && toZone >= 0 && fromZone != toZone) {
+                int base = current.seconds(fromZone, toZone);
+                if (base >= 0) {
+                    double centerDistance = StraightLineTravelTimeEstimator.distanceMeters(
+                            current.centerLatitude(fromZone), current.centerLongitude(fromZone),
+                            current.centerLatitude(toZone), current.centerLongitude(toZone));
+                    double distance = StraightLineTravelTimeEstimator.distanceMeters(
+                            fromLatitude, fromLongitude, toLatitude, toLongitude);
+                    return base * (distance / centerDistance) * currentFactor;
+                }
+            }
+        }
+        return straightLine.travelSeconds(fromLatitude, fromLongitude, toLatitude, toLongitude) * currentFactor;
+    }
+    
+    // 文件不存在或格式错误时保留已加载的网格；同一版本的文件只尝试加载一次
+    private void reloadIfChanged(Path path) {
+        long modifiedTime;
+        try {
+            modifiedTime = Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return;
+        }
+        if (modifiedTime == loadedModifiedTime) {
+            return;
+        }
+        loadedModifiedTime = modifiedTime;
+        try {
+            this.grid = TravelTimeGrid.open(path);
+            meterRegistry.counter("delivery.eta.grid.loads", "result", "loaded").increment();
+        } catch (IOException | RuntimeException e) {
+            meterRegistry.counter("delivery.eta.grid.loads", "result", "failed").increment();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.fooddelivery.delivery.eta;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 离线预计算的城市网格行驶时间矩阵，以只读内存映射方式加载，不占用堆内存。
+// 文件格式（小端）：
+//   int magic 'ETAG', int version 1, int rows, int cols,
+//   double minLatitude, double minLongitude, double cellLatitudeDegrees, double cellLongitudeDegrees,
+//   float[24] 各小时的拥堵系数,
+//   unsigned short[zones * zones] 网格中心之间的基准行驶时间（秒），0xFFFF 表示不可达。
+// 网格按行优先编号：zone = row * cols + col，row 对应纬度方向
+class TravelTimeGrid {
+    
+    static final int MAGIC = 0x45544147;
+    static final int VERSION = 1;
+    static final int HOURS = 24;
+    static final int HEADER_BYTES = 4 * 4 + 8 * 4 + 4 * HOURS;
+    static final int UNREACHABLE = 0xFFFF;
+    
+    private final MappedByteBuffer matrix;
+    private final int rows;
+    private final int cols;
+    private final int zones;
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double cellLatitude;
+    private final double cellLongitude;
+    private final float[] hourlyFactors;
+    
+    private TravelTimeGrid(MappedByteBuffer matrix, int rows, int cols, double minLatitude, double minLongitude,
+                           double cellLatitude, double cellLongitude, float[] hourlyFactors) {
+        this.matrix = matrix;
+        this.rows = rows;
+        this.cols = cols;
+        this.zones = rows * cols;
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.cellLatitude = cellLatitude;
+        this.cellLongitude = cellLongitude;
+        this.hourlyFactors = hourlyFactors;
+    }
+    
+    static TravelTimeGrid open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Travel time grid too small: " + file);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Unexpected end of travel time grid: " + file);
+                }
+            }
+            header.flip();
+            
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a travel time grid (version " + VERSION + "): " + file);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            double minLatitude = header.getDouble();
+            double minLongitude = header.getDouble();
+            double cellLatitude = header.getDouble();
+            double cellLongitude = header.getDouble();
+            float[] hourlyFactors = new float[HOURS];
+            for (int i = 0; i < HOURS; i++) {
+                hourlyFactors[i] = header.getFloat();
+                if (!(hourlyFactors[i] > 0)) {
+                    throw new IOException("Invalid hourly factor at hour " + i + ": " + file);
+                }
+            }
+            
+            long zones = (long) rows * cols;
+            long matrixBytes = zones * zones * 2;
+            // 单个映射区最大 2GB，约 3.2 万个网格
+            if (rows <= 0 || cols <= 0 || !(cellLatitude > 0) || !(cellLongitude > 0)
+                    || matrixBytes > Integer.MAX_VALUE) {
+                throw new IOException("Invalid travel time grid dimensions " + rows + "x" + cols + ": " + file);
+            }
+            if (channel.size() != HEADER_BYTES + matrixBytes) {
+                throw new IOException("Travel time grid size mismatch, expected "
+                        + (HEADER_BYTES + matrixBytes) + " bytes: " + file);
+            }
+            
+            MappedByteBuffer matrix = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, matrixBytes);
+            matrix.order(ByteOrder.LITTLE_ENDIAN);
+            return new TravelTimeGrid(matrix, rows, cols, minLatitude, minLongitude,
+                    cellLatitude, cellLongitude, hourlyFactors);
+        }
+    }
+    
+    // 坐标所在网格编号，网格范围外返回 -1
+    int zoneOf(double latitude, double longitude) {
+        int row = (int) Math.floor((latitude - minLatitude) / cellLatitude);
+        int col = (int) Math.floor((longitude - minLongitude) / cellLongitude);
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+    
+    // 两个网格中心之间的基准行驶时间（秒），不可达时返回 -1。
+    // 按绝对位置读取，不改变缓冲区状态，可并发调用
+    int seconds(int fromZone, int toZone) {
+        int value = matrix.getShort(((fromZone * zones) + toZone) << 1) & 0xFFFF;
+        return value == UNREACHABLE ? -1 : value;
+    }
+    
+    double centerLatitude(int zone) {
+        return minLatitude + (zone / cols + 0.5) * cellLatitude;
+    }
+    
+    double centerLongitude(int zone) {
+        return minLongitude + (zone % cols + 0.5) * cellLongitude;
+    }
+    
+    // 按分钟在相邻两个小时的系数间线性插值
+    double factorAt(int hour, int minute) {
+        float current = hourlyFactors[hour % HOURS];
+        float next = hourlyFactors[(hour + 1) % HOURS];
+        return current + (next - current) * minute / 60d;
+    }
+    
+    int getZones() {
+        return zones;
+    }
+}
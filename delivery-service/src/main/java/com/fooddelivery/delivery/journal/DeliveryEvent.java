@@ -0,0 +1,87 @@
+package com.fooddelivery.delivery.journal;
+
+import com.fooddelivery.delivery.dispatch.DriverPosition;
+import com.fooddelivery.delivery.model.Delivery;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+
+// 配送事件日志中的一条记录。配送单事件带 deliveryId，司机事件只带 driverId；
+// 不适用的字段为 null。sequence 在写入日志时分配，从 1 开始连续递增
+public class DeliveryEvent {
+    
+    public enum Type {
+        CREATED,
+        ASSIGNED,
+        STATUS_CHANGED,
+        DRIVER_LOCATION,
+        DRIVER_ONLINE,
+        DRIVER_REMOVED
+    }
+    
+    private long sequence;
+    private final long timestamp;
+    private final Type type;
+    private final Long deliveryId;
+    private final String driverId;
+    private final DeliveryStatus status;
+    private final Double latitude;
+    private final Double longitude;
+    private final Boolean online;
+    
+    DeliveryEvent(long sequence, long timestamp, Type type, Long deliveryId, String driverId,
+                  DeliveryStatus status, Double latitude, Double longitude, Boolean online) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.deliveryId = deliveryId;
+        this.driverId = driverId;
+        this.status = status;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.online = online;
+    }
+    
+    public static DeliveryEvent created(Delivery delivery) {
+        return ofDelivery(Type.CREATED, delivery);
+    }
+    
+    public static DeliveryEvent assigned(Delivery delivery) {
+        return ofDelivery(Type.ASSIGNED, delivery);
+    }
+    
+    public static DeliveryEvent statusChanged(Delivery delivery) {
+        return ofDelivery(Type.STATUS_CHANGED, delivery);
+    }
+    
+    // 司机位置快照，时间戳取位置上报时间
+    public static DeliveryEvent driverLocation(DriverPosition position) {
+        return new DeliveryEvent(0, position.getUpdatedAt(), Type.DRIVER_LOCATION, null, position.getDriverId(),
+                null, position.getLatitude(), position.getLongitude(), position.isOnline());
+    }
+    
+    public static DeliveryEvent driverOnline(String driverId, boolean online) {
+        return new DeliveryEvent(0, System.currentTimeMillis(), Type.DRIVER_ONLINE, null, driverId,
+                null, null, null, online);
+    }
+    
+    public static DeliveryEvent driverRemoved(String driverId) {
+        return new DeliveryEvent(0, System.currentTimeMillis(), Type.DRIVER_REMOVED, null, driverId,
+                null, null, null, null);
+    }
+    
+    private static DeliveryEvent ofDelivery(Type type, Delivery delivery) {
+        return new DeliveryEvent(0, System.currentTimeMillis(), type, delivery.getId(), delivery.getDriverId(),
+                delivery.getStatus(), null, null, null);
+    }
+    
+    void setSequence(long sequence) { this.sequence = sequence; }
+    
+    public long getSequence() { return sequence; }
+    public long getTimestamp() { return timestamp; }
+    public Type getType() { return type; }
+    public Long getDeliveryId() { return deliveryId; }
+    public String getDriverId() { return driverId; }
+    public DeliveryStatus getStatus() { return status; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public Boolean getOnline() { return online; }
+}
@@ -0,0 +1,492 @@
+package com.fooddelivery.delivery.journal;
+
+import com.fooddelivery.delivery.dispatch.DriverIndex;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// 配送事件日志：状态变化、派单和司机位置快照按顺序追加到本地分段文件，并同步维护由事件重建的
+// 内存状态（JournalState），定期把状态写成快照。启动时加载最新快照、重放其后的事件，
+// 恢复司机索引中的位置、在线和忙碌状态，无需等待司机重新上报。
+// 写入先进入内存缓冲区，按 flush-interval-ms 批量写盘，崩溃时最多丢失一个周期的事件；
+// 配送单状态以数据库为准，日志只用于快速恢复内存状态和压测回放，每个节点各自记录本节点的事件
+@Component
+public class DeliveryJournal {
+    
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int RETAINED_SNAPSHOTS = 2;
+    
+    @Autowired
+    private DriverIndex driverIndex;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${delivery.journal.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${delivery.journal.directory:data/journal}")
+    private String directory;
+    
+    @Value("${delivery.journal.segment-bytes:67108864}")
+    private int segmentBytes;
+    
+    @Value("${delivery.journal.buffer-bytes:1048576}")
+    private int bufferBytes;
+    
+    @Value("${delivery.journal.retained-segments:16}")
+    private int retainedSegments;
+    
+    // 同一司机的位置快照最短间隔
+    @Value("${delivery.journal.location-interval:30s}")
+    private Duration locationInterval;
+    
+    private final CRC32 crc = new CRC32();
+    private final Object snapshotLock = new Object();
+    
+    private Path dir;
+    private JournalState state = new JournalState();
+    private ByteBuffer buffer;
+    private FileChannel segment;
+    private long segmentWritten;
+    private long segmentFlushed;
+    private boolean closed;
+    
+    private volatile long snapshotSequence;
+    private volatile RecoveryStats recoveryStats;
+    
+    private Counter appended;
+    private Counter errors;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        this.appended = meterRegistry.counter("delivery.journal.events");
+        this.errors = meterRegistry.counter("delivery.journal.errors");
+        Gauge.builder("delivery.journal.sequence", this, DeliveryJournal::getSequence).register(meterRegistry);
+        
+        this.dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+        
+        recover();
+        restoreDriverIndex();
+    }
+    
+    public void record(DeliveryEvent event) {
+        record(Collections.singletonList(event));
+    }
+    
+    // 一批事件只加一次锁，按列表顺序分配连续序号
+    public void record(List<DeliveryEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            for (DeliveryEvent event : events) {
+                if (event.getType() == DeliveryEvent.Type.DRIVER_LOCATION && !isLocationDue(event)) {
+                    continue;
+                }
+                byte[] driverIdBytes = EventCodec.driverIdBytes(event);
+                if (driverIdBytes != null && driverIdBytes.length > EventCodec.MAX_DRIVER_ID_BYTES) {
+                    errors.increment();
+                    continue;
+                }
+                int size = EventCodec.recordBytes(driverIdBytes);
+                event.setSequence(state.getSequence() + 1);
+                try {
+                    if (segment == null || (segmentWritten > 0 && segmentWritten + size > segmentBytes)) {
+                        rollSegment(event.getSequence());
+                    }
+                    if (buffer.remaining() < size) {
+                        flushBuffer();
+                    }
+                } catch (IOException e) {
+                    errors.increment();
+                    continue;
+                }
+                EventCodec.encode(buffer, event, driverIdBytes, crc);
+                segmentWritten += size;
+                state.apply(event);
+                appended.increment();
+            }
+        }
+    }
+    
+    // 写盘失败的事件被丢弃，序号不回退，重放时表现为序号跳跃
+    @Scheduled(fixedDelayString = "${delivery.journal.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        FileChannel current;
+        synchronized (this) {
+            try {
+                flushBuffer();
+            } catch (IOException e) {
+                errors.increment();
+            }
+            current = segment;
+        }
+        // 刷盘不持锁，期间分段切换导致通道关闭时由切换时的刷盘保证落盘
+        if (current != null) {
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                if (current.isOpen()) {
+                    errors.increment();
+                }
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${delivery.journal.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            JournalState copy;
+            synchronized (this) {
+                if (state.getSequence() == snapshotSequence) {
+                    return;
+                }
+                copy = state.copy();
+            }
+            // 快照之前的事件必须已落盘，否则崩溃后会从快照之后重放而缺少中间事件
+            flush();
+            try {
+                Path target = dir.resolve(snapshotName(copy.getSequence()));
+                Path temp = dir.resolve(target.getFileName() + ".tmp");
+                copy.writeTo(temp);
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                snapshotSequence = copy.getSequence();
+                prune(copy.getSequence());
+            } catch (IOException e) {
+                errors.increment();
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        snapshot();
+        flush();
+        synchronized (this) {
+            closed = true;
+            if (segment != null) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    errors.increment();
+                }
+                segment = null;
+            }
+        }
+    }
+    
+    // 按序号读取事件（含 fromSequence），供查看状态变化历史和压测回放
+    public List<DeliveryEvent> read(long fromSequence, int limit) throws IOException {
+        List<DeliveryEvent> events = new ArrayList<>(Math.min(limit, 1024));
+        if (!enabled || limit <= 0) {
+            return events;
+        }
+        synchronized (this) {
+            flushBuffer();
+        }
+        List<Path> segments = listSegments();
+        CRC32 readCrc = new CRC32();
+        for (int i = 0; i < segments.size() && events.size() < limit; i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            try {
+                scan(segments.get(i), readCrc, event -> {
+                    if (event.getSequence() >= fromSequence) {
+                        events.add(event);
+                    }
+                    return events.size() < limit;
+                });
+            } catch (NoSuchFileException e) {
+                // 读取期间分段被快照清理，跳过
+            }
+        }
+        return events;
+    }
+    
+    public synchronized long getSequence() {
+        return state.getSequence();
+    }
+    
+    public JournalStatus getStatus() throws IOException {
+        JournalStatus status = new JournalStatus();
+        status.setEnabled(enabled);
+        if (!enabled) {
+            return status;
+        }
+        synchronized (this) {
+            status.setSequence(state.getSequence());
+            status.setActiveDeliveries(state.getDeliveries().size());
+            status.setDrivers(state.getDrivers().size());
+        }
+        status.setSnapshotSequence(snapshotSequence);
+        status.setSegments(listSegments().size());
+        RecoveryStats stats = recoveryStats;
+        if (stats != null) {
+            status.setRecoveredSnapshotSequence(stats.snapshotSequence);
+            status.setReplayedEvents(stats.replayedEvents);
+            status.setRecoveryMillis(stats.millis);
+        }
+        return status;
+    }
+    
+    // 加载最新的有效快照，再按顺序重放之后的分段。分段中第一条无效记录之后的数据被截掉
+    // （崩溃或写盘失败时写到一半），中间分段截断前先把原文件复制到 corrupt 目录
+    private void recover() throws IOException {
+        long started = System.nanoTime();
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                state = JournalState.readFrom(snapshots.get(i));
+                break;
+            } catch (IOException e) {
+                errors.increment();
+            }
+        }
+        long recoveredSnapshot = state.getSequence();
+        snapshotSequence = recoveredSnapshot;
+        
+        List<Path> segments = listSegments();
+        long[] replayed = new long[1];
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= state.getSequence() + 1) {
+                continue;
+            }
+            Path file = segments.get(i);
+            long validBytes = scan(file, crc, event -> {
+                if (event.getSequence() > state.getSequence()) {
+                    state.apply(event);
+                    replayed[0]++;
+                }
+                return true;
+            });
+            if (validBytes == Files.size(file)) {
+                continue;
+            }
+            errors.increment();
+            // 中间分段末尾的无效数据来自写盘失败后换了新分段（见 discardPartialWrite）或文件损坏，
+            // 原文件复制到 corrupt 目录备查，截掉无效部分后继续重放之后的分段
+            if (i < segments.size() - 1) {
+                Path corrupt = Files.createDirectories(dir.resolve("corrupt"));
+                Files.copy(file, corrupt.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validBytes);
+            }
+        }
+        // 新分段以下一个序号命名，删除崩溃前刚创建还没有写入的空分段以免重名
+        for (Path file : listSegments()) {
+            if (Files.size(file) == 0) {
+                Files.delete(file);
+            }
+        }
+        recoveryStats = new RecoveryStats(recoveredSnapshot, replayed[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+    
+    // 先恢复位置和在线状态，再把有进行中配送单的司机标记为忙碌；
+    // 恢复的位置时间戳保持原值，超过 stale-after 的司机在重新上报前不会被派单
+    private void restoreDriverIndex() {
+        for (Map.Entry<String, JournalState.DriverState> entry : state.getDrivers().entrySet()) {
+            JournalState.DriverState driver = entry.getValue();
+            if (driver.latitude == null || driver.longitude == null) {
+                continue;
+            }
+            driverIndex.updateLocation(entry.getKey(), driver.latitude, driver.longitude, driver.updatedAt);
+            if (driver.online) {
+                driverIndex.setOnline(entry.getKey(), true);
+            }
+        }
+        for (JournalState.ActiveDelivery delivery : state.getDeliveries().values()) {
+            if (delivery.driverId != null && delivery.status != DeliveryStatus.PENDING) {
+                driverIndex.restoreBusy(delivery.driverId);
+            }
+        }
+    }
+    
+    private boolean isLocationDue(DeliveryEvent event) {
+        if (event.getLatitude() == null || event.getLongitude() == null) {
+            return false;
+        }
+        JournalState.DriverState previous = state.getDrivers().get(event.getDriverId());
+        return previous == null || previous.online != Boolean.TRUE.equals(event.getOnline())
+                || event.getTimestamp() - previous.updatedAt >= locationInterval.toMillis();
+    }
+    
+    // 以下方法在持有日志锁时调用
+    private void flushBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            segmentFlushed = segment.position();
+        } catch (IOException e) {
+            discardPartialWrite();
+            throw e;
+        } finally {
+            buffer.clear();
+        }
+    }
+    
+    // 写到一半失败时截回上次完整写入的位置，否则后续事件接在半条记录之后，重放到此即中断。
+    // 截断也失败时关闭该分段，下一条事件写入新分段，恢复时再截掉旧分段末尾的半条记录
+    private void discardPartialWrite() {
+        segmentWritten = segmentFlushed;
+        try {
+            segment.truncate(segmentFlushed);
+            segment.position(segmentFlushed);
+        } catch (IOException e) {
+            try {
+                segment.close();
+            } catch (IOException ignored) {
+                // 已经按写入失败计数
+            }
+            segment = null;
+        }
+    }
+    
+    private void rollSegment(long firstSequence) throws IOException {
+        if (segment != null) {
+            flushBuffer();
+            segment.force(false);
+            segment.close();
+            segment = null;
+        }
+        segment = FileChannel.open(dir.resolve(segmentName(firstSequence)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentWritten = 0;
+        segmentFlushed = 0;
+    }
+    
+    // 删除较早的快照；完全早于快照的分段保留最近 retainedSegments 个供回放
+    private void prune(long snapshotSequence) throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (Path snapshot : snapshots.subList(0, Math.max(0, snapshots.size() - RETAINED_SNAPSHOTS))) {
+            Files.deleteIfExists(snapshot);
+        }
+        
+        List<Path> segments = listSegments();
+        int covered = 0;
+        while (covered + 1 < segments.size() && firstSequence(segments.get(covered + 1)) <= snapshotSequence + 1) {
+            covered++;
+        }
+        for (Path segment : segments.subList(0, Math.max(0, covered - retainedSegments))) {
+            Files.deleteIfExists(segment);
+        }
+    }
+    
+    // 顺序解码一个分段，consumer 返回 false 时提前结束；返回有效记录的字节数
+    private static long scan(Path file, CRC32 crc, Predicate<DeliveryEvent> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return 0;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (mapped.hasRemaining()) {
+                DeliveryEvent event = EventCodec.decode(mapped, crc);
+                if (event == null || !consumer.test(event)) {
+                    break;
+                }
+            }
+            return mapped.position();
+        }
+    }
+    
+    private List<Path> listSegments() throws IOException {
+        return list(name -> name.endsWith(SEGMENT_SUFFIX));
+    }
+    
+    private List<Path> listSnapshots() throws IOException {
+        return list(name -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX));
+    }
+    
+    // 文件名中的序号定长补零，按文件名排序即按序号排序
+    private List<Path> list(Predicate<String> filter) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> filter.test(path.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private static String segmentName(long firstSequence) {
+        return String.format("%020d%s", firstSequence, SEGMENT_SUFFIX);
+    }
+    
+    private static String snapshotName(long sequence) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX);
+    }
+    
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    private static class RecoveryStats {
+        private final long snapshotSequence;
+        private final long replayedEvents;
+        private final long millis;
+        
+        RecoveryStats(long snapshotSequence, long replayedEvents, long millis) {
+            this.snapshotSequence = snapshotSequence;
+            this.replayedEvents = replayedEvents;
+            this.millis = millis;
+        }
+    }
+}
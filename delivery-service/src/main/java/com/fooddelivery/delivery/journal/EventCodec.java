@@ -0,0 +1,110 @@
+package com.fooddelivery.delivery.journal;
+
+import com.fooddelivery.delivery.model.DeliveryStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+// 事件的二进制编码：int 长度 + int CRC32 + 定长字段 + 司机 ID（UTF-8）。
+// 空值用 -1 / NaN 表示。读取时长度或校验不符即视为日志在此处结束（写到一半的记录）
+final class EventCodec {
+    
+    static final int HEADER_BYTES = 8;
+    static final int FIXED_PAYLOAD_BYTES = 8 + 8 + 1 + 8 + 1 + 8 + 8 + 1 + 2;
+    static final int MAX_DRIVER_ID_BYTES = Short.MAX_VALUE;
+    
+    private static final DeliveryEvent.Type[] TYPES = DeliveryEvent.Type.values();
+    private static final DeliveryStatus[] STATUSES = DeliveryStatus.values();
+    
+    private EventCodec() {
+    }
+    
+    static byte[] driverIdBytes(DeliveryEvent event) {
+        return event.getDriverId() != null ? event.getDriverId().getBytes(StandardCharsets.UTF_8) : null;
+    }
+    
+    static int recordBytes(byte[] driverIdBytes) {
+        return HEADER_BYTES + FIXED_PAYLOAD_BYTES + (driverIdBytes != null ? driverIdBytes.length : 0);
+    }
+    
+    // 调用方保证 out 剩余空间不小于 recordBytes
+    static void encode(ByteBuffer out, DeliveryEvent event, byte[] driverIdBytes, CRC32 crc) {
+        int start = out.position();
+        out.position(start + HEADER_BYTES);
+        out.putLong(event.getSequence());
+        out.putLong(event.getTimestamp());
+        out.put((byte) event.getType().ordinal());
+        out.putLong(event.getDeliveryId() != null ? event.getDeliveryId() : -1);
+        out.put((byte) (event.getStatus() != null ? event.getStatus().ordinal() : -1));
+        out.putDouble(event.getLatitude() != null ? event.getLatitude() : Double.NaN);
+        out.putDouble(event.getLongitude() != null ? event.getLongitude() : Double.NaN);
+        out.put((byte) (event.getOnline() == null ? -1 : event.getOnline() ? 1 : 0));
+        if (driverIdBytes == null) {
+            out.putShort((short) -1);
+        } else {
+            out.putShort((short) driverIdBytes.length);
+            out.put(driverIdBytes);
+        }
+        int end = out.position();
+        
+        ByteBuffer payload = out.duplicate();
+        payload.position(start + HEADER_BYTES).limit(end);
+        crc.reset();
+        crc.update(payload);
+        out.putInt(start, end - start - HEADER_BYTES);
+        out.putInt(start + 4, (int) crc.getValue());
+    }
+    
+    // 从 in 的当前位置读取一条记录，数据不完整或校验失败时返回 null 且不移动位置
+    static DeliveryEvent decode(ByteBuffer in, CRC32 crc) {
+        int start = in.position();
+        if (in.remaining() < HEADER_BYTES + FIXED_PAYLOAD_BYTES) {
+            return null;
+        }
+        int length = in.getInt(start);
+        int checksum = in.getInt(start + 4);
+        if (length < FIXED_PAYLOAD_BYTES || length > FIXED_PAYLOAD_BYTES + MAX_DRIVER_ID_BYTES
+                || in.remaining() < HEADER_BYTES + length) {
+            return null;
+        }
+        ByteBuffer payload = in.duplicate();
+        payload.position(start + HEADER_BYTES).limit(start + HEADER_BYTES + length);
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        
+        in.position(start + HEADER_BYTES);
+        long sequence = in.getLong();
+        long timestamp = in.getLong();
+        int type = in.get();
+        long deliveryId = in.getLong();
+        int status = in.get();
+        double latitude = in.getDouble();
+        double longitude = in.getDouble();
+        int online = in.get();
+        int driverIdLength = in.getShort();
+        if (driverIdLength > length - FIXED_PAYLOAD_BYTES) {
+            in.position(start);
+            return null;
+        }
+        String driverId = null;
+        if (driverIdLength >= 0) {
+            byte[] bytes = new byte[driverIdLength];
+            in.get(bytes);
+            driverId = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (type < 0 || type >= TYPES.length || status >= STATUSES.length
+                || in.position() != start + HEADER_BYTES + length) {
+            in.position(start);
+            return null;
+        }
+        
+        return new DeliveryEvent(sequence, timestamp, TYPES[type], deliveryId >= 0 ? deliveryId : null, driverId,
+                status >= 0 ? STATUSES[status] : null,
+                Double.isNaN(latitude) ? null : latitude, Double.isNaN(longitude) ? null : longitude,
+                online < 0 ? null : online == 1);
+    }
+}
@@ -0,0 +1,189 @@
+package com.fooddelivery.delivery.journal;
+
+import com.fooddelivery.delivery.model.DeliveryStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// 由事件重建的派单内存状态：进行中的配送单（终态即移除）和司机的最新位置与在线状态。
+// 值对象不可变，快照时只需浅拷贝两个 Map
+class JournalState {
+    
+    private static final int MAGIC = 0x534E4150;
+    private static final int VERSION = 1;
+    
+    private final Map<Long, ActiveDelivery> deliveries;
+    private final Map<String, DriverState> drivers;
+    private long sequence;
+    
+    JournalState() {
+        this(new HashMap<>(), new HashMap<>(), 0);
+    }
+    
+    private JournalState(Map<Long, ActiveDelivery> deliveries, Map<String, DriverState> drivers, long sequence) {
+        this.deliveries = deliveries;
+        this.drivers = drivers;
+        this.sequence = sequence;
+    }
+    
+    void apply(DeliveryEvent event) {
+        sequence = event.getSequence();
+        switch (event.getType()) {
+            case CREATED:
+            case ASSIGNED:
+            case STATUS_CHANGED:
+                if (event.getStatus() == null || event.getStatus().isTerminal()) {
+                    deliveries.remove(event.getDeliveryId());
+                } else {
+                    deliveries.put(event.getDeliveryId(), new ActiveDelivery(event.getStatus(), event.getDriverId()));
+                }
+                break;
+            case DRIVER_LOCATION: {
+                DriverState previous = drivers.get(event.getDriverId());
+                boolean online = event.getOnline() != null ? event.getOnline() : previous != null && previous.online;
+                drivers.put(event.getDriverId(), new DriverState(event.getLatitude(), event.getLongitude(),
+                        event.getTimestamp(), online));
+                break;
+            }
+            case DRIVER_ONLINE: {
+                DriverState previous = drivers.get(event.getDriverId());
+                if (previous != null) {
+                    drivers.put(event.getDriverId(), new DriverState(previous.latitude, previous.longitude,
+                            previous.updatedAt, Boolean.TRUE.equals(event.getOnline())));
+                }
+                break;
+            }
+            case DRIVER_REMOVED:
+                drivers.remove(event.getDriverId());
+                break;
+            default:
+                break;
+        }
+    }
+    
+    JournalState copy() {
+        return new JournalState(new HashMap<>(deliveries), new HashMap<>(drivers), sequence);
+    }
+    
+    long getSequence() { return sequence; }
+    Map<Long, ActiveDelivery> getDeliveries() { return deliveries; }
+    Map<String, DriverState> getDrivers() { return drivers; }
+    
+    void writeTo(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            
+            out.writeInt(deliveries.size());
+            for (Map.Entry<Long, ActiveDelivery> entry : deliveries.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeByte(entry.getValue().status.ordinal());
+                writeNullable(out, entry.getValue().driverId);
+            }
+            
+            out.writeInt(drivers.size());
+            for (Map.Entry<String, DriverState> entry : drivers.entrySet()) {
+                DriverState driver = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeDouble(driver.latitude != null ? driver.latitude : Double.NaN);
+                out.writeDouble(driver.longitude != null ? driver.longitude : Double.NaN);
+                out.writeLong(driver.updatedAt);
+                out.writeBoolean(driver.online);
+            }
+            out.flush();
+            
+            // 校验和本身不计入校验
+            new DataOutputStream(raw).writeInt((int) crc.getValue());
+        }
+    }
+    
+    static JournalState readFrom(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a journal snapshot: " + file);
+            }
+            long sequence = in.readLong();
+            DeliveryStatus[] statuses = DeliveryStatus.values();
+            
+            int deliveryCount = in.readInt();
+            Map<Long, ActiveDelivery> deliveries = new HashMap<>(Math.max(16, deliveryCount * 2));
+            for (int i = 0; i < deliveryCount; i++) {
+                long id = in.readLong();
+                DeliveryStatus status = statuses[in.readUnsignedByte()];
+                deliveries.put(id, new ActiveDelivery(status, readNullable(in)));
+            }
+            
+            int driverCount = in.readInt();
+            Map<String, DriverState> drivers = new HashMap<>(Math.max(16, driverCount * 2));
+            for (int i = 0; i < driverCount; i++) {
+                String driverId = in.readUTF();
+                double latitude = in.readDouble();
+                double longitude = in.readDouble();
+                long updatedAt = in.readLong();
+                boolean online = in.readBoolean();
+                drivers.put(driverId, new DriverState(Double.isNaN(latitude) ? null : latitude,
+                        Double.isNaN(longitude) ? null : longitude, updatedAt, online));
+            }
+            
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(raw).readInt() != expected) {
+                throw new IOException("Journal snapshot checksum mismatch: " + file);
+            }
+            return new JournalState(deliveries, drivers, sequence);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt journal snapshot: " + file, e);
+        }
+    }
+    
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+    
+    static class ActiveDelivery {
+        final DeliveryStatus status;
+        final String driverId;
+        
+        ActiveDelivery(DeliveryStatus status, String driverId) {
+            this.status = status;
+            this.driverId = driverId;
+        }
+    }
+    
+    static class DriverState {
+        final Double latitude;
+        final Double longitude;
+        final long updatedAt;
+        final boolean online;
+        
+        DriverState(Double latitude, Double longitude, long updatedAt, boolean online) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.updatedAt = updatedAt;
+            this.online = online;
+        }
+    }
+}
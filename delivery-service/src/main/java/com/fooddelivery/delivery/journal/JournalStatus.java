@@ -0,0 +1,42 @@
+package com.fooddelivery.delivery.journal;
+
+// 事件日志的当前状态和本次启动的恢复情况
+public class JournalStatus {
+    private boolean enabled;
+    private long sequence;
+    private long snapshotSequence;
+    private int segments;
+    private int activeDeliveries;
+    private int drivers;
+    private long recoveredSnapshotSequence;
+    private long replayedEvents;
+    private long recoveryMillis;
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+    
+    public long getSnapshotSequence() { return snapshotSequence; }
+    public void setSnapshotSequence(long snapshotSequence) { this.snapshotSequence = snapshotSequence; }
+    
+    public int getSegments() { return segments; }
+    public void setSegments(int segments) { this.segments = segments; }
+    
+    public int getActiveDeliveries() { return activeDeliveries; }
+    public void setActiveDeliveries(int activeDeliveries) { this.activeDeliveries = activeDeliveries; }
+    
+    public int getDrivers() { return drivers; }
+    public void setDrivers(int drivers) { this.drivers = drivers; }
+    
+    public long getRecoveredSnapshotSequence() { return recoveredSnapshotSequence; }
+    public void setRecoveredSnapshotSequence(long recoveredSnapshotSequence) { this.recoveredSnapshotSequence = recoveredSnapshotSequence; }
+    
+    public long getReplayedEvents() { return replayedEvents; }
+    public void setReplayedEvents(long replayedEvents) { this.replayedEvents = replayedEvents; }
+    
+    public long getRecoveryMillis() { return recoveryMillis; }
+    public void setRecoveryMillis(long recoveryMillis) { this.recoveryMillis = recoveryMillis; }
+}
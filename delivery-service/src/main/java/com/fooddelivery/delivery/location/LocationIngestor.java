@@ -0,0 +1,143 @@
+package com.fooddelivery.delivery.location;
+
+import com.fooddelivery.delivery.dispatch.DriverIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// 司机定位接入：请求线程只把定位写入环形缓冲区，由单独的消费线程按批次
+// 更新司机索引（每批一次写锁），并记录位置有变化的司机供 LocationWriter 定期落库。
+// 同一司机在两次落库之间的多次定位只保留最新一条
+@Component
+public class LocationIngestor {
+    
+    @Autowired
+    private DriverIndex driverIndex;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${delivery.location.buffer-capacity:262144}")
+    private int bufferCapacity;
+    
+    @Value("${delivery.location.drain-batch-size:4096}")
+    private int drainBatchSize;
+    
+    @Value("${delivery.location.idle-park-micros:200}")
+    private long idleParkMicros;
+    
+    private final Set<String> dirtyDrivers = ConcurrentHashMap.newKeySet();
+    
+    private LocationRingBuffer buffer;
+    private Thread consumer;
+    private volatile boolean running;
+    
+    private Counter accepted;
+    private Counter dropped;
+    private Counter rejected;
+    
+    @PostConstruct
+    public void start() {
+        this.buffer = new LocationRingBuffer(bufferCapacity);
+        this.accepted = meterRegistry.counter("delivery.location.pings", "result", "accepted");
+        this.dropped = meterRegistry.counter("delivery.location.pings", "result", "dropped");
+        this.rejected = meterRegistry.counter("delivery.location.pings", "result", "invalid");
+        Gauge.builder("delivery.location.buffer.size", buffer, LocationRingBuffer::size).register(meterRegistry);
+        Gauge.builder("delivery.location.dirty.drivers", dirtyDrivers, Set::size).register(meterRegistry);
+        
+        this.running = true;
+        this.consumer = new Thread(this::consume, "location-ingest");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+    
+    // 停止接入：消费线程把缓冲区中剩余的定位应用到索引后退出，可重复调用
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (consumer.isAlive()) {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+    
+    // 接收一批定位，返回写入缓冲区的条数；缓冲区满时多出的定位被丢弃
+    public int offer(List<LocationPing> pings) {
+        LocationPing[] valid = new LocationPing[pings.size()];
+        int count = 0;
+        for (LocationPing ping : pings) {
+            if (ping != null && ping.isValid()) {
+                valid[count++] = ping;
+            }
+        }
+        if (count < pings.size()) {
+            rejected.increment(pings.size() - count);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        
+        int written = buffer.offer(valid, 0, count, System.currentTimeMillis());
+        accepted.increment(written);
+        if (written < count) {
+            dropped.increment(count - written);
+        }
+        return written;
+    }
+    
+    public int getBufferSize() {
+        return buffer.size();
+    }
+    
+    // 取出最多 max 个待落库的司机
+    List<String> drainDirty(List<String> target, int max) {
+        Iterator<String> it = dirtyDrivers.iterator();
+        while (it.hasNext() && target.size() < max) {
+            target.add(it.next());
+            it.remove();
+        }
+        return target;
+    }
+    
+    void markDirty(List<String> driverIds) {
+        dirtyDrivers.addAll(driverIds);
+    }
+    
+    private void consume() {
+        String[] ids = new String[drainBatchSize];
+        double[] lats = new double[drainBatchSize];
+        double[] lons = new double[drainBatchSize];
+        long[] times = new long[drainBatchSize];
+        
+        while (true) {
+            int count = buffer.drain(ids, lats, lons, times, drainBatchSize);
+            if (count == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(idleParkMicros));
+                continue;
+            }
+            try {
+                driverIndex.updateLocations(ids, lats, lons, times, count);
+                for (int i = 0; i < count; i++) {
+                    dirtyDrivers.add(ids[i]);
+                }
+            } catch (RuntimeException e) {
+                // 索引更新失败不能让消费线程退出，这批定位计为丢弃
+                dropped.increment(count);
+            }
+        }
+    }
+}
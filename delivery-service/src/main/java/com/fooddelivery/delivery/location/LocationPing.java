@@ -0,0 +1,52 @@
+package com.fooddelivery.delivery.location;
+
+// 司机端上报的一次定位
+public class LocationPing {
+    
+    // 小于该值的时间戳视为秒（毫秒下对应 1973 年，秒下对应 5138 年）
+    private static final long SECONDS_THRESHOLD = 100_000_000_000L;
+    
+    private String driverId;
+    private Double latitude;
+    private Double longitude;
+    private Long timestamp; // 定位时间（毫秒），为空时使用服务端接收时间
+    
+    public LocationPing() {}
+    
+    public LocationPing(String driverId, Double latitude, Double longitude, Long timestamp) {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timestamp = timestamp;
+    }
+    
+    // 坐标缺失或越界的定位直接丢弃
+    public boolean isValid() {
+        return driverId != null && !driverId.isEmpty()
+                && latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+    
+    // 客户端时钟不可信：缺失的用接收时间，按秒上报的换算为毫秒，晚于接收时间的按接收时间记，
+    // 否则一条未来时间的定位会让之后的正常定位都被当成过期数据丢弃
+    public long resolveTimestamp(long receivedAt) {
+        if (timestamp == null || timestamp <= 0) {
+            return receivedAt;
+        }
+        long millis = timestamp < SECONDS_THRESHOLD ? timestamp * 1000 : timestamp;
+        return Math.min(millis, receivedAt);
+    }
+    
+    // Getters and Setters
+    public String getDriverId() { return driverId; }
+    public void setDriverId(String driverId) { this.driverId = driverId; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public Long getTimestamp() { return timestamp; }
+    public void setTimestamp(Long timestamp) { this.timestamp = timestamp; }
+}
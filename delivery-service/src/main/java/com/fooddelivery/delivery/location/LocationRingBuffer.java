@@ -0,0 +1,94 @@
+package com.fooddelivery.delivery.location;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 多生产者、单消费者的定长环形缓冲区，定位数据按字段存放在预分配的数组中。
+// 生产者用 CAS 一次认领一段连续序号，写完字段后逐格发布；消费者按序号顺序读取，
+// 遇到尚未发布的格子即停止。缓冲区满时拒绝写入，内存占用固定
+class LocationRingBuffer {
+    
+    private final int capacity;
+    private final int mask;
+    
+    private final String[] driverIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] timestamps;
+    
+    // 每个格子最近一次发布的序号，消费者据此判断格子是否可读
+    private final AtomicLongArray published;
+    
+    private final AtomicLong claimed = new AtomicLong();
+    
+    private volatile long consumed;
+    
+    LocationRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1) << 1);
+        this.mask = capacity - 1;
+        this.driverIds = new String[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+    
+    // 写入 pings[from, from + count)，空间不足时只写入能放下的部分，返回写入条数
+    int offer(LocationPing[] pings, int from, int count, long receivedAt) {
+        long start;
+        int granted;
+        do {
+            start = claimed.get();
+            granted = (int) Math.min(count, capacity - (start - consumed));
+            if (granted <= 0) {
+                return 0;
+            }
+        } while (!claimed.compareAndSet(start, start + granted));
+        
+        for (int i = 0; i < granted; i++) {
+            LocationPing ping = pings[from + i];
+            long sequence = start + i;
+            int index = (int) (sequence & mask);
+            driverIds[index] = ping.getDriverId();
+            latitudes[index] = ping.getLatitude();
+            longitudes[index] = ping.getLongitude();
+            timestamps[index] = ping.resolveTimestamp(receivedAt);
+            published.lazySet(index, sequence);
+        }
+        return granted;
+    }
+    
+    // 仅由消费者线程调用：把最多 max 条已发布的数据拷贝到调用方的数组，返回条数
+    int drain(String[] ids, double[] lats, double[] lons, long[] times, int max) {
+        long next = consumed;
+        int count = 0;
+        while (count < max) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            ids[count] = driverIds[index];
+            lats[count] = latitudes[index];
+            lons[count] = longitudes[index];
+            times[count] = timestamps[index];
+            driverIds[index] = null;
+            count++;
+            next++;
+        }
+        if (count > 0) {
+            consumed = next;
+        }
+        return count;
+    }
+    
+    int size() {
+        return (int) (claimed.get() - consumed);
+    }
+    
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,98 @@
+package com.fooddelivery.delivery.location;
+
+import com.fooddelivery.delivery.dispatch.DriverIndex;
+import com.fooddelivery.delivery.dispatch.DriverPosition;
+import com.fooddelivery.delivery.journal.DeliveryEvent;
+import com.fooddelivery.delivery.journal.DeliveryJournal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// 司机位置落库：定期取出位置有变化的司机，把其最新位置用 JDBC 批量写入
+// 进行中配送单的 latitude/longitude，每个司机每个周期最多写一次；
+// 同时作为位置快照写入事件日志（日志按 location-interval 对同一司机限频）
+@Component
+public class LocationWriter {
+    
+    private static final String UPDATE_SQL =
+        "UPDATE deliveries SET latitude = ?, longitude = ? " +
+        "WHERE driver_id = ? AND status IN ('ASSIGNED', 'PICKED_UP', 'IN_TRANSIT')";
+    
+    @Autowired
+    private LocationIngestor locationIngestor;
+    
+    @Autowired
+    private DriverIndex driverIndex;
+    
+    @Autowired
+    private DeliveryJournal deliveryJournal;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${delivery.location.flush-batch-size:1000}")
+    private int batchSize;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(fixedDelayString = "${delivery.location.flush-interval-ms:5000}")
+    public void flush() {
+        while (true) {
+            List<String> driverIds = locationIngestor.drainDirty(new ArrayList<>(batchSize), batchSize);
+            if (driverIds.isEmpty()) {
+                return;
+            }
+            try {
+                write(driverIds);
+            } catch (RuntimeException e) {
+                // 写入失败时重新标记，下个周期重试，届时读取的是司机当时的最新位置
+                locationIngestor.markDirty(driverIds);
+                return;
+            }
+        }
+    }
+    
+    // 停机前先停止接入并应用缓冲区中的定位，再把剩余位置写完
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        locationIngestor.stop();
+        flush();
+    }
+    
+    private void write(List<String> driverIds) {
+        List<Object[]> rows = new ArrayList<>(driverIds.size());
+        List<DeliveryEvent> events = new ArrayList<>(driverIds.size());
+        for (String driverId : driverIds) {
+            Optional<DriverPosition> position = driverIndex.getDriver(driverId);
+            if (position.isPresent() && position.get().getLatitude() != null) {
+                rows.add(new Object[] {
+                    position.get().getLatitude(), position.get().getLongitude(), driverId
+                });
+                events.add(DeliveryEvent.driverLocation(position.get()));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        deliveryJournal.record(events);
+        transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(UPDATE_SQL, rows));
+    }
+}
@@ -1,10 +1,18 @@
 package com.fooddelivery.delivery.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "deliveries")
+@Table(name = "deliveries", indexes = {
+    @Index(name = "idx_deliveries_status", columnList = "status"),
+    @Index(name = "idx_deliveries_driver_id", columnList = "driverId")
+}, uniqueConstraints = {
+    // 节点号配置错误时运单号可能重复，由唯一约束拒绝写入而不是让两单共用一个运单号
+    @UniqueConstraint(name = "uk_deliveries_tracking_number", columnNames = "trackingNumber")
+})
 public class Delivery {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -41,18 +49,45 @@ public class Delivery {
     
     private String trackingNumber;
     
+    // 实时跟踪凭证：运单号按时间递增可被猜到，订阅跟踪时还需提供这个随机值。
+    // 只在创建配送单的响应头中返回一次，不随配送单 JSON 输出
+    @JsonIgnore
+    @Column(length = 32)
+    private String trackingToken;
+    
     private String notes;
     
+    // 司机当前位置
     private Double latitude;
     
     private Double longitude;
     
+    // 取餐点（餐厅）坐标，派单时按此查找最近的空闲司机
+    private Double pickupLatitude;
+    
+    private Double pickupLongitude;
+    
+    // 送达点坐标，用于同餐厅订单合单和配送时间估算
+    private Double dropoffLatitude;
+    
+    private Double dropoffLongitude;
+    
     // 构造函数
     public Delivery() {
         this.createdAt = LocalDateTime.now();
         this.status = DeliveryStatus.PENDING;
         this.estimatedDeliveryTime = 30; // 默认配置
-        this.trackingNumber = generateTrackingNumber();
+    }
+    
+    // 只在首次保存时生成运单号，从数据库加载实体时不消耗序号
+    @PrePersist
+    void assignTrackingNumber() {
+        if (trackingNumber == null) {
+            trackingNumber = TrackingNumberGenerator.next();
+        }
+        if (trackingToken == null) {
+            trackingToken = TrackingNumberGenerator.newToken();
+        }
     }
     
     // Getters and Setters
@@ -95,6 +130,9 @@ public class Delivery {
     public String getTrackingNumber() { return trackingNumber; }
     public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
     
+    public String getTrackingToken() { return trackingToken; }
+    public void setTrackingToken(String trackingToken) { this.trackingToken = trackingToken; }
+    
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
     
@@ -104,11 +142,15 @@ public class Delivery {
     public Double getLongitude() { return longitude; }
     public void setLongitude(Double longitude) { this.longitude = longitude; }
     
-    private String generateTrackingNumber() {
-        return "TK" + System.currentTimeMillis();
-    }
+    public Double getPickupLatitude() { return pickupLatitude; }
+    public void setPickupLatitude(Double pickupLatitude) { this.pickupLatitude = pickupLatitude; }
+    
+    public Double getPickupLongitude() { return pickupLongitude; }
+    public void setPickupLongitude(Double pickupLongitude) { this.pickupLongitude = pickupLongitude; }
+    
+    public Double getDropoffLatitude() { return dropoffLatitude; }
+    public void setDropoffLatitude(Double dropoffLatitude) { this.dropoffLatitude = dropoffLatitude; }
+    
+    public Double getDropoffLongitude() { return dropoffLongitude; }
+    public void setDropoffLongitude(Double dropoffLongitude) { this.dropoffLongitude = dropoffLongitude; }
 }
-
-enum DeliveryStatus {
-    PENDING, ASSIGNED, PICKED_UP, IN_TRANSIT, DELIVERED, CANCELLED, FAILED
-}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.fooddelivery.delivery.model;
+
+public enum DeliveryStatus {
+    PENDING, ASSIGNED, PICKED_UP, IN_TRANSIT, DELIVERED, CANCELLED, FAILED;
+    
+    // 终态的配送单不再占用司机
+    public boolean isTerminal() {
+        return this == DELIVERED || this == CANCELLED || this == FAILED;
+    }
+    
+    // 手动更新状态时允许的转换；ASSIGNED 只能由派单写入，终态不能再改变
+    public boolean canTransitionTo(DeliveryStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == CANCELLED || next == FAILED;
+            case ASSIGNED:
+                return next == PICKED_UP || next == CANCELLED || next == FAILED;
+            case PICKED_UP:
+                return next == IN_TRANSIT || next == DELIVERED || next == FAILED;
+            case IN_TRANSIT:
+                return next == DELIVERED || next == FAILED;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fooddelivery.delivery.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 运单号生成：64 位 ID = 41 位毫秒时间戳 | 10 位节点号 | 12 位序号，转成 36 进制后加 "TK" 前缀。
+// 时间戳和序号合并为一个 long 用 CAS 单调递增，同一毫秒内序号用完时借用下一毫秒，
+// 时钟回拨时继续沿用已发出的最大值，因此同一节点内不会重复也不需要加锁。
+// 节点号取自系统属性 delivery.node-id 或环境变量 DELIVERY_NODE_ID，多实例部署时必须各不相同，
+// 未配置时启动失败，不再随机选取（随机节点号在多实例下会生成重复运单号）
+public final class TrackingNumberGenerator {
+    
+    private static final String PREFIX = "TK";
+    
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    // 2024-01-01T00:00:00Z，41 位毫秒时间戳可用到 2093 年
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    
+    private static final long NODE_ID = resolveNodeId();
+    
+    private static final int TOKEN_BYTES = 16;
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    // 高位为相对 EPOCH_MILLIS 的毫秒数，低 SEQUENCE_BITS 位为序号
+    private static final AtomicLong LAST = new AtomicLong();
+    
+    private TrackingNumberGenerator() {
+    }
+    
+    public static String next() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long current;
+        do {
+            previous = LAST.get();
+            current = Math.max(now, previous + 1);
+        } while (!LAST.compareAndSet(previous, current));
+        
+        long timestamp = current >>> SEQUENCE_BITS;
+        long id = (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (NODE_ID << SEQUENCE_BITS) | (current & SEQUENCE_MASK);
+        return PREFIX + Long.toString(id, 36).toUpperCase(Locale.ROOT);
+    }
+    
+    // 128 位随机跟踪凭证，URL 安全的 Base64 编码
+    public static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    // 常量时间比较，避免按响应时间逐字节猜出凭证
+    public static boolean tokenMatches(String expected, String token) {
+        return expected != null && token != null
+                && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // 启动时调用，节点号缺失或越界时让服务启动失败
+    public static long getNodeId() {
+        return NODE_ID;
+    }
+    
+    private static long resolveNodeId() {
+        String configured = System.getProperty("delivery.node-id", System.getenv("DELIVERY_NODE_ID"));
+        if (configured == null || configured.trim().isEmpty()) {
+            throw new IllegalStateException("delivery.node-id (or DELIVERY_NODE_ID) must be set to a value unique per instance");
+        }
+        long nodeId;
+        try {
+            nodeId = Long.parseLong(configured.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("delivery.node-id must be a number: " + configured);
+        }
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("delivery.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        return nodeId;
+    }
+}
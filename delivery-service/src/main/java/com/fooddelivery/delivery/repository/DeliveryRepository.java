@@ -0,0 +1,62 @@
+package com.fooddelivery.delivery.repository;
+
+import com.fooddelivery.delivery.model.Delivery;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
+    Optional<Delivery> findByTrackingNumber(String trackingNumber);
+    List<Delivery> findByStatusIn(Collection<DeliveryStatus> statuses);
+    // 派单只取有取餐点坐标的配送单，缺坐标的旧数据不会占满每批的名额
+    List<Delivery> findByStatusAndPickupLatitudeIsNotNullAndPickupLongitudeIsNotNullOrderByCreatedAtAsc(
+            DeliveryStatus status, Pageable pageable);
+    long countByDriverIdAndStatusIn(String driverId, Collection<DeliveryStatus> statuses);
+    
+    // 条件更新：只有仍处于 expected 状态的配送单才会被指派，返回受影响行数
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Delivery d set d.driverId = :driverId, d.status = :status "
+            + "where d.id = :id and d.status = :expected")
+    int assignDriver(@Param("id") Long id,
+                     @Param("driverId") String driverId,
+                     @Param("expected") DeliveryStatus expected,
+                     @Param("status") DeliveryStatus status);
+    
+    // 同上，并写入新的预计送达时间；没有预计时间时用 assignDriver，保留原值
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Delivery d set d.driverId = :driverId, d.status = :status, "
+            + "d.estimatedDeliveryTime = :estimatedDeliveryTime "
+            + "where d.id = :id and d.status = :expected")
+    int assignDriverWithEstimate(@Param("id") Long id,
+                                 @Param("driverId") String driverId,
+                                 @Param("expected") DeliveryStatus expected,
+                                 @Param("status") DeliveryStatus status,
+                                 @Param("estimatedDeliveryTime") int estimatedDeliveryTime);
+    
+    // 条件更新状态：只有仍处于 expected 状态时才写入，避免覆盖并发的派单；
+    // 只写状态相关的列，司机等其他列保持数据库中的值
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Delivery d set d.status = :status, d.pickedUpAt = :pickedUpAt, d.deliveredAt = :deliveredAt, "
+            + "d.estimatedDeliveryTime = :estimatedDeliveryTime "
+            + "where d.id = :id and d.status = :expected")
+    int updateStatus(@Param("id") Long id,
+                     @Param("expected") DeliveryStatus expected,
+                     @Param("status") DeliveryStatus status,
+                     @Param("pickedUpAt") LocalDateTime pickedUpAt,
+                     @Param("deliveredAt") LocalDateTime deliveredAt,
+                     @Param("estimatedDeliveryTime") Integer estimatedDeliveryTime);
+}
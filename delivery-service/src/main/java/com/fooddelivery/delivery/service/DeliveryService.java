@@ -0,0 +1,137 @@
+package com.fooddelivery.delivery.service;
+
+import com.fooddelivery.delivery.dispatch.DispatchService;
+import com.fooddelivery.delivery.dispatch.DriverIndex;
+import com.fooddelivery.delivery.dispatch.DriverPosition;
+import com.fooddelivery.delivery.eta.EtaService;
+import com.fooddelivery.delivery.journal.DeliveryEvent;
+import com.fooddelivery.delivery.journal.DeliveryJournal;
+import com.fooddelivery.delivery.model.Delivery;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import com.fooddelivery.delivery.model.TrackingNumberGenerator;
+import com.fooddelivery.delivery.repository.DeliveryRepository;
+import com.fooddelivery.delivery.tracking.TrackingHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+
+@Service
+public class DeliveryService {
+    
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+    
+    @Autowired
+    private DispatchService dispatchService;
+    
+    @Autowired
+    private DriverIndex driverIndex;
+    
+    @Autowired
+    private EtaService etaService;
+    
+    @Autowired
+    private TrackingHub trackingHub;
+    
+    @Autowired
+    private DeliveryJournal deliveryJournal;
+    
+    public Delivery createDelivery(Delivery delivery) {
+        if (delivery.getOrderId() == null || delivery.getCustomerId() == null
+                || delivery.getRestaurantId() == null) {
+            throw new IllegalArgumentException("Order, customer and restaurant are required");
+        }
+        // 没有取餐点坐标无法派单，不允许进入 PENDING 队列
+        if (!isValidLocation(delivery.getPickupLatitude(), delivery.getPickupLongitude())) {
+            throw new IllegalArgumentException("Valid pickup coordinates are required");
+        }
+        delivery.setStatus(DeliveryStatus.PENDING);
+        delivery.setDriverId(null);
+        delivery.setTrackingNumber(null);
+        Integer estimatedMinutes = etaService.estimateMinutes(delivery, null, null);
+        if (estimatedMinutes != null) {
+            delivery.setEstimatedDeliveryTime(estimatedMinutes);
+        }
+        Delivery saved = deliveryRepository.save(delivery);
+        deliveryJournal.record(DeliveryEvent.created(saved));
+        
+        // greedy 模式下新建时立即尝试派单，没有可用司机时由定时任务补派；batch 模式下等待下一个派单窗口
+        if (!dispatchService.isBatchMode()) {
+            dispatchService.dispatch(saved);
+        }
+        return saved;
+    }
+    
+    public Optional<Delivery> getDeliveryById(Long deliveryId) {
+        return deliveryRepository.findById(deliveryId);
+    }
+    
+    public Optional<Delivery> getDeliveryByTrackingNumber(String trackingNumber, String token) {
+        return deliveryRepository.findByTrackingNumber(trackingNumber)
+                .filter(d -> TrackingNumberGenerator.tokenMatches(d.getTrackingToken(), token));
+    }
+    
+    public Optional<Delivery> dispatch(Long deliveryId) {
+        return deliveryRepository.findById(deliveryId).flatMap(dispatchService::dispatch);
+    }
+    
+    // 按加载时的状态条件更新，期间被派单或其他请求改过状态时返回冲突，由调用方重新读取后再试
+    public Delivery updateStatus(Long deliveryId, DeliveryStatus status) {
+        Delivery delivery = deliveryRepository.findById(deliveryId)
+                .orElseThrow(() -> new RuntimeException("Delivery not found: " + deliveryId));
+        DeliveryStatus current = delivery.getStatus();
+        if (!current.canTransitionTo(status)) {
+            throw new IllegalStateException("Delivery cannot change from " + current + " to " + status);
+        }
+        
+        delivery.setStatus(status);
+        if (status == DeliveryStatus.PICKED_UP) {
+            delivery.setPickedUpAt(LocalDateTime.now());
+        } else if (status == DeliveryStatus.DELIVERED) {
+            delivery.setDeliveredAt(LocalDateTime.now());
+        }
+        refreshEstimate(delivery);
+        int updated = deliveryRepository.updateStatus(deliveryId, current, status,
+                delivery.getPickedUpAt(), delivery.getDeliveredAt(), delivery.getEstimatedDeliveryTime());
+        if (updated == 0) {
+            throw new IllegalStateException("Delivery " + deliveryId + " is no longer " + current);
+        }
+        Delivery saved = deliveryRepository.findById(deliveryId)
+                .orElseThrow(() -> new RuntimeException("Delivery not found: " + deliveryId));
+        deliveryJournal.record(DeliveryEvent.statusChanged(saved));
+        trackingHub.onDeliveryChanged(saved);
+        
+        // 司机手上的配送单（含合单）全部结束后重新可接单
+        if (status.isTerminal() && saved.getDriverId() != null
+                && deliveryRepository.countByDriverIdAndStatusIn(saved.getDriverId(), EnumSet.of(
+                        DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT)) == 0) {
+            driverIndex.release(saved.getDriverId());
+        }
+        return saved;
+    }
+    
+    // 取餐后按司机最新位置重新估算，索引中没有位置时用最近一次落库的位置
+    private void refreshEstimate(Delivery delivery) {
+        Double latitude = delivery.getLatitude();
+        Double longitude = delivery.getLongitude();
+        if (delivery.getDriverId() != null) {
+            Optional<DriverPosition> position = driverIndex.getDriver(delivery.getDriverId());
+            if (position.isPresent() && position.get().getLatitude() != null) {
+                latitude = position.get().getLatitude();
+                longitude = position.get().getLongitude();
+            }
+        }
+        Integer estimatedMinutes = etaService.estimateMinutes(delivery, latitude, longitude);
+        if (estimatedMinutes != null) {
+            delivery.setEstimatedDeliveryTime(estimatedMinutes);
+        }
+    }
+    
+    private static boolean isValidLocation(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+}
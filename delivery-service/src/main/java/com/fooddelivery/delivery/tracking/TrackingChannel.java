@@ -0,0 +1,113 @@
+package com.fooddelivery.delivery.tracking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooddelivery.delivery.dispatch.DriverPosition;
+import com.fooddelivery.delivery.eta.EtaService;
+import com.fooddelivery.delivery.model.Delivery;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import com.fooddelivery.delivery.model.TrackingNumberGenerator;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// 一个运单号的跟踪状态和订阅者。状态每次变化版本号加一，
+// 推送内容按版本缓存，同一版本只序列化一次再发给所有订阅者
+class TrackingChannel {
+    
+    private final String trackingNumber;
+    private final String trackingToken;
+    private final List<TrackingSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    
+    private DeliveryStatus status;
+    private String driverId;
+    private Integer estimatedDeliveryTime;
+    private Double latitude;
+    private Double longitude;
+    private Long positionUpdatedAt;
+    private Double pickupLatitude;
+    private Double pickupLongitude;
+    private Double dropoffLatitude;
+    private Double dropoffLongitude;
+    
+    private long version;
+    private Snapshot snapshot;
+    
+    TrackingChannel(Delivery delivery) {
+        this.trackingNumber = delivery.getTrackingNumber();
+        this.trackingToken = delivery.getTrackingToken();
+        update(delivery);
+    }
+    
+    synchronized void update(Delivery delivery) {
+        this.status = delivery.getStatus();
+        this.driverId = delivery.getDriverId();
+        this.estimatedDeliveryTime = delivery.getEstimatedDeliveryTime();
+        this.pickupLatitude = delivery.getPickupLatitude();
+        this.pickupLongitude = delivery.getPickupLongitude();
+        this.dropoffLatitude = delivery.getDropoffLatitude();
+        this.dropoffLongitude = delivery.getDropoffLongitude();
+        if (positionUpdatedAt == null && delivery.getLatitude() != null) {
+            this.latitude = delivery.getLatitude();
+            this.longitude = delivery.getLongitude();
+        }
+        version++;
+    }
+    
+    // 司机位置有新上报时更新并按新位置重新估算送达时间，返回是否有变化
+    synchronized boolean updatePosition(DriverPosition position, EtaService etaService) {
+        if (position.getLatitude() == null
+                || (positionUpdatedAt != null && position.getUpdatedAt() <= positionUpdatedAt)) {
+            return false;
+        }
+        this.latitude = position.getLatitude();
+        this.longitude = position.getLongitude();
+        this.positionUpdatedAt = position.getUpdatedAt();
+        Integer estimatedMinutes = etaService.estimateMinutes(status, latitude, longitude,
+                pickupLatitude, pickupLongitude, dropoffLatitude, dropoffLongitude);
+        if (estimatedMinutes != null) {
+            this.estimatedDeliveryTime = estimatedMinutes;
+        }
+        version++;
+        return true;
+    }
+    
+    synchronized Snapshot snapshot(ObjectMapper objectMapper) throws JsonProcessingException {
+        if (snapshot == null || snapshot.version != version) {
+            boolean showPosition = isInProgress();
+            TrackingUpdate update = new TrackingUpdate(trackingNumber, status,
+                    showPosition ? latitude : null, showPosition ? longitude : null,
+                    showPosition ? positionUpdatedAt : null, estimatedDeliveryTime);
+            snapshot = new Snapshot(version, objectMapper.writeValueAsString(update), isTerminal());
+        }
+        return snapshot;
+    }
+    
+    synchronized long getVersion() { return version; }
+    synchronized String getDriverId() { return driverId; }
+    synchronized boolean isTerminal() { return status != null && status.isTerminal(); }
+    
+    synchronized boolean isInProgress() {
+        return status == DeliveryStatus.ASSIGNED || status == DeliveryStatus.PICKED_UP
+                || status == DeliveryStatus.IN_TRANSIT;
+    }
+    
+    boolean accepts(String token) { return TrackingNumberGenerator.tokenMatches(trackingToken, token); }
+    
+    void addSubscriber(TrackingSubscriber subscriber) { subscribers.add(subscriber); }
+    void removeSubscriber(TrackingSubscriber subscriber) { subscribers.remove(subscriber); }
+    List<TrackingSubscriber> getSubscribers() { return subscribers; }
+    String getTrackingNumber() { return trackingNumber; }
+    
+    static class Snapshot {
+        final long version;
+        final String payload;
+        final boolean terminal;
+        
+        Snapshot(long version, String payload, boolean terminal) {
+            this.version = version;
+            this.payload = payload;
+            this.terminal = terminal;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.fooddelivery.delivery.tracking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooddelivery.delivery.dispatch.DriverIndex;
+import com.fooddelivery.delivery.eta.EtaService;
+import com.fooddelivery.delivery.model.Delivery;
+import com.fooddelivery.delivery.model.TrackingNumberGenerator;
+import com.fooddelivery.delivery.repository.DeliveryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.annotation.PostConstruct;
+import javax.websocket.RemoteEndpoint;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 配送实时跟踪：按运单号维护订阅频道，状态变化立即推送，司机位置由定时任务
+// 从司机索引读取，按每个订阅者的最小间隔节流推送。只有有订阅者的运单才在内存中
+@Component
+public class TrackingHub {
+    
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+    
+    @Autowired
+    private DriverIndex driverIndex;
+    
+    @Autowired
+    private EtaService etaService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${delivery.tracking.default-interval-ms:2000}")
+    private long defaultIntervalMillis;
+    
+    @Value("${delivery.tracking.min-interval-ms:1000}")
+    private long minIntervalMillis;
+    
+    private final ConcurrentMap<String, TrackingChannel> channels = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    
+    private Counter sent;
+    private Counter skipped;
+    
+    @PostConstruct
+    public void init() {
+        this.sent = meterRegistry.counter("delivery.tracking.messages", "result", "sent");
+        this.skipped = meterRegistry.counter("delivery.tracking.messages", "result", "skipped");
+        Gauge.builder("delivery.tracking.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("delivery.tracking.channels", channels, ConcurrentMap::size).register(meterRegistry);
+    }
+    
+    // 订阅运单，运单号不存在或跟踪凭证不符时返回 empty（两种情况不加区分）；订阅后立即推送一次当前状态
+    Optional<TrackingSubscriber> subscribe(WebSocketSession session, RemoteEndpoint.Async remote,
+                                           String trackingNumber, String token, Long intervalMillis) {
+        Delivery delivery = null;
+        TrackingChannel current = channels.get(trackingNumber);
+        if (current != null) {
+            if (!current.accepts(token)) {
+                return Optional.empty();
+            }
+        } else {
+            Optional<Delivery> found = deliveryRepository.findByTrackingNumber(trackingNumber);
+            if (!found.isPresent() || !TrackingNumberGenerator.tokenMatches(found.get().getTrackingToken(), token)) {
+                return Optional.empty();
+            }
+            delivery = found.get();
+        }
+        
+        long interval = Math.max(minIntervalMillis, intervalMillis != null ? intervalMillis : defaultIntervalMillis);
+        TrackingSubscriber subscriber = new TrackingSubscriber(session, remote, trackingNumber,
+                TimeUnit.MILLISECONDS.toNanos(interval));
+        Delivery loaded = delivery;
+        TrackingChannel channel = channels.compute(trackingNumber, (key, existing) -> {
+            TrackingChannel target = existing != null ? existing
+                    : new TrackingChannel(loaded != null ? loaded : reload(key));
+            target.addSubscriber(subscriber);
+            return target;
+        });
+        subscriberCount.incrementAndGet();
+        
+        push(channel, System.nanoTime(), true);
+        return Optional.of(subscriber);
+    }
+    
+    void unsubscribe(TrackingSubscriber subscriber) {
+        channels.computeIfPresent(subscriber.getTrackingNumber(), (key, channel) -> {
+            channel.removeSubscriber(subscriber);
+            return channel.getSubscribers().isEmpty() ? null : channel;
+        });
+        subscriberCount.decrementAndGet();
+    }
+    
+    // 配送单状态或司机变化时调用，正在被跟踪的运单立即推送给所有订阅者
+    public void onDeliveryChanged(Delivery delivery) {
+        if (delivery.getTrackingNumber() == null) {
+            return;
+        }
+        TrackingChannel channel = channels.get(delivery.getTrackingNumber());
+        if (channel != null) {
+            channel.update(delivery);
+            push(channel, System.nanoTime(), true);
+        }
+    }
+    
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+    
+    // 刷新配送中运单的司机位置和预计送达时间，并补发之前因节流或在途而未发送的更新
+    @Scheduled(fixedDelayString = "${delivery.tracking.tick-ms:500}")
+    public void tick() {
+        long now = System.nanoTime();
+        for (TrackingChannel channel : channels.values()) {
+            String driverId = channel.getDriverId();
+            if (driverId != null && channel.isInProgress()) {
+                driverIndex.getDriver(driverId).ifPresent(position -> channel.updatePosition(position, etaService));
+            }
+            push(channel, now, false);
+        }
+    }
+    
+    private void push(TrackingChannel channel, long now, boolean immediate) {
+        TrackingChannel.Snapshot snapshot = null;
+        for (TrackingSubscriber subscriber : channel.getSubscribers()) {
+            if (!subscriber.isDue(channel.getVersion(), now, immediate)) {
+                continue;
+            }
+            if (snapshot == null) {
+                try {
+                    snapshot = channel.snapshot(objectMapper);
+                } catch (JsonProcessingException e) {
+                    return;
+                }
+            }
+            // 终态推送完后关闭连接，连接关闭时自动退订
+            if (subscriber.send(snapshot.payload, snapshot.version, snapshot.terminal)) {
+                sent.increment();
+            } else {
+                skipped.increment();
+            }
+        }
+    }
+    
+    private Delivery reload(String trackingNumber) {
+        return deliveryRepository.findByTrackingNumber(trackingNumber)
+                .orElseThrow(() -> new IllegalStateException("Delivery not found: " + trackingNumber));
+    }
+}
@@ -0,0 +1,64 @@
+package com.fooddelivery.delivery.tracking;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.websocket.RemoteEndpoint;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 一个 WebSocket 订阅：用容器的异步发送接口推送，同一时刻最多一条消息在途。
+// 上一条还没写完时不排队，等写完后直接发送当时的最新状态，慢客户端只会收到更少的更新
+class TrackingSubscriber {
+    
+    private final WebSocketSession session;
+    private final RemoteEndpoint.Async remote;
+    private final String trackingNumber;
+    private final long minIntervalNanos;
+    
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile long lastSentAt;
+    private volatile long lastVersion = -1;
+    
+    TrackingSubscriber(WebSocketSession session, RemoteEndpoint.Async remote, String trackingNumber,
+                       long minIntervalNanos) {
+        this.session = session;
+        this.remote = remote;
+        this.trackingNumber = trackingNumber;
+        this.minIntervalNanos = minIntervalNanos;
+        this.lastSentAt = System.nanoTime() - minIntervalNanos;
+    }
+    
+    // 有新版本且距上次发送已超过订阅间隔（状态变化 immediate 为 true 时不受间隔限制）
+    boolean isDue(long version, long now, boolean immediate) {
+        return version > lastVersion && (immediate || now - lastSentAt >= minIntervalNanos);
+    }
+    
+    // 返回 false 表示上一条仍在途，本次跳过
+    boolean send(String payload, long version, boolean closeAfterSend) {
+        if (!session.isOpen() || !sending.compareAndSet(false, true)) {
+            return false;
+        }
+        lastVersion = version;
+        lastSentAt = System.nanoTime();
+        remote.sendText(payload, result -> {
+            sending.set(false);
+            if (!result.isOK()) {
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+            } else if (closeAfterSend) {
+                close(CloseStatus.NORMAL);
+            }
+        });
+        return true;
+    }
+    
+    void close(CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            // 连接已断开
+        }
+    }
+    
+    String getTrackingNumber() { return trackingNumber; }
+}
@@ -0,0 +1,30 @@
+package com.fooddelivery.delivery.tracking;
+
+import com.fooddelivery.delivery.model.DeliveryStatus;
+
+// 推送给订阅方的配送状态，司机位置只在配送进行中时提供
+public class TrackingUpdate {
+    private final String trackingNumber;
+    private final DeliveryStatus status;
+    private final Double latitude;
+    private final Double longitude;
+    private final Long positionUpdatedAt;
+    private final Integer estimatedDeliveryTime;
+    
+    public TrackingUpdate(String trackingNumber, DeliveryStatus status, Double latitude, Double longitude,
+                          Long positionUpdatedAt, Integer estimatedDeliveryTime) {
+        this.trackingNumber = trackingNumber;
+        this.status = status;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.positionUpdatedAt = positionUpdatedAt;
+        this.estimatedDeliveryTime = estimatedDeliveryTime;
+    }
+    
+    public String getTrackingNumber() { return trackingNumber; }
+    public DeliveryStatus getStatus() { return status; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public Long getPositionUpdatedAt() { return positionUpdatedAt; }
+    public Integer getEstimatedDeliveryTime() { return estimatedDeliveryTime; }
+}
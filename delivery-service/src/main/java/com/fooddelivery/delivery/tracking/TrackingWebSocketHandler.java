@@ -0,0 +1,69 @@
+package com.fooddelivery.delivery.tracking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.websocket.Session;
+import java.util.Optional;
+
+// 客户端连接 /ws/tracking?trackingNumber=TK...&token=...&interval=2000 订阅配送跟踪，
+// token 为创建配送单时返回的跟踪凭证；服务端只推送不接收消息；
+// interval 为位置推送的最小间隔（毫秒），不能小于服务端下限
+@Component
+public class TrackingWebSocketHandler extends TextWebSocketHandler {
+    
+    private static final String SUBSCRIBER_ATTRIBUTE = "trackingSubscriber";
+    
+    @Autowired
+    private TrackingHub trackingHub;
+    
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        String trackingNumber = params.getFirst("trackingNumber");
+        String token = params.getFirst("token");
+        Long interval = parseInterval(params.getFirst("interval"));
+        Session nativeSession = session instanceof NativeWebSocketSession
+                ? ((NativeWebSocketSession) session).getNativeSession(Session.class)
+                : null;
+        if (trackingNumber == null || token == null || nativeSession == null) {
+            session.close(CloseStatus.BAD_DATA.withReason("trackingNumber and token are required"));
+            return;
+        }
+        
+        Optional<TrackingSubscriber> subscriber;
+        try {
+            subscriber = trackingHub.subscribe(session, nativeSession.getAsyncRemote(), trackingNumber, token, interval);
+        } catch (RuntimeException e) {
+            session.close(CloseStatus.SERVER_ERROR);
+            return;
+        }
+        if (!subscriber.isPresent()) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Unknown tracking number or token"));
+            return;
+        }
+        session.getAttributes().put(SUBSCRIBER_ATTRIBUTE, subscriber.get());
+    }
+    
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Object subscriber = session.getAttributes().remove(SUBSCRIBER_ATTRIBUTE);
+        if (subscriber != null) {
+            trackingHub.unsubscribe((TrackingSubscriber) subscriber);
+        }
+    }
+    
+    private static Long parseInterval(String value) {
+        try {
+            return value != null ? Long.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.fooddelivery.delivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// 派单策略模拟：在同一批随机生成的餐厅、司机和订单上分别运行逐单就近派单（greedy）
+// 和窗口批量派单（batch，合单 + 全局指派），比较平均配送时长和司机利用率。
+// 模拟时钟以秒为单位，司机按 TravelTimeEstimator 估算的时间直线移动
+public class DispatchSimulator {
+    
+    private static final double METERS_PER_DEGREE = 111_320d;
+    
+    private final TravelTimeEstimator travelTimeEstimator;
+    
+    public DispatchSimulator(TravelTimeEstimator travelTimeEstimator) {
+        this.travelTimeEstimator = travelTimeEstimator;
+    }
+    
+    public Map<String, SimulationResult> compare(SimulationSettings settings) {
+        Random random = new Random(settings.getSeed());
+        double[][] restaurants = randomPoints(random, settings.getRestaurants(), settings);
+        double[][] drivers = randomPoints(random, settings.getDrivers(), settings);
+        List<SimulatedOrder> orders = generateOrders(random, restaurants, settings);
+        
+        Map<String, SimulationResult> results = new HashMap<>();
+        results.put("greedy", run(false, drivers, orders, settings));
+        results.put("batch", run(true, drivers, orders, settings));
+        return results;
+    }
+    
+    private SimulationResult run(boolean batch, double[][] initialDrivers, List<SimulatedOrder> orders,
+                                 SimulationSettings settings) {
+        int driverCount = initialDrivers.length;
+        double[] driverLatitudes = new double[driverCount];
+        double[] driverLongitudes = new double[driverCount];
+        double[] freeAt = new double[driverCount];
+        double[] busySeconds = new double[driverCount];
+        for (int i = 0; i < driverCount; i++) {
+            driverLatitudes[i] = initialDrivers[i][0];
+            driverLongitudes[i] = initialDrivers[i][1];
+        }
+        
+        double[] assignedAt = new double[orders.size()];
+        double[] deliveredAt = new double[orders.size()];
+        Arrays.fill(deliveredAt, Double.NaN);
+        int stacked = 0;
+        
+        StackPlanner planner = new StackPlanner(travelTimeEstimator, batch ? settings.getMaxStackSize() : 1,
+                settings.getMaxCreatedSpreadSeconds() * 1000L, settings.getMaxDropoffGapSeconds());
+        BatchOptimizer optimizer = new BatchOptimizer(travelTimeEstimator, settings.getCandidates());
+        
+        double horizon = settings.getMinutes() * 60d;
+        double tick = batch ? settings.getBatchWindowSeconds() : settings.getTickSeconds();
+        List<SimulatedOrder> pending = new ArrayList<>();
+        int next = 0;
+        
+        // 订单停止生成后继续运行，直到积压清空或超出两小时
+        for (double now = 0; now <= horizon + 7200 && (next < orders.size() || !pending.isEmpty()); now += tick) {
+            while (next < orders.size() && orders.get(next).createdAt <= now) {
+                pending.add(orders.get(next++));
+            }
+            if (pending.isEmpty()) {
+                continue;
+            }
+            
+            final double time = now;
+            boolean[] taken = new boolean[driverCount];
+            CandidateSource candidates = (latitude, longitude, k) -> nearestIdle(latitude, longitude, k, time,
+                    taken, driverLatitudes, driverLongitudes, freeAt, settings.getMaxDistanceMeters());
+            
+            List<JobAssignment> assignments = new ArrayList<>();
+            if (batch) {
+                // 与线上一致，每个窗口最多处理 batchSize 张最早的待派单
+                List<DispatchTask> tasks = new ArrayList<>(Math.min(pending.size(), settings.getBatchSize()));
+                for (int i = 0; i < pending.size() && i < settings.getBatchSize(); i++) {
+                    tasks.add(pending.get(i).task);
+                }
+                assignments = optimizer.solve(planner.plan(tasks), candidates);
+            } else {
+                // 逐单就近：按下单顺序每单取最近的一个空闲司机
+                for (SimulatedOrder order : pending) {
+                    List<DriverCandidate> nearest = candidates.nearestAvailable(
+                            order.task.getPickupLatitude(), order.task.getPickupLongitude(), 1);
+                    if (nearest.isEmpty()) {
+                        continue;
+                    }
+                    DriverCandidate driver = nearest.get(0);
+                    taken[Integer.parseInt(driver.getDriverId())] = true;
+                    assignments.add(new JobAssignment(new DispatchJob(order.task), driver.getDriverId(), 0));
+                }
+            }
+            
+            for (JobAssignment assignment : assignments) {
+                int driver = Integer.parseInt(assignment.getDriverId());
+                DispatchJob job = assignment.getJob();
+                
+                // 到店后等最晚出餐的一单做好，再按顺序送达
+                double clock = now + travelTimeEstimator.travelSeconds(driverLatitudes[driver], driverLongitudes[driver],
+                        job.getPickupLatitude(), job.getPickupLongitude());
+                for (DispatchTask task : job.getTasks()) {
+                    clock = Math.max(clock, orders.get(task.getDeliveryId().intValue()).readyAt);
+                }
+                double latitude = job.getPickupLatitude();
+                double longitude = job.getPickupLongitude();
+                for (DispatchTask task : job.getTasks()) {
+                    clock += travelTimeEstimator.travelSeconds(latitude, longitude,
+                            task.getDropoffLatitude(), task.getDropoffLongitude()) + settings.getHandoffSeconds();
+                    int index = task.getDeliveryId().intValue();
+                    assignedAt[index] = now;
+                    deliveredAt[index] = clock;
+                    latitude = task.getDropoffLatitude();
+                    longitude = task.getDropoffLongitude();
+                }
+                if (job.size() > 1) {
+                    stacked += job.size();
+                }
+                
+                busySeconds[driver] += Math.max(0, Math.min(clock, horizon) - now);
+                freeAt[driver] = clock;
+                driverLatitudes[driver] = latitude;
+                driverLongitudes[driver] = longitude;
+                taken[driver] = true;
+            }
+            pending.removeIf(order -> !Double.isNaN(deliveredAt[order.task.getDeliveryId().intValue()]));
+        }
+        
+        return summarize(orders, assignedAt, deliveredAt, busySeconds, stacked, horizon, driverCount);
+    }
+    
+    private SimulationResult summarize(List<SimulatedOrder> orders, double[] assignedAt, double[] deliveredAt,
+                                       double[] busySeconds, int stacked, double horizon, int driverCount) {
+        double[] durations = new double[orders.size()];
+        int delivered = 0;
+        double totalAssignWait = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            if (Double.isNaN(deliveredAt[i])) {
+                continue;
+            }
+            durations[delivered++] = deliveredAt[i] - orders.get(i).createdAt;
+            totalAssignWait += assignedAt[i] - orders.get(i).createdAt;
+        }
+        Arrays.sort(durations, 0, delivered);
+        
+        double totalBusy = 0;
+        for (double busy : busySeconds) {
+            totalBusy += busy;
+        }
+        
+        SimulationResult result = new SimulationResult();
+        result.setOrders(orders.size());
+        result.setDelivered(delivered);
+        result.setStackedDeliveries(stacked);
+        if (delivered > 0) {
+            double total = 0;
+            for (int i = 0; i < delivered; i++) {
+                total += durations[i];
+            }
+            result.setAverageDeliveryMinutes(total / delivered / 60);
+            result.setP90DeliveryMinutes(durations[(int) Math.min(delivered - 1, Math.floor(delivered * 0.9))] / 60);
+            result.setAverageAssignWaitMinutes(totalAssignWait / delivered / 60);
+        }
+        result.setDriverUtilization(totalBusy / (driverCount * horizon));
+        result.setDeliveriesPerDriverHour(delivered / (driverCount * horizon / 3600));
+        return result;
+    }
+    
+    private List<DriverCandidate> nearestIdle(double latitude, double longitude, int k, double now, boolean[] taken,
+                                              double[] latitudes, double[] longitudes, double[] freeAt,
+                                              double maxDistanceMeters) {
+        List<DriverCandidate> idle = new ArrayList<>();
+        double metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        for (int i = 0; i < latitudes.length; i++) {
+            if (taken[i] || freeAt[i] > now) {
+                continue;
+            }
+            double dy = (latitudes[i] - latitude) * METERS_PER_DEGREE;
+            double dx = (longitudes[i] - longitude) * metersPerDegreeLongitude;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance <= maxDistanceMeters) {
+                idle.add(new DriverCandidate(String.valueOf(i), latitudes[i], longitudes[i], distance));
+            }
+        }
+        idle.sort((a, b) -> Double.compare(a.getDistanceMeters(), b.getDistanceMeters()));
+        return idle.size() > k ? new ArrayList<>(idle.subList(0, k)) : idle;
+    }
+    
+    // 订单按泊松过程到达，送达点在所选餐厅周围 dropoffRadiusMeters 内
+    private List<SimulatedOrder> generateOrders(Random random, double[][] restaurants, SimulationSettings settings) {
+        List<SimulatedOrder> orders = new ArrayList<>();
+        double ratePerSecond = settings.getOrdersPerMinute() / 60d;
+        double horizon = settings.getMinutes() * 60d;
+        double clock = 0;
+        while (true) {
+            clock += -Math.log(1 - random.nextDouble()) / ratePerSecond;
+            if (clock >= horizon) {
+                return orders;
+            }
+            int restaurant = random.nextInt(restaurants.length);
+            double[] dropoff = randomPoint(random, restaurants[restaurant][0], restaurants[restaurant][1],
+                    settings.getDropoffRadiusMeters());
+            double prepSeconds = 60 * (settings.getMinPrepMinutes()
+                    + random.nextDouble() * (settings.getMaxPrepMinutes() - settings.getMinPrepMinutes()));
+            
+            DispatchTask task = new DispatchTask((long) orders.size(), String.valueOf(restaurant),
+                    restaurants[restaurant][0], restaurants[restaurant][1], dropoff[0], dropoff[1],
+                    (long) (clock * 1000));
+            orders.add(new SimulatedOrder(task, clock, clock + prepSeconds));
+        }
+    }
+    
+    private static double[][] randomPoints(Random random, int count, SimulationSettings settings) {
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = randomPoint(random, settings.getCenterLatitude(), settings.getCenterLongitude(),
+                    settings.getRadiusMeters());
+        }
+        return points;
+    }
+    
+    // 圆内均匀分布的随机点
+    private static double[] randomPoint(Random random, double latitude, double longitude, double radiusMeters) {
+        double distance = radiusMeters * Math.sqrt(random.nextDouble());
+        double angle = 2 * Math.PI * random.nextDouble();
+        double dLatitude = distance * Math.cos(angle) / METERS_PER_DEGREE;
+        double dLongitude = distance * Math.sin(angle) / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+        return new double[] {latitude + dLatitude, longitude + dLongitude};
+    }
+    
+    private static class SimulatedOrder {
+        private final DispatchTask task;
+        private final double createdAt;
+        private final double readyAt;
+        
+        SimulatedOrder(DispatchTask task, double createdAt, double readyAt) {
+            this.task = task;
+            this.createdAt = createdAt;
+            this.readyAt = readyAt;
+        }
+    }
+}
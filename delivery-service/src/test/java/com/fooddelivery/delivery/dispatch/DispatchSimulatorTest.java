@@ -0,0 +1,54 @@
+package com.fooddelivery.delivery.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 用固定种子的小规模订单流跑一遍 greedy 与 batch，检查模拟本身的一致性；
+// 需要比较两种策略时调大 SimulationSettings 后在本地运行
+class DispatchSimulatorTest {
+    
+    // 直线距离、18km/h，与 StraightLineTravelTimeEstimator 的默认配置一致
+    private final TravelTimeEstimator travelTimeEstimator = (fromLatitude, fromLongitude, toLatitude, toLongitude) ->
+            StraightLineTravelTimeEstimator.distanceMeters(fromLatitude, fromLongitude, toLatitude, toLongitude)
+                    * 1.3 / (18 / 3.6);
+    
+    @Test
+    void runsBothStrategiesOnTheSameOrders() {
+        Map<String, SimulationResult> results = new DispatchSimulator(travelTimeEstimator).compare(smallCity());
+        SimulationResult greedy = results.get("greedy");
+        SimulationResult batch = results.get("batch");
+        
+        assertTrue(greedy.getOrders() > 0);
+        assertEquals(greedy.getOrders(), batch.getOrders());
+        for (SimulationResult result : results.values()) {
+            assertTrue(result.getDelivered() > 0 && result.getDelivered() <= result.getOrders());
+            assertTrue(result.getAverageDeliveryMinutes() > 0);
+            assertTrue(result.getDriverUtilization() >= 0 && result.getDriverUtilization() <= 1);
+        }
+        // greedy 每次只派一单，不会合单
+        assertEquals(0, greedy.getStackedDeliveries());
+    }
+    
+    @Test
+    void sameSeedGivesSameResult() {
+        SimulationResult first = new DispatchSimulator(travelTimeEstimator).compare(smallCity()).get("batch");
+        SimulationResult second = new DispatchSimulator(travelTimeEstimator).compare(smallCity()).get("batch");
+        assertEquals(first.getDelivered(), second.getDelivered());
+        assertEquals(first.getStackedDeliveries(), second.getStackedDeliveries());
+        assertEquals(first.getAverageDeliveryMinutes(), second.getAverageDeliveryMinutes());
+    }
+    
+    private static SimulationSettings smallCity() {
+        SimulationSettings settings = new SimulationSettings();
+        settings.setDrivers(40);
+        settings.setRestaurants(10);
+        settings.setOrdersPerMinute(4);
+        settings.setMinutes(30);
+        settings.setRadiusMeters(3000);
+        return settings;
+    }
+}
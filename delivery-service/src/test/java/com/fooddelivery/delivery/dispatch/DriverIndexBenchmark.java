@@ -0,0 +1,109 @@
+package com.fooddelivery.delivery.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 司机位置索引的热点操作：单条位置更新（多数仍在原网格，少数跨网格）和 k 近邻查询。
+// 司机在默认服务区域内均匀分布，全部在线且空闲
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverIndexBenchmark {
+    
+    private static final double MIN_LATITUDE = 30.60;
+    private static final double MAX_LATITUDE = 31.90;
+    private static final double MIN_LONGITUDE = 120.80;
+    private static final double MAX_LONGITUDE = 122.20;
+    
+    // 预先生成的操作序列长度，取 2 的幂便于取模
+    private static final int OPERATIONS = 1 << 16;
+    
+    @Param({"10000", "100000"})
+    private int drivers;
+    
+    @Param({"5"})
+    private int k;
+    
+    private DriverIndex index;
+    
+    private String[] updateIds;
+    private double[] updateLatitudes;
+    private double[] updateLongitudes;
+    private double[] queryLatitudes;
+    private double[] queryLongitudes;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        index = new DriverIndex();
+        ReflectionTestUtils.setField(index, "minLatitude", MIN_LATITUDE);
+        ReflectionTestUtils.setField(index, "maxLatitude", MAX_LATITUDE);
+        ReflectionTestUtils.setField(index, "minLongitude", MIN_LONGITUDE);
+        ReflectionTestUtils.setField(index, "maxLongitude", MAX_LONGITUDE);
+        ReflectionTestUtils.setField(index, "cellSizeMeters", 500d);
+        ReflectionTestUtils.setField(index, "initialCapacity", drivers);
+        // 基准运行期间位置不能过期
+        ReflectionTestUtils.setField(index, "staleAfter", Duration.ofDays(1));
+        ReflectionTestUtils.setField(index, "expireAfter", Duration.ofDays(1));
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        index.init();
+        
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        double[] latitudes = new double[drivers];
+        double[] longitudes = new double[drivers];
+        for (int i = 0; i < drivers; i++) {
+            latitudes[i] = MIN_LATITUDE + (MAX_LATITUDE - MIN_LATITUDE) * random.nextDouble();
+            longitudes[i] = MIN_LONGITUDE + (MAX_LONGITUDE - MIN_LONGITUDE) * random.nextDouble();
+            index.updateLocation("driver-" + i, latitudes[i], longitudes[i], now);
+            index.setOnline("driver-" + i, true);
+        }
+        
+        // 每次上报移动约 0 到 50 米，与几秒一次的定位上报相当
+        updateIds = new String[OPERATIONS];
+        updateLatitudes = new double[OPERATIONS];
+        updateLongitudes = new double[OPERATIONS];
+        queryLatitudes = new double[OPERATIONS];
+        queryLongitudes = new double[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            int driver = random.nextInt(drivers);
+            updateIds[i] = "driver-" + driver;
+            updateLatitudes[i] = latitudes[driver] + (random.nextDouble() - 0.5) * 0.0009;
+            updateLongitudes[i] = longitudes[driver] + (random.nextDouble() - 0.5) * 0.0009;
+            queryLatitudes[i] = MIN_LATITUDE + (MAX_LATITUDE - MIN_LATITUDE) * random.nextDouble();
+            queryLongitudes[i] = MIN_LONGITUDE + (MAX_LONGITUDE - MIN_LONGITUDE) * random.nextDouble();
+        }
+    }
+    
+    @Benchmark
+    public boolean updateLocation() {
+        int i = next++ & (OPERATIONS - 1);
+        // 时间戳递增，更新不会因早于已记录位置而被忽略
+        return index.updateLocation(updateIds[i], updateLatitudes[i], updateLongitudes[i], System.currentTimeMillis());
+    }
+    
+    @Benchmark
+    public List<DriverCandidate> nearestAvailable() {
+        int i = next++ & (OPERATIONS - 1);
+        return index.nearestAvailable(queryLatitudes[i], queryLongitudes[i], k, 5000);
+    }
+}
@@ -0,0 +1,162 @@
+package com.fooddelivery.delivery.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 最近司机查询与逐个计算距离的暴力解对比，以及位置更新、状态过滤和槽位复用
+class DriverIndexTest {
+    
+    private static final double MIN_LATITUDE = 31.00;
+    private static final double MAX_LATITUDE = 31.40;
+    private static final double MIN_LONGITUDE = 121.20;
+    private static final double MAX_LONGITUDE = 121.70;
+    
+    private DriverIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        index = newIndex();
+    }
+    
+    @Test
+    void nearestAvailableMatchesBruteForce() {
+        Random random = new Random(7);
+        long now = System.currentTimeMillis();
+        int drivers = 5000;
+        double[] latitudes = new double[drivers];
+        double[] longitudes = new double[drivers];
+        boolean[] available = new boolean[drivers];
+        for (int i = 0; i < drivers; i++) {
+            // 少量司机在服务区域外，归入边缘网格
+            latitudes[i] = MIN_LATITUDE - 0.02 + (MAX_LATITUDE - MIN_LATITUDE + 0.04) * random.nextDouble();
+            longitudes[i] = MIN_LONGITUDE - 0.02 + (MAX_LONGITUDE - MIN_LONGITUDE + 0.04) * random.nextDouble();
+            index.updateLocation("d" + i, latitudes[i], longitudes[i], now);
+            boolean online = random.nextDouble() < 0.8;
+            boolean busy = random.nextDouble() < 0.2;
+            index.setOnline("d" + i, online);
+            if (online && busy) {
+                assertTrue(index.reserve("d" + i));
+            }
+            available[i] = online && !busy;
+        }
+        
+        for (int query = 0; query < 2000; query++) {
+            double latitude = MIN_LATITUDE + (MAX_LATITUDE - MIN_LATITUDE) * random.nextDouble();
+            double longitude = MIN_LONGITUDE + (MAX_LONGITUDE - MIN_LONGITUDE) * random.nextDouble();
+            int k = 1 + random.nextInt(10);
+            double maxDistanceMeters = 200 + random.nextInt(5000);
+            
+            List<String> expected = bruteForce(latitudes, longitudes, available, latitude, longitude, k,
+                    maxDistanceMeters);
+            List<String> actual = new ArrayList<>();
+            for (DriverCandidate candidate : index.nearestAvailable(latitude, longitude, k, maxDistanceMeters)) {
+                actual.add(candidate.getDriverId());
+            }
+            int q = query;
+            assertEquals(expected, actual, () -> "query " + q + " k=" + k + " max=" + maxDistanceMeters);
+        }
+    }
+    
+    @Test
+    void locationUpdateMovesDriverBetweenCells() {
+        long now = System.currentTimeMillis();
+        index.updateLocation("d1", 31.05, 121.25, now);
+        index.setOnline("d1", true);
+        assertEquals(1, index.nearestAvailable(31.05, 121.25, 5, 1000).size());
+        
+        index.updateLocation("d1", 31.35, 121.65, now);
+        assertTrue(index.nearestAvailable(31.05, 121.25, 5, 1000).isEmpty());
+        assertEquals("d1", index.nearestAvailable(31.35, 121.65, 5, 1000).get(0).getDriverId());
+    }
+    
+    @Test
+    void olderLocationIsIgnored() {
+        long now = System.currentTimeMillis();
+        assertTrue(index.updateLocation("d1", 31.10, 121.30, now));
+        assertFalse(index.updateLocation("d1", 31.20, 121.40, now - 1000));
+        assertEquals(Double.valueOf(31.10), index.getDriver("d1").get().getLatitude());
+    }
+    
+    @Test
+    void offlineBusyAndStaleDriversAreSkipped() {
+        long now = System.currentTimeMillis();
+        index.updateLocation("offline", 31.10, 121.30, now);
+        index.updateLocation("busy", 31.10, 121.30, now);
+        index.setOnline("busy", true);
+        assertTrue(index.reserve("busy"));
+        index.updateLocation("stale", 31.10, 121.30, now - Duration.ofMinutes(1).toMillis());
+        index.setOnline("stale", true);
+        assertTrue(index.nearestAvailable(31.10, 121.30, 5, 1000).isEmpty());
+        
+        index.release("busy");
+        assertEquals("busy", index.nearestAvailable(31.10, 121.30, 5, 1000).get(0).getDriverId());
+    }
+    
+    @Test
+    void removedSlotsAreReused() {
+        long now = System.currentTimeMillis();
+        // 初始容量 16，反复加入和移除不应让数组无限增长
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 10; i++) {
+                index.updateLocation("d" + round + "-" + i, 31.10, 121.30, now);
+                index.setOnline("d" + round + "-" + i, true);
+            }
+            assertEquals(10, index.nearestAvailable(31.10, 121.30, 20, 1000).size());
+            for (int i = 0; i < 10; i++) {
+                assertTrue(index.remove("d" + round + "-" + i));
+            }
+        }
+        assertEquals(0, index.getDriverCount());
+        assertEquals(16, ((String[]) ReflectionTestUtils.getField(index, "driverIds")).length);
+    }
+    
+    private static List<String> bruteForce(double[] latitudes, double[] longitudes, boolean[] available,
+                                           double latitude, double longitude, int k, double maxDistanceMeters) {
+        // 与索引相同的平面近似
+        double metersPerDegreeLongitude = 111_320d * Math.cos(Math.toRadians((MIN_LATITUDE + MAX_LATITUDE) / 2));
+        List<double[]> candidates = new ArrayList<>();
+        for (int i = 0; i < latitudes.length; i++) {
+            if (!available[i]) {
+                continue;
+            }
+            double dy = (latitudes[i] - latitude) * 111_320d;
+            double dx = (longitudes[i] - longitude) * metersPerDegreeLongitude;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance <= maxDistanceMeters) {
+                candidates.add(new double[] {distance, i});
+            }
+        }
+        candidates.sort((a, b) -> Double.compare(a[0], b[0]));
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(k, candidates.size()); i++) {
+            result.add("d" + (int) candidates.get(i)[1]);
+        }
+        return result;
+    }
+    
+    private static DriverIndex newIndex() {
+        DriverIndex index = new DriverIndex();
+        ReflectionTestUtils.setField(index, "minLatitude", MIN_LATITUDE);
+        ReflectionTestUtils.setField(index, "maxLatitude", MAX_LATITUDE);
+        ReflectionTestUtils.setField(index, "minLongitude", MIN_LONGITUDE);
+        ReflectionTestUtils.setField(index, "maxLongitude", MAX_LONGITUDE);
+        ReflectionTestUtils.setField(index, "cellSizeMeters", 500d);
+        ReflectionTestUtils.setField(index, "initialCapacity", 16);
+        ReflectionTestUtils.setField(index, "staleAfter", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(index, "expireAfter", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        index.init();
+        return index;
+    }
+}
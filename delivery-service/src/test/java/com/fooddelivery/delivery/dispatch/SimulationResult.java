@@ -0,0 +1,39 @@
+package com.fooddelivery.delivery.dispatch;
+
+// 单个派单策略的模拟结果
+public class SimulationResult {
+    private int orders;
+    private int delivered;
+    private int stackedDeliveries;
+    private double averageDeliveryMinutes;
+    private double p90DeliveryMinutes;
+    private double averageAssignWaitMinutes;
+    private double driverUtilization;
+    private double deliveriesPerDriverHour;
+    
+    // Getters and Setters
+    public int getOrders() { return orders; }
+    public void setOrders(int orders) { this.orders = orders; }
+    
+    public int getDelivered() { return delivered; }
+    public void setDelivered(int delivered) { this.delivered = delivered; }
+    
+    public int getStackedDeliveries() { return stackedDeliveries; }
+    public void setStackedDeliveries(int stackedDeliveries) { this.stackedDeliveries = stackedDeliveries; }
+    
+    public double getAverageDeliveryMinutes() { return averageDeliveryMinutes; }
+    public void setAverageDeliveryMinutes(double averageDeliveryMinutes) { this.averageDeliveryMinutes = averageDeliveryMinutes; }
+    
+    public double getP90DeliveryMinutes() { return p90DeliveryMinutes; }
+    public void setP90DeliveryMinutes(double p90DeliveryMinutes) { this.p90DeliveryMinutes = p90DeliveryMinutes; }
+    
+    public double getAverageAssignWaitMinutes() { return averageAssignWaitMinutes; }
+    public void setAverageAssignWaitMinutes(double averageAssignWaitMinutes) { this.averageAssignWaitMinutes = averageAssignWaitMinutes; }
+    
+    // 司机处于配送中的时间占比（只统计订单生成时段内）
+    public double getDriverUtilization() { return driverUtilization; }
+    public void setDriverUtilization(double driverUtilization) { this.driverUtilization = driverUtilization; }
+    
+    public double getDeliveriesPerDriverHour() { return deliveriesPerDriverHour; }
+    public void setDeliveriesPerDriverHour(double deliveriesPerDriverHour) { this.deliveriesPerDriverHour = deliveriesPerDriverHour; }
+}
@@ -0,0 +1,86 @@
+package com.fooddelivery.delivery.dispatch;
+
+// 派单模拟参数，默认值对应一个半径 6 公里城区的午高峰
+public class SimulationSettings {
+    private long seed = 42;
+    private int drivers = 400;
+    private int restaurants = 60;
+    private double ordersPerMinute = 20;
+    private int minutes = 90;
+    private double centerLatitude = 31.2304;
+    private double centerLongitude = 121.4737;
+    private double radiusMeters = 6000;
+    private double dropoffRadiusMeters = 3000;
+    private double minPrepMinutes = 5;
+    private double maxPrepMinutes = 15;
+    private double handoffSeconds = 60;
+    private double tickSeconds = 5;
+    private double batchWindowSeconds = 30;
+    private int batchSize = 200;
+    private int candidates = 5;
+    private double maxDistanceMeters = 5000;
+    private int maxStackSize = 2;
+    private long maxCreatedSpreadSeconds = 300;
+    private double maxDropoffGapSeconds = 300;
+    
+    // Getters and Setters
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    
+    public int getDrivers() { return drivers; }
+    public void setDrivers(int drivers) { this.drivers = drivers; }
+    
+    public int getRestaurants() { return restaurants; }
+    public void setRestaurants(int restaurants) { this.restaurants = restaurants; }
+    
+    public double getOrdersPerMinute() { return ordersPerMinute; }
+    public void setOrdersPerMinute(double ordersPerMinute) { this.ordersPerMinute = ordersPerMinute; }
+    
+    public int getMinutes() { return minutes; }
+    public void setMinutes(int minutes) { this.minutes = minutes; }
+    
+    public double getCenterLatitude() { return centerLatitude; }
+    public void setCenterLatitude(double centerLatitude) { this.centerLatitude = centerLatitude; }
+    
+    public double getCenterLongitude() { return centerLongitude; }
+    public void setCenterLongitude(double centerLongitude) { this.centerLongitude = centerLongitude; }
+    
+    public double getRadiusMeters() { return radiusMeters; }
+    public void setRadiusMeters(double radiusMeters) { this.radiusMeters = radiusMeters; }
+    
+    public double getDropoffRadiusMeters() { return dropoffRadiusMeters; }
+    public void setDropoffRadiusMeters(double dropoffRadiusMeters) { this.dropoffRadiusMeters = dropoffRadiusMeters; }
+    
+    public double getMinPrepMinutes() { return minPrepMinutes; }
+    public void setMinPrepMinutes(double minPrepMinutes) { this.minPrepMinutes = minPrepMinutes; }
+    
+    public double getMaxPrepMinutes() { return maxPrepMinutes; }
+    public void setMaxPrepMinutes(double maxPrepMinutes) { this.maxPrepMinutes = maxPrepMinutes; }
+    
+    public double getHandoffSeconds() { return handoffSeconds; }
+    public void setHandoffSeconds(double handoffSeconds) { this.handoffSeconds = handoffSeconds; }
+    
+    public double getTickSeconds() { return tickSeconds; }
+    public void setTickSeconds(double tickSeconds) { this.tickSeconds = tickSeconds; }
+    
+    public double getBatchWindowSeconds() { return batchWindowSeconds; }
+    public void setBatchWindowSeconds(double batchWindowSeconds) { this.batchWindowSeconds = batchWindowSeconds; }
+    
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    
+    public int getCandidates() { return candidates; }
+    public void setCandidates(int candidates) { this.candidates = candidates; }
+    
+    public double getMaxDistanceMeters() { return maxDistanceMeters; }
+    public void setMaxDistanceMeters(double maxDistanceMeters) { this.maxDistanceMeters = maxDistanceMeters; }
+    
+    public int getMaxStackSize() { return maxStackSize; }
+    public void setMaxStackSize(int maxStackSize) { this.maxStackSize = maxStackSize; }
+    
+    public long getMaxCreatedSpreadSeconds() { return maxCreatedSpreadSeconds; }
+    public void setMaxCreatedSpreadSeconds(long maxCreatedSpreadSeconds) { this.maxCreatedSpreadSeconds = maxCreatedSpreadSeconds; }
+    
+    public double getMaxDropoffGapSeconds() { return maxDropoffGapSeconds; }
+    public void setMaxDropoffGapSeconds(double maxDropoffGapSeconds) { this.maxDropoffGapSeconds = maxDropoffGapSeconds; }
+}
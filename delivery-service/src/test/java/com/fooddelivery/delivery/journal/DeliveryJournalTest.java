@@ -0,0 +1,199 @@
+package com.fooddelivery.delivery.journal;
+
+import com.fooddelivery.delivery.dispatch.DriverIndex;
+import com.fooddelivery.delivery.dispatch.DriverPosition;
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 在临时目录中写日志后用新实例重新打开，模拟进程重启（不调用 close 即模拟崩溃）：
+// 重放、截掉写到一半的记录、快照加重放，以及恢复和读取时跳过快照之前的分段
+class DeliveryJournalTest {
+    
+    // 司机 ID 为两个字节时每条记录 63 字节，200 字节的分段放得下三条
+    private static final int SMALL_SEGMENT_BYTES = 200;
+    
+    @TempDir
+    Path dir;
+    
+    private final List<DeliveryJournal> opened = new ArrayList<>();
+    
+    @AfterEach
+    void tearDown() {
+        for (DeliveryJournal journal : opened) {
+            journal.close();
+        }
+    }
+    
+    @Test
+    void replaysEventsAfterCrash() throws IOException {
+        DeliveryJournal journal = open(64 * 1024);
+        long now = System.currentTimeMillis();
+        journal.record(location("d1", 31.10, 121.30, now));
+        journal.record(delivery(1L, "d1", DeliveryStatus.ASSIGNED));
+        journal.record(delivery(2L, null, DeliveryStatus.PENDING));
+        journal.record(delivery(3L, "d1", DeliveryStatus.DELIVERED));
+        journal.flush();
+        
+        DriverIndex index = newIndex();
+        DeliveryJournal recovered = open(64 * 1024, index);
+        assertEquals(4, recovered.getSequence());
+        JournalStatus status = recovered.getStatus();
+        assertEquals(0, status.getRecoveredSnapshotSequence());
+        assertEquals(4, status.getReplayedEvents());
+        assertEquals(2, status.getActiveDeliveries());
+        
+        DriverPosition driver = index.getDriver("d1").get();
+        assertEquals(Double.valueOf(31.10), driver.getLatitude());
+        assertTrue(driver.isOnline());
+        assertTrue(driver.isBusy());
+    }
+    
+    @Test
+    void truncatesPartialRecordAtTail() throws IOException {
+        DeliveryJournal journal = open(64 * 1024);
+        for (long i = 1; i <= 10; i++) {
+            journal.record(delivery(i, "d1", DeliveryStatus.ASSIGNED));
+        }
+        journal.flush();
+        Path segment = segments().get(0);
+        long validBytes = Files.size(segment);
+        // 崩溃时只写了下一条记录的前 20 字节
+        byte[] head = new byte[20];
+        System.arraycopy(Files.readAllBytes(segment), 0, head, 0, head.length);
+        Files.write(segment, head, StandardOpenOption.APPEND);
+        
+        DeliveryJournal recovered = open(64 * 1024);
+        assertEquals(10, recovered.getSequence());
+        assertEquals(validBytes, Files.size(segment));
+        // 最后一个分段不复制到 corrupt 目录
+        assertFalse(Files.exists(dir.resolve("corrupt")));
+        
+        recovered.record(delivery(11L, "d1", DeliveryStatus.ASSIGNED));
+        List<DeliveryEvent> events = recovered.read(1, 100);
+        assertEquals(11, events.size());
+        assertEquals(11, events.get(10).getSequence());
+    }
+    
+    @Test
+    void loadsSnapshotAndReplaysLaterEvents() throws IOException {
+        DeliveryJournal journal = open(64 * 1024);
+        for (long i = 1; i <= 5; i++) {
+            journal.record(delivery(i, "d" + i, DeliveryStatus.ASSIGNED));
+        }
+        journal.snapshot();
+        journal.record(delivery(1L, "d1", DeliveryStatus.DELIVERED));
+        journal.record(delivery(6L, "d6", DeliveryStatus.PICKED_UP));
+        journal.record(delivery(7L, null, DeliveryStatus.PENDING));
+        journal.flush();
+        
+        DeliveryJournal recovered = open(64 * 1024);
+        JournalStatus status = recovered.getStatus();
+        assertEquals(8, status.getSequence());
+        assertEquals(5, status.getRecoveredSnapshotSequence());
+        assertEquals(3, status.getReplayedEvents());
+        assertEquals(6, status.getActiveDeliveries());
+    }
+    
+    @Test
+    void skipsSegmentsCoveredBySnapshot() throws IOException {
+        DeliveryJournal journal = open(SMALL_SEGMENT_BYTES);
+        for (long i = 1; i <= 20; i++) {
+            journal.record(delivery(i, "d1", DeliveryStatus.ASSIGNED));
+        }
+        journal.snapshot();
+        journal.record(delivery(21L, "d1", DeliveryStatus.ASSIGNED));
+        journal.record(delivery(22L, "d1", DeliveryStatus.ASSIGNED));
+        journal.flush();
+        
+        List<Path> segments = segments();
+        assertEquals(8, segments.size());
+        // 快照之前的分段即使损坏也不会被读取或截断
+        Path first = segments.get(0);
+        byte[] garbage = new byte[(int) Files.size(first)];
+        Files.write(first, garbage);
+        
+        DeliveryJournal recovered = open(SMALL_SEGMENT_BYTES);
+        JournalStatus status = recovered.getStatus();
+        assertEquals(22, status.getSequence());
+        assertEquals(20, status.getRecoveredSnapshotSequence());
+        assertEquals(2, status.getReplayedEvents());
+        assertEquals(garbage.length, Files.size(first));
+        assertFalse(Files.exists(dir.resolve("corrupt")));
+        
+        // 按序号读取时同样跳过起始序号之前的分段
+        List<DeliveryEvent> events = recovered.read(14, 3);
+        assertArrayEquals(new long[] {14, 15, 16},
+                events.stream().mapToLong(DeliveryEvent::getSequence).toArray());
+    }
+    
+    private DeliveryJournal open(int segmentBytes) throws IOException {
+        return open(segmentBytes, newIndex());
+    }
+    
+    private DeliveryJournal open(int segmentBytes, DriverIndex index) throws IOException {
+        DeliveryJournal journal = new DeliveryJournal();
+        ReflectionTestUtils.setField(journal, "driverIndex", index);
+        ReflectionTestUtils.setField(journal, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentBytes", segmentBytes);
+        ReflectionTestUtils.setField(journal, "bufferBytes", 4096);
+        ReflectionTestUtils.setField(journal, "retainedSegments", 16);
+        ReflectionTestUtils.setField(journal, "locationInterval", Duration.ofSeconds(30));
+        journal.init();
+        opened.add(journal);
+        return journal;
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private static DeliveryEvent delivery(Long deliveryId, String driverId, DeliveryStatus status) {
+        return new DeliveryEvent(0, System.currentTimeMillis(), DeliveryEvent.Type.STATUS_CHANGED, deliveryId,
+                driverId, status, null, null, null);
+    }
+    
+    private static DeliveryEvent location(String driverId, double latitude, double longitude, long timestamp) {
+        return new DeliveryEvent(0, timestamp, DeliveryEvent.Type.DRIVER_LOCATION, null, driverId,
+                null, latitude, longitude, true);
+    }
+    
+    private static DriverIndex newIndex() {
+        DriverIndex index = new DriverIndex();
+        ReflectionTestUtils.setField(index, "minLatitude", 31.00);
+        ReflectionTestUtils.setField(index, "maxLatitude", 31.40);
+        ReflectionTestUtils.setField(index, "minLongitude", 121.20);
+        ReflectionTestUtils.setField(index, "maxLongitude", 121.70);
+        ReflectionTestUtils.setField(index, "cellSizeMeters", 500d);
+        ReflectionTestUtils.setField(index, "initialCapacity", 16);
+        ReflectionTestUtils.setField(index, "staleAfter", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(index, "expireAfter", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        index.init();
+        return index;
+    }
+}
@@ -0,0 +1,106 @@
+package com.fooddelivery.delivery.journal;
+
+import com.fooddelivery.delivery.model.DeliveryStatus;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EventCodecTest {
+    
+    private final CRC32 crc = new CRC32();
+    
+    @Test
+    void roundTripsAllFields() {
+        DeliveryEvent delivery = new DeliveryEvent(7, 1_700_000_000_000L, DeliveryEvent.Type.ASSIGNED, 42L,
+                "司机-1", DeliveryStatus.ASSIGNED, null, null, null);
+        DeliveryEvent location = new DeliveryEvent(8, 1_700_000_000_500L, DeliveryEvent.Type.DRIVER_LOCATION, null,
+                "d2", null, 31.2304, 121.4737, true);
+        DeliveryEvent removed = new DeliveryEvent(9, 1_700_000_001_000L, DeliveryEvent.Type.DRIVER_REMOVED, null,
+                null, null, null, null, false);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (DeliveryEvent event : new DeliveryEvent[] {delivery, location, removed}) {
+            EventCodec.encode(buffer, event, EventCodec.driverIdBytes(event), crc);
+        }
+        buffer.flip();
+        
+        assertSameEvent(delivery, EventCodec.decode(buffer, crc));
+        assertSameEvent(location, EventCodec.decode(buffer, crc));
+        assertSameEvent(removed, EventCodec.decode(buffer, crc));
+        assertEquals(0, buffer.remaining());
+        assertNull(EventCodec.decode(buffer, crc));
+    }
+    
+    @Test
+    void recordSizeMatchesEncodedBytes() {
+        DeliveryEvent event = new DeliveryEvent(1, 0, DeliveryEvent.Type.DRIVER_ONLINE, null, "司机-1",
+                null, null, null, true);
+        byte[] driverIdBytes = EventCodec.driverIdBytes(event);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        EventCodec.encode(buffer, event, driverIdBytes, crc);
+        assertEquals(EventCodec.recordBytes(driverIdBytes), buffer.position());
+    }
+    
+    @Test
+    void corruptedRecordIsRejectedWithoutMovingPosition() {
+        ByteBuffer buffer = encoded(event(1), event(2));
+        int size = buffer.limit() / 2;
+        // 改动第二条记录载荷中的一个字节
+        buffer.put(size + EventCodec.HEADER_BYTES + 3, (byte) (buffer.get(size + EventCodec.HEADER_BYTES + 3) ^ 1));
+        
+        assertEquals(1, EventCodec.decode(buffer, crc).getSequence());
+        assertNull(EventCodec.decode(buffer, crc));
+        assertEquals(size, buffer.position());
+    }
+    
+    @Test
+    void truncatedRecordIsRejected() {
+        ByteBuffer buffer = encoded(event(1));
+        int size = buffer.limit();
+        for (int cut = 1; cut < size; cut++) {
+            ByteBuffer partial = buffer.duplicate();
+            partial.limit(cut);
+            assertNull(EventCodec.decode(partial, crc), "cut at " + cut);
+            assertEquals(0, partial.position());
+        }
+    }
+    
+    @Test
+    void implausibleLengthIsRejected() {
+        ByteBuffer buffer = encoded(event(1));
+        buffer.putInt(0, Integer.MAX_VALUE);
+        assertNull(EventCodec.decode(buffer, crc));
+        buffer.putInt(0, -1);
+        assertNull(EventCodec.decode(buffer, crc));
+    }
+    
+    private ByteBuffer encoded(DeliveryEvent... events) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (DeliveryEvent event : events) {
+            EventCodec.encode(buffer, event, EventCodec.driverIdBytes(event), crc);
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    private static DeliveryEvent event(long sequence) {
+        return new DeliveryEvent(sequence, 1_700_000_000_000L + sequence, DeliveryEvent.Type.STATUS_CHANGED,
+                sequence, "d1", DeliveryStatus.PICKED_UP, null, null, null);
+    }
+    
+    private static void assertSameEvent(DeliveryEvent expected, DeliveryEvent actual) {
+        assertEquals(expected.getSequence(), actual.getSequence());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getDeliveryId(), actual.getDeliveryId());
+        assertEquals(expected.getDriverId(), actual.getDriverId());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getLatitude(), actual.getLatitude());
+        assertEquals(expected.getLongitude(), actual.getLongitude());
+        assertEquals(expected.getOnline(), actual.getOnline());
+    }
+}
@@ -0,0 +1,87 @@
+package com.fooddelivery.delivery.location;
+
+import com.fooddelivery.delivery.dispatch.DriverIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 定位经缓冲区和消费线程写入司机索引；停止接入时缓冲区中剩余的定位要先应用完
+class LocationIngestorTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private DriverIndex driverIndex;
+    private LocationIngestor ingestor;
+    
+    @BeforeEach
+    void setUp() {
+        driverIndex = new DriverIndex();
+        ReflectionTestUtils.setField(driverIndex, "minLatitude", 31.00);
+        ReflectionTestUtils.setField(driverIndex, "maxLatitude", 31.40);
+        ReflectionTestUtils.setField(driverIndex, "minLongitude", 121.20);
+        ReflectionTestUtils.setField(driverIndex, "maxLongitude", 121.70);
+        ReflectionTestUtils.setField(driverIndex, "cellSizeMeters", 500d);
+        ReflectionTestUtils.setField(driverIndex, "initialCapacity", 16);
+        ReflectionTestUtils.setField(driverIndex, "staleAfter", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(driverIndex, "expireAfter", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(driverIndex, "meterRegistry", meterRegistry);
+        driverIndex.init();
+        
+        ingestor = new LocationIngestor();
+        ReflectionTestUtils.setField(ingestor, "driverIndex", driverIndex);
+        ReflectionTestUtils.setField(ingestor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(ingestor, "bufferCapacity", 1024);
+        ReflectionTestUtils.setField(ingestor, "drainBatchSize", 16);
+        ReflectionTestUtils.setField(ingestor, "idleParkMicros", 200L);
+        ingestor.start();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestor.stop();
+    }
+    
+    @Test
+    void stopAppliesBufferedPingsAndKeepsLatestPerDriver() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        List<LocationPing> pings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            pings.add(new LocationPing("d" + (i % 10), 31.10 + i * 0.001, 121.30, now - 100 + i));
+        }
+        assertEquals(100, ingestor.offer(pings));
+        ingestor.stop();
+        
+        assertEquals(0, ingestor.getBufferSize());
+        for (int d = 0; d < 10; d++) {
+            // 每个司机最后一条定位是 i = 90 + d
+            assertEquals(Double.valueOf(31.10 + (90 + d) * 0.001), driverIndex.getDriver("d" + d).get().getLatitude());
+        }
+        List<String> dirty = ingestor.drainDirty(new ArrayList<>(), 100);
+        assertEquals(10, dirty.size());
+        assertEquals(new HashSet<>(Arrays.asList("d0", "d1", "d2", "d3", "d4", "d5", "d6", "d7", "d8", "d9")),
+                new HashSet<>(dirty));
+        assertTrue(ingestor.drainDirty(new ArrayList<>(), 100).isEmpty());
+    }
+    
+    @Test
+    void invalidPingsAreRejected() {
+        List<LocationPing> pings = Arrays.asList(
+                new LocationPing("d1", 31.10, 121.30, null),
+                new LocationPing(null, 31.10, 121.30, null),
+                new LocationPing("d2", 95.0, 121.30, null),
+                null);
+        assertEquals(1, ingestor.offer(pings));
+        assertEquals(3, meterRegistry.counter("delivery.location.pings", "result", "invalid").count(), 0);
+    }
+}
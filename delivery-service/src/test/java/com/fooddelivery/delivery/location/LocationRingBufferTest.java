@@ -0,0 +1,165 @@
+package com.fooddelivery.delivery.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 环形缓冲区：序号跨过容量后的回绕、缓冲区满时的部分写入和拒绝，
+// 以及多个生产者并发写入、单个消费者同时读取时不丢、不重、每个生产者内部保持顺序
+class LocationRingBufferTest {
+    
+    private static final long RECEIVED_AT = 1_700_000_000_000L;
+    
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(4, new LocationRingBuffer(3).capacity());
+        assertEquals(8, new LocationRingBuffer(5).capacity());
+        assertEquals(8, new LocationRingBuffer(8).capacity());
+        assertEquals(16, new LocationRingBuffer(9).capacity());
+    }
+    
+    @Test
+    void sequencesWrapAroundTheArray() {
+        LocationRingBuffer buffer = new LocationRingBuffer(8);
+        Drained drained = new Drained(8);
+        int next = 0;
+        // 每轮写 5 条读 5 条，格子下标反复跨过数组末尾
+        for (int round = 0; round < 50; round++) {
+            LocationPing[] pings = pings("d", next, 5);
+            assertEquals(5, buffer.offer(pings, 0, 5, RECEIVED_AT));
+            assertEquals(5, drained.from(buffer, 8));
+            for (int i = 0; i < 5; i++) {
+                assertEquals("d", drained.ids[i]);
+                assertEquals(next + i, drained.lats[i], 0);
+                assertEquals(-(next + i), drained.lons[i], 0);
+                assertEquals(RECEIVED_AT - (next + i), drained.times[i]);
+            }
+            next += 5;
+            assertEquals(0, buffer.size());
+        }
+    }
+    
+    @Test
+    void fullBufferAcceptsOnlyWhatFits() {
+        LocationRingBuffer buffer = new LocationRingBuffer(8);
+        assertEquals(8, buffer.offer(pings("d", 0, 10), 0, 10, RECEIVED_AT));
+        assertEquals(8, buffer.size());
+        assertEquals(0, buffer.offer(pings("d", 10, 1), 0, 1, RECEIVED_AT));
+        
+        // 读出 3 条后只放得下 3 条
+        Drained drained = new Drained(8);
+        assertEquals(3, drained.from(buffer, 3));
+        assertEquals(3, buffer.offer(pings("d", 8, 5), 0, 5, RECEIVED_AT));
+        
+        assertEquals(8, drained.from(buffer, 8));
+        assertArrayEquals(new double[] {3, 4, 5, 6, 7, 8, 9, 10}, drained.lats);
+        assertEquals(0, buffer.size());
+    }
+    
+    @Test
+    void offerWritesFromTheGivenOffset() {
+        LocationRingBuffer buffer = new LocationRingBuffer(8);
+        LocationPing[] pings = pings("d", 0, 6);
+        pings[4] = new LocationPing("late", 1.0, 2.0, null);
+        assertEquals(3, buffer.offer(pings, 2, 3, RECEIVED_AT));
+        
+        Drained drained = new Drained(8);
+        assertEquals(3, drained.from(buffer, 8));
+        assertEquals(2, drained.lats[0], 0);
+        assertEquals("late", drained.ids[2]);
+        // 没有上报时间的定位取接收时间
+        assertEquals(RECEIVED_AT, drained.times[2]);
+    }
+    
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        LocationRingBuffer buffer = new LocationRingBuffer(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                String driverId = "p" + p;
+                futures.add(executor.submit(() -> produce(buffer, driverId, perProducer)));
+            }
+            
+            // 当前线程作为唯一的消费者，同时检查每个生产者的定位按写入顺序到达
+            int[] expected = new int[producers];
+            Drained drained = new Drained(32);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            int total = 0;
+            while (total < producers * perProducer) {
+                assertTrue(System.nanoTime() < deadline, "consumed " + total);
+                int count = drained.from(buffer, 32);
+                for (int i = 0; i < count; i++) {
+                    int producer = drained.ids[i].charAt(1) - '0';
+                    assertEquals(expected[producer]++, drained.lats[i], 0);
+                }
+                total += count;
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+            
+            assertEquals(0, drained.from(buffer, 32));
+            for (int p = 0; p < producers; p++) {
+                assertEquals(perProducer, expected[p]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    // 按随机大小的批次写入，缓冲区满时重试剩余部分
+    private static void produce(LocationRingBuffer buffer, String driverId, int total) {
+        LocationPing[] pings = pings(driverId, 0, total);
+        int written = 0;
+        while (written < total) {
+            int batch = Math.min(total - written, 1 + ThreadLocalRandom.current().nextInt(8));
+            int accepted = buffer.offer(pings, written, batch, RECEIVED_AT);
+            if (accepted == 0) {
+                Thread.yield();
+            }
+            written += accepted;
+        }
+    }
+    
+    // 第 i 条定位的纬度为 first + i，经度为其相反数，上报时间比接收时间早 first + i 毫秒
+    private static LocationPing[] pings(String driverId, int first, int count) {
+        LocationPing[] pings = new LocationPing[count];
+        for (int i = 0; i < count; i++) {
+            int n = first + i;
+            pings[i] = new LocationPing(driverId, (double) n, (double) -n, RECEIVED_AT - n);
+        }
+        return pings;
+    }
+    
+    private static final class Drained {
+        private final String[] ids;
+        private final double[] lats;
+        private final double[] lons;
+        private final long[] times;
+        
+        Drained(int size) {
+            ids = new String[size];
+            lats = new double[size];
+            lons = new double[size];
+            times = new long[size];
+        }
+        
+        int from(LocationRingBuffer buffer, int max) {
+            return buffer.drain(ids, lats, lons, times, max);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.fooddelivery.delivery.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeliveryStatusTest {
+    
+    @Test
+    void followsDeliveryLifecycle() {
+        assertTrue(DeliveryStatus.ASSIGNED.canTransitionTo(DeliveryStatus.PICKED_UP));
+        assertTrue(DeliveryStatus.PICKED_UP.canTransitionTo(DeliveryStatus.IN_TRANSIT));
+        assertTrue(DeliveryStatus.PICKED_UP.canTransitionTo(DeliveryStatus.DELIVERED));
+        assertTrue(DeliveryStatus.IN_TRANSIT.canTransitionTo(DeliveryStatus.DELIVERED));
+        assertTrue(DeliveryStatus.PENDING.canTransitionTo(DeliveryStatus.CANCELLED));
+        assertTrue(DeliveryStatus.ASSIGNED.canTransitionTo(DeliveryStatus.CANCELLED));
+    }
+    
+    @Test
+    void rejectsSkippedAndBackwardTransitions() {
+        assertFalse(DeliveryStatus.PENDING.canTransitionTo(DeliveryStatus.DELIVERED));
+        assertFalse(DeliveryStatus.PENDING.canTransitionTo(DeliveryStatus.PICKED_UP));
+        // 指派只能由派单完成，手动改成 ASSIGNED 会没有司机
+        assertFalse(DeliveryStatus.PENDING.canTransitionTo(DeliveryStatus.ASSIGNED));
+        assertFalse(DeliveryStatus.IN_TRANSIT.canTransitionTo(DeliveryStatus.PICKED_UP));
+        assertFalse(DeliveryStatus.PICKED_UP.canTransitionTo(DeliveryStatus.CANCELLED));
+    }
+    
+    @Test
+    void terminalStatusesAreFinal() {
+        for (DeliveryStatus terminal : new DeliveryStatus[] {
+                DeliveryStatus.DELIVERED, DeliveryStatus.CANCELLED, DeliveryStatus.FAILED}) {
+            for (DeliveryStatus next : DeliveryStatus.values()) {
+                assertFalse(terminal.canTransitionTo(next), terminal + " -> " + next);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.fooddelivery.kitchen.controller;
+
+import com.fooddelivery.kitchen.model.KitchenOrder;
+import com.fooddelivery.kitchen.queue.KitchenQueueEngine;
+import com.fooddelivery.kitchen.queue.KitchenTicket;
+import com.fooddelivery.kitchen.scheduling.ChefLane;
+import com.fooddelivery.kitchen.scheduling.ChefScheduler;
+import com.fooddelivery.kitchen.service.KitchenDisplayPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/kitchen")
+@CrossOrigin(origins = "*")
+public class KitchenController {
+    
+    @Autowired
+    private KitchenQueueEngine kitchenQueueEngine;
+    
+    @Autowired
+    private KitchenDisplayPublisher kitchenDisplayPublisher;
+    
+    @Autowired
+    private ChefScheduler chefScheduler;
+    
+    @PostMapping("/orders")
+    public ResponseEntity<KitchenTicket> submitOrder(@RequestBody KitchenOrder order) {
+        try {
+            KitchenTicket ticket = kitchenQueueEngine.submit(order);
+            return new ResponseEntity<>(ticket, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<KitchenTicket> getTicket(@PathVariable String orderId) {
+        return kitchenQueueEngine.getTicket(orderId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // 待认领工单按优先级排列，active 为已认领和制作中的工单
+    @GetMapping("/restaurants/{restaurantId}/queue")
+    public ResponseEntity<Map<String, List<KitchenTicket>>> getQueue(@PathVariable String restaurantId) {
+        Map<String, List<KitchenTicket>> queue = new HashMap<>();
+        queue.put("pending", kitchenQueueEngine.getPendingTickets(restaurantId));
+        queue.put("active", kitchenQueueEngine.getActiveTickets(restaurantId));
+        return ResponseEntity.ok(queue);
+    }
+    
+    // 厨房显示屏订阅工单变化（Server-Sent Events）
+    @GetMapping(value = "/restaurants/{restaurantId}/stream", produces = "text/event-stream")
+    public SseEmitter streamTickets(@PathVariable String restaurantId) {
+        return kitchenDisplayPublisher.subscribe(restaurantId);
+    }
+    
+    // 认领队首工单，队列为空时返回 204
+    @PostMapping("/restaurants/{restaurantId}/claim")
+    public ResponseEntity<KitchenTicket> claimNext(@PathVariable String restaurantId, @RequestParam String chef) {
+        try {
+            return kitchenQueueEngine.claim(restaurantId, chef)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.noContent().build());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    // 厨师上岗登记：工位、可处理的品类和技能，之后该餐厅的新工单由调度器分配
+    @PostMapping("/restaurants/{restaurantId}/chefs")
+    public ResponseEntity<ChefLane> registerChef(@PathVariable String restaurantId,
+                                                 @RequestBody ChefRegistration registration) {
+        try {
+            ChefLane lane = chefScheduler.register(restaurantId, registration.getChefId(),
+                    registration.getStation(), registration.getCategories(), registration.getSkills());
+            return new ResponseEntity<>(lane, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    @GetMapping("/restaurants/{restaurantId}/chefs")
+    public ResponseEntity<List<ChefLane>> getChefs(@PathVariable String restaurantId) {
+        return ResponseEntity.ok(chefScheduler.getLanes(restaurantId));
+    }
+    
+    @DeleteMapping("/chefs/{chefId}")
+    public ResponseEntity<Void> unregisterChef(@PathVariable String chefId) {
+        chefScheduler.unregister(chefId);
+        return ResponseEntity.ok().build();
+    }
+    
+    // 厨师取下一张工单（自己的队列为空时从其他厨师处窃取），没有工单时返回 204
+    @PostMapping("/chefs/{chefId}/next")
+    public ResponseEntity<KitchenTicket> nextForChef(@PathVariable String chefId) {
+        try {
+            return chefScheduler.next(chefId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.noContent().build());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping("/orders/{orderId}/release")
+    public ResponseEntity<KitchenTicket> release(@PathVariable String orderId) {
+        return transition(() -> kitchenQueueEngine.release(orderId));
+    }
+    
+    @PostMapping("/orders/{orderId}/start")
+    public ResponseEntity<KitchenTicket> start(@PathVariable String orderId,
+                                               @RequestParam(required = false) String chef) {
+        return transition(() -> kitchenQueueEngine.start(orderId, chef));
+    }
+    
+    @PostMapping("/orders/{orderId}/complete")
+    public ResponseEntity<KitchenTicket> complete(@PathVariable String orderId) {
+        return transition(() -> kitchenQueueEngine.complete(orderId));
+    }
+    
+    @PostMapping("/orders/{orderId}/cancel")
+    public ResponseEntity<KitchenTicket> cancel(@PathVariable String orderId) {
+        return transition(() -> kitchenQueueEngine.cancel(orderId));
+    }
+    
+    // 状态不允许转换时返回 409，工单不存在返回 404，其他异常按服务端错误处理
+    private ResponseEntity<KitchenTicket> transition(Supplier<KitchenTicket> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    static class ChefRegistration {
+        private String chefId;
+        private String station;
+        private Set<String> categories;
+        private Set<String> skills;
+        
+        // Getters and Setters
+        public String getChefId() { return chefId; }
+        public void setChefId(String chefId) { this.chefId = chefId; }
+        
+        public String getStation() { return station; }
+        public void setStation(String station) { this.station = station; }
+        
+        public Set<String> getCategories() { return categories; }
+        public void setCategories(Set<String> categories) { this.categories = categories; }
+        
+        public Set<String> getSkills() { return skills; }
+        public void setSkills(Set<String> skills) { this.skills = skills; }
+    }
+}
@@ -0,0 +1,55 @@
+package com.fooddelivery.kitchen.estimation;
+
+// 指数衰减的流式统计：均值、方差和两个分位数，每个样本 O(1) 更新，旧样本的权重按 (1-alpha)^n 衰减。
+// 分位数用随机逼近跟踪，步长与标准差成正比，数据分布变化时能较快跟上
+final class DecayingStats {
+    
+    private final double alpha;
+    private final double upperQuantile;
+    
+    private volatile long count;
+    private volatile double mean;
+    private volatile double variance;
+    private volatile double median;
+    private volatile double upper;
+    
+    DecayingStats(double alpha, double upperQuantile) {
+        this.alpha = alpha;
+        this.upperQuantile = upperQuantile;
+    }
+    
+    synchronized void add(double sample) {
+        if (count == 0) {
+            mean = sample;
+            median = sample;
+            upper = sample;
+            variance = 0;
+            count = 1;
+            return;
+        }
+        
+        double delta = sample - mean;
+        double nextMean = mean + alpha * delta;
+        variance = (1 - alpha) * (variance + alpha * delta * delta);
+        mean = nextMean;
+        
+        // 标准差尚未稳定时用均值的一部分作为步长下限
+        double step = Math.max(Math.sqrt(variance), mean * 0.1) * alpha * 2;
+        median += sample > median ? step * 0.5 : -step * 0.5;
+        upper += sample > upper ? step * upperQuantile : -step * (1 - upperQuantile);
+        if (upper < median) {
+            upper = median;
+        }
+        count++;
+    }
+    
+    long getCount() { return count; }
+    
+    double getMean() { return mean; }
+    
+    double getStdDev() { return Math.sqrt(variance); }
+    
+    double getMedian() { return median; }
+    
+    double getUpper() { return upper; }
+}
@@ -0,0 +1,30 @@
+package com.fooddelivery.kitchen.estimation;
+
+// 接单时的预估结果：制作时间和排队等待时间（秒），以及用于承诺出餐时间的保守估计
+public final class PrepTimeEstimate {
+    
+    private final double prepSeconds;
+    private final double conservativePrepSeconds;
+    private final double queueWaitSeconds;
+    
+    PrepTimeEstimate(double prepSeconds, double conservativePrepSeconds, double queueWaitSeconds) {
+        this.prepSeconds = prepSeconds;
+        this.conservativePrepSeconds = conservativePrepSeconds;
+        this.queueWaitSeconds = queueWaitSeconds;
+    }
+    
+    public double getPrepSeconds() { return prepSeconds; }
+    
+    public double getConservativePrepSeconds() { return conservativePrepSeconds; }
+    
+    public double getQueueWaitSeconds() { return queueWaitSeconds; }
+    
+    public int getPrepMinutes() {
+        return (int) Math.max(1, Math.round(prepSeconds / 60));
+    }
+    
+    // 从接单到出餐的保守估计，供配送调度安排骑手到店时间
+    public long getReadyInSeconds() {
+        return Math.round(queueWaitSeconds + conservativePrepSeconds);
+    }
+}
@@ -0,0 +1,160 @@
+package com.fooddelivery.kitchen.estimation;
+
+import com.fooddelivery.kitchen.model.KitchenOrder;
+import com.fooddelivery.kitchen.model.KitchenOrderItem;
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+import com.fooddelivery.kitchen.queue.KitchenTicket;
+import com.fooddelivery.kitchen.queue.KitchenTicketListener;
+import com.fooddelivery.kitchen.queue.TicketEvent;
+import com.fooddelivery.kitchen.repository.KitchenOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 在线制作时间估计：从已完成工单学习每个餐厅、每道菜的制作时间（开始制作到出餐），
+// 结合当前排队深度给出预估。学习和预估都是常数时间，不查询数据库
+@Component
+public class PrepTimeEstimator implements KitchenTicketListener {
+    
+    private static final char KEY_SEPARATOR = '\u0000';
+    
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+    
+    @Value("${kitchen.estimation.alpha:0.05}")
+    private double alpha;
+    
+    @Value("${kitchen.estimation.upper-quantile:0.8}")
+    private double upperQuantile;
+    
+    @Value("${kitchen.estimation.min-samples:5}")
+    private int minSamples;
+    
+    @Value("${kitchen.estimation.default-prep-minutes:20}")
+    private int defaultPrepMinutes;
+    
+    @Value("${kitchen.estimation.warmup-size:5000}")
+    private int warmupSize;
+    
+    private final ConcurrentMap<String, DecayingStats> restaurantStats = new ConcurrentHashMap<>();
+    
+    private final ConcurrentMap<String, DecayingStats> itemStats = new ConcurrentHashMap<>();
+    
+    // 各餐厅同时制作的工单数（衰减平均），用于把排队深度换算成等待时间
+    private final ConcurrentMap<String, DecayingStats> parallelism = new ConcurrentHashMap<>();
+    
+    /**
+     * 预估新工单的制作和等待时间。
+     * 制作时间取各菜品估计的最大值（菜品并行制作），菜品样本不足时用餐厅整体估计，
+     * 餐厅样本也不足时用默认值；等待时间 = 前面的待制作工单数 × 平均制作时间 / 并行度。
+     */
+    public PrepTimeEstimate estimate(KitchenOrder order, int pendingAhead, int active) {
+        String restaurantId = order.getRestaurantId();
+        DecayingStats restaurant = restaurantStats.get(restaurantId);
+        boolean restaurantKnown = restaurant != null && restaurant.getCount() >= minSamples;
+        
+        double defaultSeconds = defaultPrepMinutes * 60.0;
+        double prep = restaurantKnown ? restaurant.getMedian() : defaultSeconds;
+        double conservative = restaurantKnown ? restaurant.getUpper() : defaultSeconds;
+        
+        List<KitchenOrderItem> items = order.getItems();
+        if (items != null && !items.isEmpty()) {
+            double itemPrep = 0;
+            double itemConservative = 0;
+            boolean anyKnown = false;
+            for (KitchenOrderItem item : items) {
+                DecayingStats stats = itemStats.get(itemKey(restaurantId, item.getItemName()));
+                if (stats != null && stats.getCount() >= minSamples) {
+                    itemPrep = Math.max(itemPrep, stats.getMedian());
+                    itemConservative = Math.max(itemConservative, stats.getUpper());
+                    anyKnown = true;
+                } else {
+                    itemPrep = Math.max(itemPrep, prep);
+                    itemConservative = Math.max(itemConservative, conservative);
+                }
+            }
+            if (anyKnown) {
+                prep = itemPrep;
+                conservative = itemConservative;
+            }
+        }
+        
+        if (active > 0) {
+            parallelism.computeIfAbsent(restaurantId, id -> new DecayingStats(alpha, upperQuantile)).add(active);
+        }
+        DecayingStats concurrency = parallelism.get(restaurantId);
+        double workers = concurrency != null ? Math.max(1.0, concurrency.getMean()) : 1.0;
+        double meanPrep = restaurantKnown ? restaurant.getMean() : defaultSeconds;
+        double queueWait = pendingAhead * meanPrep / workers;
+        
+        return new PrepTimeEstimate(prep, Math.max(prep, conservative), queueWait);
+    }
+    
+    @Override
+    public void onTicketEvent(TicketEvent event) {
+        if (event.getStatus() != KitchenOrderStatus.COMPLETED) {
+            return;
+        }
+        KitchenTicket ticket = event.getTicket();
+        learn(ticket.getRestaurantId(), ticket.getItems(), ticket.getStartedAt(), ticket.getCompletedAt());
+    }
+    
+    // 启动时用最近完成的工单预热，避免重启后回到默认值
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Long> ids = kitchenOrderRepository.findIdsByStatus(KitchenOrderStatus.COMPLETED,
+                PageRequest.of(0, warmupSize, Sort.by(Sort.Direction.DESC, "completedAt")));
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<KitchenOrder> recent = new ArrayList<>(kitchenOrderRepository.findWithItemsByIdIn(ids));
+        // 按时间从旧到新学习，让最近的样本权重最大
+        recent.sort(Comparator.comparing(KitchenOrder::getCompletedAt,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        for (KitchenOrder order : recent) {
+            learn(order.getRestaurantId(), order.getItems(), order.getStartedAt(), order.getCompletedAt());
+        }
+    }
+    
+    public double getMeanPrepSeconds(String restaurantId) {
+        DecayingStats stats = restaurantStats.get(restaurantId);
+        return stats != null ? stats.getMean() : defaultPrepMinutes * 60.0;
+    }
+    
+    private void learn(String restaurantId, List<KitchenOrderItem> items, LocalDateTime startedAt, LocalDateTime completedAt) {
+        if (startedAt == null || completedAt == null) {
+            return;
+        }
+        double seconds = Duration.between(startedAt, completedAt).getSeconds();
+        if (seconds <= 0) {
+            return;
+        }
+        
+        restaurantStats.computeIfAbsent(restaurantId, id -> new DecayingStats(alpha, upperQuantile)).add(seconds);
+        // 一张工单的耗时记到其中每道菜上，菜品估计因此偏向与其同单的较慢菜品，结果偏保守
+        if (items != null) {
+            for (KitchenOrderItem item : items) {
+                itemStats.computeIfAbsent(itemKey(restaurantId, item.getItemName()),
+                        key -> new DecayingStats(alpha, upperQuantile)).add(seconds);
+            }
+        }
+    }
+    
+    private static String itemKey(String restaurantId, String itemName) {
+        String name = itemName != null ? itemName.trim().toLowerCase(Locale.ROOT) : "";
+        return restaurantId + KEY_SEPARATOR + name;
+    }
+}
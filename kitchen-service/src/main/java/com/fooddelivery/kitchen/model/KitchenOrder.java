@@ -5,7 +5,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "kitchen_orders")
+@Table(name = "kitchen_orders", indexes = {
+    @Index(name = "idx_kitchen_orders_order_id", columnList = "orderId"),
+    @Index(name = "idx_kitchen_orders_status", columnList = "status")
+})
 public class KitchenOrder {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +26,10 @@ public class KitchenOrder {
     @Column(nullable = false)
     private LocalDateTime receivedAt;
     
+    private LocalDateTime promisedAt; // 承诺出餐时间，队列按此排序
+    
+    private LocalDateTime claimedAt;
+    
     private LocalDateTime startedAt;
     
     private LocalDateTime completedAt;
@@ -62,6 +69,12 @@ public class KitchenOrder {
     public LocalDateTime getReceivedAt() { return receivedAt; }
     public void setReceivedAt(LocalDateTime receivedAt) { this.receivedAt = receivedAt; }
     
+    public LocalDateTime getPromisedAt() { return promisedAt; }
+    public void setPromisedAt(LocalDateTime promisedAt) { this.promisedAt = promisedAt; }
+    
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(LocalDateTime claimedAt) { this.claimedAt = claimedAt; }
+    
     public LocalDateTime getStartedAt() { return startedAt; }
     public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
     
@@ -83,24 +96,3 @@ public class KitchenOrder {
     public List<KitchenOrderItem> getItems() { return items; }
     public void setItems(List<KitchenOrderItem> items) { this.items = items; }
 }
-
-@Embeddable
-class KitchenOrderItem {
-    private String itemName;
-    private Integer quantity;
-    private String specialInstructions;
-    
-    // Getters and Setters
-    public String getItemName() { return itemName; }
-    public void setItemName(String itemName) { this.itemName = itemName; }
-    
-    public Integer getQuantity() { return quantity; }
-    public void setQuantity(Integer quantity) { this.quantity = quantity; }
-    
-    public String getSpecialInstructions() { return specialInstructions; }
-    public void setSpecialInstructions(String specialInstructions) { this.specialInstructions = specialInstructions; }
-}
-
-enum KitchenOrderStatus {
-    RECEIVED, IN_PROGRESS, COMPLETED, CANCELLED
-}
\ No newline at end of file
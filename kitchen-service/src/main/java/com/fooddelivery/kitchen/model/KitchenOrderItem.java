@@ -0,0 +1,20 @@
+package com.fooddelivery.kitchen.model;
+
+import javax.persistence.Embeddable;
+
+@Embeddable
+public class KitchenOrderItem {
+    private String itemName;
+    private Integer quantity;
+    private String specialInstructions;
+    
+    // Getters and Setters
+    public String getItemName() { return itemName; }
+    public void setItemName(String itemName) { this.itemName = itemName; }
+    
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    
+    public String getSpecialInstructions() { return specialInstructions; }
+    public void setSpecialInstructions(String specialInstructions) { this.specialInstructions = specialInstructions; }
+}
@@ -0,0 +1,5 @@
+package com.fooddelivery.kitchen.model;
+
+public enum KitchenOrderStatus {
+    RECEIVED, CLAIMED, IN_PROGRESS, COMPLETED, CANCELLED
+}
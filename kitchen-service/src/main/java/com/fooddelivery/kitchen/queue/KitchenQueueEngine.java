@@ -0,0 +1,255 @@
+package com.fooddelivery.kitchen.queue;
+
+import com.fooddelivery.kitchen.estimation.PrepTimeEstimate;
+import com.fooddelivery.kitchen.estimation.PrepTimeEstimator;
+import com.fooddelivery.kitchen.model.KitchenOrder;
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 按餐厅划分的内存工单队列引擎。工单状态以内存为准，
+// 数据库只用于持久化（见 KitchenOrderWriter），重启时从数据库恢复未完成的工单
+@Component
+public class KitchenQueueEngine {
+    
+    private final ConcurrentMap<String, RestaurantQueue> queues = new ConcurrentHashMap<>();
+    
+    // 未完成工单按订单ID索引，工单完成或取消后移除
+    private final ConcurrentMap<String, KitchenTicket> tickets = new ConcurrentHashMap<>();
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    // 各状态的工单数，分段计数器避免多线程更新同一个计数
+    private final Map<KitchenOrderStatus, LongAdder> liveCounts = new EnumMap<>(KitchenOrderStatus.class);
+    
+    @Autowired(required = false)
+    private List<KitchenTicketListener> listeners = Collections.emptyList();
+    
+    // 当前线程正在分发事件时，监听器触发的新事件（如调度器收到 RECEIVED 后分配产生的 CLAIMED）
+    // 先排在这里，等本次分发完所有监听器后再按顺序分发，保证每个监听器看到的状态顺序一致
+    private final ThreadLocal<ArrayDeque<TicketEvent>> dispatching = new ThreadLocal<>();
+    
+    @Autowired(required = false)
+    private PrepTimeEstimator prepTimeEstimator;
+    
+    public KitchenQueueEngine() {
+        for (KitchenOrderStatus status : KitchenOrderStatus.values()) {
+            liveCounts.put(status, new LongAdder());
+        }
+    }
+    
+    // 同一订单重复提交时返回已有工单
+    public KitchenTicket submit(KitchenOrder order) {
+        validate(order);
+        if (!tickets.containsKey(order.getOrderId())) {
+            applyEstimate(order);
+        }
+        KitchenTicket ticket = new KitchenTicket(sequence.incrementAndGet(), order,
+                new TicketState(KitchenOrderStatus.RECEIVED, null, null, null, null));
+        
+        KitchenTicket existing = tickets.putIfAbsent(ticket.getOrderId(), ticket);
+        if (existing != null) {
+            return existing;
+        }
+        queue(ticket.getRestaurantId()).enqueue(ticket);
+        publish(ticket, null, KitchenOrderStatus.RECEIVED);
+        return ticket;
+    }
+    
+    // 从数据库恢复未完成的工单，不触发持久化以外的副作用
+    public void restore(KitchenOrder order) {
+        TicketState state = new TicketState(order.getStatus(), order.getAssignedChef(),
+                order.getClaimedAt(), order.getStartedAt(), order.getCompletedAt());
+        KitchenTicket ticket = new KitchenTicket(sequence.incrementAndGet(), order, state);
+        if (ticket.isTerminal() || tickets.putIfAbsent(ticket.getOrderId(), ticket) != null) {
+            return;
+        }
+        liveCounts.get(order.getStatus()).increment();
+        RestaurantQueue queue = queue(ticket.getRestaurantId());
+        if (order.getStatus() == KitchenOrderStatus.RECEIVED) {
+            queue.enqueue(ticket);
+        } else {
+            queue.activate(ticket);
+        }
+    }
+    
+    public Optional<KitchenTicket> claim(String restaurantId, String chef) {
+        if (chef == null || chef.isEmpty()) {
+            throw new IllegalArgumentException("Chef is required");
+        }
+        Optional<KitchenTicket> claimed = queue(restaurantId).claim(chef, LocalDateTime.now());
+        claimed.ifPresent(ticket -> publish(ticket, KitchenOrderStatus.RECEIVED, KitchenOrderStatus.CLAIMED));
+        return claimed;
+    }
+    
+    // 把指定的待认领工单分配给厨师
+    public boolean assign(String orderId, String chef) {
+        KitchenTicket ticket = tickets.get(orderId);
+        if (ticket == null || !queue(ticket.getRestaurantId()).assign(ticket, chef, LocalDateTime.now())) {
+            return false;
+        }
+        publish(ticket, KitchenOrderStatus.RECEIVED, KitchenOrderStatus.CLAIMED);
+        return true;
+    }
+    
+    public boolean reassign(String orderId, String fromChef, String toChef) {
+        KitchenTicket ticket = tickets.get(orderId);
+        if (ticket == null || !ticket.reassign(fromChef, toChef, LocalDateTime.now())) {
+            return false;
+        }
+        publish(ticket, KitchenOrderStatus.CLAIMED, KitchenOrderStatus.CLAIMED);
+        return true;
+    }
+    
+    // 厨师放弃已认领的工单，工单按原优先级回到队列
+    public KitchenTicket release(String orderId) {
+        KitchenTicket ticket = getRequired(orderId);
+        if (!queue(ticket.getRestaurantId()).release(ticket)) {
+            throw new IllegalStateException("Ticket is not claimed: " + orderId);
+        }
+        publish(ticket, KitchenOrderStatus.CLAIMED, KitchenOrderStatus.RECEIVED);
+        return ticket;
+    }
+    
+    public KitchenTicket start(String orderId, String chef) {
+        KitchenTicket ticket = getRequired(orderId);
+        if (!ticket.start(chef, LocalDateTime.now())) {
+            throw new IllegalStateException("Ticket cannot be started: " + orderId + " (" + ticket.getStatus() + ")");
+        }
+        publish(ticket, KitchenOrderStatus.CLAIMED, KitchenOrderStatus.IN_PROGRESS);
+        return ticket;
+    }
+    
+    public KitchenTicket complete(String orderId) {
+        KitchenTicket ticket = getRequired(orderId);
+        if (!ticket.complete(LocalDateTime.now())) {
+            throw new IllegalStateException("Ticket cannot be completed: " + orderId + " (" + ticket.getStatus() + ")");
+        }
+        retire(ticket);
+        publish(ticket, KitchenOrderStatus.IN_PROGRESS, KitchenOrderStatus.COMPLETED);
+        return ticket;
+    }
+    
+    public KitchenTicket cancel(String orderId) {
+        KitchenTicket ticket = getRequired(orderId);
+        KitchenOrderStatus previous = ticket.cancel(LocalDateTime.now());
+        if (previous == null) {
+            throw new IllegalStateException("Ticket cannot be cancelled: " + orderId + " (" + ticket.getStatus() + ")");
+        }
+        retire(ticket);
+        publish(ticket, previous, KitchenOrderStatus.CANCELLED);
+        return ticket;
+    }
+    
+    public Optional<KitchenTicket> getTicket(String orderId) {
+        return Optional.ofNullable(tickets.get(orderId));
+    }
+    
+    public List<KitchenTicket> getPendingTickets(String restaurantId) {
+        RestaurantQueue queue = queues.get(restaurantId);
+        return queue != null ? queue.pendingSnapshot() : new ArrayList<>();
+    }
+    
+    public List<KitchenTicket> getActiveTickets(String restaurantId) {
+        RestaurantQueue queue = queues.get(restaurantId);
+        return queue != null ? queue.activeSnapshot() : new ArrayList<>();
+    }
+    
+    // 完成和取消为累计数，其余为当前数量
+    public long getStatusCount(KitchenOrderStatus status) {
+        return liveCounts.get(status).sum();
+    }
+    
+    public int getPendingCount(String restaurantId) {
+        RestaurantQueue queue = queues.get(restaurantId);
+        return queue != null ? queue.pendingCount() : 0;
+    }
+    
+    public int getActiveCount(String restaurantId) {
+        RestaurantQueue queue = queues.get(restaurantId);
+        return queue != null ? queue.activeCount() : 0;
+    }
+    
+    // 预估制作时间；调用方未指定承诺出餐时间时按排队等待 + 保守制作时间设定
+    private void applyEstimate(KitchenOrder order) {
+        if (prepTimeEstimator == null) {
+            return;
+        }
+        PrepTimeEstimate estimate = prepTimeEstimator.estimate(order,
+                getPendingCount(order.getRestaurantId()), getActiveCount(order.getRestaurantId()));
+        order.setEstimatedPrepTime(estimate.getPrepMinutes());
+        if (order.getPromisedAt() == null) {
+            order.setPromisedAt(order.getReceivedAt().plusSeconds(estimate.getReadyInSeconds()));
+        }
+    }
+    
+    private KitchenTicket getRequired(String orderId) {
+        KitchenTicket ticket = tickets.get(orderId);
+        if (ticket == null) {
+            throw new NoSuchElementException("Kitchen ticket not found: " + orderId);
+        }
+        return ticket;
+    }
+    
+    private void retire(KitchenTicket ticket) {
+        queue(ticket.getRestaurantId()).remove(ticket);
+        tickets.remove(ticket.getOrderId(), ticket);
+    }
+    
+    private RestaurantQueue queue(String restaurantId) {
+        return queues.computeIfAbsent(restaurantId, id -> new RestaurantQueue());
+    }
+    
+    private void publish(KitchenTicket ticket, KitchenOrderStatus previous, KitchenOrderStatus status) {
+        if (previous != null) {
+            liveCounts.get(previous).decrement();
+        }
+        liveCounts.get(status).increment();
+        
+        TicketEvent event = new TicketEvent(ticket, previous, status);
+        ArrayDeque<TicketEvent> deferred = dispatching.get();
+        if (deferred != null) {
+            deferred.add(event);
+            return;
+        }
+        deferred = new ArrayDeque<>();
+        dispatching.set(deferred);
+        try {
+            do {
+                for (KitchenTicketListener listener : listeners) {
+                    listener.onTicketEvent(event);
+                }
+            } while ((event = deferred.poll()) != null);
+        } finally {
+            dispatching.remove();
+        }
+    }
+    
+    private void validate(KitchenOrder order) {
+        if (order.getOrderId() == null || order.getOrderId().isEmpty()) {
+            throw new IllegalArgumentException("Order ID is required");
+        }
+        if (order.getRestaurantId() == null || order.getRestaurantId().isEmpty()) {
+            throw new IllegalArgumentException("Restaurant ID is required");
+        }
+        if (order.getReceivedAt() == null) {
+            order.setReceivedAt(LocalDateTime.now());
+        }
+        // 新工单的主键由写入线程生成，忽略请求中携带的值
+        order.setId(null);
+    }
+}
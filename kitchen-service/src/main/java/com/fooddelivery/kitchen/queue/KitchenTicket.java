@@ -0,0 +1,163 @@
+package com.fooddelivery.kitchen.queue;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fooddelivery.kitchen.model.KitchenOrder;
+import com.fooddelivery.kitchen.model.KitchenOrderItem;
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// 内存中的厨房工单。排序字段不可变，状态通过 CAS 转换，同一工单的并发操作只有一个能成功
+public final class KitchenTicket {
+    
+    // 先按承诺出餐时间，再按接单时间，序号保证排序键唯一
+    static final Comparator<KitchenTicket> PRIORITY = Comparator
+            .comparing(KitchenTicket::getPromisedAt)
+            .thenComparing(KitchenTicket::getReceivedAt)
+            .thenComparingLong(ticket -> ticket.sequence);
+    
+    private final long sequence;
+    private final String orderId;
+    private final String restaurantId;
+    private final LocalDateTime receivedAt;
+    private final LocalDateTime promisedAt;
+    private final Integer estimatedPrepTime;
+    private final String notes;
+    private final List<KitchenOrderItem> items;
+    
+    private final AtomicReference<TicketState> state;
+    
+    // 数据库主键，首次写入后由异步写入线程回填
+    private volatile Long entityId;
+    
+    KitchenTicket(long sequence, KitchenOrder order, TicketState initialState) {
+        this.sequence = sequence;
+        this.orderId = order.getOrderId();
+        this.restaurantId = order.getRestaurantId();
+        this.receivedAt = order.getReceivedAt();
+        this.estimatedPrepTime = order.getEstimatedPrepTime();
+        this.promisedAt = order.getPromisedAt() != null
+                ? order.getPromisedAt()
+                : receivedAt.plusMinutes(estimatedPrepTime != null ? estimatedPrepTime : 0);
+        this.notes = order.getNotes();
+        this.items = order.getItems() != null
+                ? Collections.unmodifiableList(order.getItems())
+                : Collections.emptyList();
+        this.entityId = order.getId();
+        this.state = new AtomicReference<>(initialState);
+    }
+    
+    boolean claim(String chef, LocalDateTime now) {
+        TicketState current = state.get();
+        return current.status == KitchenOrderStatus.RECEIVED
+                && state.compareAndSet(current, current.claimed(chef, now));
+    }
+    
+    // 把已认领的工单转给另一位厨师（工作窃取），只有当前认领人仍是 fromChef 时才成功
+    boolean reassign(String fromChef, String toChef, LocalDateTime now) {
+        TicketState current = state.get();
+        return current.status == KitchenOrderStatus.CLAIMED
+                && fromChef.equals(current.assignedChef)
+                && state.compareAndSet(current, current.claimed(toChef, now));
+    }
+    
+    boolean release() {
+        TicketState current = state.get();
+        return current.status == KitchenOrderStatus.CLAIMED
+                && state.compareAndSet(current, current.released());
+    }
+    
+    // 只有认领该工单的厨师可以开始制作，chef 为空时不校验
+    boolean start(String chef, LocalDateTime now) {
+        TicketState current = state.get();
+        return current.status == KitchenOrderStatus.CLAIMED
+                && (chef == null || chef.equals(current.assignedChef))
+                && state.compareAndSet(current, current.started(now));
+    }
+    
+    boolean complete(LocalDateTime now) {
+        TicketState current = state.get();
+        return current.status == KitchenOrderStatus.IN_PROGRESS
+                && state.compareAndSet(current, current.completed(now));
+    }
+    
+    // 返回取消前的状态，工单已完成或已取消时返回 null
+    KitchenOrderStatus cancel(LocalDateTime now) {
+        while (true) {
+            TicketState current = state.get();
+            if (current.isTerminal()) {
+                return null;
+            }
+            if (state.compareAndSet(current, current.cancelled(now))) {
+                return current.status;
+            }
+        }
+    }
+    
+    // 把当前状态写入实体，供异步持久化使用
+    public void copyTo(KitchenOrder order) {
+        TicketState current = state.get();
+        order.setOrderId(orderId);
+        order.setRestaurantId(restaurantId);
+        order.setReceivedAt(receivedAt);
+        order.setPromisedAt(promisedAt);
+        order.setEstimatedPrepTime(estimatedPrepTime);
+        order.setNotes(notes);
+        order.setStatus(current.status);
+        order.setAssignedChef(current.assignedChef);
+        order.setClaimedAt(current.claimedAt);
+        order.setStartedAt(current.startedAt);
+        order.setCompletedAt(current.completedAt);
+        order.setActualPrepTime(actualPrepTime(current));
+        if (order.getItems() == null) {
+            order.setItems(new ArrayList<>(items));
+        }
+    }
+    
+    public String getOrderId() { return orderId; }
+    
+    public String getRestaurantId() { return restaurantId; }
+    
+    public LocalDateTime getReceivedAt() { return receivedAt; }
+    
+    public LocalDateTime getPromisedAt() { return promisedAt; }
+    
+    public Integer getEstimatedPrepTime() { return estimatedPrepTime; }
+    
+    public String getNotes() { return notes; }
+    
+    public List<KitchenOrderItem> getItems() { return items; }
+    
+    public KitchenOrderStatus getStatus() { return state.get().status; }
+    
+    public String getAssignedChef() { return state.get().assignedChef; }
+    
+    public LocalDateTime getClaimedAt() { return state.get().claimedAt; }
+    
+    public LocalDateTime getStartedAt() { return state.get().startedAt; }
+    
+    public LocalDateTime getCompletedAt() { return state.get().completedAt; }
+    
+    public Integer getActualPrepTime() { return actualPrepTime(state.get()); }
+    
+    @JsonIgnore
+    public Long getEntityId() { return entityId; }
+    
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+    
+    @JsonIgnore
+    public boolean isTerminal() { return state.get().isTerminal(); }
+    
+    private static Integer actualPrepTime(TicketState state) {
+        if (state.status != KitchenOrderStatus.COMPLETED || state.startedAt == null) {
+            return null;
+        }
+        return (int) Duration.between(state.startedAt, state.completedAt).toMinutes();
+    }
+}
@@ -0,0 +1,8 @@
+package com.fooddelivery.kitchen.queue;
+
+// 工单状态变化的订阅者，在触发转换的线程上同步调用，实现方不能阻塞。
+// 监听器内触发的状态变化在当前事件分发给所有监听器之后才分发
+public interface KitchenTicketListener {
+    
+    void onTicketEvent(TicketEvent event);
+}
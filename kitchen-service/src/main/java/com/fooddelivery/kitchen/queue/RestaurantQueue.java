@@ -0,0 +1,87 @@
+package com.fooddelivery.kitchen.queue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// 单个餐厅的工单队列：待认领工单放在按优先级排序的跳表中，认领时 pollFirst 原子地取走队首，
+// 已认领和制作中的工单放在 active 中；整个队列不加锁
+final class RestaurantQueue {
+    
+    private final ConcurrentSkipListSet<KitchenTicket> pending = new ConcurrentSkipListSet<>(KitchenTicket.PRIORITY);
+    
+    private final ConcurrentMap<String, KitchenTicket> active = new ConcurrentHashMap<>();
+    
+    void enqueue(KitchenTicket ticket) {
+        pending.add(ticket);
+    }
+    
+    // 取走队首后再 CAS 认领；队首工单若已被取消则跳过
+    Optional<KitchenTicket> claim(String chef, LocalDateTime now) {
+        KitchenTicket ticket;
+        while ((ticket = pending.pollFirst()) != null) {
+            if (ticket.claim(chef, now)) {
+                active.put(ticket.getOrderId(), ticket);
+                return Optional.of(ticket);
+            }
+        }
+        return Optional.empty();
+    }
+    
+    // 认领指定工单（由调度器分配），工单已不在待认领队列中时返回 false
+    boolean assign(KitchenTicket ticket, String chef, LocalDateTime now) {
+        if (!pending.remove(ticket)) {
+            return false;
+        }
+        if (!ticket.claim(chef, now)) {
+            return false;
+        }
+        active.put(ticket.getOrderId(), ticket);
+        return true;
+    }
+    
+    boolean release(KitchenTicket ticket) {
+        if (!ticket.release()) {
+            return false;
+        }
+        active.remove(ticket.getOrderId(), ticket);
+        pending.add(ticket);
+        // 取消可能发生在 CAS 回到 RECEIVED 之后、放回队列之前，此时 remove 已经执行过，
+        // 放回后再检查一次，已取消的工单由这里移出，不能留在待认领队列里计入排队数
+        if (ticket.isTerminal()) {
+            pending.remove(ticket);
+        }
+        return true;
+    }
+    
+    void activate(KitchenTicket ticket) {
+        active.put(ticket.getOrderId(), ticket);
+    }
+    
+    void remove(KitchenTicket ticket) {
+        pending.remove(ticket);
+        active.remove(ticket.getOrderId(), ticket);
+    }
+    
+    List<KitchenTicket> pendingSnapshot() {
+        return new ArrayList<>(pending);
+    }
+    
+    List<KitchenTicket> activeSnapshot() {
+        List<KitchenTicket> tickets = new ArrayList<>(active.values());
+        tickets.sort(KitchenTicket.PRIORITY);
+        return tickets;
+    }
+    
+    int pendingCount() {
+        return pending.size();
+    }
+    
+    int activeCount() {
+        return active.size();
+    }
+}
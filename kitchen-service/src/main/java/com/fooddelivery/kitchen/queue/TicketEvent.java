@@ -0,0 +1,24 @@
+package com.fooddelivery.kitchen.queue;
+
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+
+public final class TicketEvent {
+    
+    private final KitchenTicket ticket;
+    private final KitchenOrderStatus previousStatus;
+    private final KitchenOrderStatus status;
+    
+    TicketEvent(KitchenTicket ticket, KitchenOrderStatus previousStatus, KitchenOrderStatus status) {
+        this.ticket = ticket;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+    
+    public KitchenTicket getTicket() { return ticket; }
+    
+    // 新工单为 null
+    public KitchenOrderStatus getPreviousStatus() { return previousStatus; }
+    
+    // 事件发生时的状态，处理事件时工单可能已经进入后续状态
+    public KitchenOrderStatus getStatus() { return status; }
+}
@@ -0,0 +1,48 @@
+package com.fooddelivery.kitchen.queue;
+
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+
+import java.time.LocalDateTime;
+
+// 工单的可变部分，每次状态转换生成新的不可变快照，通过 CAS 替换
+final class TicketState {
+    
+    final KitchenOrderStatus status;
+    final String assignedChef;
+    final LocalDateTime claimedAt;
+    final LocalDateTime startedAt;
+    final LocalDateTime completedAt;
+    
+    TicketState(KitchenOrderStatus status, String assignedChef,
+                LocalDateTime claimedAt, LocalDateTime startedAt, LocalDateTime completedAt) {
+        this.status = status;
+        this.assignedChef = assignedChef;
+        this.claimedAt = claimedAt;
+        this.startedAt = startedAt;
+        this.completedAt = completedAt;
+    }
+    
+    TicketState claimed(String chef, LocalDateTime now) {
+        return new TicketState(KitchenOrderStatus.CLAIMED, chef, now, null, null);
+    }
+    
+    TicketState released() {
+        return new TicketState(KitchenOrderStatus.RECEIVED, null, null, null, null);
+    }
+    
+    TicketState started(LocalDateTime now) {
+        return new TicketState(KitchenOrderStatus.IN_PROGRESS, assignedChef, claimedAt, now, null);
+    }
+    
+    TicketState completed(LocalDateTime now) {
+        return new TicketState(KitchenOrderStatus.COMPLETED, assignedChef, claimedAt, startedAt, now);
+    }
+    
+    TicketState cancelled(LocalDateTime now) {
+        return new TicketState(KitchenOrderStatus.CANCELLED, assignedChef, claimedAt, startedAt, now);
+    }
+    
+    boolean isTerminal() {
+        return status == KitchenOrderStatus.COMPLETED || status == KitchenOrderStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,29 @@
+package com.fooddelivery.kitchen.repository;
+
+import com.fooddelivery.kitchen.model.KitchenOrder;
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface KitchenOrderRepository extends JpaRepository<KitchenOrder, Long> {
+    List<KitchenOrder> findByStatusIn(Collection<KitchenOrderStatus> statuses);
+    List<KitchenOrder> findByRestaurantId(String restaurantId);
+    
+    // 以下查询的结果在事务外使用，菜品明细（懒加载集合）随工单一次取回
+    @Query("select distinct o from KitchenOrder o left join fetch o.items where o.status in :statuses")
+    List<KitchenOrder> findWithItemsByStatusIn(@Param("statuses") Collection<KitchenOrderStatus> statuses);
+    
+    @Query("select distinct o from KitchenOrder o left join fetch o.items where o.id in :ids")
+    List<KitchenOrder> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // 集合 fetch join 不能在数据库端分页，先按页取主键再用 findWithItemsByIdIn 取工单
+    @Query("select o.id from KitchenOrder o where o.status = :status")
+    List<Long> findIdsByStatus(@Param("status") KitchenOrderStatus status, Pageable pageable);
+}
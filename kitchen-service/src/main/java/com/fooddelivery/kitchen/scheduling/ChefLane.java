@@ -0,0 +1,94 @@
+package com.fooddelivery.kitchen.scheduling;
+
+import com.fooddelivery.kitchen.queue.KitchenTicket;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 一位厨师的工作队列：已分配但尚未开始的工单，以及按预估制作时间累计的积压工作量。
+// 厨师从队首取工单，其他厨师从队尾窃取，双端队列让两端的竞争互不干扰
+public final class ChefLane {
+    
+    private final String chefId;
+    private final String restaurantId;
+    private final String station;
+    private final Set<String> categories;
+    private final Set<String> skills;
+    
+    private final ConcurrentLinkedDeque<KitchenTicket> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicLong backlogSeconds = new AtomicLong();
+    
+    ChefLane(String chefId, String restaurantId, String station, Set<String> categories, Set<String> skills) {
+        this.chefId = chefId;
+        this.restaurantId = restaurantId;
+        this.station = station;
+        this.categories = Collections.unmodifiableSet(categories);
+        this.skills = Collections.unmodifiableSet(skills);
+    }
+    
+    void push(KitchenTicket ticket) {
+        queue.addLast(ticket);
+        backlogSeconds.addAndGet(workSeconds(ticket));
+    }
+    
+    KitchenTicket pollFirst() {
+        return taken(queue.pollFirst());
+    }
+    
+    KitchenTicket pollLast() {
+        return taken(queue.pollLast());
+    }
+    
+    KitchenTicket peekLast() {
+        return queue.peekLast();
+    }
+    
+    boolean remove(KitchenTicket ticket) {
+        return taken(queue.removeFirstOccurrence(ticket) ? ticket : null) != null;
+    }
+    
+    // 品类为空的厨师视为全能，可以处理任何工单；备注要求的技能必须具备
+    int coverage(TicketRequirements requirements) {
+        if (!skills.containsAll(requirements.getSkills())) {
+            return -1;
+        }
+        if (categories.isEmpty()) {
+            return 0;
+        }
+        int covered = 0;
+        for (String category : requirements.getCategories()) {
+            if (categories.contains(category)) {
+                covered++;
+            }
+        }
+        return covered;
+    }
+    
+    public String getChefId() { return chefId; }
+    
+    public String getRestaurantId() { return restaurantId; }
+    
+    public String getStation() { return station; }
+    
+    public Set<String> getCategories() { return categories; }
+    
+    public Set<String> getSkills() { return skills; }
+    
+    public int getQueuedTickets() { return queue.size(); }
+    
+    public long getBacklogSeconds() { return backlogSeconds.get(); }
+    
+    private KitchenTicket taken(KitchenTicket ticket) {
+        if (ticket != null) {
+            backlogSeconds.addAndGet(-workSeconds(ticket));
+        }
+        return ticket;
+    }
+    
+    static long workSeconds(KitchenTicket ticket) {
+        Integer minutes = ticket.getEstimatedPrepTime();
+        return (minutes != null ? minutes : 20) * 60L;
+    }
+}
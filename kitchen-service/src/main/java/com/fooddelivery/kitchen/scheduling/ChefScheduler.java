@@ -0,0 +1,280 @@
+package com.fooddelivery.kitchen.scheduling;
+
+import com.fooddelivery.kitchen.model.KitchenOrderItem;
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+import com.fooddelivery.kitchen.queue.KitchenQueueEngine;
+import com.fooddelivery.kitchen.queue.KitchenTicket;
+import com.fooddelivery.kitchen.queue.KitchenTicketListener;
+import com.fooddelivery.kitchen.queue.TicketEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 厨师分配调度器。登记了厨师的餐厅，新工单进入队列后立即分配给能处理它的、积压最少的厨师；
+ * 厨师手上没有工单时从积压最多的同类厨师队尾窃取，并定时把明显落后的厨师的工单转给较空闲的厨师。
+ * 没有登记厨师的餐厅仍由厨师自行从餐厅队列认领。
+ */
+@Component
+@EnableConfigurationProperties(SchedulingProperties.class)
+public class ChefScheduler implements KitchenTicketListener {
+    
+    // 引擎在分发事件时会回调本类，延迟注入以打破循环依赖
+    @Lazy
+    @Autowired
+    private KitchenQueueEngine kitchenQueueEngine;
+    
+    @Autowired
+    private SchedulingProperties properties;
+    
+    private final ConcurrentMap<String, List<ChefLane>> lanesByRestaurant = new ConcurrentHashMap<>();
+    
+    private final ConcurrentMap<String, ChefLane> lanesByChef = new ConcurrentHashMap<>();
+    
+    public ChefLane register(String restaurantId, String chefId, String station,
+                             Set<String> categories, Set<String> skills) {
+        if (chefId == null || chefId.isEmpty()) {
+            throw new IllegalArgumentException("Chef ID is required");
+        }
+        ChefLane lane = new ChefLane(chefId, restaurantId, station,
+                normalize(categories), normalize(skills));
+        ChefLane previous = lanesByChef.put(chefId, lane);
+        if (previous != null) {
+            unregister(previous);
+        }
+        lanesByRestaurant.computeIfAbsent(restaurantId, id -> new CopyOnWriteArrayList<>()).add(lane);
+        
+        // 厨师队列只在内存中，服务重启后厨师重新登记时，接回数据库恢复的、已分配给该厨师但尚未开始的工单
+        for (KitchenTicket ticket : kitchenQueueEngine.getActiveTickets(restaurantId)) {
+            if (ticket.getStatus() == KitchenOrderStatus.CLAIMED && chefId.equals(ticket.getAssignedChef())) {
+                lane.push(ticket);
+            }
+        }
+        
+        // 厨师上岗后接手当前积压的待认领工单
+        for (KitchenTicket ticket : kitchenQueueEngine.getPendingTickets(restaurantId)) {
+            assign(ticket);
+        }
+        return lane;
+    }
+    
+    // 厨师下岗时未开始的工单退回餐厅队列，由其他厨师重新分配
+    public void unregister(String chefId) {
+        ChefLane lane = lanesByChef.remove(chefId);
+        if (lane != null) {
+            unregister(lane);
+        }
+    }
+    
+    public List<ChefLane> getLanes(String restaurantId) {
+        List<ChefLane> lanes = lanesByRestaurant.get(restaurantId);
+        return lanes != null ? new ArrayList<>(lanes) : new ArrayList<>();
+    }
+    
+    /**
+     * 厨师获取下一张工单：优先取自己队列的队首，队列为空时窃取。
+     * 返回的工单已认领给该厨师，由厨师调用 start 开始制作。
+     */
+    public Optional<KitchenTicket> next(String chefId) {
+        ChefLane lane = lanesByChef.get(chefId);
+        if (lane == null) {
+            throw new NoSuchElementException("Chef not registered: " + chefId);
+        }
+        KitchenTicket ticket;
+        while ((ticket = lane.pollFirst()) != null) {
+            if (ticket.getStatus() == KitchenOrderStatus.CLAIMED && chefId.equals(ticket.getAssignedChef())) {
+                return Optional.of(ticket);
+            }
+        }
+        return steal(lane);
+    }
+    
+    @Override
+    public void onTicketEvent(TicketEvent event) {
+        KitchenTicket ticket = event.getTicket();
+        switch (event.getStatus()) {
+            case RECEIVED:
+                // 新工单或被退回的工单。分配产生的 CLAIMED 事件由引擎排在本事件分发完之后
+                if (lanesByRestaurant.containsKey(ticket.getRestaurantId())) {
+                    assign(ticket);
+                }
+                break;
+            case IN_PROGRESS:
+            case COMPLETED:
+            case CANCELLED:
+                ChefLane lane = ticket.getAssignedChef() != null ? lanesByChef.get(ticket.getAssignedChef()) : null;
+                if (lane != null) {
+                    lane.remove(ticket);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${kitchen.scheduling.rebalance-interval-ms:5000}")
+    public void rebalance() {
+        for (List<ChefLane> lanes : lanesByRestaurant.values()) {
+            if (lanes.size() > 1) {
+                rebalance(lanes);
+            }
+        }
+    }
+    
+    private void rebalance(List<ChefLane> lanes) {
+        long total = 0;
+        for (ChefLane lane : lanes) {
+            total += lane.getBacklogSeconds();
+        }
+        double threshold = properties.getRebalanceFactor() * total / lanes.size();
+        
+        for (ChefLane lane : lanes) {
+            while (lane.getBacklogSeconds() > threshold && lane.getQueuedTickets() > 1) {
+                KitchenTicket ticket = lane.peekLast();
+                if (ticket == null) {
+                    break;
+                }
+                long work = ChefLane.workSeconds(ticket);
+                ChefLane target = leastLoaded(lanes, requirements(ticket), lane);
+                // 转移后对方的积压不能超过本方，否则只是把问题换个地方
+                if (target == null || target.getBacklogSeconds() + work >= lane.getBacklogSeconds() - work) {
+                    break;
+                }
+                if (!move(ticket, lane, target)) {
+                    break;
+                }
+            }
+        }
+    }
+    
+    private void assign(KitchenTicket ticket) {
+        List<ChefLane> lanes = lanesByRestaurant.get(ticket.getRestaurantId());
+        if (lanes == null || lanes.isEmpty()) {
+            return;
+        }
+        ChefLane lane = leastLoaded(lanes, requirements(ticket), null);
+        if (lane != null && kitchenQueueEngine.assign(ticket.getOrderId(), lane.getChefId())) {
+            lane.push(ticket);
+        }
+    }
+    
+    private Optional<KitchenTicket> steal(ChefLane thief) {
+        List<ChefLane> lanes = new ArrayList<>(getLanes(thief.getRestaurantId()));
+        lanes.sort((a, b) -> Long.compare(b.getBacklogSeconds(), a.getBacklogSeconds()));
+        
+        for (ChefLane victim : lanes) {
+            if (victim == thief) {
+                continue;
+            }
+            KitchenTicket ticket = victim.peekLast();
+            while (ticket != null && thief.coverage(requirements(ticket)) >= 0) {
+                if (victim.remove(ticket)) {
+                    if (kitchenQueueEngine.reassign(ticket.getOrderId(), victim.getChefId(), thief.getChefId())) {
+                        return Optional.of(ticket);
+                    }
+                    // 工单已被取消或已由原厨师开始，继续尝试队尾的下一张
+                }
+                ticket = victim.peekLast();
+            }
+        }
+        return Optional.empty();
+    }
+    
+    private boolean move(KitchenTicket ticket, ChefLane from, ChefLane to) {
+        if (!from.remove(ticket)) {
+            return false;
+        }
+        if (kitchenQueueEngine.reassign(ticket.getOrderId(), from.getChefId(), to.getChefId())) {
+            to.push(ticket);
+        }
+        return true;
+    }
+    
+    /**
+     * 选择能处理工单的厨师中积压最少的一位。具备所需技能的厨师优先，
+     * 没有任何厨师具备时放宽技能要求；其次按覆盖的品类数，再按积压工作量。
+     */
+    private ChefLane leastLoaded(List<ChefLane> lanes, TicketRequirements requirements, ChefLane exclude) {
+        ChefLane best = null;
+        int bestCoverage = Integer.MIN_VALUE;
+        for (ChefLane lane : lanes) {
+            if (lane == exclude) {
+                continue;
+            }
+            int coverage = lane.coverage(requirements);
+            if (coverage > bestCoverage
+                    || (coverage == bestCoverage && lane.getBacklogSeconds() < best.getBacklogSeconds())) {
+                best = lane;
+                bestCoverage = coverage;
+            }
+        }
+        return best;
+    }
+    
+    private void unregister(ChefLane lane) {
+        List<ChefLane> lanes = lanesByRestaurant.get(lane.getRestaurantId());
+        if (lanes != null) {
+            lanes.remove(lane);
+        }
+        KitchenTicket ticket;
+        while ((ticket = lane.pollFirst()) != null) {
+            try {
+                kitchenQueueEngine.release(ticket.getOrderId());
+            } catch (RuntimeException e) {
+                // 工单已开始、完成或取消，无需退回
+            }
+        }
+    }
+    
+    TicketRequirements requirements(KitchenTicket ticket) {
+        Set<String> categories = new HashSet<>();
+        Set<String> skills = new HashSet<>();
+        for (KitchenOrderItem item : ticket.getItems()) {
+            match(item.getItemName(), properties.getCategories(), categories);
+            match(item.getSpecialInstructions(), properties.getSkills(), skills);
+        }
+        match(ticket.getNotes(), properties.getSkills(), skills);
+        return new TicketRequirements(categories, skills);
+    }
+    
+    private static void match(String text, Map<String, List<String>> keywords, Set<String> matched) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, List<String>> entry : keywords.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                if (lower.contains(keyword.toLowerCase(Locale.ROOT))) {
+                    matched.add(entry.getKey().toLowerCase(Locale.ROOT));
+                    break;
+                }
+            }
+        }
+    }
+    
+    private static Set<String> normalize(Set<String> values) {
+        if (values == null) {
+            return Collections.emptySet();
+        }
+        Set<String> normalized = new HashSet<>();
+        for (String value : values) {
+            normalized.add(value.trim().toLowerCase(Locale.ROOT));
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,28 @@
+package com.fooddelivery.kitchen.scheduling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 厨师调度配置：菜品名称关键字到工位品类的映射，以及备注关键字到所需技能的映射
+@ConfigurationProperties(prefix = "kitchen.scheduling")
+public class SchedulingProperties {
+    
+    private Map<String, List<String>> categories = new HashMap<>();
+    
+    private Map<String, List<String>> skills = new HashMap<>();
+    
+    // 某厨师积压的工作量超过平均值的倍数时，把队尾工单转给较空闲的厨师
+    private double rebalanceFactor = 1.5;
+    
+    public Map<String, List<String>> getCategories() { return categories; }
+    public void setCategories(Map<String, List<String>> categories) { this.categories = categories; }
+    
+    public Map<String, List<String>> getSkills() { return skills; }
+    public void setSkills(Map<String, List<String>> skills) { this.skills = skills; }
+    
+    public double getRebalanceFactor() { return rebalanceFactor; }
+    public void setRebalanceFactor(double rebalanceFactor) { this.rebalanceFactor = rebalanceFactor; }
+}
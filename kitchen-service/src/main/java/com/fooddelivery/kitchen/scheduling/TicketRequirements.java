@@ -0,0 +1,19 @@
+package com.fooddelivery.kitchen.scheduling;
+
+import java.util.Set;
+
+// 工单需要的工位品类（来自菜品名称）和技能（来自特殊要求和备注）
+final class TicketRequirements {
+    
+    private final Set<String> categories;
+    private final Set<String> skills;
+    
+    TicketRequirements(Set<String> categories, Set<String> skills) {
+        this.categories = categories;
+        this.skills = skills;
+    }
+    
+    Set<String> getCategories() { return categories; }
+    
+    Set<String> getSkills() { return skills; }
+}
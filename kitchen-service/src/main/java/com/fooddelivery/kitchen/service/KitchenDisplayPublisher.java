@@ -0,0 +1,71 @@
+package com.fooddelivery.kitchen.service;
+
+import com.fooddelivery.kitchen.queue.KitchenTicketListener;
+import com.fooddelivery.kitchen.queue.TicketEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 厨房显示屏的 SSE 推送：工单状态一变化就推送给订阅该餐厅的屏幕，不需要轮询数据库。
+// 推送在单独的线程上进行，慢客户端不会阻塞工单状态转换
+// 排在调度器之前收到事件：调度器处理 RECEIVED 时会立即触发 CLAIMED，先推送才能保证顺序
+@Order(0)
+@Component
+public class KitchenDisplayPublisher implements KitchenTicketListener {
+    
+    @Value("${kitchen.display.emitter-timeout-ms:0}")
+    private long emitterTimeoutMs;
+    
+    private final ConcurrentMap<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "kitchen-display-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public SseEmitter subscribe(String restaurantId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        List<SseEmitter> subscribers = emitters.computeIfAbsent(restaurantId, id -> new CopyOnWriteArrayList<>());
+        subscribers.add(emitter);
+        
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        return emitter;
+    }
+    
+    @Override
+    public void onTicketEvent(TicketEvent event) {
+        List<SseEmitter> subscribers = emitters.get(event.getTicket().getRestaurantId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            for (SseEmitter emitter : subscribers) {
+                try {
+                    emitter.send(SseEmitter.event()
+                            .name(event.getStatus().name())
+                            .data(event.getTicket()));
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(emitter);
+                }
+            }
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+    }
+}
@@ -0,0 +1,168 @@
+package com.fooddelivery.kitchen.service;
+
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+import com.fooddelivery.kitchen.queue.KitchenQueueEngine;
+import com.fooddelivery.kitchen.queue.KitchenTicket;
+import com.fooddelivery.kitchen.queue.KitchenTicketListener;
+import com.fooddelivery.kitchen.queue.TicketEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 厨房吞吐和 SLA 指标：排队等待（接单到开始制作）、制作耗时（开始到出餐）和总耗时的直方图，
+// 各状态工单数，以及超出承诺出餐时间和排队等待上限的次数。
+// 餐厅标签数量有上限，超出的餐厅归入 other；每个餐厅的 Meter 只查找一次并缓存
+@Component
+public class KitchenMetrics implements KitchenTicketListener {
+    
+    private static final String OTHER = "other";
+    
+    // 直方图只使用固定的 SLO 桶，每个 Timer 的序列数不随数据变化
+    private static final Duration[] SLO_BUCKETS = {
+        Duration.ofMinutes(2), Duration.ofMinutes(5), Duration.ofMinutes(10), Duration.ofMinutes(15),
+        Duration.ofMinutes(20), Duration.ofMinutes(30), Duration.ofMinutes(45), Duration.ofMinutes(60)
+    };
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // 引擎在分发事件时会回调本类，延迟注入以打破循环依赖
+    @Lazy
+    @Autowired
+    private KitchenQueueEngine kitchenQueueEngine;
+    
+    @Autowired
+    private KitchenOrderWriter kitchenOrderWriter;
+    
+    @Value("${kitchen.metrics.max-restaurant-tags:200}")
+    private int maxRestaurantTags;
+    
+    @Value("${kitchen.metrics.sla.queue-wait:10m}")
+    private Duration queueWaitSla;
+    
+    private final ConcurrentMap<String, RestaurantMeters> restaurants = new ConcurrentHashMap<>();
+    
+    private RestaurantMeters other;
+    
+    @PostConstruct
+    public void init() {
+        for (KitchenOrderStatus status : KitchenOrderStatus.values()) {
+            Gauge.builder("kitchen.tickets", kitchenQueueEngine, engine -> engine.getStatusCount(status))
+                    .tag("status", status.name())
+                    .description("当前各状态工单数（COMPLETED/CANCELLED 为启动以来累计）")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("kitchen.writer.backlog", kitchenOrderWriter, KitchenOrderWriter::getBacklog)
+                .description("尚未写入数据库的工单变更数")
+                .register(meterRegistry);
+        Gauge.builder("kitchen.writer.dead_letters", kitchenOrderWriter, KitchenOrderWriter::getDeadLetterCount)
+                .description("多次写入失败后放弃写入的工单数")
+                .register(meterRegistry);
+        this.other = new RestaurantMeters(OTHER);
+    }
+    
+    @Override
+    public void onTicketEvent(TicketEvent event) {
+        KitchenTicket ticket = event.getTicket();
+        switch (event.getStatus()) {
+            case IN_PROGRESS: {
+                RestaurantMeters meters = meters(ticket.getRestaurantId());
+                Duration wait = between(ticket.getReceivedAt(), ticket.getStartedAt());
+                if (wait != null) {
+                    meters.queueWait.record(wait);
+                    if (wait.compareTo(queueWaitSla) > 0) {
+                        meters.queueWaitBreaches.increment();
+                    }
+                }
+                break;
+            }
+            case COMPLETED: {
+                RestaurantMeters meters = meters(ticket.getRestaurantId());
+                meters.completed.increment();
+                Duration prep = between(ticket.getStartedAt(), ticket.getCompletedAt());
+                if (prep != null) {
+                    meters.prep.record(prep);
+                }
+                Duration total = between(ticket.getReceivedAt(), ticket.getCompletedAt());
+                if (total != null) {
+                    meters.total.record(total);
+                }
+                if (ticket.getPromisedAt() != null && ticket.getCompletedAt() != null
+                        && ticket.getCompletedAt().isAfter(ticket.getPromisedAt())) {
+                    meters.readyBreaches.increment();
+                }
+                break;
+            }
+            case CANCELLED:
+                meters(ticket.getRestaurantId()).cancelled.increment();
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private RestaurantMeters meters(String restaurantId) {
+        RestaurantMeters meters = restaurants.get(restaurantId);
+        if (meters != null) {
+            return meters;
+        }
+        if (restaurants.size() >= maxRestaurantTags) {
+            return other;
+        }
+        return restaurants.computeIfAbsent(restaurantId, RestaurantMeters::new);
+    }
+    
+    private static Duration between(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            return null;
+        }
+        Duration duration = Duration.between(from, to);
+        return duration.isNegative() ? Duration.ZERO : duration;
+    }
+    
+    private final class RestaurantMeters {
+        private final Timer queueWait;
+        private final Timer prep;
+        private final Timer total;
+        private final Counter completed;
+        private final Counter cancelled;
+        private final Counter queueWaitBreaches;
+        private final Counter readyBreaches;
+        
+        RestaurantMeters(String restaurantId) {
+            this.queueWait = timer("kitchen.ticket.queue.wait", restaurantId);
+            this.prep = timer("kitchen.ticket.prep", restaurantId);
+            this.total = timer("kitchen.ticket.total", restaurantId);
+            this.completed = counter("kitchen.tickets.completed", restaurantId);
+            this.cancelled = counter("kitchen.tickets.cancelled", restaurantId);
+            this.queueWaitBreaches = Counter.builder("kitchen.sla.breaches")
+                    .tag("restaurant", restaurantId).tag("sla", "queue_wait")
+                    .register(meterRegistry);
+            this.readyBreaches = Counter.builder("kitchen.sla.breaches")
+                    .tag("restaurant", restaurantId).tag("sla", "promised_ready")
+                    .register(meterRegistry);
+        }
+        
+        private Timer timer(String name, String restaurantId) {
+            return Timer.builder(name)
+                    .tag("restaurant", restaurantId)
+                    .serviceLevelObjectives(SLO_BUCKETS)
+                    .register(meterRegistry);
+        }
+        
+        private Counter counter(String name, String restaurantId) {
+            return Counter.builder(name).tag("restaurant", restaurantId).register(meterRegistry);
+        }
+    }
+}
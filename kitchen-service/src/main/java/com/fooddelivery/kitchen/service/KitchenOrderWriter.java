@@ -0,0 +1,197 @@
+package com.fooddelivery.kitchen.service;
+
+import com.fooddelivery.kitchen.model.KitchenOrder;
+import com.fooddelivery.kitchen.queue.KitchenTicket;
+import com.fooddelivery.kitchen.queue.KitchenTicketListener;
+import com.fooddelivery.kitchen.queue.TicketEvent;
+import com.fooddelivery.kitchen.repository.KitchenOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 工单状态的异步写入（write-behind）：状态变化只标记工单为脏，
+// 定时按批次在一个事务内写入 kitchen_orders；同一工单在两次写入之间的多次变化合并为一次。
+// 批次失败时逐条重写，找出写不进去的工单，连续失败达到上限的转入死信，不再拖住整个批次
+@Component
+public class KitchenOrderWriter implements KitchenTicketListener {
+    
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${kitchen.queue.flush-batch-size:500}")
+    private int batchSize;
+    
+    @Value("${kitchen.queue.max-write-attempts:3}")
+    private int maxWriteAttempts;
+    
+    private final ConcurrentMap<String, KitchenTicket> dirty = new ConcurrentHashMap<>();
+    
+    // 逐条写入失败的次数和已放弃写入的工单，均以 orderId 为键
+    private final ConcurrentMap<String, Integer> failures = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, KitchenTicket> deadLetters = new ConcurrentHashMap<>();
+    
+    // 定时写入和停机写入可能同时执行，同一时刻只允许一个线程写
+    private final ReentrantLock flushLock = new ReentrantLock();
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Override
+    public void onTicketEvent(TicketEvent event) {
+        // 工单有了新状态，之前的失败不再作数
+        String orderId = event.getTicket().getOrderId();
+        failures.remove(orderId);
+        deadLetters.remove(orderId);
+        dirty.put(orderId, event.getTicket());
+    }
+    
+    public int getBacklog() {
+        return dirty.size();
+    }
+    
+    public int getDeadLetterCount() {
+        return deadLetters.size();
+    }
+    
+    public List<KitchenTicket> getDeadLetters() {
+        return new ArrayList<>(deadLetters.values());
+    }
+    
+    @Scheduled(fixedDelayString = "${kitchen.queue.flush-interval-ms:100}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            // 本轮逐条写入失败的工单留到下个周期再试，避免在同一轮里把重试次数用完
+            List<KitchenTicket> retry = new ArrayList<>();
+            try {
+                while (!dirty.isEmpty()) {
+                    List<KitchenTicket> batch = drain();
+                    try {
+                        write(batch);
+                        batch.forEach(ticket -> failures.remove(ticket.getOrderId()));
+                    } catch (RuntimeException e) {
+                        if (!writeEach(batch, retry)) {
+                            return;
+                        }
+                    }
+                }
+            } finally {
+                // 期间若工单又有变化则以最新状态为准
+                retry.forEach(ticket -> dirty.putIfAbsent(ticket.getOrderId(), ticket));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    // 停机前把剩余的变更写完
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    // 逐条写入；数据库不可用时整批放回并返回 false，等下个周期再写
+    private boolean writeEach(List<KitchenTicket> batch, List<KitchenTicket> retry) {
+        for (int i = 0; i < batch.size(); i++) {
+            KitchenTicket ticket = batch.get(i);
+            try {
+                write(Collections.singletonList(ticket));
+                failures.remove(ticket.getOrderId());
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    retry.addAll(batch.subList(i, batch.size()));
+                    return false;
+                }
+                int attempts = failures.merge(ticket.getOrderId(), 1, Integer::sum);
+                if (attempts < maxWriteAttempts) {
+                    retry.add(ticket);
+                } else {
+                    // 期间已有新状态待写的不转死信，由新状态覆盖
+                    failures.remove(ticket.getOrderId());
+                    if (!dirty.containsKey(ticket.getOrderId())) {
+                        deadLetters.put(ticket.getOrderId(), ticket);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+    
+    // 连接、超时、事务层面的失败与具体工单无关，不计入该工单的失败次数
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+            || e instanceof RecoverableDataAccessException
+            || e instanceof NonTransientDataAccessResourceException
+            || e instanceof TransactionException;
+    }
+    
+    private List<KitchenTicket> drain() {
+        List<KitchenTicket> batch = new ArrayList<>(Math.min(batchSize, dirty.size()));
+        Iterator<Map.Entry<String, KitchenTicket>> it = dirty.entrySet().iterator();
+        while (it.hasNext() && batch.size() < batchSize) {
+            Map.Entry<String, KitchenTicket> entry = it.next();
+            if (dirty.remove(entry.getKey(), entry.getValue())) {
+                batch.add(entry.getValue());
+            }
+        }
+        return batch;
+    }
+    
+    private void write(List<KitchenTicket> batch) {
+        Map<KitchenTicket, KitchenOrder> inserted = new HashMap<>();
+        
+        transactionTemplate.executeWithoutResult(tx -> {
+            List<Long> ids = new ArrayList<>();
+            for (KitchenTicket ticket : batch) {
+                if (ticket.getEntityId() != null) {
+                    ids.add(ticket.getEntityId());
+                }
+            }
+            Map<Long, KitchenOrder> existing = new HashMap<>();
+            for (KitchenOrder order : kitchenOrderRepository.findAllById(ids)) {
+                existing.put(order.getId(), order);
+            }
+            
+            List<KitchenOrder> created = new ArrayList<>();
+            for (KitchenTicket ticket : batch) {
+                KitchenOrder order = ticket.getEntityId() != null ? existing.get(ticket.getEntityId()) : null;
+                if (order == null) {
+                    order = new KitchenOrder();
+                    created.add(order);
+                    inserted.put(ticket, order);
+                }
+                ticket.copyTo(order);
+            }
+            kitchenOrderRepository.saveAll(created);
+        });
+        
+        // 事务提交后才回填主键，回滚时下次仍按新记录写入
+        inserted.forEach((ticket, order) -> ticket.setEntityId(order.getId()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.fooddelivery.kitchen.service;
+
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+import com.fooddelivery.kitchen.queue.KitchenQueueEngine;
+import com.fooddelivery.kitchen.repository.KitchenOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+
+// 启动时把数据库中未完成的工单装回内存队列
+@Component
+public class KitchenQueueRecovery {
+    
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+    
+    @Autowired
+    private KitchenQueueEngine kitchenQueueEngine;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        kitchenOrderRepository.findWithItemsByStatusIn(EnumSet.of(
+                KitchenOrderStatus.RECEIVED, KitchenOrderStatus.CLAIMED, KitchenOrderStatus.IN_PROGRESS))
+            .forEach(kitchenQueueEngine::restore);
+    }
+}
@@ -0,0 +1,204 @@
+package com.fooddelivery.kitchen.scheduling;
+
+import com.fooddelivery.kitchen.model.KitchenOrder;
+import com.fooddelivery.kitchen.model.KitchenOrderItem;
+import com.fooddelivery.kitchen.model.KitchenOrderStatus;
+import com.fooddelivery.kitchen.queue.KitchenQueueEngine;
+import com.fooddelivery.kitchen.queue.KitchenTicket;
+import com.fooddelivery.kitchen.queue.KitchenTicketListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// 调度器直接驱动真实的 KitchenQueueEngine：新工单分配、技能匹配、工作窃取、定时再平衡，
+// 以及事件顺序和重启后厨师重新登记时接回已分配的工单
+class ChefSchedulerTest {
+    
+    private static final String RESTAURANT_ID = "r1";
+    
+    private static final LocalDateTime OPENING = LocalDateTime.of(2026, 1, 1, 11, 0);
+    
+    private KitchenQueueEngine engine;
+    private ChefScheduler scheduler;
+    private final List<KitchenOrderStatus> events = new ArrayList<>();
+    private int orders;
+    
+    @BeforeEach
+    void setUp() {
+        engine = new KitchenQueueEngine();
+        scheduler = new ChefScheduler();
+        ReflectionTestUtils.setField(scheduler, "kitchenQueueEngine", engine);
+        ReflectionTestUtils.setField(scheduler, "properties", schedulingProperties());
+        // 调度器之后的监听器记录收到的事件顺序
+        KitchenTicketListener recorder = event -> events.add(event.getStatus());
+        ReflectionTestUtils.setField(engine, "listeners", Arrays.asList(scheduler, recorder));
+    }
+    
+    @Test
+    void newTicketGoesToLeastLoadedChefOfItsCategory() {
+        register("grill-1", "grill", "");
+        register("grill-2", "grill", "");
+        register("fry-1", "fry", "");
+        
+        assertEquals("grill-1", submit("汉堡", null, 10).getAssignedChef());
+        assertEquals("grill-2", submit("牛排", null, 10).getAssignedChef());
+        assertEquals("fry-1", submit("薯条", null, 5).getAssignedChef());
+        // 两位烧烤厨师积压相同时取先登记的
+        assertEquals("grill-1", submit("汉堡", null, 10).getAssignedChef());
+    }
+    
+    @Test
+    void requiredSkillTakesPrecedenceOverBacklog() {
+        register("veteran", "grill", "allergen");
+        register("grill-1", "grill", "");
+        
+        assertEquals("veteran", submit("汉堡", "坚果过敏", 10).getAssignedChef());
+        assertEquals("veteran", submit("汉堡", "坚果过敏", 10).getAssignedChef());
+        assertEquals("grill-1", submit("汉堡", null, 10).getAssignedChef());
+    }
+    
+    @Test
+    void ticketIsStillAssignedWhenNoChefHasTheSkill() {
+        register("grill-1", "grill", "");
+        
+        KitchenTicket ticket = submit("汉堡", "坚果过敏", 10);
+        assertEquals(KitchenOrderStatus.CLAIMED, ticket.getStatus());
+        assertEquals("grill-1", ticket.getAssignedChef());
+    }
+    
+    @Test
+    void idleChefStealsFromTailOfBusiestLane() {
+        register("grill-1", "grill", "");
+        register("grill-2", "grill", "");
+        KitchenTicket first = submit("汉堡", null, 10);
+        KitchenTicket second = submit("汉堡", null, 10);
+        KitchenTicket third = submit("汉堡", null, 10);
+        
+        assertEquals(second, scheduler.next("grill-2").get());
+        // grill-2 自己的队列空了，从 grill-1 的队尾窃取
+        assertEquals(third, scheduler.next("grill-2").get());
+        assertEquals("grill-2", third.getAssignedChef());
+        assertEquals(first, scheduler.next("grill-1").get());
+        assertFalse(scheduler.next("grill-1").isPresent());
+    }
+    
+    @Test
+    void chefWithoutRequiredSkillCannotSteal() {
+        register("veteran", "grill", "allergen");
+        register("grill-1", "grill", "");
+        submit("汉堡", "坚果过敏", 10);
+        
+        assertFalse(scheduler.next("grill-1").isPresent());
+        assertEquals(1, lane("veteran").getQueuedTickets());
+    }
+    
+    @Test
+    void rebalanceMovesTailTicketsToIdleChef() {
+        register("chef-1", "", "");
+        for (int i = 0; i < 4; i++) {
+            submit("汉堡", null, 10);
+        }
+        // 后登记的厨师只接手待认领工单，已分配的工单靠再平衡转移
+        register("chef-2", "", "");
+        assertEquals(0, lane("chef-2").getQueuedTickets());
+        
+        scheduler.rebalance();
+        
+        // 平均积压 20 分钟，阈值 30 分钟：chef-1 转出一张后降到 30 分钟为止
+        assertEquals(3, lane("chef-1").getQueuedTickets());
+        assertEquals(1, lane("chef-2").getQueuedTickets());
+        KitchenTicket moved = scheduler.next("chef-2").get();
+        assertEquals("chef-2", moved.getAssignedChef());
+    }
+    
+    @Test
+    void assignmentIsPublishedAfterTheReceivedEvent() {
+        register("grill-1", "grill", "");
+        submit("汉堡", null, 10);
+        
+        assertEquals(Arrays.asList(KitchenOrderStatus.RECEIVED, KitchenOrderStatus.CLAIMED), events);
+    }
+    
+    @Test
+    void reregisteredChefGetsBackRestoredClaimedTickets() {
+        KitchenOrder order = order("汉堡", null, 10);
+        order.setStatus(KitchenOrderStatus.CLAIMED);
+        order.setAssignedChef("grill-1");
+        order.setClaimedAt(OPENING);
+        engine.restore(order);
+        
+        register("grill-1", "grill", "");
+        register("grill-2", "grill", "");
+        
+        assertEquals(1, lane("grill-1").getQueuedTickets());
+        Optional<KitchenTicket> next = scheduler.next("grill-1");
+        assertEquals(order.getOrderId(), next.get().getOrderId());
+        assertFalse(scheduler.next("grill-2").isPresent());
+    }
+    
+    private void register(String chefId, String categories, String skills) {
+        scheduler.register(RESTAURANT_ID, chefId, null, split(categories), split(skills));
+    }
+    
+    private ChefLane lane(String chefId) {
+        for (ChefLane lane : scheduler.getLanes(RESTAURANT_ID)) {
+            if (lane.getChefId().equals(chefId)) {
+                return lane;
+            }
+        }
+        throw new IllegalArgumentException(chefId);
+    }
+    
+    private KitchenTicket submit(String itemName, String instructions, int prepMinutes) {
+        return engine.submit(order(itemName, instructions, prepMinutes));
+    }
+    
+    private KitchenOrder order(String itemName, String instructions, int prepMinutes) {
+        int number = ++orders;
+        KitchenOrderItem item = new KitchenOrderItem();
+        item.setItemName(itemName);
+        item.setQuantity(1);
+        item.setSpecialInstructions(instructions);
+        
+        KitchenOrder order = new KitchenOrder();
+        order.setOrderId("order-" + number);
+        order.setRestaurantId(RESTAURANT_ID);
+        // 按到达顺序排定承诺时间，队列顺序与提交顺序一致
+        order.setReceivedAt(OPENING.plusMinutes(number));
+        order.setEstimatedPrepTime(prepMinutes);
+        order.setPromisedAt(order.getReceivedAt().plusMinutes(30));
+        order.setItems(new ArrayList<>(Collections.singletonList(item)));
+        return order;
+    }
+    
+    private static Set<String> split(String values) {
+        return values.isEmpty() ? new HashSet<>() : new HashSet<>(Arrays.asList(values.split(",")));
+    }
+    
+    private static SchedulingProperties schedulingProperties() {
+        Map<String, List<String>> categories = new HashMap<>();
+        categories.put("grill", Arrays.asList("汉堡", "牛排"));
+        categories.put("fry", Arrays.asList("炸", "薯条"));
+        Map<String, List<String>> skills = new HashMap<>();
+        skills.put("allergen", Arrays.asList("过敏", "坚果"));
+        
+        SchedulingProperties properties = new SchedulingProperties();
+        properties.setCategories(categories);
+        properties.setSkills(skills);
+        return properties;
+    }
+}
@@ -0,0 +1,33 @@
+package com.fooddelivery.kitchen.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 出餐策略对比：默认参数（两小时、含午高峰）下分别运行 fifo 与 scheduler 并打印结果。
+// 类名不以 Test 结尾，不随 mvn test 运行：
+//   mvn test -Dtest=KitchenSimulationHarness
+// 调度器本身的行为由 ChefSchedulerTest 覆盖，这里只检查两种策略处理了同一批工单并全部做完
+class KitchenSimulationHarness {
+    
+    @Test
+    void comparesFifoAndScheduler() {
+        Map<String, KitchenSimulationResult> results = new KitchenSimulator().compare(new KitchenSimulationSettings());
+        
+        System.out.printf("%n%-10s %8s %8s %8s %10s %10s %10s %10s%n", "strategy", "tickets", "late",
+                "mismatch", "avg min", "p90 min", "wait min", "per hour");
+        for (String strategy : new String[] {"fifo", "scheduler"}) {
+            KitchenSimulationResult result = results.get(strategy);
+            System.out.printf("%-10s %8d %8d %8d %10.1f %10.1f %10.1f %10.1f%n", strategy, result.getTickets(),
+                    result.getLateTickets(), result.getMismatchedTickets(), result.getAverageTicketMinutes(),
+                    result.getP90TicketMinutes(), result.getAverageWaitMinutes(), result.getTicketsPerHour());
+        }
+        
+        for (KitchenSimulationResult result : results.values()) {
+            assertEquals(result.getTickets(), result.getCompleted());
+        }
+        assertEquals(results.get("fifo").getTickets(), results.get("scheduler").getTickets());
+    }
+}
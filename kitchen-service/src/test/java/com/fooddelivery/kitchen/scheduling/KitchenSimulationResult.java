@@ -0,0 +1,38 @@
+package com.fooddelivery.kitchen.scheduling;
+
+// 单个出餐策略的模拟结果
+public class KitchenSimulationResult {
+    private int tickets;
+    private int completed;
+    private int lateTickets;
+    private int mismatchedTickets;
+    private double averageTicketMinutes;
+    private double p90TicketMinutes;
+    private double averageWaitMinutes;
+    private double ticketsPerHour;
+    
+    // Getters and Setters
+    public int getTickets() { return tickets; }
+    public void setTickets(int tickets) { this.tickets = tickets; }
+    
+    public int getCompleted() { return completed; }
+    public void setCompleted(int completed) { this.completed = completed; }
+    
+    public int getLateTickets() { return lateTickets; }
+    public void setLateTickets(int lateTickets) { this.lateTickets = lateTickets; }
+    
+    public int getMismatchedTickets() { return mismatchedTickets; }
+    public void setMismatchedTickets(int mismatchedTickets) { this.mismatchedTickets = mismatchedTickets; }
+    
+    public double getAverageTicketMinutes() { return averageTicketMinutes; }
+    public void setAverageTicketMinutes(double averageTicketMinutes) { this.averageTicketMinutes = averageTicketMinutes; }
+    
+    public double getP90TicketMinutes() { return p90TicketMinutes; }
+    public void setP90TicketMinutes(double p90TicketMinutes) { this.p90TicketMinutes = p90TicketMinutes; }
+    
+    public double getAverageWaitMinutes() { return averageWaitMinutes; }
+    public void setAverageWaitMinutes(double averageWaitMinutes) { this.averageWaitMinutes = averageWaitMinutes; }
+    
+    public double getTicketsPerHour() { return ticketsPerHour; }
+    public void setTicketsPerHour(double ticketsPerHour) { this.ticketsPerHour = ticketsPerHour; }
+}
@@ -0,0 +1,46 @@
+package com.fooddelivery.kitchen.scheduling;
+
+// 厨房调度模拟参数，默认值对应一家 6 位厨师的餐厅两小时的午高峰
+public class KitchenSimulationSettings {
+    private long seed = 42;
+    private int minutes = 120;
+    private double baseOrdersPerMinute = 0.2;
+    private double peakOrdersPerMinute = 0.6;
+    private int maxItemsPerOrder = 3;
+    private double allergenRate = 0.05;
+    private double minPrepFactor = 0.8;
+    private double maxPrepFactor = 1.25;
+    private double slowdownFactor = 1.6;
+    private double rebalanceIntervalSeconds = 5;
+    
+    // Getters and Setters
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    
+    public int getMinutes() { return minutes; }
+    public void setMinutes(int minutes) { this.minutes = minutes; }
+    
+    public double getBaseOrdersPerMinute() { return baseOrdersPerMinute; }
+    public void setBaseOrdersPerMinute(double baseOrdersPerMinute) { this.baseOrdersPerMinute = baseOrdersPerMinute; }
+    
+    public double getPeakOrdersPerMinute() { return peakOrdersPerMinute; }
+    public void setPeakOrdersPerMinute(double peakOrdersPerMinute) { this.peakOrdersPerMinute = peakOrdersPerMinute; }
+    
+    public int getMaxItemsPerOrder() { return maxItemsPerOrder; }
+    public void setMaxItemsPerOrder(int maxItemsPerOrder) { this.maxItemsPerOrder = maxItemsPerOrder; }
+    
+    public double getAllergenRate() { return allergenRate; }
+    public void setAllergenRate(double allergenRate) { this.allergenRate = allergenRate; }
+    
+    public double getMinPrepFactor() { return minPrepFactor; }
+    public void setMinPrepFactor(double minPrepFactor) { this.minPrepFactor = minPrepFactor; }
+    
+    public double getMaxPrepFactor() { return maxPrepFactor; }
+    public void setMaxPrepFactor(double maxPrepFactor) { this.maxPrepFactor = maxPrepFactor; }
+    
+    public double getSlowdownFactor() { return slowdownFactor; }
+    public void setSlowdownFactor(double slowdownFactor) { this.slowdownFactor = slowdownFactor; }
+    
+    public double getRebalanceIntervalSeconds() { return rebalanceIntervalSeconds; }
+    public void setRebalanceIntervalSeconds(double rebalanceIntervalSeconds) { this.rebalanceIntervalSeconds = rebalanceIntervalSeconds; }
+}
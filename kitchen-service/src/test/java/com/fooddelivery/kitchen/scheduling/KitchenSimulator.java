@@ -0,0 +1,307 @@
+package com.fooddelivery.kitchen.scheduling;
+
+import com.fooddelivery.kitchen.model.KitchenOrder;
+import com.fooddelivery.kitchen.model.KitchenOrderItem;
+import com.fooddelivery.kitchen.queue.KitchenQueueEngine;
+import com.fooddelivery.kitchen.queue.KitchenTicket;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+// 出餐策略模拟：在同一份随机生成的午高峰工单流上分别运行按承诺时间先到先得的认领（fifo）
+// 和 ChefScheduler 按工位分配 + 工作窃取（scheduler），比较平均/P90 出餐时长和每小时出餐数。
+// 两种策略都驱动真实的 KitchenQueueEngine，模拟时钟以秒为单位；
+// 厨师做自己工位品类以外的菜或缺少所需技能时，制作时间乘以 slowdownFactor
+public class KitchenSimulator {
+    
+    private static final String RESTAURANT_ID = "sim-restaurant";
+    
+    private static final LocalDateTime OPENING = LocalDateTime.of(2026, 1, 1, 11, 0);
+    
+    // 菜品名称与标准制作时间（分钟），名称能被 application.yml 中的品类关键字识别
+    private static final String[] MENU = {"汉堡", "牛排", "薯条", "炸鸡", "炒饭", "牛肉面", "沙拉", "寿司", "蛋糕"};
+    private static final int[] MENU_MINUTES = {8, 14, 5, 9, 7, 9, 4, 6, 3};
+    
+    // 工位、品类、技能；最后一位是没有固定品类的全能厨师
+    private static final String[][] ROSTER = {
+            {"烧烤台", "grill", ""},
+            {"烧烤台", "grill", ""},
+            {"油炸台", "fry", ""},
+            {"炒锅", "wok", ""},
+            {"冷菜甜品", "cold,dessert", ""},
+            {"机动", "", "allergen"}
+    };
+    
+    private static final int ARRIVAL = 0;
+    private static final int FINISH = 1;
+    private static final int REBALANCE = 2;
+    
+    public Map<String, KitchenSimulationResult> compare(KitchenSimulationSettings settings) {
+        List<SimulatedOrder> orders = generateOrders(new Random(settings.getSeed()), settings);
+        
+        Map<String, KitchenSimulationResult> results = new HashMap<>();
+        results.put("fifo", run(false, orders, settings));
+        results.put("scheduler", run(true, orders, settings));
+        return results;
+    }
+    
+    private KitchenSimulationResult run(boolean scheduled, List<SimulatedOrder> orders,
+                                        KitchenSimulationSettings settings) {
+        KitchenQueueEngine engine = new KitchenQueueEngine();
+        ChefScheduler scheduler = new ChefScheduler();
+        ReflectionTestUtils.setField(scheduler, "kitchenQueueEngine", engine);
+        ReflectionTestUtils.setField(scheduler, "properties", schedulingProperties());
+        if (scheduled) {
+            ReflectionTestUtils.setField(engine, "listeners", Collections.singletonList(scheduler));
+        }
+        
+        String[] chefs = new String[ROSTER.length];
+        Set<String>[] chefCategories = new Set[ROSTER.length];
+        Set<String>[] chefSkills = new Set[ROSTER.length];
+        for (int i = 0; i < ROSTER.length; i++) {
+            chefs[i] = "chef" + (i + 1);
+            chefCategories[i] = split(ROSTER[i][1]);
+            chefSkills[i] = split(ROSTER[i][2]);
+            if (scheduled) {
+                scheduler.register(RESTAURANT_ID, chefs[i], ROSTER[i][0], chefCategories[i], chefSkills[i]);
+            }
+        }
+        
+        Map<String, Integer> orderIndex = new HashMap<>();
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        long sequence = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            orderIndex.put(orders.get(i).order.getOrderId(), i);
+            events.add(new Event(orders.get(i).arrivalSeconds, ARRIVAL, i, sequence++));
+        }
+        if (scheduled) {
+            events.add(new Event(settings.getRebalanceIntervalSeconds(), REBALANCE, -1, sequence++));
+        }
+        
+        String[] cooking = new String[chefs.length];
+        double[] startedAt = new double[orders.size()];
+        double[] finishedAt = new double[orders.size()];
+        Arrays.fill(finishedAt, Double.NaN);
+        int completed = 0;
+        int mismatched = 0;
+        
+        while (!events.isEmpty() && completed < orders.size()) {
+            Event event = events.poll();
+            double now = event.time;
+            if (event.type == ARRIVAL) {
+                engine.submit(orders.get(event.index).copy());
+            } else if (event.type == FINISH) {
+                engine.complete(cooking[event.index]);
+                finishedAt[orderIndex.get(cooking[event.index])] = now;
+                cooking[event.index] = null;
+                completed++;
+            } else {
+                scheduler.rebalance();
+                events.add(new Event(now + settings.getRebalanceIntervalSeconds(), REBALANCE, -1, sequence++));
+            }
+            
+            // 空闲的厨师依次取下一张工单
+            for (int chef = 0; chef < chefs.length; chef++) {
+                if (cooking[chef] != null) {
+                    continue;
+                }
+                Optional<KitchenTicket> next = scheduled
+                        ? scheduler.next(chefs[chef])
+                        : engine.claim(RESTAURANT_ID, chefs[chef]);
+                if (!next.isPresent()) {
+                    continue;
+                }
+                KitchenTicket ticket = engine.start(next.get().getOrderId(), chefs[chef]);
+                int index = orderIndex.get(ticket.getOrderId());
+                TicketRequirements requirements = scheduler.requirements(ticket);
+                boolean mismatch = !chefSkills[chef].containsAll(requirements.getSkills())
+                        || (!chefCategories[chef].isEmpty()
+                                && !chefCategories[chef].containsAll(requirements.getCategories()));
+                double seconds = orders.get(index).prepSeconds;
+                if (mismatch) {
+                    seconds *= settings.getSlowdownFactor();
+                    mismatched++;
+                }
+                cooking[chef] = ticket.getOrderId();
+                startedAt[index] = now;
+                events.add(new Event(now + seconds, FINISH, chef, sequence++));
+            }
+        }
+        return summarize(orders, startedAt, finishedAt, completed, mismatched);
+    }
+    
+    private KitchenSimulationResult summarize(List<SimulatedOrder> orders, double[] startedAt, double[] finishedAt,
+                                              int completed, int mismatched) {
+        KitchenSimulationResult result = new KitchenSimulationResult();
+        result.setTickets(orders.size());
+        result.setCompleted(completed);
+        result.setMismatchedTickets(mismatched);
+        if (completed == 0) {
+            return result;
+        }
+        
+        double[] durations = new double[completed];
+        double totalWait = 0;
+        double lastFinish = 0;
+        int late = 0;
+        int n = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            if (Double.isNaN(finishedAt[i])) {
+                continue;
+            }
+            SimulatedOrder order = orders.get(i);
+            durations[n++] = finishedAt[i] - order.arrivalSeconds;
+            totalWait += startedAt[i] - order.arrivalSeconds;
+            lastFinish = Math.max(lastFinish, finishedAt[i]);
+            if (finishedAt[i] > order.arrivalSeconds + order.order.getEstimatedPrepTime() * 60) {
+                late++;
+            }
+        }
+        Arrays.sort(durations);
+        double total = 0;
+        for (double duration : durations) {
+            total += duration;
+        }
+        result.setLateTickets(late);
+        result.setAverageTicketMinutes(total / completed / 60);
+        result.setP90TicketMinutes(durations[(int) Math.min(completed - 1, Math.floor(completed * 0.9))] / 60);
+        result.setAverageWaitMinutes(totalWait / completed / 60);
+        result.setTicketsPerHour(completed / (lastFinish / 3600));
+        return result;
+    }
+    
+    // 到达率从 base 线性升到高峰再回落，按非齐次泊松过程抽样（thinning）
+    private List<SimulatedOrder> generateOrders(Random random, KitchenSimulationSettings settings) {
+        List<SimulatedOrder> orders = new ArrayList<>();
+        double horizon = settings.getMinutes() * 60d;
+        double peakRate = settings.getPeakOrdersPerMinute() / 60;
+        double time = 0;
+        while (true) {
+            time += -Math.log(1 - random.nextDouble()) / peakRate;
+            if (time >= horizon) {
+                break;
+            }
+            double ramp = 1 - Math.abs(2 * time / horizon - 1);
+            double rate = settings.getBaseOrdersPerMinute()
+                    + (settings.getPeakOrdersPerMinute() - settings.getBaseOrdersPerMinute()) * ramp;
+            if (random.nextDouble() * settings.getPeakOrdersPerMinute() > rate) {
+                continue;
+            }
+            orders.add(randomOrder(random, orders.size() + 1, Math.floor(time), settings));
+        }
+        return orders;
+    }
+    
+    private SimulatedOrder randomOrder(Random random, int number, double arrivalSeconds,
+                                       KitchenSimulationSettings settings) {
+        int itemCount = 1 + random.nextInt(settings.getMaxItemsPerOrder());
+        List<KitchenOrderItem> items = new ArrayList<>();
+        int longest = 0;
+        for (int i = 0; i < itemCount; i++) {
+            int dish = random.nextInt(MENU.length);
+            KitchenOrderItem item = new KitchenOrderItem();
+            item.setItemName(MENU[dish]);
+            item.setQuantity(1);
+            if (random.nextDouble() < settings.getAllergenRate()) {
+                item.setSpecialInstructions("坚果过敏");
+            }
+            items.add(item);
+            longest = Math.max(longest, MENU_MINUTES[dish]);
+        }
+        // 同一张工单的菜并行制作，每多一道菜多 2 分钟
+        int estimatedMinutes = longest + 2 * (itemCount - 1);
+        double factor = settings.getMinPrepFactor()
+                + (settings.getMaxPrepFactor() - settings.getMinPrepFactor()) * random.nextDouble();
+        
+        KitchenOrder order = new KitchenOrder();
+        order.setOrderId("sim-" + number);
+        order.setRestaurantId(RESTAURANT_ID);
+        order.setReceivedAt(OPENING.plusSeconds((long) arrivalSeconds));
+        order.setEstimatedPrepTime(estimatedMinutes);
+        order.setPromisedAt(order.getReceivedAt().plusMinutes(estimatedMinutes));
+        order.setItems(items);
+        return new SimulatedOrder(order, arrivalSeconds, estimatedMinutes * 60 * factor);
+    }
+    
+    // 与 application.yml 中 kitchen.scheduling 的关键字一致
+    private static SchedulingProperties schedulingProperties() {
+        Map<String, List<String>> categories = new HashMap<>();
+        categories.put("grill", Arrays.asList("汉堡", "牛排", "烤", "burger", "steak", "grill"));
+        categories.put("fry", Arrays.asList("炸", "薯条", "fries", "fried"));
+        categories.put("wok", Arrays.asList("炒", "面", "饭", "noodle", "rice"));
+        categories.put("cold", Arrays.asList("沙拉", "寿司", "salad", "sushi"));
+        categories.put("dessert", Arrays.asList("甜品", "蛋糕", "冰淇淋", "dessert", "cake"));
+        Map<String, List<String>> skills = new HashMap<>();
+        skills.put("allergen", Arrays.asList("过敏", "无麸质", "坚果", "allergy", "gluten", "nut"));
+        
+        SchedulingProperties properties = new SchedulingProperties();
+        properties.setCategories(categories);
+        properties.setSkills(skills);
+        return properties;
+    }
+    
+    private static Set<String> split(String values) {
+        Set<String> result = new HashSet<>();
+        for (String value : values.split(",")) {
+            if (!value.isEmpty()) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+    
+    private static class SimulatedOrder {
+        private final KitchenOrder order;
+        private final double arrivalSeconds;
+        private final double prepSeconds;
+        
+        SimulatedOrder(KitchenOrder order, double arrivalSeconds, double prepSeconds) {
+            this.order = order;
+            this.arrivalSeconds = arrivalSeconds;
+            this.prepSeconds = prepSeconds;
+        }
+        
+        // 引擎会改写提交的订单（如主键），每次运行提交一份副本
+        KitchenOrder copy() {
+            KitchenOrder copy = new KitchenOrder();
+            copy.setOrderId(order.getOrderId());
+            copy.setRestaurantId(order.getRestaurantId());
+            copy.setReceivedAt(order.getReceivedAt());
+            copy.setPromisedAt(order.getPromisedAt());
+            copy.setEstimatedPrepTime(order.getEstimatedPrepTime());
+            copy.setItems(new ArrayList<>(order.getItems()));
+            return copy;
+        }
+    }
+    
+    private static class Event implements Comparable<Event> {
+        private final double time;
+        private final int type;
+        private final int index;
+        private final long sequence;
+        
+        Event(double time, int type, int index, long sequence) {
+            this.time = time;
+            this.type = type;
+            this.index = index;
+            this.sequence = sequence;
+        }
+        
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.fooddelivery.notification.adapter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class PushAdapter {
+    
+    private static final String MESSAGING_SCOPE = "https://www.googleapis.com/auth/firebase.messaging";
+    
+    // FCM HTTP v1 风格的推送接口，本地联调时可以指向 HTTP/2 桩服务
+    @Value("${push.endpoint:https://fcm.googleapis.com}")
+    private String endpoint;
+    
+    @Value("${push.project-id}")
+    private String projectId;
+    
+    // 服务账号 JSON 密钥文件，用于换取短期 OAuth2 访问令牌；为空时使用应用默认凭据
+    @Value("${push.credentials-file:}")
+    private String credentialsFile;
+    
+    // 长连接数量，每个连接上通过 HTTP/2 多路复用并发发送
+    @Value("${push.connections:4}")
+    private int connections;
+    
+    @Value("${push.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+    
+    @Value("${push.request-timeout-ms:5000}")
+    private long requestTimeoutMs;
+    
+    // 所有连接上同时进行的推送请求上限，避免大批量发送时打开过多 HTTP/2 流
+    @Value("${push.max-concurrent-requests:100}")
+    private int maxConcurrentRequests;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private HttpClient[] clients;
+    
+    private final AtomicInteger nextClient = new AtomicInteger();
+    
+    private URI sendUri;
+    
+    private Semaphore inFlight;
+    
+    private GoogleCredentials credentials;
+    
+    @PostConstruct
+    public void init() {
+        this.clients = new HttpClient[Math.max(1, connections)];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .build();
+        }
+        this.sendUri = URI.create(endpoint + "/v1/projects/" + projectId + "/messages:send");
+        this.inFlight = new Semaphore(Math.max(1, maxConcurrentRequests));
+    }
+    
+    public String sendPush(String deviceToken, String title, String body) {
+        try {
+            return sendAsync(new PushMessage(deviceToken, title, body)).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException("Failed to send push notification: " + cause.getMessage(), cause);
+        }
+    }
+    
+    // 批量发送：请求分布在连接池的多路复用流上，同时进行的请求数受 maxConcurrentRequests 限制，
+    // 结果与输入顺序一一对应
+    public List<PushResult> sendBatch(List<PushMessage> messages) {
+        List<CompletableFuture<PushResult>> futures = new ArrayList<>(messages.size());
+        for (PushMessage message : messages) {
+            futures.add(sendAsync(message)
+                    .thenApply(PushResult::success)
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        // 连接被拒绝等异常没有消息，而 PushResult 以错误信息是否为空区分成功与失败
+                        return PushResult.failure(cause.getMessage() != null ? cause.getMessage() : cause.toString());
+                    }));
+        }
+        
+        List<PushResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<PushResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+    
+    public boolean isValidDeviceToken(String deviceToken) {
+        if (deviceToken == null || deviceToken.isEmpty() || deviceToken.length() > 4096) {
+            return false;
+        }
+        for (int i = 0; i < deviceToken.length(); i++) {
+            char c = deviceToken.charAt(i);
+            if (c <= ' ' || c > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private CompletableFuture<String> sendAsync(PushMessage message) {
+        HttpRequest request;
+        try {
+            // 等待并发名额的时间计入请求超时
+            if (!inFlight.tryAcquire(requestTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return failed(new RuntimeException("Too many concurrent push requests"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(e);
+        }
+        
+        try {
+            request = HttpRequest.newBuilder(sendUri)
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .header("Authorization", "Bearer " + accessToken())
+                    .header("Content-Type", "application/json; charset=UTF-8")
+                    .POST(HttpRequest.BodyPublishers.ofString(toJson(message)))
+                    .build();
+        } catch (Exception e) {
+            inFlight.release();
+            return failed(e);
+        }
+        
+        return nextClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> inFlight.release())
+                .thenApply(this::parseMessageId);
+    }
+    
+    // FCM HTTP v1 只接受服务账号换取的短期访问令牌，令牌在过期前自动刷新
+    private String accessToken() throws IOException {
+        GoogleCredentials current;
+        synchronized (this) {
+            if (credentials == null) {
+                credentials = loadCredentials();
+            }
+            current = credentials;
+        }
+        current.refreshIfExpired();
+        return current.getAccessToken().getTokenValue();
+    }
+    
+    private GoogleCredentials loadCredentials() throws IOException {
+        if (credentialsFile.isEmpty()) {
+            return GoogleCredentials.getApplicationDefault().createScoped(Collections.singletonList(MESSAGING_SCOPE));
+        }
+        try (InputStream in = new FileInputStream(credentialsFile)) {
+            return GoogleCredentials.fromStream(in).createScoped(Collections.singletonList(MESSAGING_SCOPE));
+        }
+    }
+    
+    private static <T> CompletableFuture<T> failed(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+    
+    private HttpClient nextClient() {
+        return clients[Math.floorMod(nextClient.getAndIncrement(), clients.length)];
+    }
+    
+    private String toJson(PushMessage message) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode payload = root.putObject("message");
+        payload.put("token", message.getDeviceToken());
+        
+        ObjectNode notification = payload.putObject("notification");
+        if (message.getTitle() != null) {
+            notification.put("title", message.getTitle());
+        }
+        notification.put("body", message.getBody());
+        
+        try {
+            return objectMapper.writeValueAsString(root);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize push message: " + e.getMessage(), e);
+        }
+    }
+    
+    private String parseMessageId(HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new RuntimeException("Push provider returned " + response.statusCode() + ": " + response.body());
+        }
+        
+        try {
+            JsonNode name = objectMapper.readTree(response.body()).get("name");
+            return name != null ? name.asText() : null;
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid push provider response: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.fooddelivery.notification.adapter;
+
+public class PushMessage {
+    
+    private final String deviceToken;
+    private final String title;
+    private final String body;
+    
+    public PushMessage(String deviceToken, String title, String body) {
+        this.deviceToken = deviceToken;
+        this.title = title;
+        this.body = body;
+    }
+    
+    public String getDeviceToken() { return deviceToken; }
+    
+    public String getTitle() { return title; }
+    
+    public String getBody() { return body; }
+}
@@ -0,0 +1,26 @@
+package com.fooddelivery.notification.adapter;
+
+public class PushResult {
+    
+    private final String messageId;
+    private final String errorMessage;
+    
+    private PushResult(String messageId, String errorMessage) {
+        this.messageId = messageId;
+        this.errorMessage = errorMessage;
+    }
+    
+    public static PushResult success(String messageId) {
+        return new PushResult(messageId, null);
+    }
+    
+    public static PushResult failure(String errorMessage) {
+        return new PushResult(null, errorMessage);
+    }
+    
+    public boolean isSuccess() { return errorMessage == null; }
+    
+    public String getMessageId() { return messageId; }
+    
+    public String getErrorMessage() { return errorMessage; }
+}
@@ -6,15 +6,23 @@ import com.amazonaws.regions.Regions;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailServiceClientBuilder;
 import com.amazonaws.services.simpleemail.model.*;
+import com.fooddelivery.notification.model.NotificationStatus;
+import com.fooddelivery.notification.ratelimit.ProviderRateLimiter;
+import com.fooddelivery.notification.validation.RecipientValidators;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import java.util.regex.Pattern;
+import java.io.InputStream;
+import java.net.URL;
 
 @Component
 public class SESAdapter {
     
+    // SES 单次批量发送最多 50 个收件人
+    private static final int MAX_BULK_DESTINATIONS = 50;
+    
     @Value("${aws.access-key}")
     private String accessKey;
     
@@ -27,10 +35,20 @@ public class SESAdapter {
     @Value("${aws.ses.from-email}")
     private String fromEmail;
     
+    // 配置集需要关联发布投递事件的 SNS 主题
+    @Value("${aws.ses.configuration-set:}")
+    private String configurationSet;
+    
+    @Value("${aws.ses.status-topic-arn:}")
+    private String statusTopicArn;
+    
     private AmazonSimpleEmailService sesClient;
     
-    private static final Pattern EMAIL_PATTERN = 
-        Pattern.compile("^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$");
+    @Autowired
+    private ProviderRateLimiter rateLimiter;
+    
+    @Autowired
+    private SnsMessageVerifier snsMessageVerifier;
     
     @PostConstruct
     public void init() {
@@ -47,6 +65,9 @@ public class SESAdapter {
     }
     
     public String sendEmail(String toEmail, String subject, String content, boolean isHtml) {
+        // SES 按每个收件人计算发送速率
+        rateLimiter.acquire(ProviderRateLimiter.SES, fromEmail, 1);
+        
         try {
             SendEmailRequest request = new SendEmailRequest()
                 .withDestination(new Destination().withToAddresses(toEmail))
@@ -56,6 +77,9 @@ public class SESAdapter {
                         .withHtml(isHtml ? new Content().withCharset("UTF-8").withData(content) : null))
                     .withSubject(new Content().withCharset("UTF-8").withData(subject)))
                 .withSource(fromEmail);
+            if (!configurationSet.isEmpty()) {
+                request.setConfigurationSetName(configurationSet);
+            }
             
             SendEmailResult result = sesClient.sendEmail(request);
             return result.getMessageId();
@@ -69,6 +93,16 @@ public class SESAdapter {
     }
     
     public void sendBulkEmail(java.util.List<String> toEmails, String subject, String content, boolean isHtml) {
+        // 按限速器的突发容量分批获取令牌并发送，每批同时受 SES 单次请求的收件人上限约束
+        int batchSize = Math.min(MAX_BULK_DESTINATIONS, rateLimiter.getBurst(ProviderRateLimiter.SES));
+        for (int from = 0; from < toEmails.size(); from += batchSize) {
+            java.util.List<String> batch = toEmails.subList(from, Math.min(from + batchSize, toEmails.size()));
+            rateLimiter.acquire(ProviderRateLimiter.SES, fromEmail, batch.size());
+            sendBulkBatch(batch, subject, content);
+        }
+    }
+    
+    private void sendBulkBatch(java.util.List<String> toEmails, String subject, String content) {
         try {
             SendBulkTemplatedEmailRequest request = new SendBulkTemplatedEmailRequest()
                 .withSource(fromEmail)
@@ -89,7 +123,44 @@ public class SESAdapter {
     }
     
     public boolean isValidEmail(String email) {
-        return email != null && EMAIL_PATTERN.matcher(email).matches();
+        return RecipientValidators.isValidEmail(email);
+    }
+    
+    public boolean isStatusTopic(String topicArn) {
+        return !statusTopicArn.isEmpty() && statusTopicArn.equals(topicArn);
+    }
+    
+    // 确认 SNS 订阅，只访问本区域 SNS 域名下的确认地址
+    public void confirmSubscription(String subscribeUrl) {
+        if (!snsMessageVerifier.isSnsUrl(subscribeUrl)) {
+            throw new IllegalArgumentException("Unexpected subscription URL: " + subscribeUrl);
+        }
+        try {
+            URL url = new URL(subscribeUrl);
+            try (InputStream in = url.openStream()) {
+                in.readAllBytes();
+            }
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to confirm SNS subscription: " + e.getMessage(), e);
+        }
+    }
+    
+    // 将 SES 事件类型映射为通知状态；与投递结果无关的事件返回 null
+    public NotificationStatus toNotificationStatus(String eventType) {
+        if (eventType == null) {
+            return null;
+        }
+        switch (eventType) {
+            case "Delivery":
+                return NotificationStatus.DELIVERED;
+            case "Bounce":
+            case "Reject":
+                return NotificationStatus.FAILED;
+            default:
+                return null;
+        }
     }
     
     public void verifyEmailAddress(String email) {
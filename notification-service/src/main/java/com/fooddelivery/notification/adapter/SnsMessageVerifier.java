@@ -0,0 +1,119 @@
+package com.fooddelivery.notification.adapter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 校验 SNS 消息签名：签名证书只从本区域的 sns.<region>.amazonaws.com 下载，
+// 按 SNS 规定的字段顺序拼出待签名字符串后用证书公钥验签
+@Component
+public class SnsMessageVerifier {
+    
+    private static final String[] NOTIFICATION_FIELDS = {
+        "Message", "MessageId", "Subject", "Timestamp", "TopicArn", "Type"
+    };
+    
+    private static final String[] SUBSCRIPTION_FIELDS = {
+        "Message", "MessageId", "SubscribeURL", "Timestamp", "Token", "TopicArn", "Type"
+    };
+    
+    @Value("${aws.region}")
+    private String region;
+    
+    @Value("${aws.sns.certificate-timeout-ms:3000}")
+    private int certificateTimeoutMs;
+    
+    private final ConcurrentMap<String, X509Certificate> certificates = new ConcurrentHashMap<>();
+    
+    public boolean verify(JsonNode envelope) {
+        String certUrl = envelope.path("SigningCertURL").asText(null);
+        String signature = envelope.path("Signature").asText(null);
+        if (certUrl == null || signature == null || !isSnsUrl(certUrl) || !certUrl.endsWith(".pem")) {
+            return false;
+        }
+        
+        String algorithm;
+        switch (envelope.path("SignatureVersion").asText("")) {
+            case "1":
+                algorithm = "SHA1withRSA";
+                break;
+            case "2":
+                algorithm = "SHA256withRSA";
+                break;
+            default:
+                return false;
+        }
+        
+        String type = envelope.path("Type").asText("");
+        String[] fields;
+        if ("Notification".equals(type)) {
+            fields = NOTIFICATION_FIELDS;
+        } else if ("SubscriptionConfirmation".equals(type) || "UnsubscribeConfirmation".equals(type)) {
+            fields = SUBSCRIPTION_FIELDS;
+        } else {
+            return false;
+        }
+        
+        try {
+            X509Certificate certificate = certificates.computeIfAbsent(certUrl, this::loadCertificate);
+            certificate.checkValidity();
+            
+            Signature verifier = Signature.getInstance(algorithm);
+            verifier.initVerify(certificate.getPublicKey());
+            verifier.update(stringToSign(envelope, fields).getBytes(StandardCharsets.UTF_8));
+            return verifier.verify(Base64.getDecoder().decode(signature));
+        } catch (Exception e) {
+            certificates.remove(certUrl);
+            return false;
+        }
+    }
+    
+    // 证书和订阅确认地址都只允许本区域的 SNS 域名，不能由请求体指定任意 AWS 地址
+    public boolean isSnsUrl(String value) {
+        try {
+            URL url = new URL(value);
+            return "https".equals(url.getProtocol())
+                && ("sns." + region + ".amazonaws.com").equals(url.getHost())
+                && (url.getPort() == -1 || url.getPort() == 443);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    // 缺失的可选字段（如 Subject）不参与签名
+    static String stringToSign(JsonNode envelope, String[] fields) {
+        StringBuilder builder = new StringBuilder();
+        for (String field : fields) {
+            JsonNode value = envelope.get(field);
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            builder.append(field).append('\n').append(value.asText()).append('\n');
+        }
+        return builder.toString();
+    }
+    
+    X509Certificate loadCertificate(String certUrl) {
+        try {
+            URLConnection connection = new URL(certUrl).openConnection();
+            connection.setConnectTimeout(certificateTimeoutMs);
+            connection.setReadTimeout(certificateTimeoutMs);
+            try (InputStream in = connection.getInputStream()) {
+                return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(in);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load SNS signing certificate: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.fooddelivery.notification.adapter;
 
+import com.fooddelivery.notification.model.NotificationStatus;
+import com.fooddelivery.notification.ratelimit.ProviderRateLimiter;
+import com.fooddelivery.notification.validation.RecipientValidators;
 import com.twilio.Twilio;
 import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.api.v2010.account.MessageCreator;
+import com.twilio.security.RequestValidator;
 import com.twilio.type.PhoneNumber;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.net.URI;
+import java.util.Map;
 
 @Component
 public class TwilioAdapter {
@@ -20,18 +28,35 @@ public class TwilioAdapter {
     @Value("${twilio.from-phone}")
     private String fromPhone;
     
+    // Twilio 投递状态回调地址（外部可访问的完整URL），为空时不请求回调
+    @Value("${twilio.status-callback-url:}")
+    private String statusCallbackUrl;
+    
+    @Autowired
+    private ProviderRateLimiter rateLimiter;
+    
+    private RequestValidator requestValidator;
+    
     @PostConstruct
     public void init() {
         Twilio.init(accountSid, authToken);
+        this.requestValidator = new RequestValidator(authToken);
     }
     
     public String sendSMS(String toPhone, String messageContent) {
+        // 按账户和发送号码限速，避免触发 Twilio 的限流错误
+        rateLimiter.acquire(ProviderRateLimiter.TWILIO, fromPhone, 1);
+        
         try {
-            Message message = Message.creator(
+            MessageCreator creator = Message.creator(
                 new PhoneNumber(toPhone),
                 new PhoneNumber(fromPhone),
                 messageContent
-            ).create();
+            );
+            if (!statusCallbackUrl.isEmpty()) {
+                creator.setStatusCallback(URI.create(statusCallbackUrl));
+            }
+            Message message = creator.create();
             
             return message.getSid();
         } catch (Exception e) {
@@ -48,8 +73,28 @@ public class TwilioAdapter {
         }
     }
     
+    public boolean validateStatusCallback(Map<String, String> params, String signature) {
+        return signature != null && !statusCallbackUrl.isEmpty()
+            && requestValidator.validate(statusCallbackUrl, params, signature);
+    }
+    
+    // 将 Twilio 消息状态映射为通知状态；非终态返回 null
+    public NotificationStatus toNotificationStatus(String messageStatus) {
+        if (messageStatus == null) {
+            return null;
+        }
+        switch (messageStatus) {
+            case "delivered":
+                return NotificationStatus.DELIVERED;
+            case "undelivered":
+            case "failed":
+                return NotificationStatus.FAILED;
+            default:
+                return null;
+        }
+    }
+    
     public boolean isValidPhoneNumber(String phoneNumber) {
-        return phoneNumber != null && 
-               phoneNumber.matches("^\\+[1-9]\\d{1,14}$"); // E.164格式验证
+        return RecipientValidators.isValidE164(phoneNumber); // E.164格式验证
     }
 }
\ No newline at end of file
@@ -0,0 +1,208 @@
+package com.fooddelivery.notification.coalescing;
+
+import com.fooddelivery.notification.model.NotificationType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 按 (orderId, recipient, type) 合并短时间内的订单状态通知，窗口结束时只发送最新的一条；
+// 发送后在 dedupTtl 内保留内容哈希，丢弃完全相同的重复消息。
+// 所有到期时间由一个哈希时间轮统一驱动，不为每个键创建定时器。
+public class NotificationCoalescer {
+    
+    public enum Outcome {
+        SCHEDULED, COALESCED, DUPLICATE
+    }
+    
+    private final long windowMs;
+    private final long dedupTtlMs;
+    private final long tickMs;
+    private final Queue<Slot>[] wheel;
+    
+    private final ConcurrentMap<Key, Slot> slots = new ConcurrentHashMap<>();
+    
+    // 只由调用 advance 的单个线程推进
+    private long processedTick = -1;
+    
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    
+    @SuppressWarnings("unchecked")
+    public NotificationCoalescer(long windowMs, long dedupTtlMs, long tickMs, int wheelSize) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        this.windowMs = windowMs;
+        this.dedupTtlMs = dedupTtlMs;
+        this.tickMs = tickMs;
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+    
+    public Outcome submit(PendingOrderNotification notification, long now) {
+        Key key = new Key(notification.getOrderId(), notification.getRecipient(), notification.getType());
+        long hash = notification.contentHash();
+        Slot[] created = new Slot[1];
+        Outcome[] outcome = new Outcome[1];
+        
+        slots.compute(key, (k, current) -> {
+            if (current == null || (current.sent && current.contentHash != hash)) {
+                created[0] = Slot.pending(k, notification, hash, now + windowMs);
+                outcome[0] = Outcome.SCHEDULED;
+                return created[0];
+            }
+            if (current.contentHash == hash) {
+                outcome[0] = Outcome.DUPLICATE;
+                return current;
+            }
+            // 窗口内的新状态覆盖旧状态，沿用原有的到期时间
+            current.notification = notification;
+            current.contentHash = hash;
+            outcome[0] = Outcome.COALESCED;
+            return current;
+        });
+        
+        if (created[0] != null) {
+            schedule(created[0], now);
+        } else if (outcome[0] == Outcome.DUPLICATE) {
+            duplicateCount.incrementAndGet();
+        } else {
+            coalescedCount.incrementAndGet();
+        }
+        return outcome[0];
+    }
+    
+    // 推进时间轮并返回已到期、需要发送的通知；必须由单个线程周期性调用
+    public List<PendingOrderNotification> advance(long now) {
+        List<PendingOrderNotification> due = new ArrayList<>();
+        List<Slot> deferred = new ArrayList<>();
+        
+        // 只处理已完全过去的刻度，submit 总是写入当前刻度之后的桶，因此不会与这里竞争
+        long lastTick = now / tickMs - 1;
+        long firstTick = Math.max(processedTick + 1, lastTick - wheel.length + 1);
+        
+        for (long tick = firstTick; tick <= lastTick; tick++) {
+            Queue<Slot> bucket = wheel[(int) (tick % wheel.length)];
+            Slot slot;
+            while ((slot = bucket.poll()) != null) {
+                if (slot.deadline > now) {
+                    // 到期时间超出时间轮一圈的跨度，等下一圈再处理
+                    deferred.add(slot);
+                } else {
+                    expire(slot, now, due);
+                }
+            }
+        }
+        if (lastTick > processedTick) {
+            processedTick = lastTick;
+        }
+        
+        for (Slot slot : deferred) {
+            schedule(slot, now);
+        }
+        return due;
+    }
+    
+    private void expire(Slot slot, long now, List<PendingOrderNotification> due) {
+        if (slot.sent) {
+            slots.remove(slot.key, slot);
+            return;
+        }
+        
+        Slot[] marker = new Slot[1];
+        slots.compute(slot.key, (k, current) -> {
+            if (current != slot) {
+                return current;
+            }
+            due.add(slot.notification);
+            if (dedupTtlMs <= 0) {
+                return null;
+            }
+            marker[0] = Slot.sent(k, slot.contentHash, now + dedupTtlMs);
+            return marker[0];
+        });
+        
+        if (marker[0] != null) {
+            schedule(marker[0], now);
+        }
+    }
+    
+    private void schedule(Slot slot, long now) {
+        long tick = Math.max(slot.deadline / tickMs, now / tickMs + 1);
+        wheel[(int) (tick % wheel.length)].add(slot);
+    }
+    
+    public long getTrackedKeys() {
+        return slots.size();
+    }
+    
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+    
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+    
+    private static final class Key {
+        private final String orderId;
+        private final String recipient;
+        private final NotificationType type;
+        private final int hash;
+        
+        Key(String orderId, String recipient, NotificationType type) {
+            this.orderId = orderId;
+            this.recipient = recipient;
+            this.type = type;
+            this.hash = Objects.hash(orderId, recipient, type);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return type == other.type
+                && Objects.equals(orderId, other.orderId)
+                && Objects.equals(recipient, other.recipient);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+    
+    // pending 槽位保存待发送的通知；sent 槽位只保留已发送内容的哈希用于去重
+    private static final class Slot {
+        private final Key key;
+        private final boolean sent;
+        private final long deadline;
+        private PendingOrderNotification notification; // 仅在 slots.compute 内读写
+        private long contentHash;
+        
+        private Slot(Key key, boolean sent, PendingOrderNotification notification, long contentHash, long deadline) {
+            this.key = key;
+            this.sent = sent;
+            this.notification = notification;
+            this.contentHash = contentHash;
+            this.deadline = deadline;
+        }
+        
+        static Slot pending(Key key, PendingOrderNotification notification, long contentHash, long deadline) {
+            return new Slot(key, false, notification, contentHash, deadline);
+        }
+        
+        static Slot sent(Key key, long contentHash, long expiresAt) {
+            return new Slot(key, true, null, contentHash, expiresAt);
+        }
+    }
+}
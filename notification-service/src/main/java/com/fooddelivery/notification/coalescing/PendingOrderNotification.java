@@ -0,0 +1,55 @@
+package com.fooddelivery.notification.coalescing;
+
+import com.fooddelivery.notification.model.NotificationType;
+
+// 已渲染、等待合并窗口结束后发送的订单通知
+public class PendingOrderNotification {
+    
+    private final String orderId;
+    private final String customerId;
+    private final String recipient;
+    private final NotificationType type;
+    private final String subject;
+    private final String content;
+    
+    public PendingOrderNotification(String orderId, String customerId, String recipient,
+                                    NotificationType type, String subject, String content) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.recipient = recipient;
+        this.type = type;
+        this.subject = subject;
+        this.content = content;
+    }
+    
+    public String getOrderId() { return orderId; }
+    
+    public String getCustomerId() { return customerId; }
+    
+    public String getRecipient() { return recipient; }
+    
+    public NotificationType getType() { return type; }
+    
+    public String getSubject() { return subject; }
+    
+    public String getContent() { return content; }
+    
+    // 64 位 FNV-1a 内容哈希，用于识别完全相同的重复消息
+    long contentHash() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, subject);
+        hash = mix(hash, content);
+        return hash;
+    }
+    
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return hash * 0x100000001b3L;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,114 @@
+package com.fooddelivery.notification.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooddelivery.notification.adapter.SESAdapter;
+import com.fooddelivery.notification.adapter.SnsMessageVerifier;
+import com.fooddelivery.notification.adapter.TwilioAdapter;
+import com.fooddelivery.notification.model.NotificationStatus;
+import com.fooddelivery.notification.service.NotificationStatusUpdater;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// 提供商投递状态回调，状态更新进入批量写回队列，不在请求线程中访问数据库
+@RestController
+@RequestMapping("/api/notifications/callbacks")
+public class NotificationCallbackController {
+    
+    @Autowired
+    private TwilioAdapter twilioAdapter;
+    
+    @Autowired
+    private SESAdapter sesAdapter;
+    
+    @Autowired
+    private SnsMessageVerifier snsMessageVerifier;
+    
+    @Autowired
+    private NotificationStatusUpdater statusUpdater;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PostMapping(value = "/twilio", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Void> twilioStatusCallback(
+            @RequestParam Map<String, String> params,
+            @RequestHeader(value = "X-Twilio-Signature", required = false) String signature) {
+        if (!twilioAdapter.validateStatusCallback(params, signature)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        
+        String messageStatus = params.get("MessageStatus");
+        NotificationStatus status = twilioAdapter.toNotificationStatus(messageStatus);
+        if (status == null) {
+            return ResponseEntity.noContent().build();
+        }
+        
+        String errorMessage = status == NotificationStatus.FAILED
+            ? "Twilio status: " + messageStatus + " (error " + params.get("ErrorCode") + ")"
+            : null;
+        return accepted(statusUpdater.submit(params.get("MessageSid"), status, errorMessage));
+    }
+    
+    // SNS 以 text/plain 投递 JSON 消息
+    @PostMapping("/ses")
+    public ResponseEntity<Void> sesStatusCallback(@RequestBody String payload) {
+        JsonNode envelope;
+        try {
+            envelope = objectMapper.readTree(payload);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // 先验证 SNS 签名，TopicArn 等字段只有在签名通过后才可信
+        if (!snsMessageVerifier.verify(envelope)
+                || !sesAdapter.isStatusTopic(envelope.path("TopicArn").asText(null))) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        
+        String type = envelope.path("Type").asText();
+        if ("SubscriptionConfirmation".equals(type)) {
+            try {
+                sesAdapter.confirmSubscription(envelope.path("SubscribeURL").asText());
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        if (!"Notification".equals(type)) {
+            return ResponseEntity.noContent().build();
+        }
+        
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(envelope.path("Message").asText());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // 事件发布使用 eventType，身份通知使用 notificationType
+        String eventType = event.has("eventType") ? event.path("eventType").asText() : event.path("notificationType").asText();
+        if ("Bounce".equals(eventType) && !"Permanent".equals(event.path("bounce").path("bounceType").asText())) {
+            return ResponseEntity.noContent().build();
+        }
+        
+        NotificationStatus status = sesAdapter.toNotificationStatus(eventType);
+        if (status == null) {
+            return ResponseEntity.noContent().build();
+        }
+        
+        String messageId = event.path("mail").path("messageId").asText(null);
+        String errorMessage = status == NotificationStatus.FAILED ? "SES event: " + eventType : null;
+        return accepted(statusUpdater.submit(messageId, status, errorMessage));
+    }
+    
+    private ResponseEntity<Void> accepted(boolean queued) {
+        // 队列已满时返回 503，提供商会按自身策略重发回调
+        return queued ? ResponseEntity.noContent().build() : new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -5,6 +5,7 @@ import com.fooddelivery.notification.model.NotificationStatus;
 import com.fooddelivery.notification.model.NotificationType;
 import com.fooddelivery.notification.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -52,6 +53,36 @@ public class NotificationController {
         }
     }
     
+    @PostMapping("/push")
+    public ResponseEntity<Notification> sendPush(@RequestBody PushRequest request) {
+        try {
+            Notification notification = notificationService.sendPush(
+                request.getDeviceToken(),
+                request.getTitle(),
+                request.getContent(),
+                request.getOrderId(),
+                request.getCustomerId()
+            );
+            return new ResponseEntity<>(notification, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    @PostMapping("/push/bulk")
+    public ResponseEntity<List<Notification>> sendBulkPush(@RequestBody BulkPushRequest request) {
+        try {
+            List<Notification> notifications = notificationService.sendBulkPush(
+                request.getDeviceTokens(),
+                request.getTitle(),
+                request.getContent()
+            );
+            return new ResponseEntity<>(notifications, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
     @PostMapping("/order")
     public ResponseEntity<Void> sendOrderNotification(@RequestBody OrderNotificationRequest request) {
         try {
@@ -60,7 +91,8 @@ public class NotificationController {
                 request.getCustomerId(),
                 request.getRecipient(),
                 request.getOrderStatus(),
-                request.getType()
+                request.getType(),
+                request.getLocale()
             );
             return ResponseEntity.ok().build();
         } catch (IllegalArgumentException e) {
@@ -76,20 +108,29 @@ public class NotificationController {
     }
     
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Notification>> getNotificationsByCustomer(@PathVariable String customerId) {
-        List<Notification> notifications = notificationService.getNotificationsByCustomer(customerId);
+    public ResponseEntity<Slice<Notification>> getNotificationsByCustomer(
+            @PathVariable String customerId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Slice<Notification> notifications = notificationService.getNotificationsByCustomer(customerId, page, size);
         return ResponseEntity.ok(notifications);
     }
     
     @GetMapping("/order/{orderId}")
-    public ResponseEntity<List<Notification>> getNotificationsByOrder(@PathVariable String orderId) {
-        List<Notification> notifications = notificationService.getNotificationsByOrder(orderId);
+    public ResponseEntity<Slice<Notification>> getNotificationsByOrder(
+            @PathVariable String orderId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Slice<Notification> notifications = notificationService.getNotificationsByOrder(orderId, page, size);
         return ResponseEntity.ok(notifications);
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Notification>> getNotificationsByStatus(@PathVariable NotificationStatus status) {
-        List<Notification> notifications = notificationService.getNotificationsByStatus(status);
+    public ResponseEntity<Slice<Notification>> getNotificationsByStatus(
+            @PathVariable NotificationStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Slice<Notification> notifications = notificationService.getNotificationsByStatus(status, page, size);
         return ResponseEntity.ok(notifications);
     }
     
@@ -148,12 +189,53 @@ public class NotificationController {
         public void setCustomerId(String customerId) { this.customerId = customerId; }
     }
     
+    static class PushRequest {
+        private String deviceToken;
+        private String title;
+        private String content;
+        private String orderId;
+        private String customerId;
+        
+        // Getters and Setters
+        public String getDeviceToken() { return deviceToken; }
+        public void setDeviceToken(String deviceToken) { this.deviceToken = deviceToken; }
+        
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+        
+        public String getContent() { return content; }
+        public void setContent(String content) { this.content = content; }
+        
+        public String getOrderId() { return orderId; }
+        public void setOrderId(String orderId) { this.orderId = orderId; }
+        
+        public String getCustomerId() { return customerId; }
+        public void setCustomerId(String customerId) { this.customerId = customerId; }
+    }
+    
+    static class BulkPushRequest {
+        private List<String> deviceTokens;
+        private String title;
+        private String content;
+        
+        // Getters and Setters
+        public List<String> getDeviceTokens() { return deviceTokens; }
+        public void setDeviceTokens(List<String> deviceTokens) { this.deviceTokens = deviceTokens; }
+        
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+        
+        public String getContent() { return content; }
+        public void setContent(String content) { this.content = content; }
+    }
+    
     static class OrderNotificationRequest {
         private String orderId;
         private String customerId;
         private String recipient;
         private String orderStatus;
         private NotificationType type;
+        private String locale; // 例如 zh_CN、en_US，为空时使用默认语言
         
         // Getters and Setters
         public String getOrderId() { return orderId; }
@@ -170,5 +252,8 @@ public class NotificationController {
         
         public NotificationType getType() { return type; }
         public void setType(NotificationType type) { this.type = type; }
+        
+        public String getLocale() { return locale; }
+        public void setLocale(String locale) { this.locale = locale; }
     }
 }
\ No newline at end of file
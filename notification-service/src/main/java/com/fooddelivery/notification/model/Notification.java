@@ -4,7 +4,7 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications") // 表结构、分区和索引由 Flyway 迁移脚本管理
 public class Notification {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +27,10 @@ public class Notification {
     
     private LocalDateTime sentAt;
     
+    private LocalDateTime deliveredAt; // 由提供商状态回调或状态巡检设置
+    
+    private LocalDateTime lastStatusCheckAt;
+    
     private String externalId; // Twilio或SES的消息ID
     
     private String errorMessage;
@@ -35,10 +39,20 @@ public class Notification {
     private String orderId;
     private String customerId;
     
+    // 重试信息
+    private Integer attemptCount;
+    
+    private LocalDateTime nextAttemptAt;
+    
+    private String claimedBy; // 认领该通知进行重试的批次标识
+    
+    private LocalDateTime claimedUntil;
+    
     // 构造函数
     public Notification() {
         this.createdAt = LocalDateTime.now();
         this.status = NotificationStatus.PENDING;
+        this.attemptCount = 0;
     }
     
     public Notification(String recipient, String content, NotificationType type) {
@@ -70,6 +84,12 @@ public class Notification {
     public LocalDateTime getSentAt() { return sentAt; }
     public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
     
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+    public void setDeliveredAt(LocalDateTime deliveredAt) { this.deliveredAt = deliveredAt; }
+    
+    public LocalDateTime getLastStatusCheckAt() { return lastStatusCheckAt; }
+    public void setLastStatusCheckAt(LocalDateTime lastStatusCheckAt) { this.lastStatusCheckAt = lastStatusCheckAt; }
+    
     public String getExternalId() { return externalId; }
     public void setExternalId(String externalId) { this.externalId = externalId; }
     
@@ -81,12 +101,16 @@ public class Notification {
     
     public String getCustomerId() { return customerId; }
     public void setCustomerId(String customerId) { this.customerId = customerId; }
+    
+    public Integer getAttemptCount() { return attemptCount; }
+    public void setAttemptCount(Integer attemptCount) { this.attemptCount = attemptCount; }
+    
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+    
+    public LocalDateTime getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(LocalDateTime claimedUntil) { this.claimedUntil = claimedUntil; }
 }
-
-enum NotificationType {
-    SMS, EMAIL, PUSH
-}
-
-enum NotificationStatus {
-    PENDING, SENT, FAILED, DELIVERED
-}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.fooddelivery.notification.model;
+
+public enum NotificationStatus {
+    PENDING, SENT, FAILED, DELIVERED, DEAD_LETTER
+}
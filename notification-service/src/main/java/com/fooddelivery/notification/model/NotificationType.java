@@ -0,0 +1,5 @@
+package com.fooddelivery.notification.model;
+
+public enum NotificationType {
+    SMS, EMAIL, PUSH
+}
@@ -0,0 +1,146 @@
+package com.fooddelivery.notification.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+public class ProviderRateLimiter {
+    
+    public static final String TWILIO = "twilio";
+    public static final String SES = "ses";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Twilio 账户级速率与单个发送号码的速率
+    @Value("${notification.rate-limit.twilio.account-rate:100}")
+    private double twilioAccountRate;
+    
+    @Value("${notification.rate-limit.twilio.identity-rate:10}")
+    private double twilioIdentityRate;
+    
+    @Value("${notification.rate-limit.twilio.burst:10}")
+    private int twilioBurst;
+    
+    // SES 账户级最大发送速率与单个发件地址的速率
+    @Value("${notification.rate-limit.ses.account-rate:14}")
+    private double sesAccountRate;
+    
+    @Value("${notification.rate-limit.ses.identity-rate:14}")
+    private double sesIdentityRate;
+    
+    @Value("${notification.rate-limit.ses.burst:14}")
+    private int sesBurst;
+    
+    @Value("${notification.rate-limit.max-wait-ms:2000}")
+    private long maxWaitMs;
+    
+    private final ConcurrentMap<String, Limiter> limiters = new ConcurrentHashMap<>();
+    
+    // 在发送前获取提供商账户级和发送身份级的令牌，必要时短暂排队；
+    // 排队时间超过上限时抛出 RateLimitExceededException，由重试调度器稍后重发。
+    // 超过突发容量的请求按突发容量分批获取，否则无论等多久都拿不到
+    public void acquire(String provider, String identity, int permits) {
+        Limiter account = limiters.computeIfAbsent(provider + "|*", key -> createLimiter(provider, null));
+        Limiter sender = limiters.computeIfAbsent(provider + "|" + identity, key -> createLimiter(provider, identity));
+        
+        int chunk = getBurst(provider);
+        for (int remaining = permits; remaining > 0; remaining -= chunk) {
+            acquireChunk(account, sender, Math.min(chunk, remaining));
+        }
+    }
+    
+    // 单次 acquire 不用排队的最大令牌数，批量发送按此分批
+    public int getBurst(String provider) {
+        return Math.max(1, TWILIO.equals(provider) ? twilioBurst : sesBurst);
+    }
+    
+    private void acquireChunk(Limiter account, Limiter sender, int permits) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        long accountWait = account.reserve(permits, deadline);
+        long senderWait;
+        try {
+            senderWait = sender.reserve(permits, deadline);
+        } catch (RateLimitExceededException e) {
+            // 发送身份被拒绝时账户级令牌没有用上，归还给其他发送身份
+            account.release(permits);
+            throw e;
+        }
+        
+        // 两个桶的预约同时生效，只需等待较长的那个
+        long waitNanos = Math.max(accountWait, senderWait);
+        long wakeAt = System.nanoTime() + waitNanos;
+        long remaining = waitNanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new RateLimitExceededException("Interrupted while waiting for rate limit");
+            }
+            remaining = wakeAt - System.nanoTime();
+        }
+    }
+    
+    private Limiter createLimiter(String provider, String identity) {
+        boolean twilio = TWILIO.equals(provider);
+        double rate = identity == null
+            ? (twilio ? twilioAccountRate : sesAccountRate)
+            : (twilio ? twilioIdentityRate : sesIdentityRate);
+        int burst = twilio ? twilioBurst : sesBurst;
+        String identityTag = identity == null ? "account" : identity;
+        
+        return new Limiter(
+            provider,
+            identityTag,
+            new TokenBucket(rate, burst),
+            Timer.builder("notification.ratelimit.wait")
+                .tag("provider", provider)
+                .tag("identity", identityTag)
+                .register(meterRegistry),
+            Counter.builder("notification.ratelimit.rejected")
+                .tag("provider", provider)
+                .tag("identity", identityTag)
+                .register(meterRegistry)
+        );
+    }
+    
+    private static class Limiter {
+        private final String provider;
+        private final String identity;
+        private final TokenBucket bucket;
+        private final Timer waitTimer;
+        private final Counter rejectedCounter;
+        
+        Limiter(String provider, String identity, TokenBucket bucket, Timer waitTimer, Counter rejectedCounter) {
+            this.provider = provider;
+            this.identity = identity;
+            this.bucket = bucket;
+            this.waitTimer = waitTimer;
+            this.rejectedCounter = rejectedCounter;
+        }
+        
+        // 预约令牌并返回需要等待的纳秒数，超过截止时间则抛出异常且不占用令牌
+        long reserve(int permits, long deadline) {
+            long waitNanos = bucket.reserve(permits, Math.max(0L, deadline - System.nanoTime()));
+            if (waitNanos < 0) {
+                rejectedCounter.increment();
+                throw new RateLimitExceededException(
+                    "Rate limit exceeded for " + provider + " (" + identity + ")");
+            }
+            waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+            return waitNanos;
+        }
+        
+        void release(int permits) {
+            bucket.release(permits);
+        }
+    }
+}
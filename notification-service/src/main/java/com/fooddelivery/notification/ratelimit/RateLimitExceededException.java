@@ -0,0 +1,8 @@
+package com.fooddelivery.notification.ratelimit;
+
+public class RateLimitExceededException extends RuntimeException {
+    
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
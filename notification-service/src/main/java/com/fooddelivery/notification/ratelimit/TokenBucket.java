@@ -0,0 +1,53 @@
+package com.fooddelivery.notification.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 无锁令牌桶：以"理论到达时间"(GCRA) 表示桶状态，所有线程通过 CAS 预约令牌，
+// 预约成功后按返回的等待时间排队，从而把突发流量平滑到配置的速率上
+public class TokenBucket {
+    
+    private final long intervalNanos;
+    
+    private final long burstToleranceNanos;
+    
+    private final AtomicLong theoreticalArrival;
+    
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceNanos = intervalNanos * (Math.max(burst, 1) - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+    
+    // 预约 permits 个令牌，返回调用方需要等待的纳秒数；
+    // 如果需要等待的时间超过 maxWaitNanos 则不做预约，返回 -1
+    public long reserve(int permits, long maxWaitNanos) {
+        long cost = intervalNanos * permits;
+        
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long base = tat - now > 0 ? tat : now;
+            long waitNanos = Math.max(0L, base + cost - intervalNanos - burstToleranceNanos - now);
+            
+            if (waitNanos > maxWaitNanos) {
+                return -1L;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + cost)) {
+                return waitNanos;
+            }
+        }
+    }
+    
+    // 归还已预约但没有使用的令牌
+    public void release(int permits) {
+        theoreticalArrival.addAndGet(-intervalNanos * permits);
+    }
+    
+    public double getPermitsPerSecond() {
+        return (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+}
@@ -3,16 +3,66 @@ package com.fooddelivery.notification.repository;
 import com.fooddelivery.notification.model.Notification;
 import com.fooddelivery.notification.model.NotificationStatus;
 import com.fooddelivery.notification.model.NotificationType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByCustomerId(String customerId);
-    List<Notification> findByOrderId(String orderId);
-    List<Notification> findByStatus(NotificationStatus status);
-    List<Notification> findByType(NotificationType type);
-    List<Notification> findByRecipient(String recipient);
+    Slice<Notification> findByCustomerId(String customerId, Pageable pageable);
+    Slice<Notification> findByOrderId(String orderId, Pageable pageable);
+    Slice<Notification> findByStatus(NotificationStatus status, Pageable pageable);
+    Slice<Notification> findByType(NotificationType type, Pageable pageable);
+    Slice<Notification> findByRecipient(String recipient, Pageable pageable);
+    List<Notification> findByClaimedBy(String claimedBy);
+    List<Notification> findByExternalIdInAndStatus(List<String> externalIds, NotificationStatus status);
+    
+    // 认领一批到期的失败通知；SKIP LOCKED 保证多个实例并行认领时互不重叠，
+    // 只扫描 (status, next_attempt_at) 索引上已到期的部分
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE notifications SET claimed_by = :claimToken, claimed_until = :leaseUntil " +
+                   "WHERE id IN (SELECT id FROM notifications " +
+                   "WHERE status = 'FAILED' AND next_attempt_at <= :now " +
+                   "AND (claimed_until IS NULL OR claimed_until < :now) " +
+                   "ORDER BY next_attempt_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int claimDueRetries(@Param("claimToken") String claimToken,
+                        @Param("now") LocalDateTime now,
+                        @Param("leaseUntil") LocalDateTime leaseUntil,
+                        @Param("batchSize") int batchSize);
+    
+    // 按提供商消息ID批量更新投递状态，只更新仍处于 fromStatus 的记录，避免状态回退
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.deliveredAt = :deliveredAt, n.errorMessage = :errorMessage " +
+           "WHERE n.externalId IN :externalIds AND n.status = :fromStatus")
+    int updateDeliveryStatus(@Param("externalIds") List<String> externalIds,
+                             @Param("fromStatus") NotificationStatus fromStatus,
+                             @Param("status") NotificationStatus status,
+                             @Param("deliveredAt") LocalDateTime deliveredAt,
+                             @Param("errorMessage") String errorMessage);
+    
+    @Query("SELECT n FROM Notification n WHERE n.type = :type AND n.status = :status " +
+           "AND n.sentAt BETWEEN :oldestSentAt AND :staleSentAt " +
+           "AND (n.lastStatusCheckAt IS NULL OR n.lastStatusCheckAt < :recheckBefore) " +
+           "ORDER BY n.sentAt")
+    List<Notification> findStaleForStatusCheck(@Param("type") NotificationType type,
+                                               @Param("status") NotificationStatus status,
+                                               @Param("oldestSentAt") LocalDateTime oldestSentAt,
+                                               @Param("staleSentAt") LocalDateTime staleSentAt,
+                                               @Param("recheckBefore") LocalDateTime recheckBefore,
+                                               Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.lastStatusCheckAt = :checkedAt WHERE n.id IN :ids")
+    int markStatusChecked(@Param("ids") List<Long> ids, @Param("checkedAt") LocalDateTime checkedAt);
 }
\ No newline at end of file
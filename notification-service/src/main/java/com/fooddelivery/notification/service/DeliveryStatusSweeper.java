@@ -0,0 +1,101 @@
+package com.fooddelivery.notification.service;
+
+import com.fooddelivery.notification.adapter.TwilioAdapter;
+import com.fooddelivery.notification.model.Notification;
+import com.fooddelivery.notification.model.NotificationStatus;
+import com.fooddelivery.notification.model.NotificationType;
+import com.fooddelivery.notification.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 兜底巡检：只针对长时间停留在 SENT 且没有收到回调的短信查询 Twilio 状态，
+// 并发度受固定大小的线程池限制，避免大量 API 调用
+@Component
+public class DeliveryStatusSweeper {
+    
+    @Autowired
+    private NotificationRepository notificationRepository;
+    
+    @Autowired
+    private TwilioAdapter twilioAdapter;
+    
+    @Autowired
+    private NotificationStatusUpdater statusUpdater;
+    
+    @Value("${notification.status-sync.sweeper.stale-after-minutes:15}")
+    private long staleAfterMinutes;
+    
+    @Value("${notification.status-sync.sweeper.max-age-hours:72}")
+    private long maxAgeHours;
+    
+    @Value("${notification.status-sync.sweeper.recheck-interval-minutes:60}")
+    private long recheckIntervalMinutes;
+    
+    @Value("${notification.status-sync.sweeper.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${notification.status-sync.sweeper.concurrency:4}")
+    private int concurrency;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newFixedThreadPool(concurrency);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    @Scheduled(fixedDelayString = "${notification.status-sync.sweeper.interval-ms:300000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> stale = notificationRepository.findStaleForStatusCheck(
+            NotificationType.SMS,
+            NotificationStatus.SENT,
+            now.minusHours(maxAgeHours),
+            now.minusMinutes(staleAfterMinutes),
+            now.minusMinutes(recheckIntervalMinutes),
+            PageRequest.of(0, batchSize));
+        if (stale.isEmpty()) {
+            return;
+        }
+        
+        List<Long> ids = new ArrayList<>(stale.size());
+        List<CompletableFuture<Void>> checks = new ArrayList<>(stale.size());
+        for (Notification notification : stale) {
+            ids.add(notification.getId());
+            checks.add(CompletableFuture.runAsync(() -> check(notification), executor));
+        }
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).join();
+        
+        notificationRepository.markStatusChecked(ids, now);
+    }
+    
+    private void check(Notification notification) {
+        try {
+            String status = twilioAdapter.getMessageStatus(notification.getExternalId()).toString();
+            NotificationStatus mapped = twilioAdapter.toNotificationStatus(status);
+            if (mapped != null) {
+                statusUpdater.submit(notification.getExternalId(), mapped,
+                    mapped == NotificationStatus.FAILED ? "Twilio status: " + status : null);
+            }
+        } catch (Exception e) {
+            // 单条查询失败不影响本批其他消息，下个巡检周期会再次检查
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.fooddelivery.notification.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// 维护 notifications 的月分区：提前创建未来的分区，整体删除超过保留期的分区，
+// 避免逐行 DELETE 带来的膨胀和长事务
+@Component
+public class NotificationPartitionMaintenance {
+    
+    private static final String PARTITION_PREFIX = "notifications_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String DEFAULT_PARTITION = "notifications_default";
+    
+    // 多个实例同时运行时只有拿到咨询锁的实例执行维护
+    private static final long ADVISORY_LOCK_KEY = 0x4e4f544946L;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${notification.partitions.retention-months:6}")
+    private int retentionMonths;
+    
+    @Value("${notification.partitions.months-ahead:3}")
+    private int monthsAhead;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+    
+    @Scheduled(cron = "${notification.partitions.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                return;
+            }
+            
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= monthsAhead; i++) {
+                LocalDate monthStart = current.plusMonths(i).atDay(1);
+                jdbcTemplate.queryForObject("SELECT create_notifications_partition(?)", Object.class, monthStart);
+            }
+            
+            dropExpiredPartitions(current.minusMonths(retentionMonths));
+        });
+    }
+    
+    private void dropExpiredPartitions(YearMonth oldestRetained) {
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'notifications'",
+            String.class);
+        
+        for (String partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            
+            YearMonth month;
+            try {
+                month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            } catch (Exception e) {
+                continue;
+            }
+            
+            if (month.isBefore(oldestRetained)) {
+                // 分区名来自系统目录且已通过格式校验，可以安全拼接
+                jdbcTemplate.execute("ALTER TABLE notifications DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            }
+        }
+        
+        // 默认分区不会整体过期，只能按行清理
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE created_at < ?", oldestRetained.atDay(1));
+    }
+}
@@ -0,0 +1,55 @@
+package com.fooddelivery.notification.service;
+
+import com.fooddelivery.notification.model.Notification;
+import com.fooddelivery.notification.model.NotificationStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+public class NotificationRetryPolicy {
+    
+    @Value("${notification.retry.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${notification.retry.base-delay-ms:30000}")
+    private long baseDelayMs;
+    
+    @Value("${notification.retry.max-delay-ms:3600000}")
+    private long maxDelayMs;
+    
+    public void recordSuccess(Notification notification, String externalId) {
+        notification.setExternalId(externalId);
+        notification.setStatus(NotificationStatus.SENT);
+        notification.setSentAt(LocalDateTime.now());
+        notification.setErrorMessage(null);
+        notification.setNextAttemptAt(null);
+    }
+    
+    // 记录一次失败的发送尝试；未达到最大次数时安排下一次重试，否则转入死信
+    public void recordFailure(Notification notification, String errorMessage) {
+        int attempts = (notification.getAttemptCount() == null ? 0 : notification.getAttemptCount()) + 1;
+        notification.setAttemptCount(attempts);
+        notification.setErrorMessage(errorMessage);
+        
+        if (attempts >= maxAttempts) {
+            notification.setStatus(NotificationStatus.DEAD_LETTER);
+            notification.setNextAttemptAt(null);
+        } else {
+            notification.setStatus(NotificationStatus.FAILED);
+            notification.setNextAttemptAt(LocalDateTime.now().plus(backoffDelayMs(attempts), ChronoUnit.MILLIS));
+        }
+    }
+    
+    // 指数退避加抖动：上限为 base * 2^(attempts-1)，实际延迟在 [上限/2, 上限] 之间随机，
+    // 避免大批失败通知在同一时刻集中重试
+    long backoffDelayMs(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << shift);
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+}
@@ -0,0 +1,104 @@
+package com.fooddelivery.notification.service;
+
+import com.fooddelivery.notification.adapter.PushAdapter;
+import com.fooddelivery.notification.adapter.SESAdapter;
+import com.fooddelivery.notification.adapter.TwilioAdapter;
+import com.fooddelivery.notification.model.Notification;
+import com.fooddelivery.notification.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class NotificationRetryScheduler {
+    
+    @Autowired
+    private NotificationRepository notificationRepository;
+    
+    @Autowired
+    private TwilioAdapter twilioAdapter;
+    
+    @Autowired
+    private SESAdapter sesAdapter;
+    
+    @Autowired
+    private PushAdapter pushAdapter;
+    
+    @Autowired
+    private NotificationRetryPolicy retryPolicy;
+    
+    @Value("${notification.retry.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${notification.retry.lease-ms:120000}")
+    private long leaseMs;
+    
+    @Scheduled(fixedDelayString = "${notification.retry.poll-interval-ms:5000}")
+    public void pollDueRetries() {
+        processDueRetries();
+    }
+    
+    // 分批认领并重试已到期的失败通知，返回本次处理的数量
+    public int processDueRetries() {
+        int processed = 0;
+        
+        while (true) {
+            List<Notification> batch = claimBatch();
+            for (Notification notification : batch) {
+                retry(notification);
+            }
+            processed += batch.size();
+            
+            if (batch.size() < batchSize) {
+                return processed;
+            }
+        }
+    }
+    
+    private List<Notification> claimBatch() {
+        // 每个批次使用独立的认领标识，实例宕机后租约过期即可被其他实例重新认领
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        
+        int claimed = notificationRepository.claimDueRetries(
+            claimToken, now, now.plus(leaseMs, ChronoUnit.MILLIS), batchSize);
+        if (claimed == 0) {
+            return List.of();
+        }
+        return notificationRepository.findByClaimedBy(claimToken);
+    }
+    
+    private void retry(Notification notification) {
+        try {
+            retryPolicy.recordSuccess(notification, dispatch(notification));
+        } catch (Exception e) {
+            retryPolicy.recordFailure(notification, e.getMessage());
+        }
+        
+        notification.setClaimedBy(null);
+        notification.setClaimedUntil(null);
+        notificationRepository.save(notification);
+    }
+    
+    private String dispatch(Notification notification) {
+        switch (notification.getType()) {
+            case SMS:
+                return twilioAdapter.sendSMS(notification.getRecipient(), notification.getContent());
+            case EMAIL:
+                String[] parts = notification.getContent().split("\n", 2);
+                String subject = parts.length > 1 ? parts[0] : "通知";
+                String content = parts.length > 1 ? parts[1] : notification.getContent();
+                return sesAdapter.sendEmail(notification.getRecipient(), subject, content);
+            case PUSH:
+                return pushAdapter.sendPush(notification.getRecipient(), null, notification.getContent());
+            default:
+                throw new IllegalArgumentException("Unsupported notification type: " + notification.getType());
+        }
+    }
+}
@@ -1,17 +1,40 @@
 package com.fooddelivery.notification.service;
 
+import com.fooddelivery.notification.adapter.PushAdapter;
+import com.fooddelivery.notification.adapter.PushMessage;
+import com.fooddelivery.notification.adapter.PushResult;
 import com.fooddelivery.notification.adapter.SESAdapter;
 import com.fooddelivery.notification.adapter.TwilioAdapter;
+import com.fooddelivery.notification.coalescing.NotificationCoalescer;
+import com.fooddelivery.notification.coalescing.PendingOrderNotification;
 import com.fooddelivery.notification.model.Notification;
 import com.fooddelivery.notification.model.NotificationStatus;
 import com.fooddelivery.notification.model.NotificationType;
 import com.fooddelivery.notification.repository.NotificationRepository;
+import com.fooddelivery.notification.template.NotificationTemplateEngine;
+import com.fooddelivery.notification.template.RenderedMessage;
+import com.fooddelivery.notification.validation.RecipientValidators;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class NotificationService {
@@ -25,15 +48,95 @@ public class NotificationService {
     @Autowired
     private SESAdapter sesAdapter;
     
+    @Autowired
+    private PushAdapter pushAdapter;
+    
+    @Autowired
+    private NotificationRetryPolicy retryPolicy;
+    
+    @Autowired
+    private NotificationRetryScheduler retryScheduler;
+    
+    @Autowired
+    private NotificationTemplateEngine templateEngine;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // 订单通知合并配置
+    @Value("${notification.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+    
+    @Value("${notification.coalescing.window-ms:5000}")
+    private long coalescingWindowMs;
+    
+    @Value("${notification.coalescing.dedup-ttl-ms:600000}")
+    private long dedupTtlMs;
+    
+    @Value("${notification.coalescing.tick-ms:100}")
+    private long coalescingTickMs;
+    
+    @Value("${notification.coalescing.wheel-size:512}")
+    private int coalescingWheelSize;
+    
+    // 合并窗口到期后的发送线程数；发送可能因限速排队，不能占用调度线程
+    @Value("${notification.coalescing.dispatch-threads:4}")
+    private int dispatchThreads;
+    
+    @Value("${notification.query.max-page-size:200}")
+    private int maxPageSize;
+    
+    private NotificationCoalescer coalescer;
+    
+    private ExecutorService dispatchExecutor;
+    
+    private Counter dispatchFailedCounter;
+    
+    private Counter dispatchLostCounter;
+    
+    private volatile boolean stopping;
+    
+    @PostConstruct
+    public void init() {
+        coalescer = new NotificationCoalescer(coalescingWindowMs, dedupTtlMs, coalescingTickMs, coalescingWheelSize);
+        
+        Gauge.builder("notification.coalescer.tracked", coalescer, NotificationCoalescer::getTrackedKeys)
+            .register(meterRegistry);
+        FunctionCounter.builder("notification.coalescer.coalesced", coalescer, NotificationCoalescer::getCoalescedCount)
+            .register(meterRegistry);
+        FunctionCounter.builder("notification.coalescer.duplicates", coalescer, NotificationCoalescer::getDuplicateCount)
+            .register(meterRegistry);
+        dispatchFailedCounter = Counter.builder("notification.coalescer.dispatch.failed")
+            .register(meterRegistry);
+        dispatchLostCounter = Counter.builder("notification.coalescer.dispatch.lost")
+            .register(meterRegistry);
+        
+        dispatchExecutor = Executors.newFixedThreadPool(dispatchThreads, r -> {
+            Thread thread = new Thread(r, "notification-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 已经出窗的通知尽量发完，超时后剩余的不再发送，直接记为失败等待重试
+        dispatchExecutor.shutdown();
+        if (!dispatchExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            stopping = true;
+            for (Runnable pending : dispatchExecutor.shutdownNow()) {
+                pending.run();
+            }
+        }
+    }
+    
     public Notification sendSMS(String phoneNumber, String content) {
         return sendSMS(phoneNumber, content, null, null);
     }
     
     public Notification sendSMS(String phoneNumber, String content, String orderId, String customerId) {
-        // 验证手机号码
-        if (!twilioAdapter.isValidPhoneNumber(phoneNumber)) {
-            throw new IllegalArgumentException("Invalid phone number format");
-        }
+        // 规范化并验证手机号码
+        phoneNumber = normalizeRecipient(phoneNumber, NotificationType.SMS);
         
         // 创建通知记录
         Notification notification = new Notification(phoneNumber, content, NotificationType.SMS);
@@ -45,13 +148,11 @@ public class NotificationService {
             String messageSid = twilioAdapter.sendSMS(phoneNumber, content);
             
             // 更新通知状态
-            notification.setExternalId(messageSid);
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
+            retryPolicy.recordSuccess(notification, messageSid);
             
         } catch (Exception e) {
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setErrorMessage(e.getMessage());
+            // 记录失败并安排退避重试
+            retryPolicy.recordFailure(notification, e.getMessage());
         }
         
         return notificationRepository.save(notification);
@@ -63,10 +164,8 @@ public class NotificationService {
     
     public Notification sendEmail(String email, String subject, String content, boolean isHtml, 
                                  String orderId, String customerId) {
-        // 验证邮箱地址
-        if (!sesAdapter.isValidEmail(email)) {
-            throw new IllegalArgumentException("Invalid email address format");
-        }
+        // 规范化并验证邮箱地址
+        email = normalizeRecipient(email, NotificationType.EMAIL);
         
         // 创建通知记录
         Notification notification = new Notification(email, content, NotificationType.EMAIL);
@@ -78,30 +177,179 @@ public class NotificationService {
             String messageId = sesAdapter.sendEmail(email, subject, content, isHtml);
             
             // 更新通知状态
-            notification.setExternalId(messageId);
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
+            retryPolicy.recordSuccess(notification, messageId);
             
         } catch (Exception e) {
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setErrorMessage(e.getMessage());
+            // 记录失败并安排退避重试
+            retryPolicy.recordFailure(notification, e.getMessage());
         }
         
         return notificationRepository.save(notification);
     }
     
+    public Notification sendPush(String deviceToken, String title, String content,
+                                 String orderId, String customerId) {
+        // 验证设备令牌
+        if (!pushAdapter.isValidDeviceToken(deviceToken)) {
+            throw new IllegalArgumentException("Invalid device token");
+        }
+        
+        // 创建通知记录
+        Notification notification = new Notification(deviceToken, content, NotificationType.PUSH);
+        notification.setOrderId(orderId);
+        notification.setCustomerId(customerId);
+        
+        try {
+            // 发送推送
+            String messageId = pushAdapter.sendPush(deviceToken, title, content);
+            
+            // 更新通知状态
+            retryPolicy.recordSuccess(notification, messageId);
+            
+        } catch (Exception e) {
+            // 记录失败并安排退避重试
+            retryPolicy.recordFailure(notification, e.getMessage());
+        }
+        
+        return notificationRepository.save(notification);
+    }
+    
+    public List<Notification> sendBulkPush(List<String> deviceTokens, String title, String content) {
+        if (deviceTokens == null) {
+            throw new IllegalArgumentException("Device tokens are required");
+        }
+        List<PushMessage> messages = new ArrayList<>(deviceTokens.size());
+        List<Notification> notifications = new ArrayList<>(deviceTokens.size());
+        
+        for (String deviceToken : deviceTokens) {
+            if (deviceToken == null) {
+                continue;
+            }
+            if (!pushAdapter.isValidDeviceToken(deviceToken)) {
+                throw new IllegalArgumentException("Invalid device token");
+            }
+            messages.add(new PushMessage(deviceToken, title, content));
+            notifications.add(new Notification(deviceToken, content, NotificationType.PUSH));
+        }
+        
+        // 一次性并发发送整批推送，再批量保存通知记录
+        List<PushResult> results = pushAdapter.sendBatch(messages);
+        for (int i = 0; i < results.size(); i++) {
+            PushResult result = results.get(i);
+            if (result.isSuccess()) {
+                retryPolicy.recordSuccess(notifications.get(i), result.getMessageId());
+            } else {
+                retryPolicy.recordFailure(notifications.get(i), result.getErrorMessage());
+            }
+        }
+        
+        return notificationRepository.saveAll(notifications);
+    }
+    
     public void sendOrderNotification(String orderId, String customerId, String recipient, 
                                     String orderStatus, NotificationType type) {
-        String content = generateOrderNotificationContent(orderId, orderStatus);
+        sendOrderNotification(orderId, customerId, recipient, orderStatus, type, null);
+    }
+    
+    public void sendOrderNotification(String orderId, String customerId, String recipient, 
+                                    String orderStatus, NotificationType type, String locale) {
+        recipient = normalizeRecipient(recipient, type);
         
-        switch (type) {
+        RenderedMessage message = templateEngine.render(type, orderStatus, locale, orderId, customerId);
+        PendingOrderNotification notification = new PendingOrderNotification(
+            orderId, customerId, recipient, type, message.getSubject(), message.getBody());
+        
+        if (!coalescingEnabled) {
+            dispatchOrderNotification(notification);
+            return;
+        }
+        
+        // 进入合并窗口，窗口结束时只发送该订单最新的状态
+        coalescer.submit(notification, System.currentTimeMillis());
+    }
+    
+    @Scheduled(fixedRateString = "${notification.coalescing.tick-ms:100}")
+    public void flushCoalescedNotifications() {
+        if (coalescer == null) {
+            return;
+        }
+        
+        // 调度线程只负责推进时间轮，发送交给发送线程池，每条通知单独处理失败
+        for (PendingOrderNotification notification : coalescer.advance(System.currentTimeMillis())) {
+            try {
+                dispatchExecutor.execute(() -> dispatchSafely(notification));
+            } catch (RejectedExecutionException e) {
+                recordDispatchFailure(notification, e);
+            }
+        }
+    }
+    
+    private void dispatchSafely(PendingOrderNotification notification) {
+        if (stopping) {
+            recordDispatchFailure(notification, new IllegalStateException("Notification service is shutting down"));
+            return;
+        }
+        try {
+            dispatchOrderNotification(notification);
+        } catch (Exception e) {
+            recordDispatchFailure(notification, e);
+        }
+    }
+    
+    // 合并后的通知已从时间轮取出，发送或保存失败时落库为 FAILED，交给重试调度器重发，不能丢弃
+    private void recordDispatchFailure(PendingOrderNotification pending, Exception cause) {
+        dispatchFailedCounter.increment();
+        
+        Notification notification = new Notification(pending.getRecipient(), pending.getContent(), pending.getType());
+        notification.setOrderId(pending.getOrderId());
+        notification.setCustomerId(pending.getCustomerId());
+        retryPolicy.recordFailure(notification, cause.getMessage());
+        try {
+            notificationRepository.save(notification);
+        } catch (Exception e) {
+            dispatchLostCounter.increment();
+        }
+    }
+    
+    private void dispatchOrderNotification(PendingOrderNotification notification) {
+        switch (notification.getType()) {
             case SMS:
-                sendSMS(recipient, content, orderId, customerId);
+                sendSMS(notification.getRecipient(), notification.getContent(),
+                        notification.getOrderId(), notification.getCustomerId());
                 break;
             case EMAIL:
-                String subject = "订单状态更新 - " + orderId;
-                sendEmail(recipient, subject, content, false, orderId, customerId);
+                sendEmail(notification.getRecipient(), notification.getSubject(), notification.getContent(), false,
+                          notification.getOrderId(), notification.getCustomerId());
+                break;
+            case PUSH:
+                sendPush(notification.getRecipient(), notification.getSubject(), notification.getContent(),
+                         notification.getOrderId(), notification.getCustomerId());
                 break;
+            default:
+                throw new IllegalArgumentException("Unsupported notification type: " + notification.getType());
+        }
+    }
+    
+    // 规范化收件人格式（去掉手机号中的分隔符、邮箱域名转小写），无法规范化为合法格式时拒绝
+    private String normalizeRecipient(String recipient, NotificationType type) {
+        switch (type) {
+            case SMS:
+                String phoneNumber = RecipientValidators.normalizePhoneNumber(recipient);
+                if (phoneNumber == null || !twilioAdapter.isValidPhoneNumber(phoneNumber)) {
+                    throw new IllegalArgumentException("Invalid phone number format");
+                }
+                return phoneNumber;
+            case EMAIL:
+                String email = RecipientValidators.normalizeEmail(recipient);
+                if (email == null || !sesAdapter.isValidEmail(email)) {
+                    throw new IllegalArgumentException("Invalid email address format");
+                }
+                return email;
+            case PUSH:
+                if (!pushAdapter.isValidDeviceToken(recipient)) {
+                    throw new IllegalArgumentException("Invalid device token");
+                }
+                return recipient;
             default:
                 throw new IllegalArgumentException("Unsupported notification type: " + type);
         }
@@ -111,68 +359,25 @@ public class NotificationService {
         return notificationRepository.findById(notificationId);
     }
     
-    public List<Notification> getNotificationsByCustomer(String customerId) {
-        return notificationRepository.findByCustomerId(customerId);
+    public Slice<Notification> getNotificationsByCustomer(String customerId, int page, int size) {
+        return notificationRepository.findByCustomerId(customerId, pageRequest(page, size));
     }
     
-    public List<Notification> getNotificationsByOrder(String orderId) {
-        return notificationRepository.findByOrderId(orderId);
+    public Slice<Notification> getNotificationsByOrder(String orderId, int page, int size) {
+        return notificationRepository.findByOrderId(orderId, pageRequest(page, size));
     }
     
-    public List<Notification> getNotificationsByStatus(NotificationStatus status) {
-        return notificationRepository.findByStatus(status);
+    public Slice<Notification> getNotificationsByStatus(NotificationStatus status, int page, int size) {
+        return notificationRepository.findByStatus(status, pageRequest(page, size));
     }
     
-    public void retryFailedNotifications() {
-        List<Notification> failedNotifications = notificationRepository.findByStatus(NotificationStatus.FAILED);
-        
-        for (Notification notification : failedNotifications) {
-            try {
-                switch (notification.getType()) {
-                    case SMS:
-                        String messageSid = twilioAdapter.sendSMS(notification.getRecipient(), 
-                                                                notification.getContent());
-                        notification.setExternalId(messageSid);
-                        break;
-                    case EMAIL:
-                        String[] parts = notification.getContent().split("\n", 2);
-                        String subject = parts.length > 1 ? parts[0] : "通知";
-                        String content = parts.length > 1 ? parts[1] : notification.getContent();
-                        
-                        String messageId = sesAdapter.sendEmail(notification.getRecipient(), 
-                                                              subject, content);
-                        notification.setExternalId(messageId);
-                        break;
-                }
-                
-                notification.setStatus(NotificationStatus.SENT);
-                notification.setSentAt(LocalDateTime.now());
-                notification.setErrorMessage(null);
-                
-            } catch (Exception e) {
-                notification.setErrorMessage(e.getMessage());
-            }
-            
-            notificationRepository.save(notification);
-        }
+    public int retryFailedNotifications() {
+        return retryScheduler.processDueRetries();
     }
     
-    private String generateOrderNotificationContent(String orderId, String orderStatus) {
-        switch (orderStatus.toLowerCase()) {
-            case "confirmed":
-                return "您的订单 " + orderId + " 已确认，餐厅正在准备中。";
-            case "preparing":
-                return "您的订单 " + orderId + " 正在制作中，预计15-20分钟完成。";
-            case "ready_for_pickup":
-                return "您的订单 " + orderId + " 已准备就绪，配送员即将取餐。";
-            case "out_for_delivery":
-                return "您的订单 " + orderId + " 正在配送中，预计10-15分钟送达。";
-            case "delivered":
-                return "您的订单 " + orderId + " 已送达，感谢您的选择！";
-            case "cancelled":
-                return "很抱歉，您的订单 " + orderId + " 已取消。";
-            default:
-                return "您的订单 " + orderId + " 状态已更新为：" + orderStatus;
-        }
+    // 最新的通知在前；用 Slice 避免在大表上执行 COUNT 查询
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), maxPageSize),
+                              Sort.by(Sort.Direction.DESC, "createdAt"));
     }
 }
\ No newline at end of file
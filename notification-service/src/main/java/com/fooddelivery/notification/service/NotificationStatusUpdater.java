@@ -0,0 +1,167 @@
+package com.fooddelivery.notification.service;
+
+import com.fooddelivery.notification.model.Notification;
+import com.fooddelivery.notification.model.NotificationStatus;
+import com.fooddelivery.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// 汇总提供商回调和状态巡检得到的投递状态，按批次在一个事务内写回数据库。
+// SENT 之后的状态只由这里写入，提供商报告投递失败的通知按重试策略安排下一次发送
+@Component
+public class NotificationStatusUpdater {
+    
+    @Autowired
+    private NotificationRepository notificationRepository;
+    
+    @Autowired
+    private NotificationRetryPolicy retryPolicy;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${notification.status-sync.queue-capacity:100000}")
+    private int queueCapacity;
+    
+    @Value("${notification.status-sync.batch-size:500}")
+    private int batchSize;
+    
+    private BlockingQueue<StatusUpdate> pendingUpdates;
+    
+    // 写库失败的批次，下次刷新时最先重试；这些更新的回调已经应答，丢弃后提供商不会重发
+    private final List<StatusUpdate> unapplied = new ArrayList<>();
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private Counter deliveredCounter;
+    
+    private Counter failedCounter;
+    
+    private Counter flushFailureCounter;
+    
+    @PostConstruct
+    public void init() {
+        this.pendingUpdates = new LinkedBlockingQueue<>(queueCapacity);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveredCounter = Counter.builder("notification.status.updates").tag("status", "DELIVERED").register(meterRegistry);
+        this.failedCounter = Counter.builder("notification.status.updates").tag("status", "FAILED").register(meterRegistry);
+        this.flushFailureCounter = Counter.builder("notification.status.flush.failures").register(meterRegistry);
+    }
+    
+    // 队列已满时返回 false，回调接口据此返回错误码让提供商稍后重发
+    public boolean submit(String externalId, NotificationStatus status, String errorMessage) {
+        if (externalId == null || status == null) {
+            return true;
+        }
+        return pendingUpdates.offer(new StatusUpdate(externalId, status, errorMessage));
+    }
+    
+    @Scheduled(fixedDelayString = "${notification.status-sync.flush-interval-ms:500}")
+    public void flush() {
+        List<StatusUpdate> batch = new ArrayList<>(unapplied);
+        unapplied.clear();
+        while (!batch.isEmpty() || pendingUpdates.drainTo(batch, batchSize) > 0) {
+            try {
+                apply(batch);
+            } catch (RuntimeException e) {
+                // 事务已回滚，整批留到下次刷新重试，其余更新继续在队列中等待
+                unapplied.addAll(batch);
+                flushFailureCounter.increment();
+                return;
+            }
+            batch.clear();
+        }
+    }
+    
+    private void apply(List<StatusUpdate> batch) {
+        // 相同目标状态和错误信息的更新合并为一条 UPDATE ... WHERE external_id IN (...)
+        Map<GroupKey, List<String>> groups = new HashMap<>();
+        for (StatusUpdate update : batch) {
+            groups.computeIfAbsent(new GroupKey(update.status, update.errorMessage), k -> new ArrayList<>())
+                  .add(update.externalId);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (Map.Entry<GroupKey, List<String>> group : groups.entrySet()) {
+                if (group.getKey().status == NotificationStatus.FAILED) {
+                    failedCounter.increment(recordFailures(group.getValue(), group.getKey().errorMessage));
+                    continue;
+                }
+                int updated = notificationRepository.updateDeliveryStatus(
+                    group.getValue(),
+                    NotificationStatus.SENT,
+                    group.getKey().status,
+                    now,
+                    group.getKey().errorMessage);
+                deliveredCounter.increment(updated);
+            }
+        });
+    }
+    
+    // 投递失败计为一次失败的发送尝试：未达到最大次数时设置 next_attempt_at 交给重试调度器重发，
+    // 否则转入死信。每条通知的尝试次数不同，不能合并成一条 UPDATE
+    private int recordFailures(List<String> externalIds, String errorMessage) {
+        List<Notification> notifications =
+            notificationRepository.findByExternalIdInAndStatus(externalIds, NotificationStatus.SENT);
+        for (Notification notification : notifications) {
+            retryPolicy.recordFailure(notification, errorMessage);
+        }
+        notificationRepository.saveAll(notifications);
+        return notifications.size();
+    }
+    
+    private static final class StatusUpdate {
+        private final String externalId;
+        private final NotificationStatus status;
+        private final String errorMessage;
+        
+        StatusUpdate(String externalId, NotificationStatus status, String errorMessage) {
+            this.externalId = externalId;
+            this.status = status;
+            this.errorMessage = errorMessage;
+        }
+    }
+    
+    private static final class GroupKey {
+        private final NotificationStatus status;
+        private final String errorMessage;
+        
+        GroupKey(NotificationStatus status, String errorMessage) {
+            this.status = status;
+            this.errorMessage = errorMessage;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GroupKey)) return false;
+            GroupKey other = (GroupKey) o;
+            return status == other.status && Objects.equals(errorMessage, other.errorMessage);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, errorMessage);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.fooddelivery.notification.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 预编译模板：源文本在加载时被拆分为字面量片段和变量槽位，
+// 渲染时只做一次按精确容量分配的拼接
+public final class CompiledTemplate {
+    
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    
+    private final String[] literals; // 长度总是 slots.length + 1
+    private final int[] slots;
+    private final int literalLength;
+    
+    private CompiledTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+    
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template: " + source);
+            }
+            
+            literals.add(source.substring(position, open));
+            String name = source.substring(open + OPEN.length(), close).trim();
+            slots.add(TemplateVariable.fromPlaceholder(name).ordinal());
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position));
+        
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) {
+            slotArray[i] = slots.get(i);
+        }
+        return new CompiledTemplate(literals.toArray(new String[0]), slotArray);
+    }
+    
+    // values 按 TemplateVariable.ordinal() 索引，缺失的变量渲染为空字符串
+    public String render(String[] values) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        
+        int capacity = literalLength;
+        for (int slot : slots) {
+            String value = values[slot];
+            if (value != null) {
+                capacity += value.length();
+            }
+        }
+        
+        StringBuilder out = new StringBuilder(capacity);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            String value = values[slots[i]];
+            if (value != null) {
+                out.append(value);
+            }
+        }
+        out.append(literals[slots.length]);
+        return out.toString();
+    }
+}
@@ -0,0 +1,217 @@
+package com.fooddelivery.notification.template;
+
+import com.fooddelivery.notification.model.NotificationType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+@Component
+public class NotificationTemplateEngine {
+    
+    private static final String DEFAULT_STATUS = "default";
+    private static final String FILE_PREFIX = "templates_";
+    private static final String FILE_SUFFIX = ".properties";
+    private static final int VARIABLE_COUNT = TemplateVariable.values().length;
+    
+    @Value("${notification.templates.locales:zh_CN,en_US}")
+    private String[] locales;
+    
+    @Value("${notification.templates.default-locale:zh_CN}")
+    private String defaultLocale;
+    
+    // 本地模板目录，其中的 templates_<locale>.properties 会覆盖内置模板并支持热加载
+    @Value("${notification.templates.dir:}")
+    private String templatesDir;
+    
+    // 语言 -> 通知类型 -> 订单状态 -> 模板，整体不可变，热加载时整体替换
+    private volatile Map<String, Map<NotificationType, Map<String, MessageTemplate>>> templates;
+    
+    private volatile long loadedVersion;
+    
+    @PostConstruct
+    public void init() {
+        loadedVersion = directoryVersion();
+        templates = loadTemplates();
+    }
+    
+    @Scheduled(fixedDelayString = "${notification.templates.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (templatesDir.isEmpty()) {
+            return;
+        }
+        
+        long version = directoryVersion();
+        if (version == loadedVersion) {
+            return;
+        }
+        
+        try {
+            templates = loadTemplates();
+            loadedVersion = version;
+        } catch (RuntimeException e) {
+            // 模板文件有误时继续使用当前生效的模板，下个周期再尝试加载
+        }
+    }
+    
+    public RenderedMessage render(NotificationType type, String orderStatus, String locale,
+                                  String orderId, String customerId) {
+        MessageTemplate template = lookup(type, orderStatus.toLowerCase(Locale.ROOT), normalizeLocale(locale));
+        
+        String[] values = new String[VARIABLE_COUNT];
+        values[TemplateVariable.ORDER_ID.ordinal()] = orderId;
+        values[TemplateVariable.ORDER_STATUS.ordinal()] = orderStatus;
+        values[TemplateVariable.CUSTOMER_ID.ordinal()] = customerId;
+        
+        String subject = template.subject != null ? template.subject.render(values) : null;
+        return new RenderedMessage(subject, template.body.render(values));
+    }
+    
+    private MessageTemplate lookup(NotificationType type, String status, String locale) {
+        Map<String, Map<NotificationType, Map<String, MessageTemplate>>> current = templates;
+        
+        MessageTemplate template = find(current.get(locale), type, status);
+        if (template == null && !defaultLocale.equals(locale)) {
+            template = find(current.get(defaultLocale), type, status);
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("No template for notification type: " + type);
+        }
+        return template;
+    }
+    
+    private MessageTemplate find(Map<NotificationType, Map<String, MessageTemplate>> byType,
+                                 NotificationType type, String status) {
+        if (byType == null) {
+            return null;
+        }
+        Map<String, MessageTemplate> byStatus = byType.get(type);
+        if (byStatus == null) {
+            return null;
+        }
+        MessageTemplate template = byStatus.get(status);
+        return template != null ? template : byStatus.get(DEFAULT_STATUS);
+    }
+    
+    private String normalizeLocale(String locale) {
+        if (locale == null || locale.isEmpty()) {
+            return defaultLocale;
+        }
+        return locale.indexOf('-') >= 0 ? locale.replace('-', '_') : locale;
+    }
+    
+    private Map<String, Map<NotificationType, Map<String, MessageTemplate>>> loadTemplates() {
+        Map<String, Map<NotificationType, Map<String, MessageTemplate>>> loaded = new HashMap<>();
+        
+        for (String locale : locales) {
+            Properties properties = new Properties();
+            
+            ClassPathResource resource = new ClassPathResource("notification-templates/" + FILE_PREFIX + locale + FILE_SUFFIX);
+            if (resource.exists()) {
+                try (InputStream in = resource.getInputStream()) {
+                    load(properties, in);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to load templates for " + locale + ": " + e.getMessage(), e);
+                }
+            }
+            
+            if (!templatesDir.isEmpty()) {
+                File file = new File(templatesDir, FILE_PREFIX + locale + FILE_SUFFIX);
+                if (file.isFile()) {
+                    try (InputStream in = Files.newInputStream(file.toPath())) {
+                        load(properties, in);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to load templates from " + file + ": " + e.getMessage(), e);
+                    }
+                }
+            }
+            
+            loaded.put(locale, compile(properties));
+        }
+        
+        return Collections.unmodifiableMap(loaded);
+    }
+    
+    private void load(Properties properties, InputStream in) throws IOException {
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+    }
+    
+    // 键格式: <通知类型>.<订单状态>[.subject]；未单独配置主题的状态使用 default 主题
+    private Map<NotificationType, Map<String, MessageTemplate>> compile(Properties properties) {
+        Map<NotificationType, Map<String, CompiledTemplate>> bodies = new EnumMap<>(NotificationType.class);
+        Map<NotificationType, Map<String, CompiledTemplate>> subjects = new EnumMap<>(NotificationType.class);
+        
+        for (String key : properties.stringPropertyNames()) {
+            String[] parts = key.split("\\.");
+            boolean subject = parts.length == 3 && "subject".equals(parts[2]);
+            if (parts.length != 2 && !subject) {
+                throw new IllegalArgumentException("Invalid template key: " + key);
+            }
+            
+            NotificationType type = NotificationType.valueOf(parts[0].toUpperCase(Locale.ROOT));
+            String status = parts[1].toLowerCase(Locale.ROOT);
+            CompiledTemplate compiled = CompiledTemplate.compile(properties.getProperty(key));
+            
+            (subject ? subjects : bodies).computeIfAbsent(type, t -> new HashMap<>()).put(status, compiled);
+        }
+        
+        Map<NotificationType, Map<String, MessageTemplate>> result = new EnumMap<>(NotificationType.class);
+        for (Map.Entry<NotificationType, Map<String, CompiledTemplate>> typeEntry : bodies.entrySet()) {
+            Map<String, CompiledTemplate> typeSubjects = subjects.getOrDefault(typeEntry.getKey(), Collections.emptyMap());
+            CompiledTemplate defaultSubject = typeSubjects.get(DEFAULT_STATUS);
+            
+            Map<String, MessageTemplate> byStatus = new HashMap<>();
+            for (Map.Entry<String, CompiledTemplate> statusEntry : typeEntry.getValue().entrySet()) {
+                CompiledTemplate subject = typeSubjects.getOrDefault(statusEntry.getKey(), defaultSubject);
+                byStatus.put(statusEntry.getKey(), new MessageTemplate(subject, statusEntry.getValue()));
+            }
+            result.put(typeEntry.getKey(), byStatus);
+        }
+        return result;
+    }
+    
+    private long directoryVersion() {
+        if (templatesDir.isEmpty()) {
+            return 0L;
+        }
+        File[] files = new File(templatesDir).listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return 0L;
+        }
+        
+        long version = files.length;
+        for (File file : files) {
+            version = 31 * version + file.getName().hashCode();
+            version = 31 * version + file.lastModified();
+            version = 31 * version + file.length();
+        }
+        return version;
+    }
+    
+    private static final class MessageTemplate {
+        private final CompiledTemplate subject;
+        private final CompiledTemplate body;
+        
+        MessageTemplate(CompiledTemplate subject, CompiledTemplate body) {
+            this.subject = subject;
+            this.body = body;
+        }
+    }
+}
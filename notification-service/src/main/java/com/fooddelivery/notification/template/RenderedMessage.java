@@ -0,0 +1,16 @@
+package com.fooddelivery.notification.template;
+
+public class RenderedMessage {
+    
+    private final String subject; // 仅邮件使用
+    private final String body;
+    
+    public RenderedMessage(String subject, String body) {
+        this.subject = subject;
+        this.body = body;
+    }
+    
+    public String getSubject() { return subject; }
+    
+    public String getBody() { return body; }
+}
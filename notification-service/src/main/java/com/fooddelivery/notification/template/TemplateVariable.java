@@ -0,0 +1,25 @@
+package com.fooddelivery.notification.template;
+
+// 模板中可用的占位符，编译时解析为数组下标，渲染时无需按名称查找
+public enum TemplateVariable {
+    ORDER_ID("orderId"),
+    ORDER_STATUS("orderStatus"),
+    CUSTOMER_ID("customerId");
+    
+    private final String placeholder;
+    
+    TemplateVariable(String placeholder) {
+        this.placeholder = placeholder;
+    }
+    
+    public String getPlaceholder() { return placeholder; }
+    
+    public static TemplateVariable fromPlaceholder(String placeholder) {
+        for (TemplateVariable variable : values()) {
+            if (variable.placeholder.equals(placeholder)) {
+                return variable;
+            }
+        }
+        throw new IllegalArgumentException("Unknown template variable: " + placeholder);
+    }
+}
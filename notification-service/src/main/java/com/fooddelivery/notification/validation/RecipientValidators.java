@@ -0,0 +1,142 @@
+package com.fooddelivery.notification.validation;
+
+// 手写的收件人校验器，替代逐次编译或匹配正则表达式。
+// 校验结果与原有正则保持一致：
+//   手机号: ^\+[1-9]\d{1,14}$ (E.164)
+//   邮箱:   ^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\.[A-Za-z]{2,})$
+// 校验过程不分配内存，只有规范化方法在需要时创建新字符串
+public final class RecipientValidators {
+    
+    private static final int E164_MAX_DIGITS = 15;
+    
+    private RecipientValidators() {
+    }
+    
+    public static boolean isValidE164(CharSequence phoneNumber) {
+        if (phoneNumber == null) {
+            return false;
+        }
+        int length = phoneNumber.length();
+        if (length < 3 || length > E164_MAX_DIGITS + 1 || phoneNumber.charAt(0) != '+') {
+            return false;
+        }
+        char first = phoneNumber.charAt(1);
+        if (first < '1' || first > '9') {
+            return false;
+        }
+        for (int i = 2; i < length; i++) {
+            if (!isDigit(phoneNumber.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public static boolean isValidEmail(CharSequence email) {
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+        
+        // 本地部分：至少一个允许的字符，直到 '@'
+        int at = 0;
+        while (at < length && isLocalChar(email.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at == length || email.charAt(at) != '@') {
+            return false;
+        }
+        
+        // 域名部分：只包含字母、数字、'.'、'-'，最后一个 '.' 之前至少一个字符，之后至少两个字母
+        int lastDot = -1;
+        for (int i = at + 1; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+            } else if (!isLetter(c) && !isDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        if (lastDot <= at + 1 || length - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < length; i++) {
+            if (!isLetter(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // 去掉常见的分隔符（空格、'-'、'.'、括号），并把国际前缀 "00" 转为 '+'；
+    // 结果仍不是合法 E.164 时返回 null
+    public static String normalizePhoneNumber(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        if (isValidE164(phoneNumber)) {
+            return phoneNumber;
+        }
+        
+        StringBuilder normalized = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (isDigit(c) || (c == '+' && normalized.length() == 0)) {
+                normalized.append(c);
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return null;
+            }
+        }
+        if (normalized.length() > 2 && normalized.charAt(0) == '0' && normalized.charAt(1) == '0') {
+            normalized.replace(0, 2, "+");
+        }
+        return isValidE164(normalized) ? normalized.toString() : null;
+    }
+    
+    // 去掉首尾空白并把域名转为小写（本地部分大小写保持不变）；结果不合法时返回 null
+    public static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String trimmed = email.trim();
+        int at = trimmed.indexOf('@');
+        if (at < 0) {
+            return null;
+        }
+        
+        boolean hasUpperCaseDomain = false;
+        for (int i = at + 1; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                hasUpperCaseDomain = true;
+                break;
+            }
+        }
+        String normalized = hasUpperCaseDomain
+            ? trimmed.substring(0, at + 1) + toLowerAscii(trimmed.substring(at + 1))
+            : trimmed;
+        return isValidEmail(normalized) ? normalized : null;
+    }
+    
+    private static String toLowerAscii(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+    
+    private static boolean isLocalChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+}
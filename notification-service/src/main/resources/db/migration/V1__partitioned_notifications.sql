@@ -0,0 +1,112 @@
+-- 通知表按 created_at 按月分区，过期分区由 NotificationPartitionMaintenance 整体删除
+
+-- 之前由 Hibernate ddl-auto 创建的非分区表先改名，数据迁移到分区表后删除
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class c
+               JOIN pg_namespace n ON n.oid = c.relnamespace
+               WHERE c.relname = 'notifications' AND c.relkind = 'r' AND n.nspname = current_schema()) THEN
+        ALTER TABLE notifications RENAME TO notifications_legacy;
+    END IF;
+END $$;
+
+CREATE TABLE notifications (
+    id                    BIGSERIAL     NOT NULL,
+    recipient             VARCHAR(255)  NOT NULL,
+    content               VARCHAR(1000) NOT NULL,
+    type                  VARCHAR(255),
+    status                VARCHAR(255),
+    created_at            TIMESTAMP     NOT NULL,
+    sent_at               TIMESTAMP,
+    delivered_at          TIMESTAMP,
+    last_status_check_at  TIMESTAMP,
+    external_id           VARCHAR(255),
+    error_message         VARCHAR(255),
+    order_id              VARCHAR(255),
+    customer_id           VARCHAR(255),
+    attempt_count         INTEGER,
+    next_attempt_at       TIMESTAMP,
+    claimed_by            VARCHAR(255),
+    claimed_until         TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- 在父表上创建的索引会自动应用到所有分区
+CREATE INDEX idx_notifications_customer ON notifications (customer_id, created_at DESC);
+CREATE INDEX idx_notifications_order ON notifications (order_id, created_at DESC);
+CREATE INDEX idx_notifications_status ON notifications (status, created_at DESC);
+CREATE INDEX idx_notifications_type ON notifications (type, created_at DESC);
+CREATE INDEX idx_notifications_recipient ON notifications (recipient, created_at DESC);
+CREATE INDEX idx_notifications_external_id ON notifications (external_id);
+CREATE INDEX idx_notifications_retry ON notifications (status, next_attempt_at);
+CREATE INDEX idx_notifications_status_sent ON notifications (status, sent_at);
+
+CREATE OR REPLACE FUNCTION create_notifications_partition(month_start DATE) RETURNS VOID AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', month_start)::DATE;
+    partition_end DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'notifications_p' || to_char(date_trunc('month', month_start), 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    -- 默认分区里已有该月的行时无法直接创建分区，先建独立表，把这些行移过去再挂载
+    EXECUTE format('CREATE TABLE %I (LIKE notifications INCLUDING DEFAULTS)', partition_name);
+    IF to_regclass('notifications_default') IS NOT NULL THEN
+        EXECUTE format('WITH moved AS (DELETE FROM notifications_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved',
+                       partition_start, partition_end, partition_name);
+    END IF;
+    EXECUTE format('ALTER TABLE notifications ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_start, partition_end);
+END;
+$$ LANGUAGE plpgsql;
+
+-- 不在任何月分区范围内的行（时钟异常或维护任务没跟上）落入默认分区，避免插入失败
+CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+
+-- 创建覆盖历史数据以及未来两个月的分区，然后迁移历史数据
+DO $$
+DECLARE
+    first_month DATE := date_trunc('month', now())::DATE;
+    month_cursor DATE;
+BEGIN
+    IF to_regclass('notifications_legacy') IS NOT NULL THEN
+        EXECUTE 'SELECT COALESCE(date_trunc(''month'', min(created_at))::DATE, $1) FROM notifications_legacy'
+            INTO first_month USING first_month;
+    END IF;
+
+    month_cursor := first_month;
+    WHILE month_cursor <= (date_trunc('month', now()) + INTERVAL '2 months')::DATE LOOP
+        PERFORM create_notifications_partition(month_cursor);
+        month_cursor := (month_cursor + INTERVAL '1 month')::DATE;
+    END LOOP;
+
+    IF to_regclass('notifications_legacy') IS NOT NULL THEN
+        -- 旧表可能早于重试、投递状态和认领字段，缺的列先补上再整体复制
+        ALTER TABLE notifications_legacy
+            ADD COLUMN IF NOT EXISTS delivered_at TIMESTAMP,
+            ADD COLUMN IF NOT EXISTS last_status_check_at TIMESTAMP,
+            ADD COLUMN IF NOT EXISTS attempt_count INTEGER,
+            ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP,
+            ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(255),
+            ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP;
+
+        -- 没有下次重试时间的失败通知立即到期，否则 claimDueRetries 永远认领不到
+        INSERT INTO notifications (id, recipient, content, type, status, created_at, sent_at, delivered_at,
+                                   last_status_check_at, external_id, error_message, order_id, customer_id,
+                                   attempt_count, next_attempt_at, claimed_by, claimed_until)
+        SELECT id, recipient, content, type, status, created_at, sent_at, delivered_at,
+               last_status_check_at, external_id, error_message, order_id, customer_id,
+               COALESCE(attempt_count, 0),
+               CASE WHEN status = 'FAILED' THEN COALESCE(next_attempt_at, now()) ELSE next_attempt_at END,
+               claimed_by, claimed_until
+        FROM notifications_legacy;
+
+        PERFORM setval(pg_get_serial_sequence('notifications', 'id'),
+                       (SELECT COALESCE(max(id), 0) + 1 FROM notifications), false);
+
+        DROP TABLE notifications_legacy;
+    END IF;
+END $$;
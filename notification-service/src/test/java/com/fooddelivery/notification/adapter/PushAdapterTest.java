@@ -0,0 +1,223 @@
+package com.fooddelivery.notification.adapter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 本地桩服务模拟 FCM HTTP v1 的 messages:send 接口。JDK 自带的 HttpServer 只支持 HTTP/1.1，
+// 客户端发出的 h2c 升级请求会被忽略并回落到 HTTP/1.1，这里验证的是请求格式、结果映射和并发上限
+class PushAdapterTest {
+    
+    private static final String PROJECT_ID = "food-delivery-test";
+    private static final String SEND_PATH = "/v1/projects/" + PROJECT_ID + "/messages:send";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final ConcurrentLinkedQueue<JsonNode> received = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> authorizations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    
+    private volatile long responseDelayMs;
+    
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server.setExecutor(serverExecutor);
+        server.createContext(SEND_PATH, this::handleSend);
+        server.start();
+    }
+    
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+    
+    @Test
+    void sendsFcmV1RequestWithAccessToken() {
+        PushAdapter adapter = newAdapter(2, 10);
+        
+        String messageId = adapter.sendPush("token-1", "订单状态更新", "您的订单已确认");
+        
+        assertEquals("projects/" + PROJECT_ID + "/messages/token-1", messageId);
+        assertEquals("Bearer test-access-token", authorizations.peek());
+        JsonNode message = received.peek().get("message");
+        assertEquals("token-1", message.get("token").asText());
+        assertEquals("订单状态更新", message.get("notification").get("title").asText());
+        assertEquals("您的订单已确认", message.get("notification").get("body").asText());
+    }
+    
+    @Test
+    void omitsMissingTitle() {
+        newAdapter(1, 10).sendPush("token-1", null, "body");
+        
+        assertFalse(received.peek().get("message").get("notification").has("title"));
+    }
+    
+    @Test
+    void providerErrorsFailSinglePush() {
+        PushAdapter adapter = newAdapter(1, 10);
+        
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> adapter.sendPush("unregistered-1", "t", "b"));
+        assertTrue(error.getMessage().contains("404"), error.getMessage());
+    }
+    
+    @Test
+    void batchResultsFollowInputOrder() {
+        PushAdapter adapter = newAdapter(4, 50);
+        List<PushMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            messages.add(new PushMessage((i % 7 == 0 ? "unregistered-" : "token-") + i, "t", "b"));
+        }
+        
+        List<PushResult> results = adapter.sendBatch(messages);
+        
+        assertEquals(200, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            PushResult result = results.get(i);
+            if (i % 7 == 0) {
+                assertFalse(result.isSuccess());
+                assertNull(result.getMessageId());
+                assertTrue(result.getErrorMessage().contains("404"), result.getErrorMessage());
+            } else {
+                assertTrue(result.isSuccess());
+                assertEquals("projects/" + PROJECT_ID + "/messages/token-" + i, result.getMessageId());
+            }
+        }
+        assertEquals(200, received.size());
+    }
+    
+    @Test
+    void batchNeverExceedsConcurrentRequestLimit() {
+        responseDelayMs = 20;
+        PushAdapter adapter = newAdapter(4, 5);
+        List<PushMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            messages.add(new PushMessage("token-" + i, "t", "b"));
+        }
+        
+        List<PushResult> results = adapter.sendBatch(messages);
+        
+        for (PushResult result : results) {
+            assertTrue(result.isSuccess(), result.getErrorMessage());
+        }
+        assertTrue(maxInFlight.get() <= 5, "max in flight " + maxInFlight.get());
+    }
+    
+    @Test
+    void unreachableProviderFailsEachMessage() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = socket.getLocalPort();
+        }
+        PushAdapter adapter = newAdapter("http://127.0.0.1:" + closedPort, 1, 10);
+        
+        List<PushResult> results = adapter.sendBatch(List.of(new PushMessage("token-1", "t", "b"),
+                new PushMessage("token-2", "t", "b")));
+        
+        assertFalse(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+    }
+    
+    @Test
+    void validatesDeviceTokens() {
+        PushAdapter adapter = newAdapter(1, 1);
+        
+        assertTrue(adapter.isValidDeviceToken("fcm-device-token:APA91b"));
+        assertFalse(adapter.isValidDeviceToken(null));
+        assertFalse(adapter.isValidDeviceToken(""));
+        assertFalse(adapter.isValidDeviceToken("token with space"));
+        assertFalse(adapter.isValidDeviceToken("令牌"));
+        assertFalse(adapter.isValidDeviceToken("x".repeat(4097)));
+    }
+    
+    private PushAdapter newAdapter(int connections, int maxConcurrentRequests) {
+        return newAdapter("http://127.0.0.1:" + server.getAddress().getPort(), connections, maxConcurrentRequests);
+    }
+    
+    private PushAdapter newAdapter(String endpoint, int connections, int maxConcurrentRequests) {
+        PushAdapter adapter = new PushAdapter();
+        ReflectionTestUtils.setField(adapter, "endpoint", endpoint);
+        ReflectionTestUtils.setField(adapter, "projectId", PROJECT_ID);
+        ReflectionTestUtils.setField(adapter, "credentialsFile", "");
+        ReflectionTestUtils.setField(adapter, "connections", connections);
+        ReflectionTestUtils.setField(adapter, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(adapter, "requestTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(adapter, "maxConcurrentRequests", maxConcurrentRequests);
+        ReflectionTestUtils.setField(adapter, "objectMapper", objectMapper);
+        // 预置未过期的访问令牌，测试中不会访问 Google 的令牌接口
+        ReflectionTestUtils.setField(adapter, "credentials", GoogleCredentials.create(
+                new AccessToken("test-access-token", new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))));
+        adapter.init();
+        return adapter;
+    }
+    
+    // 以 unregistered- 开头的令牌按 FCM 的 UNREGISTERED 错误返回 404
+    private void handleSend(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            received.add(body);
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            if (responseDelayMs > 0) {
+                Thread.sleep(responseDelayMs);
+            }
+            
+            String token = body.path("message").path("token").asText();
+            if (token.startsWith("unregistered-")) {
+                respond(exchange, 404, "{\"error\":{\"code\":404,\"status\":\"NOT_FOUND\",\"message\":\"UNREGISTERED\"}}");
+            } else {
+                respond(exchange, 200, "{\"name\":\"projects/" + PROJECT_ID + "/messages/" + token + "\"}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, "{}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
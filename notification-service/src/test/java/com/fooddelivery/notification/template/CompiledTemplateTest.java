@@ -0,0 +1,58 @@
+package com.fooddelivery.notification.template;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledTemplateTest {
+    
+    @Test
+    void rendersLiteralsAndVariablesInOrder() {
+        CompiledTemplate template = CompiledTemplate.compile("订单 {{orderId}} 状态：{{ orderStatus }}（{{customerId}}）");
+        
+        assertEquals("订单 1001 状态：CONFIRMED（c-7）", template.render(values("1001", "CONFIRMED", "c-7")));
+    }
+    
+    @Test
+    void rendersMissingVariablesAsEmpty() {
+        CompiledTemplate template = CompiledTemplate.compile("{{orderId}}-{{customerId}}");
+        
+        assertEquals("1001-", template.render(values("1001", null, null)));
+    }
+    
+    @Test
+    void returnsTheSourceForTemplatesWithoutPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("感谢您的选择");
+        String[] values = values("1001", "DELIVERED", "c-7");
+        
+        assertEquals("感谢您的选择", template.render(values));
+        assertSame(template.render(values), template.render(values));
+    }
+    
+    @Test
+    void handlesAdjacentAndEdgePlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("{{orderId}}{{orderStatus}}");
+        
+        assertEquals("1001READY", template.render(values("1001", "READY", null)));
+    }
+    
+    @Test
+    void rejectsUnclosedPlaceholders() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("订单 {{orderId"));
+    }
+    
+    @Test
+    void rejectsUnknownVariables() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("{{driverId}}"));
+    }
+    
+    static String[] values(String orderId, String orderStatus, String customerId) {
+        String[] values = new String[TemplateVariable.values().length];
+        values[TemplateVariable.ORDER_ID.ordinal()] = orderId;
+        values[TemplateVariable.ORDER_STATUS.ordinal()] = orderStatus;
+        values[TemplateVariable.CUSTOMER_ID.ordinal()] = customerId;
+        return values;
+    }
+}
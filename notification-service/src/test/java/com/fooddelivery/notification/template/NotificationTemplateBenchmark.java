@@ -0,0 +1,59 @@
+package com.fooddelivery.notification.template;
+
+import com.fooddelivery.notification.model.NotificationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// 单条通知的渲染开销：查找模板（语言、类型、状态）加拼接，以及只做拼接的下限
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationTemplateBenchmark {
+    
+    private NotificationTemplateEngine engine;
+    private CompiledTemplate template;
+    private String[] values;
+    
+    @Setup
+    public void setUp() {
+        engine = new NotificationTemplateEngine();
+        ReflectionTestUtils.setField(engine, "locales", new String[] {"zh_CN", "en_US"});
+        ReflectionTestUtils.setField(engine, "defaultLocale", "zh_CN");
+        ReflectionTestUtils.setField(engine, "templatesDir", "");
+        engine.init();
+        
+        template = CompiledTemplate.compile("您的订单 {{orderId}} 状态已更新为：{{orderStatus}}");
+        values = new String[TemplateVariable.values().length];
+        values[TemplateVariable.ORDER_ID.ordinal()] = "ORD-20240101-000123";
+        values[TemplateVariable.ORDER_STATUS.ordinal()] = "OUT_FOR_DELIVERY";
+    }
+    
+    @Benchmark
+    public RenderedMessage renderSms() {
+        return engine.render(NotificationType.SMS, "OUT_FOR_DELIVERY", "zh_CN", "ORD-20240101-000123", "c-7");
+    }
+    
+    @Benchmark
+    public RenderedMessage renderEmailWithLocaleFallback() {
+        return engine.render(NotificationType.EMAIL, "OUT_FOR_DELIVERY", "fr-FR", "ORD-20240101-000123", "c-7");
+    }
+    
+    @Benchmark
+    public String renderCompiledOnly() {
+        return template.render(values);
+    }
+}
@@ -0,0 +1,116 @@
+package com.fooddelivery.notification.template;
+
+import com.fooddelivery.notification.model.NotificationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NotificationTemplateEngineTest {
+    
+    @TempDir
+    Path templatesDir;
+    
+    private NotificationTemplateEngine engine;
+    
+    @BeforeEach
+    void setUp() {
+        engine = newEngine("");
+    }
+    
+    @Test
+    void rendersBundledTemplatesPerLocale() {
+        assertEquals("您的订单 1001 已确认，餐厅正在准备中。",
+                engine.render(NotificationType.SMS, "CONFIRMED", "zh_CN", "1001", "c-7").getBody());
+        assertEquals("Your order 1001 has been confirmed and the restaurant is preparing it.",
+                engine.render(NotificationType.SMS, "CONFIRMED", "en_US", "1001", "c-7").getBody());
+    }
+    
+    @Test
+    void acceptsLanguageTagsWithHyphens() {
+        assertEquals("Sorry, your order 1001 has been cancelled.",
+                engine.render(NotificationType.SMS, "cancelled", "en-US", "1001", "c-7").getBody());
+    }
+    
+    @Test
+    void fallsBackToTheDefaultLocaleAndStatus() {
+        assertEquals("您的订单 1001 已送达，感谢您的选择！",
+                engine.render(NotificationType.SMS, "DELIVERED", "fr_FR", "1001", "c-7").getBody());
+        assertEquals("您的订单 1001 已确认，餐厅正在准备中。",
+                engine.render(NotificationType.SMS, "CONFIRMED", null, "1001", "c-7").getBody());
+        assertEquals("Your order 1001 status has been updated to: REFUNDED",
+                engine.render(NotificationType.SMS, "REFUNDED", "en_US", "1001", "c-7").getBody());
+    }
+    
+    @Test
+    void rendersSubjectsOnlyWhereConfigured() {
+        RenderedMessage email = engine.render(NotificationType.EMAIL, "DELIVERED", "en_US", "1001", "c-7");
+        assertEquals("Order status update - 1001", email.getSubject());
+        
+        assertNull(engine.render(NotificationType.SMS, "DELIVERED", "en_US", "1001", "c-7").getSubject());
+    }
+    
+    @Test
+    void localDirectoryOverridesBundledTemplates() throws IOException {
+        write("templates_en_US.properties", "sms.confirmed=Order {{orderId}} confirmed\n");
+        NotificationTemplateEngine overridden = newEngine(templatesDir.toString());
+        
+        assertEquals("Order 1001 confirmed",
+                overridden.render(NotificationType.SMS, "CONFIRMED", "en_US", "1001", "c-7").getBody());
+        // 未覆盖的键仍使用内置模板
+        assertEquals("Sorry, your order 1001 has been cancelled.",
+                overridden.render(NotificationType.SMS, "CANCELLED", "en_US", "1001", "c-7").getBody());
+    }
+    
+    @Test
+    void reloadsChangedFilesAndKeepsTemplatesWhenAReloadFails() throws IOException {
+        Path file = write("templates_en_US.properties", "sms.confirmed=v1 {{orderId}}\n");
+        NotificationTemplateEngine reloading = newEngine(templatesDir.toString());
+        assertEquals("v1 1001", reloading.render(NotificationType.SMS, "CONFIRMED", "en_US", "1001", "c").getBody());
+        
+        write("templates_en_US.properties", "sms.confirmed=v2 {{orderId}}\n");
+        touch(file, 1);
+        reloading.reloadIfChanged();
+        assertEquals("v2 1001", reloading.render(NotificationType.SMS, "CONFIRMED", "en_US", "1001", "c").getBody());
+        
+        write("templates_en_US.properties", "sms.confirmed=v3 {{orderId\n");
+        touch(file, 2);
+        reloading.reloadIfChanged();
+        assertEquals("v2 1001", reloading.render(NotificationType.SMS, "CONFIRMED", "en_US", "1001", "c").getBody());
+    }
+    
+    @Test
+    void rejectsMalformedTemplateKeys() throws IOException {
+        write("templates_zh_CN.properties", "sms.bad.key.here=x\n");
+        
+        assertThrows(IllegalArgumentException.class, () -> newEngine(templatesDir.toString()));
+    }
+    
+    private NotificationTemplateEngine newEngine(String dir) {
+        NotificationTemplateEngine created = new NotificationTemplateEngine();
+        ReflectionTestUtils.setField(created, "locales", new String[] {"zh_CN", "en_US"});
+        ReflectionTestUtils.setField(created, "defaultLocale", "zh_CN");
+        ReflectionTestUtils.setField(created, "templatesDir", dir);
+        created.init();
+        return created;
+    }
+    
+    private Path write(String name, String content) throws IOException {
+        return Files.write(templatesDir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // 修改时间精度可能只有秒，显式推进以保证目录版本变化
+    private static void touch(Path file, int step) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + step * 10_000L));
+    }
+}
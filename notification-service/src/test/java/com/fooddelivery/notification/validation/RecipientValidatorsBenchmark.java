@@ -0,0 +1,89 @@
+package com.fooddelivery.notification.validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// 一次群发（1000 个收件人，约一成不合法）的校验开销：手写校验器与替换前的正则写法对比
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipientValidatorsBenchmark {
+    
+    private static final int RECIPIENTS = 1000;
+    
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$");
+    
+    private String[] phoneNumbers;
+    private String[] emails;
+    
+    @Setup
+    public void setUp() {
+        phoneNumbers = new String[RECIPIENTS];
+        emails = new String[RECIPIENTS];
+        for (int i = 0; i < RECIPIENTS; i++) {
+            boolean invalid = i % 10 == 0;
+            phoneNumbers[i] = invalid ? "138" + (10_000_000 + i) : "+86138" + (10_000_000 + i);
+            emails[i] = invalid ? "customer" + i + "@example" : "customer." + i + "@mail.example.com";
+        }
+    }
+    
+    @Benchmark
+    public int phoneHandWritten() {
+        int valid = 0;
+        for (String phoneNumber : phoneNumbers) {
+            if (RecipientValidators.isValidE164(phoneNumber)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+    
+    // 替换前 TwilioAdapter 的写法，每次调用都编译正则
+    @Benchmark
+    public int phoneStringMatches() {
+        int valid = 0;
+        for (String phoneNumber : phoneNumbers) {
+            if (phoneNumber.matches("^\\+[1-9]\\d{1,14}$")) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+    
+    @Benchmark
+    public int emailHandWritten() {
+        int valid = 0;
+        for (String email : emails) {
+            if (RecipientValidators.isValidEmail(email)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+    
+    // 替换前 SESAdapter 的写法，正则预编译
+    @Benchmark
+    public int emailPrecompiledPattern() {
+        int valid = 0;
+        for (String email : emails) {
+            if (EMAIL.matcher(email).matches()) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,168 @@
+package com.fooddelivery.notification.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 手写校验器必须与替换前的正则逐字符等价：固定样例 + 随机生成/变异的输入逐一对照
+class RecipientValidatorsTest {
+    
+    // 替换前 TwilioAdapter / SESAdapter 使用的正则
+    static final Pattern E164 = Pattern.compile("^\\+[1-9]\\d{1,14}$");
+    static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$");
+    
+    private static final int FUZZ_ITERATIONS = 200_000;
+    
+    // 偏向两种格式中有意义的字符，并混入空白、换行和非 ASCII 数字/字母
+    private static final char[] ALPHABET = (
+            "0123456789012345678901234567890123456789"
+            + "abcxyzABCXYZ"
+            + "+++@@@...---___"
+            + " \t\n()#%٠٣１é中"
+        ).toCharArray();
+    
+    @Test
+    void phoneExamples() {
+        assertTrue(RecipientValidators.isValidE164("+8613800138000"));
+        assertTrue(RecipientValidators.isValidE164("+12"));
+        assertTrue(RecipientValidators.isValidE164("+123456789012345"));
+        
+        assertFalse(RecipientValidators.isValidE164(null));
+        assertFalse(RecipientValidators.isValidE164(""));
+        assertFalse(RecipientValidators.isValidE164("+1"));
+        assertFalse(RecipientValidators.isValidE164("+0123"));
+        assertFalse(RecipientValidators.isValidE164("13800138000"));
+        assertFalse(RecipientValidators.isValidE164("+1234567890123456"));
+        assertFalse(RecipientValidators.isValidE164("+86 138"));
+        assertFalse(RecipientValidators.isValidE164("+86138\n"));
+        assertFalse(RecipientValidators.isValidE164("+86١٢"));
+    }
+    
+    @Test
+    void emailExamples() {
+        assertTrue(RecipientValidators.isValidEmail("user@example.com"));
+        assertTrue(RecipientValidators.isValidEmail("first.last+tag@mail.example.co"));
+        assertTrue(RecipientValidators.isValidEmail("a@b.cd"));
+        assertTrue(RecipientValidators.isValidEmail("a@-.cd"));
+        
+        assertFalse(RecipientValidators.isValidEmail(null));
+        assertFalse(RecipientValidators.isValidEmail("@example.com"));
+        assertFalse(RecipientValidators.isValidEmail("user@"));
+        assertFalse(RecipientValidators.isValidEmail("user@example"));
+        assertFalse(RecipientValidators.isValidEmail("user@.com"));
+        assertFalse(RecipientValidators.isValidEmail("user@example.c"));
+        assertFalse(RecipientValidators.isValidEmail("user@example.c0m"));
+        assertFalse(RecipientValidators.isValidEmail("us er@example.com"));
+        assertFalse(RecipientValidators.isValidEmail("user@@example.com"));
+        assertFalse(RecipientValidators.isValidEmail("user@example.com\n"));
+    }
+    
+    @Test
+    void phoneMatchesTheRegexOnRandomInput() {
+        Random random = new Random(20240601L);
+        for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+            String input = i % 2 == 0 ? randomString(random, 18) : mutate(random, "+" + randomDigits(random));
+            assertEquals(E164.matcher(input).matches(), RecipientValidators.isValidE164(input), () -> describe(input));
+        }
+    }
+    
+    @Test
+    void emailMatchesTheRegexOnRandomInput() {
+        Random random = new Random(20240602L);
+        for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+            String input = i % 2 == 0 ? randomString(random, 24) : mutate(random, "user.name+tag@mail-1.example.com");
+            assertEquals(EMAIL.matcher(input).matches(), RecipientValidators.isValidEmail(input), () -> describe(input));
+        }
+    }
+    
+    @Test
+    void normalizesPhoneNumbers() {
+        assertEquals("+8613800138000", RecipientValidators.normalizePhoneNumber("+86 138-0013-8000"));
+        assertEquals("+14155550100", RecipientValidators.normalizePhoneNumber("(+1) 415.555.0100"));
+        assertEquals("+8613800138000", RecipientValidators.normalizePhoneNumber("0086 13800138000"));
+        assertEquals("+8613800138000", RecipientValidators.normalizePhoneNumber("+8613800138000"));
+        
+        assertNull(RecipientValidators.normalizePhoneNumber(null));
+        assertNull(RecipientValidators.normalizePhoneNumber("13800138000"));
+        assertNull(RecipientValidators.normalizePhoneNumber("+86 138 ext 1"));
+        assertNull(RecipientValidators.normalizePhoneNumber("1+86138"));
+    }
+    
+    @Test
+    void normalizedPhoneNumbersAreAlwaysValid() {
+        Random random = new Random(20240603L);
+        for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+            String input = randomString(random, 20);
+            String normalized = RecipientValidators.normalizePhoneNumber(input);
+            assertTrue(normalized == null || E164.matcher(normalized).matches(), () -> describe(input));
+        }
+    }
+    
+    @Test
+    void normalizesEmailDomains() {
+        assertEquals("User.Name@example.com", RecipientValidators.normalizeEmail("  User.Name@Example.COM "));
+        assertEquals("user@example.com", RecipientValidators.normalizeEmail("user@example.com"));
+        
+        assertNull(RecipientValidators.normalizeEmail(null));
+        assertNull(RecipientValidators.normalizeEmail("user.example.com"));
+        assertNull(RecipientValidators.normalizeEmail("user@EXAMPLE"));
+    }
+    
+    private static String randomString(Random random, int maxLength) {
+        char[] chars = new char[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+    
+    private static String randomDigits(Random random) {
+        StringBuilder digits = new StringBuilder();
+        int length = 1 + random.nextInt(16);
+        for (int i = 0; i < length; i++) {
+            digits.append((char) ('0' + random.nextInt(10)));
+        }
+        return digits.toString();
+    }
+    
+    // 对合法样本做 0~2 次插入、删除或替换
+    private static String mutate(Random random, String valid) {
+        StringBuilder value = new StringBuilder(valid);
+        int edits = random.nextInt(3);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(value.length() + 1);
+            char c = ALPHABET[random.nextInt(ALPHABET.length)];
+            switch (random.nextInt(3)) {
+                case 0:
+                    value.insert(position, c);
+                    break;
+                case 1:
+                    if (position < value.length()) {
+                        value.deleteCharAt(position);
+                    }
+                    break;
+                default:
+                    if (position < value.length()) {
+                        value.setCharAt(position, c);
+                    }
+                    break;
+            }
+        }
+        return value.toString();
+    }
+    
+    private static String describe(String input) {
+        StringBuilder escaped = new StringBuilder("input: \"");
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            escaped.append(c >= 0x20 && c < 0x7f ? String.valueOf(c) : String.format("\\u%04x", (int) c));
+        }
+        return escaped.append('"').toString();
+    }
+}